@@ -30,11 +30,7 @@ import static com.microsoft.azuretools.telemetry.TelemetryConstants.BLOB_UPLOAD;
 import static com.microsoft.azuretools.telemetry.TelemetryConstants.STORAGE;
 
 import com.microsoft.tooling.msservices.serviceexplorer.WrappedTelemetryNodeActionListener;
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.SocketTimeoutException;
@@ -87,7 +83,6 @@ import org.eclipse.ui.part.EditorPart;
 
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
-import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azureexplorer.Activator;
 import com.microsoft.azuretools.azureexplorer.forms.UploadBlobFileForm;
 import com.microsoft.azuretools.azureexplorer.helpers.UIHelperImpl;
@@ -578,58 +573,52 @@ public class BlobExplorerFileEditor extends EditorPart implements TelemetryPrope
                             }
                         }
 
-                        final BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(new FileOutputStream(targetFile), 65536) {
-                            private long runningCount = 0;
-
+                        final CallableSingleArg<Void, Long> callable = new CallableSingleArg<Void, Long>() {
                             @Override
-                            public synchronized void write(@NotNull byte[] bytes, int i, int i1) throws IOException {
-                                super.write(bytes, i, i1);
-
-                                runningCount += i1;
-
-                                double progress = (double) runningCount / fileSelection.getSize();
+                            public Void call(Long downloadedBytes) throws Exception {
+                                double progress = (double) downloadedBytes / fileSelection.getSize();
                                 monitor.worked((int) (100 * progress));
                                 monitor.subTask(String.format("%s%% downloaded", (int) (progress * 100)));
+
+                                return null;
                             }
                         };
 
-                        try {
 //                            Future<?> future = DefaultLoader.getIdeHelper().executeOnPooledThread(new Runnable() {
 //                                @Override
 //                                public void run() {
-                            try {
-                                StorageClientSDKManager.getManager().downloadBlobFileContent(connectionString, fileSelection, bufferedOutputStream);
-
-                                if (open && targetFile.exists()) {
-                                    try {
-                                        final Process p;
-                                        Runtime runtime = Runtime.getRuntime();
-                                        p = runtime.exec(
-                                                new String[]{"open", "-R", targetFile.getName()},
-                                                null,
-                                                targetFile.getParentFile());
-
-                                        InputStream errorStream = p.getErrorStream();
-                                        String errResponse = new String(IOUtils.readFully(errorStream, -1));
-
-                                        if (p.waitFor() != 0) {
-                                            throw new Exception(errResponse);
-                                        }
-                                    } catch (Exception e) {
-                                        monitor.setTaskName("Error opening file");
-                                        monitor.subTask(e.getMessage());
+                        try {
+                            StorageClientSDKManager.getManager().downloadBlobFileContent(connectionString, fileSelection, targetFile,
+                                    callable, StorageClientSDKManager.DEFAULT_DOWNLOAD_RANGE_SIZE,
+                                    StorageClientSDKManager.DEFAULT_DOWNLOAD_PARALLELISM);
+
+                            if (open && targetFile.exists()) {
+                                try {
+                                    final Process p;
+                                    Runtime runtime = Runtime.getRuntime();
+                                    p = runtime.exec(
+                                            new String[]{"open", "-R", targetFile.getName()},
+                                            null,
+                                            targetFile.getParentFile());
+
+                                    InputStream errorStream = p.getErrorStream();
+                                    String errResponse = new String(IOUtils.readFully(errorStream, -1));
+
+                                    if (p.waitFor() != 0) {
+                                        throw new Exception(errResponse);
                                     }
-//                                            Desktop.getDesktop().open(targetFile);
+                                } catch (Exception e) {
+                                    monitor.setTaskName("Error opening file");
+                                    monitor.subTask(e.getMessage());
                                 }
-                            } catch (AzureCmdException e) {
-                                Throwable connectionFault = e.getCause().getCause();
-
-                                monitor.setTaskName("Error downloading Blob");
-                                monitor.subTask((connectionFault instanceof SocketTimeoutException) ? "Connection timed out" : connectionFault.getMessage());
-                                return Status.CANCEL_STATUS;
+//                                            Desktop.getDesktop().open(targetFile);
                             }
-                        } finally {
-                            bufferedOutputStream.close();
+                        } catch (AzureCmdException e) {
+                            Throwable connectionFault = e.getCause().getCause() != null ? e.getCause().getCause() : e.getCause();
+
+                            monitor.setTaskName("Error downloading Blob");
+                            monitor.subTask((connectionFault instanceof SocketTimeoutException) ? "Connection timed out" : connectionFault.getMessage());
+                            return Status.CANCEL_STATUS;
                         }
                     } catch (IOException e) {
                         DefaultLoader.getUIHelper().showException("Error downloading Blob", e, "Error downloading Blob", false, true);
@@ -676,7 +665,6 @@ public class BlobExplorerFileEditor extends EditorPart implements TelemetryPrope
                 monitor.beginTask("Uploading blob...", IProgressMonitor.UNKNOWN);
                 try {
                     final BlobDirectory blobDirectory = directoryQueue.peekLast();
-                    final BufferedInputStream bufferedInputStream = new BufferedInputStream(new FileInputStream(selectedFile));
                     monitor.subTask("0% uploaded");
                     try {
                         final CallableSingleArg<Void, Long> callable = new CallableSingleArg<Void, Long>() {
@@ -695,17 +683,12 @@ public class BlobExplorerFileEditor extends EditorPart implements TelemetryPrope
                                     connectionString,
                                     blobContainer,
                                     path,
-                                    bufferedInputStream,
+                                    selectedFile,
                                     callable,
                                     1024 * 1024,
-                                    selectedFile.length());
+                                    StorageClientSDKManager.DEFAULT_UPLOAD_PARALLELISM);
                         } catch (AzureCmdException e) {
                             e.printStackTrace();
-                        } finally {
-                            try {
-                                bufferedInputStream.close();
-                            } catch (IOException ignored) {
-                            }
                         }
 //                        while (!future.isDone()) {
 //                            Thread.sleep(500);
@@ -713,7 +696,6 @@ public class BlobExplorerFileEditor extends EditorPart implements TelemetryPrope
 
                         if (monitor.isCanceled()) {
 //                                future.cancel(true);
-                            bufferedInputStream.close();
 
                             for (BlobItem blobItem : StorageClientSDKManager.getManager().getBlobItems(connectionString, blobDirectory)) {
                                 if (blobItem instanceof BlobFile && blobItem.getPath().equals(path)) {
@@ -241,7 +241,8 @@ public class SparkSubmitHelper {
                                     localFile, uploadedPath));
 
                     StorageClientSDKManager.getManager().uploadBlobFileContent(blobStorageAccount.getConnectionString(),
-                            defaultContainer, path, bufferedInputStream, callable, 1024 * 1024, file.length());
+                            defaultContainer, path, bufferedInputStream, callable, 1024 * 1024, file.length(),
+                            StorageClientSDKManager.DEFAULT_UPLOAD_PARALLELISM);
 
                     HDInsightUtil.showInfoOnSubmissionMessageWindow(
                             String.format("Info : Submit file to azure blob '%s' successfully.", uploadedPath));
@@ -105,7 +105,12 @@ import com.microsoft.azuretools.telemetrywrapper.Operation;
 import com.microsoft.azuretools.telemetrywrapper.TelemetryManager;
 import com.microsoft.azuretools.utils.AzureModel;
 import com.microsoft.azuretools.utils.AzureModelController;
+import com.microsoft.azuretools.utils.AzureModelSnapshot;
+import com.microsoft.azuretools.utils.AzureModelSnapshot.ResourceEntry;
+import com.microsoft.azuretools.utils.AzureModelSnapshot.ResourceGroupEntry;
+import com.microsoft.azuretools.utils.AzureModelSnapshot.SubscriptionEntry;
 import com.microsoft.azuretools.utils.CanceledByUserException;
+import com.microsoft.azuretools.utils.ResourceGroupDependencyListener;
 import com.microsoft.azuretools.utils.WebAppUtils;
 import com.microsoft.azuretools.utils.WebAppUtils.WebAppDetails;
 import com.microsoft.azuretools.webapp.Activator;
@@ -145,6 +150,8 @@ public class WebAppDeployDialog extends AppServiceBaseDialog {
     private static final String ENTER_VALID_SLOT_NAME = "Enter a valid slot name.";
     private static final String SELECT_SLOT_NAME = "Select a valid slot name.";
     private static final String SELECT_SLOT_CLONE_SETTING = "Select a valid slot clone settings";
+    private static final String CACHED_ENTRY_TEXT = "(refreshing)";
+    private static final String WAIT_FOR_REFRESH = "Wait for the App Service list to be refreshed";
     private static final String INVALID_SLOT_NAME =
         "The slot name is invalid, it needs to match the pattern " + SLOT_NAME_REGEX;
     private static final String DEPLOYMENT_SLOT_HOVER = "Deployment slots are live apps with their own hostnames. App"
@@ -554,10 +561,16 @@ public class WebAppDeployDialog extends AppServiceBaseDialog {
             return;
         }
 
-        btnDelete.setEnabled(true);
         String appServiceName = table.getItems()[selectedRow].getText(0);
 
         WebAppDetails wad = webAppDetailsMap.get(appServiceName);
+        // a row of the last session's snapshot, shown until the local cache is updated
+        if (wad == null) {
+            browserAppServiceDetails.setText("");
+            btnDelete.setEnabled(false);
+            return;
+        }
+        btnDelete.setEnabled(true);
         SubscriptionDetail sd = wad.subscriptionDetail;
         AppServicePlan asp = wad.appServicePlan;
 
@@ -591,7 +604,13 @@ public class WebAppDeployDialog extends AppServiceBaseDialog {
                         if (monitor.isCanceled()) {
                             throw new CanceledByUserException();
                         }
-                        AzureModelController.updateResourceGroupMaps(new UpdateProgressIndicator(monitor));
+                        final CacheUpdateProgressListener listener = new CacheUpdateProgressListener(monitor);
+                        AzureModelController.addResourceGroupDependencyListener(listener);
+                        try {
+                            AzureModelController.updateResourceGroupMaps(new UpdateProgressIndicator(monitor));
+                        } finally {
+                            AzureModelController.removeResourceGroupDependencyListener(listener);
+                        }
                         Display.getDefault().asyncExec(() -> doFillTable());
                     } catch (CanceledByUserException ex) {
                         Display.getDefault().asyncExec(() -> {
@@ -609,6 +628,38 @@ public class WebAppDeployDialog extends AppServiceBaseDialog {
         }
     }
 
+    /**
+     * Shows the number of web apps and App Service plans read so far while the local cache is updated
+     */
+    private static class CacheUpdateProgressListener implements ResourceGroupDependencyListener {
+        private final IProgressMonitor monitor;
+        private int webAppCount = 0;
+        private int appServicePlanCount = 0;
+
+        CacheUpdateProgressListener(IProgressMonitor monitor) {
+            this.monitor = monitor;
+        }
+
+        // called concurrently from the threads listing the web apps and the plans
+        @Override
+        public synchronized void webAppsLoaded(ResourceGroup resourceGroup, List<WebApp> webApps) {
+            webAppCount += webApps.size();
+            showCounts();
+        }
+
+        @Override
+        public synchronized void appServicePlansLoaded(ResourceGroup resourceGroup,
+                List<AppServicePlan> appServicePlans) {
+            appServicePlanCount += appServicePlans.size();
+            showCounts();
+        }
+
+        private void showCounts() {
+            monitor.subTask(String.format("Read %d web apps and %d App Service plans", webAppCount,
+                appServicePlanCount));
+        }
+    }
+
     private void doFillTable() {
         try {
             Map<SubscriptionDetail, List<ResourceGroup>> srgMap = AzureModel.getInstance()
@@ -821,7 +872,12 @@ public class WebAppDeployDialog extends AppServiceBaseDialog {
         }
         String appServiceName = table.getItems()[selectedRow].getText(0);
         WebAppDetails wad = webAppDetailsMap.get(appServiceName);
-        if (wad != null && wad.webApp != null && !WebAppUtils.isJavaWebApp(wad.webApp)) {
+        if (wad == null) {
+            setErrorMessage(WAIT_FOR_REFRESH);
+            okButton.setEnabled(false);
+            return false;
+        }
+        if (wad.webApp != null && !WebAppUtils.isJavaWebApp(wad.webApp)) {
             setErrorMessage("Select java based App Service");
             okButton.setEnabled(false);
             return false;
@@ -871,12 +927,42 @@ public class WebAppDeployDialog extends AppServiceBaseDialog {
 
     private void fillTable() {
         if (AzureModel.getInstance().getResourceGroupToWebAppMap() == null) {
+            fillTableFromSnapshot();
             updateAndFillTable();
         } else {
             doFillTable();
         }
     }
 
+    /**
+     * Show the web apps of the last session greyed out while the local cache is updated, they can't be deployed to
+     * and are replaced by {@link #doFillTable()}
+     */
+    private void fillTableFromSnapshot() {
+        AzureModelSnapshot snapshot = AzureModelController.getSnapshot();
+        if (snapshot == null) {
+            return;
+        }
+        List<String[]> rows = new ArrayList<>();
+        for (SubscriptionEntry subscription : snapshot.getSubscriptions()) {
+            for (ResourceGroupEntry resourceGroup : subscription.getResourceGroups()) {
+                for (ResourceEntry webApp : resourceGroup.getWebApps()) {
+                    rows.add(new String[]{webApp.getName(), CACHED_ENTRY_TEXT, CACHED_ENTRY_TEXT,
+                        resourceGroup.getName()});
+                }
+            }
+        }
+        Collections.sort(rows, (o1, o2) -> o1[0].compareTo(o2[0]));
+        webAppDetailsMap.clear();
+        table.removeAll();
+        Color cachedColor = table.getDisplay().getSystemColor(SWT.COLOR_DARK_GRAY);
+        for (String[] row : rows) {
+            TableItem item = new TableItem(table, SWT.NULL);
+            item.setText(row);
+            item.setForeground(cachedColor);
+        }
+    }
+
     private void selectTableRowWithWebAppName(String webAppName) {
         for (int ri = 0; ri < table.getItemCount(); ++ri) {
             String waName = table.getItem(ri).getText(0);
@@ -31,10 +31,11 @@ import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
 import com.microsoft.azuretools.sdkmanage.AzureManager;
 import com.microsoft.azuretools.telemetry.TelemetryProperties;
 import com.microsoft.intellij.forms.UploadBlobFileForm;
-import com.microsoft.intellij.helpers.UIHelperImpl;
 import com.microsoft.intellij.util.PluginUtil;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.collections.PagedList;
+import com.microsoft.tooling.msservices.helpers.collections.Segment;
 import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager;
 import com.microsoft.tooling.msservices.model.storage.BlobContainer;
 import com.microsoft.tooling.msservices.model.storage.BlobDirectory;
@@ -49,10 +50,7 @@ import org.jetbrains.annotations.Nullable;
 import javax.swing.*;
 import javax.swing.event.ListSelectionEvent;
 import javax.swing.event.ListSelectionListener;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
-import javax.swing.table.TableModel;
-import javax.swing.table.TableRowSorter;
 import java.awt.*;
 import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.StringSelection;
@@ -60,11 +58,11 @@ import java.awt.event.*;
 import java.beans.PropertyChangeListener;
 import java.io.*;
 import java.net.SocketTimeoutException;
-import java.text.SimpleDateFormat;
 import java.util.List;
 import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
+import java.util.function.Predicate;
 
 import static com.microsoft.intellij.ui.messages.AzureBundle.message;
 
@@ -75,6 +73,8 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
     static final String DELETE = "Delete";
     static final String UPLOAD = "Upload";
     static final String QUERY = "Query";
+    private static final int PAGE_SIZE = 500;
+    private static final int MAX_CACHED_PAGES = 20;
 
     private JPanel mainPanel;
     private JTextField queryTextField;
@@ -94,7 +94,7 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
     private Project project;
 
     private LinkedList<BlobDirectory> directoryQueue = new LinkedList<BlobDirectory>();
-    private List<BlobItem> blobItems;
+    private BlobItemTableModel blobItemTableModel;
 
     private ISubscriptionSelectionListener subscriptionListener;
     private FileEditorVirtualNode fileEditorVirtualNode;
@@ -103,25 +103,9 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
         this.project = project;
         blobListTable.getSelectionModel().setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
 
-        DefaultTableModel model = new DefaultTableModel() {
-            @Override
-            public boolean isCellEditable(int i, int i1) {
-                return false;
-            }
-
-            public Class getColumnClass(int column) {
-                return (column == 0) ? Icon.class : String.class;
-            }
-        };
-
-        model.addColumn("");
-        model.addColumn("Name");
-        model.addColumn("Size");
-        model.addColumn("Last Modified (UTC)");
-        model.addColumn("Content Type");
-        model.addColumn("URL");
+        blobItemTableModel = new BlobItemTableModel(this::showBlobPageError);
 
-        blobListTable.setModel(model);
+        blobListTable.setModel(blobItemTableModel);
         blobListTable.getColumnModel().getColumn(0).setMinWidth(20);
         blobListTable.getColumnModel().getColumn(0).setMaxWidth(20);
         blobListTable.getColumnModel().getColumn(1).setPreferredWidth(100);
@@ -149,58 +133,6 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
             }
         });
 
-        TableRowSorter<TableModel> sorter = new TableRowSorter<TableModel>(model);
-
-        sorter.setComparator(2, new Comparator<String>() {
-            @Override
-            public int compare(String f, String s) {
-                String first = f;
-                String second = s;
-                if (first == null || first.isEmpty()) {
-                    first = "0";
-                }
-
-                if (second == null || second.isEmpty()) {
-                    second = "0";
-                }
-
-                return getValue(first).compareTo(getValue(second));
-            }
-
-            private Long getValue(String strValue) {
-                if (strValue.endsWith("kB")) {
-                    double l = Double.parseDouble(strValue.substring(0, strValue.length() - 2));
-                    return (long) (l * 1024);
-                } else if (strValue.endsWith("MB")) {
-                    double l = Double.parseDouble(strValue.substring(0, strValue.length() - 2));
-                    return (long) (l * 1024 * 1024);
-                } else if (strValue.endsWith("GB")) {
-                    double l = Double.parseDouble(strValue.substring(0, strValue.length() - 2));
-                    return (long) (l * 1024 * 1024 * 1024);
-                } else if (strValue.endsWith("TB")) {
-                    double l = Double.parseDouble(strValue.substring(0, strValue.length() - 2));
-                    return (long) (l * 1024 * 1024 * 1024 * 1024);
-                } else {
-                    String value = strValue.substring(0, strValue.length() - 1);
-
-                    if (value.isEmpty()) {
-                        return 0L;
-                    }
-
-                    double l = Double.parseDouble(value);
-                    return (long) l;
-                }
-            }
-        });
-
-        blobListTable.setRowSorter(sorter);
-        List<RowSorter.SortKey> sortKeys = new ArrayList<RowSorter.SortKey>();
-
-        sortKeys.add(new RowSorter.SortKey(0, SortOrder.DESCENDING));
-        sortKeys.add(new RowSorter.SortKey(1, SortOrder.ASCENDING));
-        sorter.setSortKeys(sortKeys);
-        sorter.sort();
-
         backButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent actionEvent) {
@@ -314,62 +246,66 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
                     directoryQueue.addLast(StorageClientSDKManager.getManager().getRootDirectory(connectionString, blobContainer));
                 }
 
-                blobItems = StorageClientSDKManager.getManager().getBlobItems(connectionString, directoryQueue.peekLast());
-
-                if (!queryTextField.getText().isEmpty()) {
-                    for (int i = blobItems.size() - 1; i >= 0; i--) {
-                        BlobItem blobItem = blobItems.get(i);
-
-                        if (blobItem instanceof BlobFile && !blobItem.getName().startsWith(queryTextField.getText())) {
-                            blobItems.remove(i);
-                        }
-                    }
-                }
+                final BlobDirectory blobDirectory = directoryQueue.peekLast();
+                final String prefix = queryTextField.getText();
+                final PagedList<BlobItem> blobItems = new PagedList<>(
+                    continuationToken -> StorageClientSDKManager.getManager().getBlobItemSegment(
+                        connectionString, blobDirectory, prefix, PAGE_SIZE, continuationToken),
+                    ApplicationManager.getApplication()::executeOnPooledThread,
+                    MAX_CACHED_PAGES);
 
                 AzureTaskManager.getInstance().runLater(() -> {
-
-                    pathLabel.setText(directoryQueue.peekLast().getPath());
-                    DefaultTableModel model = (DefaultTableModel) blobListTable.getModel();
-
-                    while (model.getRowCount() > 0) {
-                        model.removeRow(0);
-                    }
-
-                    for (BlobItem blobItem : blobItems) {
-                        if (blobItem instanceof BlobDirectory) {
-                            model.addRow(new Object[]{
-                                UIHelperImpl.loadIcon("storagefolder.png"),
-                                blobItem.getName(),
-                                "",
-                                "",
-                                "",
-                                blobItem.getUri()
-                            });
-                        } else {
-                            BlobFile blobFile = (BlobFile) blobItem;
-
-                            model.addRow(new String[]{
-                                "",
-                                blobFile.getName(),
-                                UIHelperImpl.readableFileSize(blobFile.getSize()),
-                                new SimpleDateFormat().format(blobFile.getLastModified().getTime()),
-                                blobFile.getContentType(),
-                                blobFile.getUri()
-                            });
-                        }
-                    }
+                    pathLabel.setText(blobDirectory.getPath());
+                    blobItemTableModel.setBlobItems(blobItems);
 
                     setUIState(false);
 
                     blobListTable.clearSelection();
                 });
             } catch (AzureCmdException ex) {
-                String msg = "An error occurred while attempting to query blob list." + "\n" + String.format(message("webappExpMsg"), ex.getMessage());
-                PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, ex);
+                showBlobListError(ex);
             }
         }));
     }
 
+    /**
+     * Find the item of the directory by listing only the items whose names start with the prefix, instead of the
+     * whole directory.
+     */
+    @Nullable
+    private BlobItem findBlobItem(@NotNull BlobDirectory blobDirectory, @NotNull String prefix,
+                                  @NotNull Predicate<BlobItem> matcher) throws AzureCmdException {
+        String continuationToken = null;
+
+        do {
+            Segment<BlobItem> segment = StorageClientSDKManager.getManager().getBlobItemSegment(
+                connectionString, blobDirectory, prefix, PAGE_SIZE, continuationToken);
+
+            for (BlobItem blobItem : segment.getItems()) {
+                if (matcher.test(blobItem)) {
+                    return blobItem;
+                }
+            }
+
+            continuationToken = segment.getContinuationToken();
+        } while (continuationToken != null);
+
+        return null;
+    }
+
+    private void showBlobPageError(Throwable error) {
+        String msg = "An error occurred while attempting to query blob list." + "\n" + String.format(message("webappExpMsg"), error.getMessage())
+            + "\n" + "Do you want to try again?";
+        if (DefaultLoader.getUIHelper().showYesNoDialog(mainPanel, msg, message("errTtl"), null)) {
+            blobItemTableModel.retryLoading();
+        }
+    }
+
+    private void showBlobListError(Throwable error) {
+        String msg = "An error occurred while attempting to query blob list." + "\n" + String.format(message("webappExpMsg"), error.getMessage());
+        PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, error instanceof Exception ? (Exception) error : new Exception(error));
+    }
+
     private void setUIState(boolean loading) {
         if (loading) {
             blobListTable.setEnabled(false);
@@ -394,31 +330,15 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
     }
 
     private BlobDirectory getFolderSelection() {
-        if (blobListTable.getSelectedRow() >= 0) {
-            String name = blobListTable.getValueAt(blobListTable.getSelectedRow(), 1).toString();
-
-            for (BlobItem item : blobItems) {
-                if (item instanceof BlobDirectory && item.getName().equals(name)) {
-                    return (BlobDirectory) item;
-                }
-            }
-        }
+        BlobItem item = blobItemTableModel.getBlobItem(blobListTable.getSelectedRow());
 
-        return null;
+        return item instanceof BlobDirectory ? (BlobDirectory) item : null;
     }
 
     private BlobFile getFileSelection() {
-        if (blobListTable.getSelectedRow() >= 0) {
-            String name = blobListTable.getValueAt(blobListTable.getSelectedRow(), 1).toString();
+        BlobItem item = blobItemTableModel.getBlobItem(blobListTable.getSelectedRow());
 
-            for (BlobItem item : blobItems) {
-                if (item instanceof BlobFile && item.getName().equals(name)) {
-                    return (BlobFile) item;
-                }
-            }
-        }
-
-        return null;
+        return item instanceof BlobFile ? (BlobFile) item : null;
     }
 
     private boolean isDirectorySelected() {
@@ -516,7 +436,7 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
                     try {
                         StorageClientSDKManager.getManager().deleteBlobFile(connectionString, blobItem);
 
-                        if (blobItems.size() <= 1) {
+                        if (blobItemTableModel.getRowCount() <= 1) {
                             directoryQueue.clear();
                             directoryQueue.addLast(StorageClientSDKManager.getManager().getRootDirectory(connectionString, blobContainer));
 
@@ -582,69 +502,63 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
                         }
                     }
 
-                    final BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(new FileOutputStream(targetFile), 65536) {
-                        private long runningCount = 0;
-
+                    final CallableSingleArg<Void, Long> callable = new CallableSingleArg<Void, Long>() {
                         @Override
-                        public synchronized void write(@NotNull byte[] bytes, int i, int i1) throws IOException {
-                            super.write(bytes, i, i1);
-
-                            runningCount += i1;
-
-                            double progress = (double) runningCount / fileSelection.getSize();
+                        public Void call(Long downloadedBytes) throws Exception {
+                            double progress = (double) downloadedBytes / fileSelection.getSize();
                             progressIndicator.setFraction(progress);
                             progressIndicator.setText2(String.format("%s%% downloaded", (int) (progress * 100)));
+
+                            return null;
                         }
                     };
 
-                    try {
-                        Future<?> future = ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
-                            @Override
-                            public void run() {
-                                try {
-                                    StorageClientSDKManager.getManager().downloadBlobFileContent(connectionString, fileSelection, bufferedOutputStream);
+                    Future<?> future = ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                StorageClientSDKManager.getManager().downloadBlobFileContent(connectionString, fileSelection, targetFile,
+                                        callable, StorageClientSDKManager.DEFAULT_DOWNLOAD_RANGE_SIZE,
+                                        StorageClientSDKManager.DEFAULT_DOWNLOAD_PARALLELISM);
 
-                                    if (open && targetFile.exists()) {
-                                        Desktop.getDesktop().open(targetFile);
-                                    }
-                                } catch (AzureCmdException e) {
-                                    Throwable connectionFault = e.getCause().getCause();
-
-                                    progressIndicator.setText("Error downloading Blob");
-                                    progressIndicator.setText2((connectionFault instanceof SocketTimeoutException) ?
-                                                               "Connection timed out" : connectionFault.getMessage());
-                                } catch (IOException ex) {
-                                    try {
-                                        final Process p;
-                                        Runtime runtime = Runtime.getRuntime();
-                                        p = runtime.exec(
-                                            new String[]{"open", "-R", targetFile.getName()},
-                                            null,
-                                            targetFile.getParentFile());
-
-                                        InputStream errorStream = p.getErrorStream();
-                                        String errResponse = new String(IOUtils.readFully(errorStream, -1));
-
-                                        if (p.waitFor() != 0) {
-                                            throw new Exception(errResponse);
-                                        }
-                                    } catch (Exception e) {
-                                        progressIndicator.setText("Error openning file");
-                                        progressIndicator.setText2(ex.getMessage());
+                                if (open && targetFile.exists()) {
+                                    Desktop.getDesktop().open(targetFile);
+                                }
+                            } catch (AzureCmdException e) {
+                                Throwable connectionFault = e.getCause().getCause() != null ? e.getCause().getCause() : e.getCause();
+
+                                progressIndicator.setText("Error downloading Blob");
+                                progressIndicator.setText2((connectionFault instanceof SocketTimeoutException) ?
+                                                           "Connection timed out" : connectionFault.getMessage());
+                            } catch (IOException ex) {
+                                try {
+                                    final Process p;
+                                    Runtime runtime = Runtime.getRuntime();
+                                    p = runtime.exec(
+                                        new String[]{"open", "-R", targetFile.getName()},
+                                        null,
+                                        targetFile.getParentFile());
+
+                                    InputStream errorStream = p.getErrorStream();
+                                    String errResponse = new String(IOUtils.readFully(errorStream, -1));
+
+                                    if (p.waitFor() != 0) {
+                                        throw new Exception(errResponse);
                                     }
+                                } catch (Exception e) {
+                                    progressIndicator.setText("Error openning file");
+                                    progressIndicator.setText2(ex.getMessage());
                                 }
                             }
-                        });
+                        }
+                    });
 
-                        while (!future.isDone()) {
-                            progressIndicator.checkCanceled();
+                    while (!future.isDone()) {
+                        progressIndicator.checkCanceled();
 
-                            if (progressIndicator.isCanceled()) {
-                                future.cancel(true);
-                            }
+                        if (progressIndicator.isCanceled()) {
+                            future.cancel(true);
                         }
-                    } finally {
-                        bufferedOutputStream.close();
                     }
                 } catch (IOException e) {
                     PluginUtil.displayErrorDialogAndLog(message("errTtl"), "An error occurred while attempting to download Blob.", e);
@@ -682,103 +596,88 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
         final IAzureOperationTitle title = AzureOperationBundle.title("blob.upload", selectedFile, blobContainer.getName());
         AzureTaskManager.getInstance().runInBackground(new AzureTask(project, title, false, () -> {
             final ProgressIndicator progressIndicator = ProgressManager.getInstance().getProgressIndicator();
-            try {
-                final BlobDirectory blobDirectory = directoryQueue.peekLast();
-
-                final BufferedInputStream bufferedInputStream = new BufferedInputStream(new FileInputStream(selectedFile));
 
-                progressIndicator.setIndeterminate(false);
-                progressIndicator.setText("Uploading blob...");
-                progressIndicator.setText2("0% uploaded");
+            progressIndicator.setIndeterminate(false);
+            progressIndicator.setText("Uploading blob...");
+            progressIndicator.setText2("0% uploaded");
 
-                try {
-                    final CallableSingleArg<Void, Long> callable = new CallableSingleArg<Void, Long>() {
-                        @Override
-                        public Void call(Long uploadedBytes) throws Exception {
-                            double progress = ((double) uploadedBytes) / selectedFile.length();
-
-                            progressIndicator.setFraction(progress);
-                            progressIndicator.setText2(String.format("%s%% uploaded", (int) (progress * 100)));
-
-                            return null;
-                        }
-                    };
+            try {
+                final CallableSingleArg<Void, Long> callable = new CallableSingleArg<Void, Long>() {
+                    @Override
+                    public Void call(Long uploadedBytes) throws Exception {
+                        double progress = ((double) uploadedBytes) / selectedFile.length();
 
-                    Future<Void> future = ApplicationManager.getApplication().executeOnPooledThread(new Callable<Void>() {
-                        @Override
-                        public Void call() throws AzureCmdException {
-                            try {
-                                StorageClientSDKManager.getManager().uploadBlobFileContent(
-                                    connectionString,
-                                    blobContainer,
-                                    path,
-                                    bufferedInputStream,
-                                    callable,
-                                    1024 * 1024,
-                                    selectedFile.length());
-                            } finally {
-                                try {
-                                    bufferedInputStream.close();
-                                } catch (IOException ignored) {
-                                }
-                            }
+                        progressIndicator.setFraction(progress);
+                        progressIndicator.setText2(String.format("%s%% uploaded", (int) (progress * 100)));
 
-                            return null;
-                        }
-                    });
+                        return null;
+                    }
+                };
+
+                Future<Void> future = ApplicationManager.getApplication().executeOnPooledThread(new Callable<Void>() {
+                    @Override
+                    public Void call() throws AzureCmdException {
+                        StorageClientSDKManager.getManager().uploadBlobFileContent(
+                            connectionString,
+                            blobContainer,
+                            path,
+                            selectedFile,
+                            callable,
+                            1024 * 1024,
+                            StorageClientSDKManager.DEFAULT_UPLOAD_PARALLELISM);
+
+                        return null;
+                    }
+                });
 
-                    while (!future.isDone()) {
-                        Thread.sleep(500);
-                        progressIndicator.checkCanceled();
+                while (!future.isDone()) {
+                    Thread.sleep(500);
+                    progressIndicator.checkCanceled();
 
-                        if (progressIndicator.isCanceled()) {
-                            future.cancel(true);
-                            bufferedInputStream.close();
+                    if (progressIndicator.isCanceled()) {
+                        future.cancel(true);
 
-                            for (BlobItem blobItem : StorageClientSDKManager.getManager().getBlobItems(connectionString, blobDirectory)) {
-                                if (blobItem instanceof BlobFile && blobItem.getPath().equals(path)) {
-                                    StorageClientSDKManager.getManager().deleteBlobFile(connectionString, (BlobFile) blobItem);
-                                }
-                            }
+                        BlobItem blobItem = findBlobItem(StorageClientSDKManager.getManager().getRootDirectory(connectionString, blobContainer),
+                            path, item -> item instanceof BlobFile && item.getPath().equals(path));
+                        if (blobItem != null) {
+                            StorageClientSDKManager.getManager().deleteBlobFile(connectionString, (BlobFile) blobItem);
                         }
                     }
+                }
 
-                    try {
-                        directoryQueue.clear();
-                        directoryQueue.addLast(StorageClientSDKManager.getManager().getRootDirectory(connectionString, blobContainer));
+                try {
+                    directoryQueue.clear();
+                    directoryQueue.addLast(StorageClientSDKManager.getManager().getRootDirectory(connectionString, blobContainer));
 
-                        for (String pathDir : path.split("/")) {
-                            for (BlobItem blobItem : StorageClientSDKManager.getManager().getBlobItems(connectionString, directoryQueue.getLast())) {
-                                if (blobItem instanceof BlobDirectory && blobItem.getName().equals(pathDir)) {
-                                    directoryQueue.addLast((BlobDirectory) blobItem);
-                                }
-                            }
+                    for (String pathDir : path.split("/")) {
+                        BlobItem blobItem = findBlobItem(directoryQueue.getLast(), pathDir,
+                            item -> item instanceof BlobDirectory && item.getName().equals(pathDir));
+                        if (blobItem != null) {
+                            directoryQueue.addLast((BlobDirectory) blobItem);
                         }
-                    } catch (AzureCmdException e) {
-                        String msg = "An error occurred while attempting to show new blob." + "\n" + String.format(message("webappExpMsg"), e.getMessage());
-                        PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, e);
                     }
+                } catch (AzureCmdException e) {
+                    String msg = "An error occurred while attempting to show new blob." + "\n" + String.format(message("webappExpMsg"), e.getMessage());
+                    PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, e);
+                }
 
-                    AzureTaskManager.getInstance().runLater(() -> fillGrid());
-                } catch (Exception e) {
-                    Throwable connectionFault = e.getCause();
-                    Throwable realFault = null;
-
-                    if (connectionFault != null) {
-                        realFault = connectionFault.getCause();
-                    }
+                AzureTaskManager.getInstance().runLater(() -> fillGrid());
+            } catch (Exception e) {
+                Throwable connectionFault = e.getCause();
+                Throwable realFault = null;
 
-                    progressIndicator.setText("Error uploading Blob");
-                    String message = realFault == null ? null : realFault.getMessage();
+                if (connectionFault != null) {
+                    realFault = connectionFault.getCause();
+                }
 
-                    if (connectionFault != null && message == null) {
-                        message = "Error type " + connectionFault.getClass().getName();
-                    }
+                progressIndicator.setText("Error uploading Blob");
+                String message = realFault == null ? null : realFault.getMessage();
 
-                    progressIndicator.setText2((connectionFault instanceof SocketTimeoutException) ? "Connection timed out" : message);
+                if (connectionFault != null && message == null) {
+                    message = "Error type " + connectionFault.getClass().getName();
                 }
-            } catch (IOException e) {
-                PluginUtil.displayErrorDialogAndLog(message("errTtl"), "An error occurred while attempting to upload Blob.", e);
+
+                progressIndicator.setText2((connectionFault instanceof SocketTimeoutException) ? "Connection timed out" : message);
             }
         }));
     }
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.intellij.helpers.storage;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.microsoft.intellij.helpers.UIHelperImpl;
+import com.microsoft.tooling.msservices.helpers.collections.PagedList;
+import com.microsoft.tooling.msservices.model.storage.BlobDirectory;
+import com.microsoft.tooling.msservices.model.storage.BlobFile;
+import com.microsoft.tooling.msservices.model.storage.BlobItem;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.text.SimpleDateFormat;
+import java.util.function.Consumer;
+
+/**
+ * The rows of the blob list, read from a {@link PagedList}. The table only asks for the visible rows, so the pages
+ * are requested as the table scrolls, and the next page is appended when the last rows come into view. The rows of
+ * a new page are added on the event dispatch thread, so the table sees a consistent row count.
+ */
+class BlobItemTableModel extends AbstractTableModel {
+    private static final String[] COLUMN_NAMES = {"", "Name", "Size", "Last Modified (UTC)", "Content Type", "URL"};
+    private static final String LOADING = "Loading...";
+    // how close to the last row the next page is requested
+    private static final int PREFETCH_ROWS = 50;
+
+    private final Consumer<Throwable> errorHandler;
+    private PagedList<BlobItem> blobItems;
+    private PagedList.PageListener pageListener;
+    private int rowCount = 0;
+
+    BlobItemTableModel(@NotNull Consumer<Throwable> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Show the rows of the list instead, and start reading its first page.
+     */
+    void setBlobItems(@Nullable PagedList<BlobItem> items) {
+        if (blobItems != null) {
+            blobItems.removePageListener(pageListener);
+        }
+        blobItems = items;
+        rowCount = 0;
+        if (items != null) {
+            pageListener = createPageListener(items);
+            items.addPageListener(pageListener);
+            items.loadMore();
+        }
+        fireTableDataChanged();
+    }
+
+    /**
+     * Request the page that failed to be appended again, and the visible rows whose pages failed to be loaded.
+     */
+    void retryLoading() {
+        if (blobItems != null) {
+            blobItems.retry();
+            if (rowCount > 0) {
+                fireTableRowsUpdated(0, rowCount - 1);
+            }
+        }
+    }
+
+    /**
+     * @return null if the row is still loading
+     */
+    @Nullable
+    BlobItem getBlobItem(int row) {
+        return row < 0 || row >= rowCount ? null : blobItems.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return (column == 0) ? Icon.class : String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (row >= rowCount - PREFETCH_ROWS) {
+            blobItems.loadMore();
+        }
+
+        BlobItem blobItem = blobItems.get(row);
+
+        if (blobItem == null) {
+            return column == 1 ? LOADING : "";
+        } else if (blobItem instanceof BlobDirectory) {
+            switch (column) {
+                case 0:
+                    return UIHelperImpl.loadIcon("storagefolder.png");
+                case 1:
+                    return blobItem.getName();
+                case 5:
+                    return blobItem.getUri();
+                default:
+                    return "";
+            }
+        } else {
+            BlobFile blobFile = (BlobFile) blobItem;
+
+            switch (column) {
+                case 1:
+                    return blobFile.getName();
+                case 2:
+                    return UIHelperImpl.readableFileSize(blobFile.getSize());
+                case 3:
+                    return new SimpleDateFormat().format(blobFile.getLastModified().getTime());
+                case 4:
+                    return blobFile.getContentType();
+                case 5:
+                    return blobFile.getUri();
+                default:
+                    return "";
+            }
+        }
+    }
+
+    private PagedList.PageListener createPageListener(@NotNull PagedList<BlobItem> items) {
+        return new PagedList.PageListener() {
+            @Override
+            public void pageLoaded(int firstRow, int count, boolean appended) {
+                if (count == 0) {
+                    return;
+                }
+
+                ApplicationManager.getApplication().invokeLater(() -> {
+                    if (items != blobItems) {
+                        return;
+                    }
+
+                    if (appended) {
+                        rowCount = firstRow + count;
+                        fireTableRowsInserted(firstRow, rowCount - 1);
+                    } else {
+                        fireTableRowsUpdated(firstRow, Math.min(firstRow + count, rowCount) - 1);
+                    }
+                });
+            }
+
+            @Override
+            public void pageFailed(@NotNull Throwable error) {
+                ApplicationManager.getApplication().invokeLater(() -> {
+                    if (items == blobItems) {
+                        errorHandler.accept(error);
+                    }
+                });
+            }
+        };
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.benchmark;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * The whole request path of {@link com.microsoft.azure.oidc.filter.impl.SimpleAuthenticationFilter#doFilter}. With
+ * a token cache of size 1 the requests cycle through more tokens than it holds, so every authorised request parses
+ * and verifies its token.
+ */
+@State(Scope.Benchmark)
+public class AuthenticationFilterBenchmark {
+    private static final int TOKEN_COUNT = 64;
+    private static final Map<String, String> NO_PARAMETERS = Collections.emptyMap();
+
+    @Param({ "1000", "1" })
+    public String tokenCacheSize;
+
+    @Param({ "10", "200" })
+    public int patternCount;
+
+    private BenchmarkEnvironment environment;
+    private HttpServletRequest[] authorisedRequests;
+    private HttpServletRequest excludedRequest;
+    private HttpServletRequest unauthenticatedRequest;
+
+    @State(Scope.Thread)
+    public static class RequestState {
+        private final int[] status = new int[1];
+        private final HttpServletResponse response = ServletStubs.createResponse(status);
+        private final FilterChain chain = ServletStubs.createFilterChain(status);
+        private int index;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, GeneralSecurityException, ServletException {
+        environment = new BenchmarkEnvironment(patternCount, tokenCacheSize);
+        authorisedRequests = new HttpServletRequest[TOKEN_COUNT];
+        for (int i = 0; i < TOKEN_COUNT; i++) {
+            final Map<String, String> parameters = new HashMap<String, String>();
+            parameters.put("id_token", environment.createToken("benchmark-user-" + i));
+            authorisedRequests[i] = ServletStubs.createRequest(BenchmarkEnvironment.AUTHORISED_URI, parameters);
+        }
+        excludedRequest = ServletStubs.createRequest(BenchmarkEnvironment.EXCLUDED_URI, NO_PARAMETERS);
+        unauthenticatedRequest = ServletStubs.createRequest(BenchmarkEnvironment.OPEN_URI, NO_PARAMETERS);
+
+        // make sure the benchmarks measure the intended paths rather than the error handling, this also fills the
+        // role cache of every user
+        final RequestState state = new RequestState();
+        for (final HttpServletRequest authorisedRequest : authorisedRequests) {
+            checkStatus(doFilter(authorisedRequest, state), HttpServletResponse.SC_OK);
+        }
+        checkStatus(doFilter(excludedRequest, state), HttpServletResponse.SC_OK);
+        checkStatus(doFilter(unauthenticatedRequest, state), HttpServletResponse.SC_FOUND);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.stop();
+    }
+
+    @Benchmark
+    public int authorisedRequest(final RequestState state) throws IOException, ServletException {
+        state.index = (state.index + 1) % TOKEN_COUNT;
+        return doFilter(authorisedRequests[state.index], state);
+    }
+
+    @Benchmark
+    public int excludedRequest(final RequestState state) throws IOException, ServletException {
+        return doFilter(excludedRequest, state);
+    }
+
+    @Benchmark
+    public int unauthenticatedRequest(final RequestState state) throws IOException, ServletException {
+        return doFilter(unauthenticatedRequest, state);
+    }
+
+    private int doFilter(final HttpServletRequest request, final RequestState state)
+            throws IOException, ServletException {
+        state.status[0] = 0;
+        environment.getFilter().doFilter(request, state.response, state.chain);
+        return state.status[0];
+    }
+
+    private static void checkStatus(final int status, final int expectedStatus) {
+        if (status != expectedStatus) {
+            throw new IllegalStateException(
+                    String.format("Unexpected response status: Expected %s got %s", expectedStatus, status));
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.benchmark;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.ServletException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.microsoft.azure.oidc.application.settings.ApplicationSettingsLoader;
+import com.microsoft.azure.oidc.application.settings.impl.SimpleApplicationSettingsLoader;
+import com.microsoft.azure.oidc.concurrent.executor.impl.SimpleAsyncExecutor;
+import com.microsoft.azure.oidc.configuration.impl.SimpleConfigurationLoader;
+import com.microsoft.azure.oidc.filter.helper.impl.SimpleAuthenticationHelper;
+import com.microsoft.azure.oidc.filter.impl.SimpleAuthenticationFilter;
+import com.microsoft.azure.oidc.graph.impl.SimpleGraphCache;
+import com.microsoft.azure.oidc.graph.impl.SimpleGraphService;
+import com.microsoft.azure.oidc.openid.wellknown.impl.SimpleWellKnownLoader;
+import com.microsoft.azure.oidc.token.impl.SimpleTokenValidator;
+
+/**
+ * The filter initialised against the {@link StubIdentityServer}, with the given number of URI patterns. The filter
+ * services are singletons, so there is one environment per benchmark JVM, and the services reading the settings or
+ * calling the Azure AD end points are swapped for benchmark subclasses pointed at the stub.
+ */
+final class BenchmarkEnvironment {
+    static final String APPLICATION_ID = "benchmark-application";
+    static final String AUTHORISED_URI = "/authorised/page.xhtml";
+    static final String EXCLUDED_URI = "/unauthenticated/page.xhtml";
+    static final String OPEN_URI = "/open/page.xhtml";
+    static final String ROLE = "BenchmarkUsers";
+
+    private static final String AUTHENTICATION_CONFIGURATION = "/WEB-INF/configuration/authentication.json";
+    private static final String ALGORITHM_CONFIGURATION = "/WEB-INF/configuration/algorithm.json";
+
+    private final StubIdentityServer server;
+    private final SimpleAuthenticationFilter filter = new SimpleAuthenticationFilter();
+
+    BenchmarkEnvironment(final int patternCount, final String tokenCacheSize)
+            throws IOException, GeneralSecurityException, ServletException {
+        server = new StubIdentityServer();
+        final Map<String, String> settings = new HashMap<String, String>();
+        settings.put("AAD_TENANT", "benchmark-tenant");
+        settings.put("AAD_APPLICATION_ID", APPLICATION_ID);
+        settings.put("AAD_APPLICATION_SECRET", "benchmark-application-secret");
+        settings.put("AAD_PRINCIPAL_ID", "benchmark-principal");
+        settings.put("AAD_PRINCIPAL_SECRET", "benchmark-principal-secret");
+        settings.put("AAD_REDIRECT_URL", "https://localhost/");
+        settings.put("AAD_OIDC_POLICY", "B2C_1_benchmark");
+        final ApplicationSettingsLoader applicationSettingsLoader = new SimpleApplicationSettingsLoader(settings) {
+        };
+        replaceService(SimpleTokenValidator.getInstance(), "applicationSettingsLoader", applicationSettingsLoader);
+        replaceService(SimpleAuthenticationHelper.getInstance(), "applicationSettingsLoader",
+                applicationSettingsLoader);
+        replaceService(SimpleConfigurationLoader.getInstance(), "wellKnownLoader",
+                new SimpleWellKnownLoader(applicationSettingsLoader, SimpleAsyncExecutor.getInstance(),
+                        server.getEndPoint()) {
+                });
+        replaceService(SimpleGraphCache.getInstance(), "springGraphService",
+                new SimpleGraphService(applicationSettingsLoader, SimpleAsyncExecutor.getInstance(),
+                        server.getEndPoint(), server.getEndPoint()) {
+                });
+
+        final Map<String, String> initParameters = new HashMap<String, String>();
+        initParameters.put("authenticationConfiguration", AUTHENTICATION_CONFIGURATION);
+        initParameters.put("algorithmConfiguration", ALGORITHM_CONFIGURATION);
+        initParameters.put("tokenCacheSize", tokenCacheSize);
+        final Map<String, String> resources = new HashMap<String, String>();
+        resources.put(AUTHENTICATION_CONFIGURATION, createAuthenticationConfiguration(patternCount));
+        resources.put(ALGORITHM_CONFIGURATION, createAlgorithmConfiguration());
+        filter.init(ServletStubs.createFilterConfig(initParameters, resources));
+    }
+
+    SimpleAuthenticationFilter getFilter() {
+        return filter;
+    }
+
+    String createToken(final String userID) throws GeneralSecurityException, IOException {
+        return server.createToken(APPLICATION_ID, userID, 3600L);
+    }
+
+    void stop() {
+        filter.destroy();
+        server.stop();
+    }
+
+    /**
+     * Sets the service field of the singleton, which the filter services take from each other when they are created.
+     */
+    private static void replaceService(final Object singleton, final String fieldName, final Object service) {
+        try {
+            final Field field = singleton.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(singleton, service);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Error replacing " + fieldName, e);
+        }
+    }
+
+    /**
+     * The exclusion patterns, a mix of literal, trailing wildcard and inner wildcard patterns ending with the
+     * pattern of {@link #EXCLUDED_URI}.
+     */
+    static List<String> createExclusionUriPatterns(final int patternCount) {
+        final List<String> patterns = createUriPatterns("public", patternCount - 1);
+        patterns.add("/unauthenticated/*");
+        return patterns;
+    }
+
+    /**
+     * The authorisation patterns, a mix of literal, trailing wildcard and inner wildcard patterns ending with the
+     * pattern of {@link #AUTHORISED_URI}.
+     */
+    static List<String> createAuthorisationUriPatterns(final int patternCount) {
+        final List<String> patterns = createUriPatterns("secure", patternCount - 1);
+        patterns.add("/authorised/*");
+        return patterns;
+    }
+
+    private static List<String> createUriPatterns(final String prefix, final int patternCount) {
+        final List<String> patterns = new ArrayList<String>();
+        for (int i = 0; i < patternCount; i++) {
+            switch (i % 3) {
+            case 0:
+                patterns.add(String.format("/%s%d/page.xhtml", prefix, i));
+                break;
+            case 1:
+                patterns.add(String.format("/%s%d/*", prefix, i));
+                break;
+            default:
+                patterns.add(String.format("/%s%d/*/page.xhtml", prefix, i));
+                break;
+            }
+        }
+        return patterns;
+    }
+
+    private static String createAuthenticationConfiguration(final int patternCount) throws IOException {
+        final ObjectMapper mapper = new ObjectMapper();
+        final ObjectNode node = mapper.createObjectNode();
+        final ArrayNode exclusions = node.putArray("exclusionUriPatterns");
+        for (final String pattern : createExclusionUriPatterns(patternCount)) {
+            exclusions.add(pattern);
+        }
+        final ArrayNode authorisations = node.putArray("authorisationUriPatterns");
+        for (final String pattern : createAuthorisationUriPatterns(patternCount)) {
+            final ObjectNode authorisation = authorisations.addObject();
+            authorisation.put("uriPattern", pattern);
+            authorisation.putArray("roles").add(ROLE);
+        }
+        return mapper.writeValueAsString(node);
+    }
+
+    private static String createAlgorithmConfiguration() throws IOException {
+        final ObjectMapper mapper = new ObjectMapper();
+        final ObjectNode node = mapper.createObjectNode();
+        final ObjectNode algorithm = node.putArray("algorithms").addObject();
+        algorithm.put("name", "RS256");
+        algorithm.put("javaName", "SHA256withRSA");
+        final ObjectNode algorithmClass = node.putArray("algorithmClasses").addObject();
+        algorithmClass.put("name", "RS256");
+        algorithmClass.put("className", "RSA");
+        return mapper.writeValueAsString(node);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheFactory;
+import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheFactory;
+import com.microsoft.azure.oidc.concurrent.cache.impl.StripedConcurrentCacheFactory;
+
+/**
+ * The role and token cache access pattern under contention: a lookup, and an insert on a miss. With more keys than
+ * the cache size the inserts also evict.
+ */
+@State(Scope.Benchmark)
+@Threads(8)
+public class ConcurrentCacheBenchmark {
+    private static final long CACHE_SIZE = 1000L;
+    private static final Object VALUE = Boolean.TRUE;
+
+    @Param({ "simple", "striped" })
+    public String cacheType;
+
+    @Param({ "800", "4000" })
+    public int keyCount;
+
+    private ConcurrentCache<String, Object> cache;
+    private String[] keys;
+
+    @State(Scope.Thread)
+    public static class KeyState {
+        // xorshift, seeded per thread so that the threads request different keys
+        private int seed = System.identityHashCode(this) | 1;
+
+        private int next(final int bound) {
+            seed ^= seed << 13;
+            seed ^= seed >>> 17;
+            seed ^= seed << 5;
+            return (seed & Integer.MAX_VALUE) % bound;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final ConcurrentCacheFactory<String, Object> factory = "simple".equals(cacheType)
+                ? SimpleConcurrentCacheFactory.getInstance(String.class, Object.class)
+                : StripedConcurrentCacheFactory.getInstance(String.class, Object.class);
+        cache = factory.createConcurrentCache(60L, CACHE_SIZE);
+        keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = String.format("benchmark-user-%d:BenchmarkUsers", i);
+            cache.putIfAbsent(keys[i], VALUE);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cache.shutdownNow();
+    }
+
+    @Benchmark
+    public Object getOrPut(final KeyState state) {
+        final String key = keys[state.next(keys.length)];
+        final Object value = cache.get(key);
+        if (value == null) {
+            cache.putIfAbsent(key, VALUE);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Minimal servlet objects for driving the filter outside a container. Only the methods used by the filter return
+ * values, the other methods return null, false or zero.
+ */
+final class ServletStubs {
+    private ServletStubs() {
+    }
+
+    static FilterConfig createFilterConfig(final Map<String, String> initParameters,
+            final Map<String, String> resources) {
+        final ServletContext servletContext = createProxy(ServletContext.class, new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args)
+                    throws UnsupportedEncodingException {
+                if (method.getName().equals("getResourceAsStream")) {
+                    final String resource = resources.get(args[0]);
+                    return resource == null ? null : new ByteArrayInputStream(resource.getBytes("UTF-8"));
+                }
+                return getDefaultValue(proxy, method, args);
+            }
+        });
+        return createProxy(FilterConfig.class, new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                if (method.getName().equals("getInitParameter")) {
+                    return initParameters.get(args[0]);
+                }
+                if (method.getName().equals("getServletContext")) {
+                    return servletContext;
+                }
+                return getDefaultValue(proxy, method, args);
+            }
+        });
+    }
+
+    static HttpServletRequest createRequest(final String requestURI, final Map<String, String> parameters) {
+        return createProxy(HttpServletRequest.class, new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                switch (method.getName()) {
+                case "getParameter":
+                    return parameters.get(args[0]);
+                case "getRequestURI":
+                    return requestURI;
+                case "getContextPath":
+                    return "";
+                case "getServerName":
+                    return "localhost";
+                default:
+                    return getDefaultValue(proxy, method, args);
+                }
+            }
+        });
+    }
+
+    static HttpServletResponse createResponse(final int[] status) {
+        return createProxy(HttpServletResponse.class, new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                if (method.getName().equals("sendError")) {
+                    status[0] = (Integer) args[0];
+                } else if (method.getName().equals("sendRedirect")) {
+                    status[0] = HttpServletResponse.SC_FOUND;
+                }
+                return getDefaultValue(proxy, method, args);
+            }
+        });
+    }
+
+    static FilterChain createFilterChain(final int[] status) {
+        return createProxy(FilterChain.class, new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                if (method.getName().equals("doFilter")) {
+                    status[0] = HttpServletResponse.SC_OK;
+                }
+                return getDefaultValue(proxy, method, args);
+            }
+        });
+    }
+
+    private static <T> T createProxy(final Class<T> clazz, final InvocationHandler handler) {
+        return clazz.cast(Proxy.newProxyInstance(ServletStubs.class.getClassLoader(), new Class<?>[] { clazz },
+                handler));
+    }
+
+    private static Object getDefaultValue(final Object proxy, final Method method, final Object[] args) {
+        switch (method.getName()) {
+        case "equals":
+            return proxy == args[0];
+        case "hashCode":
+            return System.identityHashCode(proxy);
+        case "toString":
+            return method.getDeclaringClass().getSimpleName() + "Stub";
+        default:
+            break;
+        }
+        final Class<?> returnType = method.getReturnType();
+        if (returnType == boolean.class) {
+            return Boolean.FALSE;
+        }
+        if (returnType == int.class) {
+            return 0;
+        }
+        if (returnType == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
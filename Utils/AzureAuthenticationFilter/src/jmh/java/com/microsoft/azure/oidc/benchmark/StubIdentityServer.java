@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.codec.binary.Base64;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * In-process stand-in for the Azure AD metadata, key store, token and Graph end points, which signs RS256 tokens
+ * with its own key pair. Every user is a member of every group.
+ */
+final class StubIdentityServer {
+    static final String KEY_NAME = "benchmark-key";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final KeyPair keyPair;
+    private final HttpServer server;
+    private final ExecutorService executorService = Executors.newCachedThreadPool();
+    private final String endPoint;
+
+    StubIdentityServer() throws IOException, GeneralSecurityException {
+        final KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        keyPair = keyPairGenerator.generateKeyPair();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                try {
+                    respond(exchange, 200, getResponse(exchange));
+                } catch (RuntimeException e) {
+                    respond(exchange, 500, mapper.createObjectNode().put("error", e.getMessage()));
+                }
+            }
+        });
+        server.setExecutor(executorService);
+        server.start();
+        endPoint = String.format("http://localhost:%d", server.getAddress().getPort());
+    }
+
+    String getEndPoint() {
+        return endPoint;
+    }
+
+    String getIssuer() {
+        return endPoint + "/issuer/v2.0/";
+    }
+
+    String createToken(final String audience, final String userID, final long lifetime)
+            throws GeneralSecurityException, IOException {
+        final long now = System.currentTimeMillis() / 1000;
+        final ObjectNode header = mapper.createObjectNode();
+        header.put("typ", "JWT");
+        header.put("alg", "RS256");
+        header.put("kid", KEY_NAME);
+        final ObjectNode body = mapper.createObjectNode();
+        body.put("iss", getIssuer());
+        body.put("aud", audience);
+        body.put("oid", userID);
+        body.put("iat", now - 60);
+        body.put("nbf", now - 60);
+        body.put("exp", now + lifetime);
+        body.putArray("emails").add(userID + "@example.com");
+        final String payload = Base64.encodeBase64URLSafeString(mapper.writeValueAsBytes(header)) + "."
+                + Base64.encodeBase64URLSafeString(mapper.writeValueAsBytes(body));
+        final Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keyPair.getPrivate());
+        signature.update(payload.getBytes("UTF-8"));
+        return payload + "." + Base64.encodeBase64URLSafeString(signature.sign());
+    }
+
+    void stop() {
+        server.stop(0);
+        executorService.shutdownNow();
+    }
+
+    private JsonNode getResponse(final HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        if (path.endsWith("/.well-known/openid-configuration")) {
+            final ObjectNode node = mapper.createObjectNode();
+            node.put("issuer", getIssuer());
+            node.put("jwks_uri", endPoint + "/discovery/v2.0/keys");
+            node.put("authorization_endpoint", endPoint + "/oauth2/v2.0/authorize");
+            node.put("end_session_endpoint", endPoint + "/oauth2/v2.0/logout");
+            node.putArray("id_token_signing_alg_values_supported").add("RS256");
+            return node;
+        }
+        if (path.endsWith("/discovery/v2.0/keys")) {
+            final RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+            final ObjectNode node = mapper.createObjectNode();
+            final ObjectNode key = node.putArray("keys").addObject();
+            key.put("kid", KEY_NAME);
+            key.put("kty", "RSA");
+            key.put("n", Base64.encodeBase64URLSafeString(toUnsignedBytes(publicKey.getModulus().toByteArray())));
+            key.put("e", Base64.encodeBase64URLSafeString(
+                    toUnsignedBytes(publicKey.getPublicExponent().toByteArray())));
+            return node;
+        }
+        if (path.endsWith("/oauth2/token")) {
+            readBody(exchange);
+            final ObjectNode node = mapper.createObjectNode();
+            node.put("access_token", "benchmark-access-token");
+            node.put("expires_in", 3600);
+            return node;
+        }
+        if (path.endsWith("/groups")) {
+            // the group ID is derived from the displayName filter of the query
+            final ObjectNode node = mapper.createObjectNode();
+            node.putArray("value").addObject().put("objectId",
+                    "group-" + Integer.toHexString(exchange.getRequestURI().getRawQuery().hashCode()));
+            return node;
+        }
+        if (path.endsWith("/checkMemberGroups")) {
+            final JsonNode request = mapper.readValue(readBody(exchange), JsonNode.class);
+            final ObjectNode node = mapper.createObjectNode();
+            final ArrayNode value = node.putArray("value");
+            for (final JsonNode groupID : request.get("groupIds")) {
+                value.add(groupID.asText());
+            }
+            return node;
+        }
+        throw new IllegalArgumentException("Unknown end point " + path);
+    }
+
+    private void respond(final HttpExchange exchange, final int status, final JsonNode node) throws IOException {
+        final byte[] bytes = mapper.writeValueAsBytes(node);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (final OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] readBody(final HttpExchange exchange) throws IOException {
+        final byte[] buffer = new byte[4096];
+        byte[] body = new byte[0];
+        try (final InputStream in = exchange.getRequestBody()) {
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                final int length = body.length;
+                body = Arrays.copyOf(body, length + read);
+                System.arraycopy(buffer, 0, body, length, read);
+            }
+        }
+        return body;
+    }
+
+    // BigInteger.toByteArray has a leading sign byte when the highest bit is set, JWK integers are unsigned
+    private static byte[] toUnsignedBytes(final byte[] bytes) {
+        if (bytes.length > 1 && bytes[0] == 0) {
+            return Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return bytes;
+    }
+}
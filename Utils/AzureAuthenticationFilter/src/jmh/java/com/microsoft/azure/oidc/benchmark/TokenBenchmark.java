@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.benchmark;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+import javax.servlet.ServletException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.microsoft.azure.oidc.token.Token;
+import com.microsoft.azure.oidc.token.TokenParser;
+import com.microsoft.azure.oidc.token.TokenValidator;
+import com.microsoft.azure.oidc.token.impl.SimpeTokenParser;
+import com.microsoft.azure.oidc.token.impl.SimpleTokenValidator;
+
+/**
+ * Parsing and validating an RS256 token, the work skipped by a token cache hit.
+ */
+@State(Scope.Benchmark)
+public class TokenBenchmark {
+    private final TokenParser tokenParser = SimpeTokenParser.getInstance();
+
+    private final TokenValidator tokenValidator = SimpleTokenValidator.getInstance();
+
+    private BenchmarkEnvironment environment;
+    private String tokenString;
+    private Token token;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, GeneralSecurityException, ServletException {
+        environment = new BenchmarkEnvironment(10, "1000");
+        tokenString = environment.createToken("benchmark-user");
+        token = tokenParser.getToken(tokenString);
+        if (!tokenValidator.validateCommon(token)) {
+            throw new IllegalStateException("Token Failed Validation");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        environment.stop();
+    }
+
+    @Benchmark
+    public Token getToken() {
+        return tokenParser.getToken(tokenString);
+    }
+
+    @Benchmark
+    public Boolean validateCommon() {
+        return tokenValidator.validateCommon(token);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.microsoft.azure.oidc.filter.configuration.authentication.AuthenticationConfiguration;
+import com.microsoft.azure.oidc.filter.configuration.authentication.UriPatternMatcher;
+import com.microsoft.azure.oidc.filter.configuration.authentication.impl.SimpleAuthenticationConfigurationFactory;
+
+/**
+ * Finding the first exclusion or authorisation pattern matching a request URI, with the precompiled matcher and with
+ * the loop over the regex patterns it replaced. The excluded and authorised URIs match the last pattern of their
+ * list, the open URI none.
+ */
+@State(Scope.Benchmark)
+public class UriPatternMatcherBenchmark {
+    private static final String FACES_RESOURCE_URI_PATTERN = "/javax.faces.resource/*";
+
+    @Param({ "10", "100", "500" })
+    public int patternCount;
+
+    @Param({ "exclusion", "authorisation" })
+    public String patternList;
+
+    @Param({ BenchmarkEnvironment.AUTHORISED_URI, BenchmarkEnvironment.EXCLUDED_URI, BenchmarkEnvironment.OPEN_URI })
+    public String requestURI;
+
+    private UriPatternMatcher uriPatternMatcher;
+    private List<Pattern> regexPatternList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final List<String> exclusionUriPatterns = BenchmarkEnvironment.createExclusionUriPatterns(patternCount);
+        final List<String> authorisationUriPatterns = BenchmarkEnvironment
+                .createAuthorisationUriPatterns(patternCount);
+        final Map<String, List<String>> authorisationRoleMap = new HashMap<String, List<String>>();
+        final AuthenticationConfiguration authenticationConfiguration = SimpleAuthenticationConfigurationFactory
+                .getInstance().createAuthenticationConfiguration(exclusionUriPatterns, authorisationUriPatterns,
+                        authorisationRoleMap);
+        final List<String> uriPatterns = new ArrayList<String>();
+        if ("exclusion".equals(patternList)) {
+            uriPatternMatcher = authenticationConfiguration.getExclusionUriPatternMatcher();
+            uriPatterns.add(FACES_RESOURCE_URI_PATTERN);
+            uriPatterns.addAll(exclusionUriPatterns);
+        } else {
+            uriPatternMatcher = authenticationConfiguration.getAuthorisationUriPatternMatcher();
+            uriPatterns.addAll(authorisationUriPatterns);
+        }
+        regexPatternList = new ArrayList<Pattern>();
+        for (final String pattern : uriPatterns) {
+            regexPatternList.add(toRegexPattern(pattern.trim()));
+        }
+    }
+
+    @Benchmark
+    public Integer precompiledMatcher() {
+        return uriPatternMatcher.match(requestURI);
+    }
+
+    @Benchmark
+    public Integer regexLoop() {
+        int index = 0;
+        for (final Pattern pattern : regexPatternList) {
+            if (pattern.matcher(requestURI).matches()) {
+                return index;
+            }
+            index++;
+        }
+        return null;
+    }
+
+    // the translation the configuration used for its regex patterns before the matcher
+    private static Pattern toRegexPattern(final String localPattern) {
+        final String escapedPattern = localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1");
+        if (!localPattern.endsWith("*") && localPattern.startsWith("/")) {
+            return Pattern.compile(escapedPattern.replaceAll("\\*", "(\\\\w\\*)"));
+        }
+        return Pattern.compile(escapedPattern.replaceAll("\\*", "(\\.\\*)"));
+    }
+}
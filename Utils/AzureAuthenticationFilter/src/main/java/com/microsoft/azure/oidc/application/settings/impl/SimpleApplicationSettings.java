@@ -5,6 +5,8 @@
 
 package com.microsoft.azure.oidc.application.settings.impl;
 
+import java.util.Map;
+
 import com.microsoft.azure.oidc.application.settings.ApplicationSettings;
 import com.microsoft.azure.oidc.application.settings.Policy;
 import com.microsoft.azure.oidc.application.settings.RedirectURL;
@@ -23,23 +25,31 @@ final class SimpleApplicationSettings implements ApplicationSettings {
     private static final String REDIRECT_URL = "AAD_REDIRECT_URL";
     private static final String OIDC_POLICY = "AAD_OIDC_POLICY";
 
-    private final Tenant tenant = new SimpleTenant(System.getenv(SimpleApplicationSettings.TENANT));
+    // the environment variables in production
+    private final Map<String, String> settings;
+    private final Tenant tenant;
     private volatile ID applicationId;
-    private final Secret applicationSecret = new SimpleSecret(
-            System.getenv(SimpleApplicationSettings.APPLICATION_SECRET) == null ? ""
-                    : System.getenv(SimpleApplicationSettings.APPLICATION_SECRET));
+    private final Secret applicationSecret;
     private volatile ID principalId;
-    private final Secret principalSecret = new SimpleSecret(
-            System.getenv(SimpleApplicationSettings.PRINCIPAL_SECRET) == null ? ""
-                    : System.getenv(SimpleApplicationSettings.PRINCIPAL_SECRET));
-    private final RedirectURL redirectURL = new SimpleRedirectURL(
-            System.getenv(SimpleApplicationSettings.REDIRECT_URL));
-    private final Policy oIDCPolicy = new SimplePolicy(System.getenv(SimpleApplicationSettings.OIDC_POLICY));
+    private final Secret principalSecret;
+    private final RedirectURL redirectURL;
+    private final Policy oIDCPolicy;
 
     private final Object Lock = new Object();
 
     private final IDFactory iDFactory = SimpleIDFactory.getInstance();
 
+    SimpleApplicationSettings(final Map<String, String> settings) {
+        this.settings = settings;
+        tenant = new SimpleTenant(settings.get(SimpleApplicationSettings.TENANT));
+        applicationSecret = new SimpleSecret(settings.get(SimpleApplicationSettings.APPLICATION_SECRET) == null ? ""
+                : settings.get(SimpleApplicationSettings.APPLICATION_SECRET));
+        principalSecret = new SimpleSecret(settings.get(SimpleApplicationSettings.PRINCIPAL_SECRET) == null ? ""
+                : settings.get(SimpleApplicationSettings.PRINCIPAL_SECRET));
+        redirectURL = new SimpleRedirectURL(settings.get(SimpleApplicationSettings.REDIRECT_URL));
+        oIDCPolicy = new SimplePolicy(settings.get(SimpleApplicationSettings.OIDC_POLICY));
+    }
+
     @Override
     public Tenant getTenant() {
         return tenant;
@@ -50,7 +60,7 @@ final class SimpleApplicationSettings implements ApplicationSettings {
         if (applicationId == null) {
             synchronized (Lock) {
                 if (applicationId == null) {
-                    applicationId = iDFactory.createID(System.getenv(SimpleApplicationSettings.APPLICATION_ID));
+                    applicationId = iDFactory.createID(settings.get(SimpleApplicationSettings.APPLICATION_ID));
                 }
             }
         }
@@ -67,7 +77,7 @@ final class SimpleApplicationSettings implements ApplicationSettings {
         if (principalId == null) {
             synchronized (Lock) {
                 if (principalId == null) {
-                    principalId = iDFactory.createID(System.getenv(SimpleApplicationSettings.PRINCIPAL_ID));
+                    principalId = iDFactory.createID(settings.get(SimpleApplicationSettings.PRINCIPAL_ID));
                 }
             }
         }
@@ -5,15 +5,27 @@
 
 package com.microsoft.azure.oidc.application.settings.impl;
 
+import java.util.Map;
+
 import com.microsoft.azure.oidc.application.settings.ApplicationSettings;
 import com.microsoft.azure.oidc.application.settings.ApplicationSettingsLoader;
 
-public final class SimpleApplicationSettingsLoader implements ApplicationSettingsLoader {
+public class SimpleApplicationSettingsLoader implements ApplicationSettingsLoader {
     private static final ApplicationSettingsLoader INSTANCE = new SimpleApplicationSettingsLoader();
 
+    private final Map<String, String> settings;
+
+    private SimpleApplicationSettingsLoader() {
+        this(System.getenv());
+    }
+
+    protected SimpleApplicationSettingsLoader(final Map<String, String> settings) {
+        this.settings = settings;
+    }
+
     @Override
     public ApplicationSettings load() {
-        return new SimpleApplicationSettings();
+        return new SimpleApplicationSettings(settings);
     }
 
     public static ApplicationSettingsLoader getInstance() {
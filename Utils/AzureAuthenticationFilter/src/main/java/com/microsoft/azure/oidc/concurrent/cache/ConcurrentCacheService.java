@@ -11,6 +11,8 @@ public interface ConcurrentCacheService {
 
     <V> ConcurrentCache<String, V> getCache(Class<V> clazzV, String name);
 
+    void setConcurrentCacheFactory(ConcurrentCacheFactory<String, Object> concurrentCacheFactory);
+
     void shutdownNow();
 
 }
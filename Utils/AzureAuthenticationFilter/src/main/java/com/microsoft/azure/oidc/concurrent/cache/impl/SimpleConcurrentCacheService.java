@@ -5,8 +5,8 @@
 
 package com.microsoft.azure.oidc.concurrent.cache.impl;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
 import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheFactory;
@@ -15,10 +15,10 @@ import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
 public class SimpleConcurrentCacheService implements ConcurrentCacheService {
     private final static ConcurrentCacheService INSTANCE = new SimpleConcurrentCacheService();
 
-    private final ConcurrentCacheFactory<String, Object> concurrentCacheFactory = SimpleConcurrentCacheFactory
+    private volatile ConcurrentCacheFactory<String, Object> concurrentCacheFactory = StripedConcurrentCacheFactory
             .getInstance(String.class, Object.class);
 
-    private final Map<String, ConcurrentCache<String, Object>> cacheMap = new HashMap<String, ConcurrentCache<String, Object>>();
+    private final Map<String, ConcurrentCache<String, Object>> cacheMap = new ConcurrentHashMap<String, ConcurrentCache<String, Object>>();
 
     @SuppressWarnings("unchecked")
     @Override
@@ -34,6 +34,11 @@ public class SimpleConcurrentCacheService implements ConcurrentCacheService {
         return (ConcurrentCache<String, V>) cacheMap.get(name);
     }
 
+    @Override
+    public void setConcurrentCacheFactory(final ConcurrentCacheFactory<String, Object> concurrentCacheFactory) {
+        this.concurrentCacheFactory = concurrentCacheFactory;
+    }
+
     @Override
     public void shutdownNow() {
         for(@SuppressWarnings("rawtypes") final ConcurrentCache cache: cacheMap.values()) {
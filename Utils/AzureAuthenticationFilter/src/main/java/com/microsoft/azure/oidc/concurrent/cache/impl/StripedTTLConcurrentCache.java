@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.concurrent.cache.impl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
+
+/**
+ * TTL and LRU cache split into independently locked segments. Each segment is an access ordered
+ * {@link LinkedHashMap}, so lookups, inserts and LRU evictions are O(1) and only contend with the
+ * requests of the same segment. Expired entries are dropped on access and swept in bulk every minute.
+ */
+public final class StripedTTLConcurrentCache<K, V> implements ConcurrentCache<K, V> {
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final ScheduledExecutorService scheduledExecutorService = Executors
+            .newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "oidc-cache-expiry");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+    private final long ttl;
+
+    @SuppressWarnings("unchecked")
+    public StripedTTLConcurrentCache(final Long ttl, final Long maxSize) {
+        this.ttl = ttl * 60000;
+        final int segmentCount = getSegmentCount(maxSize);
+        final int segmentMaxSize = (int) Math.max(1L, (maxSize + segmentCount - 1) / segmentCount);
+        this.segments = (Segment<K, V>[]) new Segment<?, ?>[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<K, V>(segmentMaxSize);
+        }
+        scheduledExecutorService.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                final long now = System.currentTimeMillis();
+                for (final Segment<K, V> segment : segments) {
+                    segment.removeExpired(now);
+                }
+            }
+        }, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public V get(final Object key) {
+        return segmentFor(key).get(key, System.currentTimeMillis());
+    }
+
+    @Override
+    public V putIfAbsent(final K key, final V value) {
+        return segmentFor(key).putIfAbsent(key, value, System.currentTimeMillis(), ttl);
+    }
+
+    @Override
+    public void shutdownNow() {
+        scheduledExecutorService.shutdownNow();
+    }
+
+    private Segment<K, V> segmentFor(final Object key) {
+        int hash = key.hashCode();
+        // spread the higher bits, since the segment count is a power of two
+        hash ^= (hash >>> 16);
+        return segments[hash & (segments.length - 1)];
+    }
+
+    private static int getSegmentCount(final Long maxSize) {
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && segmentCount * 2 <= maxSize) {
+            segmentCount *= 2;
+        }
+        return segmentCount;
+    }
+
+    private static final class TimedValue<V> {
+        private final V value;
+        private final long expiry;
+
+        private TimedValue(final V value, final long expiry) {
+            this.value = value;
+            this.expiry = expiry;
+        }
+    }
+
+    private static final class Segment<K, V> {
+        private final LinkedHashMap<K, TimedValue<V>> map;
+
+        private Segment(final int maxSize) {
+            this.map = new LinkedHashMap<K, TimedValue<V>>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<K, TimedValue<V>> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        private synchronized V get(final Object key, final long now) {
+            final TimedValue<V> timedValue = map.get(key);
+            if (timedValue == null) {
+                return null;
+            }
+            if (timedValue.expiry <= now) {
+                map.remove(key);
+                return null;
+            }
+            return timedValue.value;
+        }
+
+        private synchronized V putIfAbsent(final K key, final V value, final long now, final long ttl) {
+            final TimedValue<V> timedValue = map.get(key);
+            if (timedValue != null && timedValue.expiry > now) {
+                return timedValue.value;
+            }
+            map.put(key, new TimedValue<V>(value, now + ttl));
+            return null;
+        }
+
+        private synchronized void removeExpired(final long now) {
+            final Iterator<TimedValue<V>> iterator = map.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().expiry <= now) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+}
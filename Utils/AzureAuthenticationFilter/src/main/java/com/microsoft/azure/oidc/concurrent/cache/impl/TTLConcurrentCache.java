@@ -34,12 +34,13 @@ public final class TTLConcurrentCache<K, V> implements ConcurrentCache<K, V> {
                     final Iterator<K> iterator = oldestKey.iterator();
                     while (iterator.hasNext()) {
                         final K key = iterator.next();
-                        if (timestampMap.get(key) < (System.currentTimeMillis() - getTtl())) {
-                            timestampMap.remove(key);
-                            storeMap.remove(key);
-                            iterator.remove();
+                        if (timestampMap.get(key) >= (System.currentTimeMillis() - getTtl())) {
+                            // the keys are in insertion order, the rest are not expired either
+                            break;
                         }
-                        break;
+                        timestampMap.remove(key);
+                        storeMap.remove(key);
+                        iterator.remove();
                     }
                 }
             }
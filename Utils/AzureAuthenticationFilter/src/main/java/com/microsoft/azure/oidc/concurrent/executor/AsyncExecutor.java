@@ -0,0 +1,19 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.concurrent.executor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+public interface AsyncExecutor {
+
+    void initialise(Integer poolSize);
+
+    <T> Future<T> submit(Callable<T> task);
+
+    void shutdownNow();
+
+}
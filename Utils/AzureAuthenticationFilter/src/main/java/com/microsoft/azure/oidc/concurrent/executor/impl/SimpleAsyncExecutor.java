@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.concurrent.executor.impl;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.microsoft.azure.oidc.concurrent.executor.AsyncExecutor;
+import com.microsoft.azure.oidc.exception.PreconditionException;
+
+/**
+ * The bounded thread pool shared by the metadata, key store and Graph API calls. It is created on the first use
+ * (or by the filter init), and shut down by the filter destroy. When the queue is full, the task runs in the
+ * caller thread rather than being rejected.
+ */
+public final class SimpleAsyncExecutor implements AsyncExecutor {
+    private static final AsyncExecutor INSTANCE = new SimpleAsyncExecutor();
+    private static final int DEFAULT_POOL_SIZE = 8;
+    // keep a few threads, so that a slow load doesn't hold up the others
+    private static final int MIN_POOL_SIZE = 4;
+    private static final int QUEUE_SIZE = 1000;
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    private final AtomicInteger threadCount = new AtomicInteger();
+
+    private int poolSize = DEFAULT_POOL_SIZE;
+
+    private ThreadPoolExecutor executor;
+
+    @Override
+    public synchronized void initialise(final Integer poolSize) {
+        if (poolSize == null) {
+            throw new PreconditionException("Required parameter is null");
+        }
+        this.poolSize = Math.max(MIN_POOL_SIZE, poolSize);
+        if (executor != null) {
+            executor.setMaximumPoolSize(Math.max(this.poolSize, executor.getCorePoolSize()));
+            executor.setCorePoolSize(this.poolSize);
+            executor.setMaximumPoolSize(this.poolSize);
+        }
+    }
+
+    @Override
+    public <T> Future<T> submit(final Callable<T> task) {
+        if (task == null) {
+            throw new PreconditionException("Required parameter is null");
+        }
+        return getExecutor().submit(task);
+    }
+
+    @Override
+    public synchronized void shutdownNow() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private synchronized ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            executor = new ThreadPoolExecutor(poolSize, poolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(QUEUE_SIZE), new ThreadFactory() {
+                        @Override
+                        public Thread newThread(final Runnable runnable) {
+                            final Thread thread = new Thread(runnable, "oidc-async-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    public static AsyncExecutor getInstance() {
+        return INSTANCE;
+    }
+}
@@ -5,6 +5,9 @@
 
 package com.microsoft.azure.oidc.configuration;
 
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.spec.InvalidKeySpecException;
 import java.util.List;
 import java.util.Map;
 
@@ -22,6 +25,8 @@ public interface Configuration {
 
     Key getKey(Name name);
 
+    PublicKey getPublicKey(Name name, String keyAlgorithm) throws NoSuchAlgorithmException, InvalidKeySpecException;
+
     Issuer getIssuer();
 
     EndPoint getAuthenticationEndPoint();
@@ -5,8 +5,12 @@
 
 package com.microsoft.azure.oidc.configuration;
 
+import com.microsoft.azure.oidc.common.name.Name;
+
 public interface ConfigurationCache {
 
     Configuration load();
 
+    Configuration loadWithKey(Name keyName);
+
 }
@@ -5,8 +5,18 @@
 
 package com.microsoft.azure.oidc.configuration.impl;
 
+import java.math.BigInteger;
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.RSAPublicKeySpec;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.codec.binary.Base64;
 
 import com.microsoft.azure.oidc.common.algorithm.Algorithm;
 import com.microsoft.azure.oidc.common.issuer.Issuer;
@@ -22,6 +32,7 @@ final class SimpleConfiguration implements Configuration {
     private final Issuer issuer;
     private final EndPoint authenticationEndPoint;
     private final EndPoint logoutEndPoint;
+    private final ConcurrentMap<String, PublicKey> publicKeys = new ConcurrentHashMap<String, PublicKey>();
 
     SimpleConfiguration(final List<Algorithm> algorithms, final Map<Name, Key> keys, final Issuer issuer,
             final EndPoint authenticationEndPoint, final EndPoint logoutEndPoint) {
@@ -59,6 +70,30 @@ final class SimpleConfiguration implements Configuration {
         return getKeys().get(name);
     }
 
+    @Override
+    public PublicKey getPublicKey(final Name name, final String keyAlgorithm)
+            throws NoSuchAlgorithmException, InvalidKeySpecException {
+        if (name == null || keyAlgorithm == null) {
+            throw new PreconditionException("Required parameter is null");
+        }
+        final Key key = getKey(name);
+        if (key == null) {
+            return null;
+        }
+        final String publicKeyName = keyAlgorithm + ":" + name.getName();
+        final PublicKey publicKey = publicKeys.get(publicKeyName);
+        if (publicKey != null) {
+            return publicKey;
+        }
+        final Base64 decoder = new Base64();
+        final BigInteger exponent = new BigInteger(1, decoder.decode(key.getExponent().getValue()));
+        final BigInteger modulus = new BigInteger(1, decoder.decode(key.getSecret().getValue()));
+        final PublicKey newPublicKey = KeyFactory.getInstance(keyAlgorithm)
+                .generatePublic(new RSAPublicKeySpec(modulus, exponent));
+        final PublicKey existingPublicKey = publicKeys.putIfAbsent(publicKeyName, newPublicKey);
+        return existingPublicKey == null ? newPublicKey : existingPublicKey;
+    }
+
     @Override
     public Issuer getIssuer() {
         return issuer;
@@ -5,36 +5,149 @@
 
 package com.microsoft.azure.oidc.configuration.impl;
 
-import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
-import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.microsoft.azure.oidc.common.name.Name;
+import com.microsoft.azure.oidc.concurrent.executor.AsyncExecutor;
+import com.microsoft.azure.oidc.concurrent.executor.impl.SimpleAsyncExecutor;
 import com.microsoft.azure.oidc.configuration.Configuration;
 import com.microsoft.azure.oidc.configuration.ConfigurationCache;
 import com.microsoft.azure.oidc.configuration.ConfigurationLoader;
+import com.microsoft.azure.oidc.exception.PreconditionException;
 import com.microsoft.azure.oidc.future.FutureHelper;
 import com.microsoft.azure.oidc.future.impl.SimpleFutureHelper;
 
+/**
+ * Holds the loaded OpenID configuration. Only one load runs at a time, and the concurrent requests share it.
+ * The configuration is refreshed in background ahead of its expiry while the previous one is still served, and
+ * refreshed on demand (at most once per minute) when a token is signed by a key not in the key store.
+ */
 public class SimpleConfigurationCache implements ConfigurationCache {
     private static final ConfigurationCache INSTANCE = new SimpleConfigurationCache();
+    private static final Logger LOGGER = LoggerFactory.getLogger(SimpleConfigurationCache.class);
+    private static final long REFRESH_AFTER = 50L * 60000;
+    private static final long EXPIRE_AFTER = 60L * 60000;
+    private static final long MIN_KEY_REFRESH_INTERVAL = 60000L;
+
+    private final ConfigurationLoader configurationLoader;
+
+    private final FutureHelper futureHelper;
+
+    private final AsyncExecutor asyncExecutor;
+
+    private final Object refreshLock = new Object();
 
-    private final ConfigurationLoader configurationLoader = SimpleConfigurationLoader.getInstance();
+    private volatile Configuration configuration;
 
-    private final FutureHelper futureHelper = SimpleFutureHelper.getInstance();
+    private volatile long loadedAt;
 
-    private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
+    private volatile long keyRefreshedAt;
+
+    private FutureTask<Configuration> refreshTask;
+
+    private Future<Void> refreshSubmission;
+
+    private SimpleConfigurationCache() {
+        this(SimpleConfigurationLoader.getInstance(), SimpleFutureHelper.getInstance(),
+                SimpleAsyncExecutor.getInstance());
+    }
+
+    SimpleConfigurationCache(final ConfigurationLoader configurationLoader, final FutureHelper futureHelper,
+            final AsyncExecutor asyncExecutor) {
+        this.configurationLoader = configurationLoader;
+        this.futureHelper = futureHelper;
+        this.asyncExecutor = asyncExecutor;
+    }
 
     @Override
     public Configuration load() {
-        final String key = "SINGLE";
-        final Configuration entry = concurrentCacheService.getCache(Configuration.class, "configurationCache").get(key);
-        if (entry != null) {
-            return entry;
+        final Configuration current = configuration;
+        if (current == null) {
+            return futureHelper.getResult(refresh());
+        }
+        final long age = System.currentTimeMillis() - loadedAt;
+        if (age >= EXPIRE_AFTER) {
+            final Configuration result = futureHelper.getResult(refresh());
+            return result == null ? current : result;
+        }
+        if (age >= REFRESH_AFTER) {
+            refresh();
+        }
+        return current;
+    }
+
+    @Override
+    public Configuration loadWithKey(final Name keyName) {
+        if (keyName == null) {
+            throw new PreconditionException("Required parameter is null");
+        }
+        final Configuration current = load();
+        if (current != null && current.getKey(keyName) != null) {
+            return current;
+        }
+        final long now = System.currentTimeMillis();
+        final long lastKeyRefreshedAt = keyRefreshedAt;
+        if (now - lastKeyRefreshedAt < MIN_KEY_REFRESH_INTERVAL) {
+            return current;
+        }
+        keyRefreshedAt = now;
+        LOGGER.info("Refreshing configuration for unknown key: " + keyName.getName());
+        final Configuration result = futureHelper.getResult(refresh());
+        return result == null ? current : result;
+    }
+
+    private Future<Configuration> refresh() {
+        final FutureTask<Configuration> task;
+        synchronized (refreshLock) {
+            if (refreshTask != null && !refreshTask.isDone()) {
+                if (refreshSubmission == null || !refreshSubmission.isDone()) {
+                    return refreshTask;
+                }
+                // the submission was cancelled or dropped by the executor before it ran, release its waiters
+                refreshTask.cancel(false);
+            }
+            task = new FutureTask<Configuration>(new Callable<Configuration>() {
+                @Override
+                public Configuration call() throws Exception {
+                    // loaded in this task, since waiting on a nested task of the same bounded executor may deadlock
+                    final Configuration result = configurationLoader.load();
+                    if (result != null) {
+                        configuration = result;
+                        loadedAt = System.currentTimeMillis();
+                    } else {
+                        LOGGER.error("Error refreshing configuration");
+                    }
+                    return result;
+                }
+            });
+            refreshTask = task;
+            refreshSubmission = null;
+        }
+        // submitted outside the lock, since the task runs in this thread if the executor is saturated
+        final Future<Void> submission;
+        try {
+            submission = asyncExecutor.submit(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    task.run();
+                    return null;
+                }
+            });
+        } catch (RuntimeException e) {
+            task.cancel(false);
+            throw e;
         }
-        final Configuration result = futureHelper.getResult(configurationLoader.loadAsync());
-        if (result == null) {
-            return result;
+        synchronized (refreshLock) {
+            if (refreshTask == task) {
+                refreshSubmission = submission;
+            }
         }
-        concurrentCacheService.getCache(Configuration.class, "configurationCache").putIfAbsent(key, result);
-        return result;
+        return task;
     }
 
     public static ConfigurationCache getInstance() {
@@ -8,8 +8,6 @@ package com.microsoft.azure.oidc.configuration.impl;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
@@ -19,13 +17,13 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.microsoft.azure.oidc.common.algorithm.Algorithm;
 import com.microsoft.azure.oidc.common.issuer.Issuer;
 import com.microsoft.azure.oidc.common.name.Name;
+import com.microsoft.azure.oidc.concurrent.executor.AsyncExecutor;
+import com.microsoft.azure.oidc.concurrent.executor.impl.SimpleAsyncExecutor;
 import com.microsoft.azure.oidc.configuration.Configuration;
 import com.microsoft.azure.oidc.configuration.ConfigurationFactory;
 import com.microsoft.azure.oidc.configuration.ConfigurationLoader;
 import com.microsoft.azure.oidc.configuration.endpoint.EndPoint;
 import com.microsoft.azure.oidc.configuration.key.Key;
-import com.microsoft.azure.oidc.future.FutureHelper;
-import com.microsoft.azure.oidc.future.impl.SimpleFutureHelper;
 import com.microsoft.azure.oidc.openid.keystore.KeyStoreLoader;
 import com.microsoft.azure.oidc.openid.keystore.KeyStoreParser;
 import com.microsoft.azure.oidc.openid.keystore.impl.SimpleKeyStoreLoader;
@@ -39,6 +37,8 @@ public final class SimpleConfigurationLoader implements ConfigurationLoader {
     private static final ConfigurationLoader INSTANCE = new SimpleConfigurationLoader();
     private static final Logger LOGGER = LoggerFactory.getLogger(SimpleConfigurationLoader.class);
 
+    private final AsyncExecutor asyncExecutor = SimpleAsyncExecutor.getInstance();
+
     private final WellKnownLoader wellKnownLoader = SimpleWellKnownLoader.getInstance();
 
     private final WellKnownParser wellKnownParser = SimpleWellKnownParser.getInstance();
@@ -49,23 +49,23 @@ public final class SimpleConfigurationLoader implements ConfigurationLoader {
 
     private final ConfigurationFactory configurationFactory = SimpleConfigurationFactory.getInstance();
 
-    private final FutureHelper futureHelper = SimpleFutureHelper.getInstance();
-
     @Override
     public Future<Configuration> loadAsync() {
-        final ExecutorService executorService = Executors.newSingleThreadExecutor();
-        final Future<Configuration> future = executorService.submit(new Callable<Configuration>() {
+        return asyncExecutor.submit(new Callable<Configuration>() {
             public Configuration call() throws Exception {
                 return load();
             }
         });
-        executorService.shutdown();
-        return future;
     }
 
+    /**
+     * Loads the metadata and then the key store in the calling thread, which may be a thread of the shared executor,
+     * so it doesn't wait on other tasks of the same executor.
+     */
+    @Override
     public Configuration load() {
         try {
-            final JsonNode wellKnownNode = futureHelper.getResult(wellKnownLoader.loadAsync());
+            final JsonNode wellKnownNode = wellKnownLoader.load();
             if (wellKnownNode == null) {
                 LOGGER.error("Error loading metadata");
                 return null;
@@ -75,7 +75,7 @@ public final class SimpleConfigurationLoader implements ConfigurationLoader {
             final EndPoint keyStoreEndPoint = wellKnownParser.getKeyStoreEndPoint(wellKnownNode);
             final EndPoint logoutEndPoint = wellKnownParser.getLogoutEndPoint(wellKnownNode);
             final Issuer issuer = wellKnownParser.getIssuer(wellKnownNode);
-            final JsonNode keyStoreNode = futureHelper.getResult(keyStoreLoader.loadAsync(keyStoreEndPoint));
+            final JsonNode keyStoreNode = keyStoreLoader.load(keyStoreEndPoint);
             if (keyStoreNode == null) {
                 LOGGER.error("Error loading keystore");
                 return null;
@@ -0,0 +1,15 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.filter.configuration.authentication;
+
+public interface UriPatternMatcher {
+
+    /**
+     * Returns the index of the first configured URI pattern matching the whole URI, or null if none matches.
+     */
+    Integer match(String uriString);
+
+}
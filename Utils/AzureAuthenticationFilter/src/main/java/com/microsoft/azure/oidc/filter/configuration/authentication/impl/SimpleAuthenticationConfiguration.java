@@ -6,19 +6,22 @@
 package com.microsoft.azure.oidc.filter.configuration.authentication.impl;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
 
 import com.microsoft.azure.oidc.filter.configuration.authentication.AuthenticationConfiguration;
+import com.microsoft.azure.oidc.filter.configuration.authentication.UriPatternMatcher;
 
 final class SimpleAuthenticationConfiguration implements AuthenticationConfiguration {
+    private static final String FACES_RESOURCE_URI_PATTERN = "/javax.faces.resource/*";
+
     private List<String> exclusionUriPatternList;
     private List<String> authorisationUriPatternList;
     private Map<String, List<String>> authorisationRoleMap;
 
-    private List<Pattern> exclusionRegexPatternList;
-    private List<Pattern> authorisationRegexPatternList;
+    private UriPatternMatcher exclusionUriPatternMatcher;
+    private UriPatternMatcher authorisationUriPatternMatcher;
 
     public SimpleAuthenticationConfiguration(final List<String> exclusionUriPatternList,
             final List<String> authorisationUriPatternList, final Map<String, List<String>> authorisationRoleMap) {
@@ -29,46 +32,18 @@ final class SimpleAuthenticationConfiguration implements AuthenticationConfigura
 
     private void setExclusionUriPatternList(List<String> exclusionUriPatternList) {
         this.exclusionUriPatternList = exclusionUriPatternList;
-        exclusionRegexPatternList = new ArrayList<Pattern>();
-        exclusionRegexPatternList.add(Pattern.compile(
-                "/javax.faces.resource/*".replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
-        if (exclusionRegexPatternList == null) {
-            return;
-        }
-        for (final String pattern : exclusionUriPatternList) {
-            final String localPattern = pattern.trim();
-            if (localPattern.endsWith("*")) {
-                exclusionRegexPatternList.add(Pattern
-                        .compile(localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
-            } else if (localPattern.startsWith("/")) {
-                exclusionRegexPatternList.add(Pattern.compile(
-                        localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\\\w\\*)")));
-            } else {
-                exclusionRegexPatternList.add(Pattern
-                        .compile(localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
-            }
+        final List<String> exclusionMatcherPatternList = new ArrayList<String>();
+        exclusionMatcherPatternList.add(FACES_RESOURCE_URI_PATTERN);
+        if (exclusionUriPatternList != null) {
+            exclusionMatcherPatternList.addAll(exclusionUriPatternList);
         }
+        exclusionUriPatternMatcher = new SimpleUriPatternMatcher(exclusionMatcherPatternList);
     }
 
     private void setAuthorisationUriPatternList(List<String> authorisationUriPatternList) {
         this.authorisationUriPatternList = authorisationUriPatternList;
-        authorisationRegexPatternList = new ArrayList<Pattern>();
-        if (authorisationUriPatternList == null) {
-            return;
-        }
-        for (final String pattern : authorisationUriPatternList) {
-            final String localPattern = pattern.trim();
-            if (localPattern.endsWith("*")) {
-                authorisationRegexPatternList.add(Pattern
-                        .compile(localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
-            } else if (localPattern.startsWith("/")) {
-                authorisationRegexPatternList.add(Pattern.compile(
-                        localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\\\w\\*)")));
-            } else {
-                authorisationRegexPatternList.add(Pattern
-                        .compile(localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
-            }
-        }
+        authorisationUriPatternMatcher = new SimpleUriPatternMatcher(authorisationUriPatternList == null
+                ? Collections.<String> emptyList() : authorisationUriPatternList);
     }
 
     private void setAuthorisationRoleMap(Map<String, List<String>> authorisationRoleMap) {
@@ -81,22 +56,22 @@ final class SimpleAuthenticationConfiguration implements AuthenticationConfigura
     }
 
     @Override
-    public List<Pattern> getExclusionRegexPatternList() {
-        return exclusionRegexPatternList;
+    public List<String> getAuthorisationUriPatternList() {
+        return authorisationUriPatternList;
     }
 
     @Override
-    public List<String> getAuthorisationUriPatternList() {
-        return authorisationUriPatternList;
+    public Map<String, List<String>> getAuthorisationRoleMap() {
+        return authorisationRoleMap;
     }
 
     @Override
-    public List<Pattern> getAuthorisationRegexPatternList() {
-        return authorisationRegexPatternList;
+    public UriPatternMatcher getExclusionUriPatternMatcher() {
+        return exclusionUriPatternMatcher;
     }
 
     @Override
-    public Map<String, List<String>> getAuthorisationRoleMap() {
-        return authorisationRoleMap;
+    public UriPatternMatcher getAuthorisationUriPatternMatcher() {
+        return authorisationUriPatternMatcher;
     }
 }
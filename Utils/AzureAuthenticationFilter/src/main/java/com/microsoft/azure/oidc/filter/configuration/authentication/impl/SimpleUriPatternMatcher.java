@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.filter.configuration.authentication.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.microsoft.azure.oidc.exception.PreconditionException;
+import com.microsoft.azure.oidc.filter.configuration.authentication.UriPatternMatcher;
+
+/**
+ * Matches a URI against all the configured URI patterns in one pass. Literal patterns and patterns with a single
+ * trailing wildcard are stored in a character trie walked once along the URI, the remaining patterns are compiled
+ * into one alternation. The result is the same as trying the patterns one by one in the configured order.
+ */
+final class SimpleUriPatternMatcher implements UriPatternMatcher {
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private final Node root = new Node();
+    private final Pattern alternationPattern;
+    private final int[] alternationIndexes;
+
+    public SimpleUriPatternMatcher(final List<String> uriPatternList) {
+        final StringBuilder alternationBuilder = new StringBuilder();
+        final List<Integer> alternationIndexList = new ArrayList<Integer>();
+        int index = 0;
+        for (final String pattern : uriPatternList) {
+            final String localPattern = pattern.trim();
+            final int wildcardIndex = localPattern.indexOf('*');
+            if (wildcardIndex == -1) {
+                addExact(localPattern, index);
+            } else if (wildcardIndex == localPattern.length() - 1) {
+                addPrefix(localPattern.substring(0, wildcardIndex), index);
+            } else {
+                alternationBuilder.append(alternationIndexList.isEmpty() ? "(" : "|(");
+                alternationBuilder.append(toRegex(localPattern));
+                alternationBuilder.append(")");
+                alternationIndexList.add(index);
+            }
+            index++;
+        }
+        alternationPattern = alternationIndexList.isEmpty() ? null : Pattern.compile(alternationBuilder.toString());
+        alternationIndexes = new int[alternationIndexList.size()];
+        for (int i = 0; i < alternationIndexes.length; i++) {
+            alternationIndexes[i] = alternationIndexList.get(i);
+        }
+    }
+
+    @Override
+    public Integer match(final String uriString) {
+        if (uriString == null) {
+            throw new PreconditionException("Required parameter is null");
+        }
+        int matchIndex = matchTrie(uriString);
+        if (alternationPattern != null && alternationIndexes[0] < matchIndex) {
+            final Matcher matcher = alternationPattern.matcher(uriString);
+            if (matcher.matches()) {
+                // the alternatives are tried in order, so the first matched group is the first matching pattern
+                for (int group = 1; group <= alternationIndexes.length; group++) {
+                    if (matcher.start(group) != -1) {
+                        matchIndex = Math.min(matchIndex, alternationIndexes[group - 1]);
+                        break;
+                    }
+                }
+            }
+        }
+        return matchIndex == NO_MATCH ? null : matchIndex;
+    }
+
+    private int matchTrie(final String uriString) {
+        // a trailing wildcard is translated to ".*", which does not match line terminators
+        final int lastLineTerminatorIndex = getLastLineTerminatorIndex(uriString);
+        int matchIndex = NO_MATCH;
+        Node node = root;
+        for (int i = 0; node != null && node.minIndex < matchIndex; i++) {
+            if (node.prefixIndex < matchIndex && i > lastLineTerminatorIndex) {
+                matchIndex = node.prefixIndex;
+            }
+            if (i == uriString.length()) {
+                matchIndex = Math.min(matchIndex, node.exactIndex);
+                break;
+            }
+            node = node.children.get(uriString.charAt(i));
+        }
+        return matchIndex;
+    }
+
+    private void addExact(final String literal, final int index) {
+        final Node node = addNode(literal, index);
+        node.exactIndex = Math.min(node.exactIndex, index);
+    }
+
+    private void addPrefix(final String literal, final int index) {
+        final Node node = addNode(literal, index);
+        node.prefixIndex = Math.min(node.prefixIndex, index);
+    }
+
+    private Node addNode(final String literal, final int index) {
+        Node node = root;
+        node.minIndex = Math.min(node.minIndex, index);
+        for (int i = 0; i < literal.length(); i++) {
+            final Character key = literal.charAt(i);
+            Node child = node.children.get(key);
+            if (child == null) {
+                child = new Node();
+                node.children.put(key, child);
+            }
+            node = child;
+            node.minIndex = Math.min(node.minIndex, index);
+        }
+        return node;
+    }
+
+    // a wildcard matches any characters, except inside a path pattern where it only matches word characters
+    private static String toRegex(final String localPattern) {
+        final String escapedPattern = localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1");
+        if (!localPattern.endsWith("*") && localPattern.startsWith("/")) {
+            return escapedPattern.replaceAll("\\*", "(?:\\\\w\\*)");
+        }
+        return escapedPattern.replaceAll("\\*", "(?:\\.\\*)");
+    }
+
+    private static int getLastLineTerminatorIndex(final String uriString) {
+        for (int i = uriString.length() - 1; i >= 0; i--) {
+            final char c = uriString.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<Character, Node>();
+        private int exactIndex = NO_MATCH;
+        private int prefixIndex = NO_MATCH;
+        private int minIndex = NO_MATCH;
+    }
+}
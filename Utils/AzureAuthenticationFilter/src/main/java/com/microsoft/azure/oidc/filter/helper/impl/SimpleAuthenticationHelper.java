@@ -9,8 +9,6 @@ import java.io.IOException;
 import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -37,6 +35,7 @@ import com.microsoft.azure.oidc.configuration.ConfigurationCache;
 import com.microsoft.azure.oidc.configuration.impl.SimpleConfigurationCache;
 import com.microsoft.azure.oidc.exception.GeneralException;
 import com.microsoft.azure.oidc.exception.PreconditionException;
+import com.microsoft.azure.oidc.filter.configuration.authentication.AuthenticationConfiguration;
 import com.microsoft.azure.oidc.filter.configuration.authentication.AuthenticationConfigurationService;
 import com.microsoft.azure.oidc.filter.configuration.authentication.impl.SimpleAuthenticationConfigurationService;
 import com.microsoft.azure.oidc.filter.helper.AuthenticationHelper;
@@ -202,52 +201,37 @@ public final class SimpleAuthenticationHelper implements AuthenticationHelper {
     }
 
     private Boolean isExcluded(final HttpServletRequest httpRequest) {
-        String uriString = null;
-        final Boolean isRootContext = "".equals(httpRequest.getContextPath());
-        if (isRootContext) {
-            uriString = httpRequest.getRequestURI();
-        } else {
-            final int length = httpRequest.getRequestURI().length();
-            uriString = httpRequest.getRequestURI().substring(length);
+        final AuthenticationConfiguration authenticationConfiguration = authenticationConfigurationService.get();
+        final Integer index = authenticationConfiguration.getExclusionUriPatternMatcher()
+                .match(getContextRequestURI(httpRequest));
+        return index != null;
+    }
+
+    private Boolean isAuthorised(final HttpServletRequest httpRequest, final Token token) {
+        final AuthenticationConfiguration authenticationConfiguration = authenticationConfigurationService.get();
+        final Integer index = authenticationConfiguration.getAuthorisationUriPatternMatcher()
+                .match(getContextRequestURI(httpRequest));
+        if (index == null) {
+            return Boolean.TRUE;
         }
-        for (final Pattern pattern : authenticationConfigurationService.get().getExclusionRegexPatternList()) {
-            final Matcher matcher = pattern.matcher(uriString);
-            final Boolean isMatchFound = matcher.matches();
-            if (isMatchFound) {
+        final String urlPattern = authenticationConfiguration.getAuthorisationUriPatternList().get(index);
+        final HttpServletRequest authRequest = getAuthenticationWrapper(httpRequest, token);
+        for (final String roleName : authenticationConfiguration.getAuthorisationRoleMap().get(urlPattern)) {
+            final Boolean isUserInRole = authRequest.isUserInRole(roleName);
+            if (isUserInRole) {
                 return Boolean.TRUE;
             }
         }
         return Boolean.FALSE;
     }
 
-    private Boolean isAuthorised(final HttpServletRequest httpRequest, final Token token) {
-        String uriString = null;
-        final Boolean isRootContext = "".equals(httpRequest.getContextPath());
+    private String getContextRequestURI(final HttpServletRequest httpRequest) {
+        final String contextPath = httpRequest.getContextPath();
+        final Boolean isRootContext = contextPath == null || "".equals(contextPath);
         if (isRootContext) {
-            uriString = httpRequest.getRequestURI();
-        } else {
-            final int length = httpRequest.getRequestURI().length();
-            uriString = httpRequest.getRequestURI().substring(length);
-        }
-        int index = 0;
-        for (final String urlPattern : authenticationConfigurationService.get().getAuthorisationUriPatternList()) {
-            final Pattern pattern = authenticationConfigurationService.get().getAuthorisationRegexPatternList()
-                    .get(index++);
-            final Matcher matcher = pattern.matcher(uriString);
-            final Boolean isMatchFound = matcher.matches();
-            if (isMatchFound) {
-                final HttpServletRequest authRequest = getAuthenticationWrapper(httpRequest, token);
-                for (final String roleName : authenticationConfigurationService.get().getAuthorisationRoleMap()
-                        .get(urlPattern)) {
-                    final Boolean isUserInRole = authRequest.isUserInRole(roleName);
-                    if (isUserInRole) {
-                        return Boolean.TRUE;
-                    }
-                }
-                return Boolean.FALSE;
-            }
+            return httpRequest.getRequestURI();
         }
-        return Boolean.TRUE;
+        return httpRequest.getRequestURI().substring(contextPath.length());
     }
 
     private String addCookie(final HttpServletRequest httpRequest, final HttpServletResponse httpResponse,
@@ -17,8 +17,11 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheFactory;
 import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
-import com.microsoft.azure.oidc.configuration.Configuration;
+import com.microsoft.azure.oidc.concurrent.cache.impl.StripedConcurrentCacheFactory;
+import com.microsoft.azure.oidc.concurrent.executor.AsyncExecutor;
+import com.microsoft.azure.oidc.concurrent.executor.impl.SimpleAsyncExecutor;
 import com.microsoft.azure.oidc.exception.GeneralException;
 import com.microsoft.azure.oidc.exception.PreconditionException;
 import com.microsoft.azure.oidc.filter.configuration.algorithm.AlgorithmConfigurationService;
@@ -27,7 +30,13 @@ import com.microsoft.azure.oidc.filter.configuration.authentication.Authenticati
 import com.microsoft.azure.oidc.filter.configuration.authentication.impl.SimpleAuthenticationConfigurationService;
 import com.microsoft.azure.oidc.filter.helper.AuthenticationHelper;
 import com.microsoft.azure.oidc.filter.helper.impl.SimpleAuthenticationHelper;
+import com.microsoft.azure.oidc.future.FutureHelper;
+import com.microsoft.azure.oidc.future.impl.SimpleFutureHelper;
 import com.microsoft.azure.oidc.token.Token;
+import com.microsoft.azure.oidc.token.TokenCache;
+import com.microsoft.azure.oidc.token.TokenValidator;
+import com.microsoft.azure.oidc.token.impl.SimpleTokenCache;
+import com.microsoft.azure.oidc.token.impl.SimpleTokenValidator;
 
 public final class SimpleAuthenticationFilter implements Filter {
     private static final String ALGORITHM_CONFIGURATION = "algorithmConfiguration";
@@ -48,9 +57,19 @@ public final class SimpleAuthenticationFilter implements Filter {
 
     private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
 
+    private final TokenCache tokenCache = SimpleTokenCache.getInstance();
+
+    private final TokenValidator tokenValidator = SimpleTokenValidator.getInstance();
+
+    private final AsyncExecutor asyncExecutor = SimpleAsyncExecutor.getInstance();
+
+    private final FutureHelper futureHelper = SimpleFutureHelper.getInstance();
+
     @Override
     public void destroy() {
         concurrentCacheService.shutdownNow();
+        asyncExecutor.shutdownNow();
+        tokenValidator.clear();
     }
 
     @Override
@@ -67,11 +86,16 @@ public final class SimpleAuthenticationFilter implements Filter {
                 getHelper().doUnauthenticatedAction(chain, httpRequest, httpResponse, NO_TOKEN, isAuthenticationError);
                 return;
             }
-            final Token token = getHelper().getToken(tokenString);
-            final Boolean isInvalidToken = !getHelper().isValidToken(token);
-            if (isInvalidToken) {
-                getHelper().doInvalidTokenAction(httpResponse);
-                return;
+            Token token = tokenCache.get(tokenString);
+            final Boolean isUnverifiedToken = token == NO_TOKEN;
+            if (isUnverifiedToken) {
+                token = getHelper().getToken(tokenString);
+                final Boolean isInvalidToken = !getHelper().isValidToken(token);
+                if (isInvalidToken) {
+                    getHelper().doInvalidTokenAction(httpResponse);
+                    return;
+                }
+                tokenCache.put(tokenString, token);
             }
             final Boolean isActiveToken = getHelper().isActiveToken(token);
             if (isActiveToken) {
@@ -86,6 +110,22 @@ public final class SimpleAuthenticationFilter implements Filter {
 
     @Override
     public void init(final FilterConfig filterConfig) throws ServletException {
+        final String asyncPoolSizeString = filterConfig.getInitParameter("asyncPoolSize");
+        if (asyncPoolSizeString != null) {
+            asyncExecutor.initialise(Integer.parseInt(asyncPoolSizeString));
+        }
+        final String asyncTimeoutString = filterConfig.getInitParameter("asyncTimeout");
+        if (asyncTimeoutString != null) {
+            futureHelper.setTimeout(Long.parseLong(asyncTimeoutString));
+        }
+        final String securityCacheTypeString = filterConfig.getInitParameter("securityCacheType");
+        if ("simple".equalsIgnoreCase(securityCacheTypeString)) {
+            concurrentCacheService.setConcurrentCacheFactory(
+                    SimpleConcurrentCacheFactory.getInstance(String.class, Object.class));
+        } else {
+            concurrentCacheService.setConcurrentCacheFactory(
+                    StripedConcurrentCacheFactory.getInstance(String.class, Object.class));
+        }
         final String securityCacheSizeString = filterConfig.getInitParameter("securityCacheSize");
         if (securityCacheSizeString == null) {
             concurrentCacheService.createCache(Boolean.class, "roleCache", 30L, 1000L);
@@ -93,7 +133,13 @@ public final class SimpleAuthenticationFilter implements Filter {
             concurrentCacheService.createCache(Boolean.class, "roleCache", 30L,
                     Long.parseLong(securityCacheSizeString));
         }
-        concurrentCacheService.createCache(Configuration.class, "configurationCache", 60L, 1L);
+        final String tokenCacheSizeString = filterConfig.getInitParameter("tokenCacheSize");
+        if (tokenCacheSizeString == null) {
+            concurrentCacheService.createCache(Token.class, "tokenCache", 60L, 1000L);
+        } else {
+            concurrentCacheService.createCache(Token.class, "tokenCache", 60L,
+                    Long.parseLong(tokenCacheSizeString));
+        }
         authenticationConfigurationService.initialise(filterConfig, AUTHENTICATION_CONFIGURATION);
         algorithmConfigurationService.initialise(filterConfig, ALGORITHM_CONFIGURATION);
     }
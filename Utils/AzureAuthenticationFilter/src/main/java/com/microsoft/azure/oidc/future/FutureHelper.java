@@ -11,4 +11,6 @@ public interface FutureHelper {
 
     <T> T getResult(Future<T> future);
 
+    void setTimeout(Long timeout);
+
 }
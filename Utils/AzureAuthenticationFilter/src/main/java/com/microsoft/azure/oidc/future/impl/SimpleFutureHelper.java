@@ -5,8 +5,11 @@
 
 package com.microsoft.azure.oidc.future.impl;
 
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,6 +20,9 @@ import com.microsoft.azure.oidc.future.FutureHelper;
 public class SimpleFutureHelper implements FutureHelper {
     private static final FutureHelper INSTANCE = new SimpleFutureHelper();
     private static final Logger LOGGER = LoggerFactory.getLogger(SimpleFutureHelper.class);
+    private static final long DEFAULT_TIMEOUT = 30000L;
+
+    private volatile long timeout = DEFAULT_TIMEOUT;
 
     @Override
     public <T> T getResult(Future<T> future) {
@@ -24,18 +30,27 @@ public class SimpleFutureHelper implements FutureHelper {
             throw new PreconditionException("Required parameter is null");
         }
         try {
-            while (!future.isDone() && !future.isCancelled()) {
-                Thread.sleep(10);
-            }
-            if (!future.isCancelled()) {
-                return future.get();
-            }
-        } catch (InterruptedException | ExecutionException e) {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // the future may be shared by other waiters, so it's left to its owner to cancel
+            LOGGER.error(String.format("Timed out after %d ms", timeout), e);
+        } catch (InterruptedException e) {
+            LOGGER.error(e.getMessage(), e);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException e) {
             LOGGER.error(e.getMessage(), e);
         }
         return null;
     }
 
+    @Override
+    public void setTimeout(final Long timeout) {
+        if (timeout == null) {
+            throw new PreconditionException("Required parameter is null");
+        }
+        this.timeout = timeout;
+    }
+
     public static FutureHelper getInstance() {
         return INSTANCE;
     }
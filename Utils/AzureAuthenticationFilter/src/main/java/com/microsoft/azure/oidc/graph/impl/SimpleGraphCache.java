@@ -5,8 +5,17 @@
 
 package com.microsoft.azure.oidc.graph.impl;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
 import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
 import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
+import com.microsoft.azure.oidc.filter.configuration.authentication.AuthenticationConfiguration;
+import com.microsoft.azure.oidc.filter.configuration.authentication.AuthenticationConfigurationService;
+import com.microsoft.azure.oidc.filter.configuration.authentication.impl.SimpleAuthenticationConfigurationService;
 import com.microsoft.azure.oidc.future.FutureHelper;
 import com.microsoft.azure.oidc.future.impl.SimpleFutureHelper;
 import com.microsoft.azure.oidc.graph.GraphCache;
@@ -21,19 +30,43 @@ public class SimpleGraphCache implements GraphCache {
 
     private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
 
+    private final AuthenticationConfigurationService authenticationConfigurationService = SimpleAuthenticationConfigurationService
+            .getInstance();
+
     @Override
     public Boolean isUserInRole(String userID, String role) {
-        final String key = String.format("%s:%s", userID, role);
-        final Boolean entry = concurrentCacheService.getCache(Boolean.class, "roleCache").get(key);
+        final ConcurrentCache<String, Boolean> roleCache = concurrentCacheService.getCache(Boolean.class, "roleCache");
+        final Boolean entry = roleCache.get(getKey(userID, role));
         if (entry != null) {
             return entry;
         }
-        final Boolean result = futureHelper.getResult(springGraphService.isUserInRoleAsync(userID, role));
+        // resolve all the configured roles of the user at once, the next role checks will hit the cache
+        final Set<String> roles = getAuthorisationRoles();
+        roles.add(role);
+        final Map<String, Boolean> result = futureHelper.getResult(springGraphService.getUserRolesAsync(userID, roles));
         if (result == null) {
-            return result;
+            return null;
+        }
+        for (final Map.Entry<String, Boolean> roleResult : result.entrySet()) {
+            roleCache.putIfAbsent(getKey(userID, roleResult.getKey()), roleResult.getValue());
         }
-        concurrentCacheService.getCache(Boolean.class, "roleCache").putIfAbsent(key, result);
-        return result;
+        return result.get(role);
+    }
+
+    private Set<String> getAuthorisationRoles() {
+        final Set<String> roles = new HashSet<String>();
+        final AuthenticationConfiguration authenticationConfiguration = authenticationConfigurationService.get();
+        if (authenticationConfiguration == null) {
+            return roles;
+        }
+        for (final List<String> roleNames : authenticationConfiguration.getAuthorisationRoleMap().values()) {
+            roles.addAll(roleNames);
+        }
+        return roles;
+    }
+
+    private String getKey(final String userID, final String role) {
+        return String.format("%s:%s", userID, role);
     }
 
     public static GraphCache getInstance() {
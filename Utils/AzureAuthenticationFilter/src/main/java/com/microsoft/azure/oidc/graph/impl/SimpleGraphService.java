@@ -8,162 +8,268 @@ package com.microsoft.azure.oidc.graph.impl;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Future;
 
-import javax.net.ssl.HttpsURLConnection;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.microsoft.azure.oidc.application.settings.ApplicationSettings;
 import com.microsoft.azure.oidc.application.settings.ApplicationSettingsLoader;
 import com.microsoft.azure.oidc.application.settings.Secret;
 import com.microsoft.azure.oidc.application.settings.Tenant;
 import com.microsoft.azure.oidc.application.settings.impl.SimpleApplicationSettingsLoader;
 import com.microsoft.azure.oidc.common.id.ID;
+import com.microsoft.azure.oidc.concurrent.executor.AsyncExecutor;
+import com.microsoft.azure.oidc.concurrent.executor.impl.SimpleAsyncExecutor;
 import com.microsoft.azure.oidc.exception.GeneralException;
+import com.microsoft.azure.oidc.exception.PreconditionException;
 import com.microsoft.azure.oidc.graph.GraphService;
 
-public final class SimpleGraphService implements GraphService {
+/**
+ * Resolves the user's roles (the groups with the role names) with the Graph API. The app-only bearer token is
+ * reused until it expires, the group IDs of the role names are remembered for an hour (the names without a group
+ * for a few minutes), and the memberships of all the roles are checked with batched checkMemberGroups calls. The result is
+ * null if the roles can't be resolved.
+ */
+public class SimpleGraphService implements GraphService {
     private static final GraphService INSTANCE = new SimpleGraphService();
     private static final Logger LOGGER = LoggerFactory.getLogger(SimpleGraphService.class);
+    private static final String DEFAULT_GRAPH_END_POINT = "https://graph.windows.net";
+    private static final String DEFAULT_LOGIN_END_POINT = "https://login.microsoftonline.com";
+    // the max group IDs of one checkMemberGroups request
+    private static final int MAX_GROUPS_PER_CHECK = 20;
+    // renew the bearer token ahead of its expiry
+    private static final long BEARER_TOKEN_EXPIRY_MARGIN = 300000L;
+    private static final long DEFAULT_BEARER_TOKEN_LIFETIME = 3600L;
+    // how long a group ID is remembered, so a group deleted and created again with the same name is picked up
+    private static final long GROUP_TTL = 3600000L;
+    // how long a role name without a group is remembered, so it may be created meanwhile
+    private static final long UNKNOWN_GROUP_TTL = 300000L;
+
+    private final ApplicationSettingsLoader applicationSettingsLoader;
+
+    private final AsyncExecutor asyncExecutor;
+
+    private final String graphEndPoint;
+
+    private final String loginEndPoint;
+
+    private final ConcurrentMap<String, GroupID> groupIDMap = new ConcurrentHashMap<String, GroupID>();
+
+    private final Object bearerTokenLock = new Object();
 
-    private final ApplicationSettingsLoader applicationSettingsLoader = SimpleApplicationSettingsLoader.getInstance();
+    private String bearerToken;
+
+    private long bearerTokenExpiry;
+
+    private SimpleGraphService() {
+        this(SimpleApplicationSettingsLoader.getInstance(), SimpleAsyncExecutor.getInstance(),
+                DEFAULT_GRAPH_END_POINT, DEFAULT_LOGIN_END_POINT);
+    }
+
+    protected SimpleGraphService(final ApplicationSettingsLoader applicationSettingsLoader, final AsyncExecutor asyncExecutor,
+            final String graphEndPoint, final String loginEndPoint) {
+        this.applicationSettingsLoader = applicationSettingsLoader;
+        this.asyncExecutor = asyncExecutor;
+        this.graphEndPoint = graphEndPoint;
+        this.loginEndPoint = loginEndPoint;
+    }
 
     @Override
     public Future<Boolean> isUserInRoleAsync(final String userID, final String role) {
-        final ExecutorService executorService = Executors.newSingleThreadExecutor();
-        final Future<Boolean> future = executorService.submit(new Callable<Boolean>() {
+        if (userID == null || role == null) {
+            throw new PreconditionException("Required parameter is null");
+        }
+        return asyncExecutor.submit(new Callable<Boolean>() {
             public Boolean call() throws Exception {
-                return isUserInRole(userID, role);
+                final Map<String, Boolean> roles = getUserRoles(userID, Collections.singleton(role));
+                return roles == null ? null : roles.get(role);
             }
         });
-        executorService.shutdown();
-        return future;
     }
 
-    private Boolean isUserInRole(final String userID, final String role) {
+    @Override
+    public Future<Map<String, Boolean>> getUserRolesAsync(final String userID, final Set<String> roles) {
+        if (userID == null || roles == null) {
+            throw new PreconditionException("Required parameter is null");
+        }
+        return asyncExecutor.submit(new Callable<Map<String, Boolean>>() {
+            public Map<String, Boolean> call() throws Exception {
+                return getUserRoles(userID, roles);
+            }
+        });
+    }
+
+    private Map<String, Boolean> getUserRoles(final String userID, final Set<String> roles) {
         try {
             final ApplicationSettings applicationSettings = applicationSettingsLoader.load();
-            final String bearerToken = getBearerToken(applicationSettings.getTenant(),
-                    applicationSettings.getPrincipalId(), applicationSettings.getPrincipalSecret());
-            final String roleID = getGroupID(applicationSettings.getTenant(), role, bearerToken);
-            if (roleID == null) {
-                return Boolean.FALSE;
+            final Tenant tenant = applicationSettings.getTenant();
+            final String bearerToken = getBearerToken(tenant, applicationSettings.getPrincipalId(),
+                    applicationSettings.getPrincipalSecret());
+            if (bearerToken == null) {
+                return null;
+            }
+            final Map<String, String> roleGroupIDMap = new HashMap<String, String>();
+            for (final String role : roles) {
+                final String groupID = getGroupID(tenant, role, bearerToken);
+                if (groupID != null) {
+                    roleGroupIDMap.put(role, groupID);
+                }
+            }
+            final Set<String> memberGroupIDs = getMemberGroupIDs(tenant, userID,
+                    new ArrayList<String>(new HashSet<String>(roleGroupIDMap.values())), bearerToken);
+            if (memberGroupIDs == null) {
+                return null;
+            }
+            final Map<String, Boolean> result = new HashMap<String, Boolean>();
+            for (final String role : roles) {
+                final String groupID = roleGroupIDMap.get(role);
+                result.put(role, groupID != null && memberGroupIDs.contains(groupID));
             }
-            return isUserInGroup(applicationSettings.getTenant(), userID, roleID, bearerToken);
+            return result;
         } catch (GeneralException e) {
             LOGGER.error("General Exception", e);
-            return Boolean.FALSE;
+            return null;
         } catch (RuntimeException e) {
             LOGGER.error(e.getMessage(), e);
-            return Boolean.FALSE;
+            return null;
         }
     }
 
-    private Boolean isUserInGroup(final Tenant tenant, final String userID, final String groupID,
+    private Set<String> getMemberGroupIDs(final Tenant tenant, final String userID, final List<String> groupIDs,
             final String bearerToken) {
+        final Set<String> memberGroupIDs = new HashSet<String>();
         try {
-            final String urlString = String.format("https://graph.windows.net/%s/isMemberOf?api-version=1.6",
-                    tenant.getName());
-            final String payload = String.format("{\"groupId\":\"%s\",\"memberId\":\"%s\"}", groupID, userID);
-            final URL url = new URL(urlString);
-            final HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-            connection.setRequestProperty("Host", "graph.windows.net");
-            connection.setRequestProperty("Content-Type", "application/json");
-            connection.setRequestProperty("Accept", "application/json");
-            connection.setRequestProperty("Authorization", "Bearer " + bearerToken);
-            connection.setRequestMethod("POST");
-            connection.setDoOutput(true);
-            connection.getOutputStream().write(payload.getBytes());
-            connection.getOutputStream().flush();
-            final StringBuilder result = new StringBuilder();
-            try (final BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                for (String line = in.readLine(); line != null; line = in.readLine()) {
-                    result.append(line);
+            final ObjectMapper mapper = new ObjectMapper();
+            for (int start = 0; start < groupIDs.size(); start += MAX_GROUPS_PER_CHECK) {
+                final ObjectNode payloadNode = mapper.createObjectNode();
+                final ArrayNode groupIDsNode = payloadNode.putArray("groupIds");
+                for (final String groupID : groupIDs.subList(start,
+                        Math.min(start + MAX_GROUPS_PER_CHECK, groupIDs.size()))) {
+                    groupIDsNode.add(groupID);
+                }
+                final URL url = new URL(String.format("%s/%s/users/%s/checkMemberGroups?api-version=1.6",
+                        graphEndPoint, tenant.getName(), URLEncoder.encode(userID, "UTF-8")));
+                final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+                connection.setRequestProperty("Content-Type", "application/json");
+                connection.setRequestProperty("Accept", "application/json");
+                connection.setRequestProperty("Authorization", "Bearer " + bearerToken);
+                connection.setRequestMethod("POST");
+                connection.setDoOutput(true);
+                connection.getOutputStream().write(mapper.writeValueAsBytes(payloadNode));
+                connection.getOutputStream().flush();
+                final JsonNode node = readJson(connection);
+                for (final JsonNode groupIDNode : node.get("value")) {
+                    memberGroupIDs.add(groupIDNode.asText());
                 }
             }
-            final ObjectMapper mapper = new ObjectMapper();
-            final JsonNode node = mapper.readValue(result.toString().getBytes(), JsonNode.class);
-            return node.get("value").asBoolean();
+            return memberGroupIDs;
         } catch (IOException e) {
             LOGGER.error("IO Exception", e);
-            return Boolean.FALSE;
+            return null;
         } catch (RuntimeException e) {
             LOGGER.error(e.getMessage(), e);
-            return Boolean.FALSE;
+            return null;
         }
     }
 
     private String getGroupID(final Tenant tenant, final String group, final String bearerToken) {
+        final GroupID cachedGroupID = groupIDMap.get(group);
+        if (cachedGroupID != null && System.currentTimeMillis() < cachedGroupID.expiry) {
+            return cachedGroupID.value;
+        }
         try {
-            final String urlString = String.format(
-                    "https://graph.windows.net/%s/groups?$filter=displayName%%20eq%%20'%s'&api-version=1.6",
-                    tenant.getName(), URLEncoder.encode(group, "UTF-8"));
-            final URL url = new URL(urlString);
-            final HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-            connection.setRequestProperty("Host", "graph.windows.net");
+            final URL url = new URL(String.format(
+                    "%s/%s/groups?$filter=displayName%%20eq%%20'%s'&api-version=1.6",
+                    graphEndPoint, tenant.getName(), URLEncoder.encode(group, "UTF-8")));
+            final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
             connection.setRequestProperty("Accept", "application/json");
             connection.setRequestProperty("Authorization", "Bearer " + bearerToken);
-            final StringBuilder result = new StringBuilder();
-            try (final BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                for (String line = in.readLine(); line != null; line = in.readLine()) {
-                    result.append(line);
-                }
-            }
-            final ObjectMapper mapper = new ObjectMapper();
-            final JsonNode node = mapper.readValue(result.toString().getBytes(), JsonNode.class);
+            final JsonNode node = readJson(connection);
             for (final JsonNode groupNode : node.get("value")) {
-                return groupNode.get("objectId").asText();
+                final String groupID = groupNode.get("objectId").asText();
+                groupIDMap.put(group, new GroupID(groupID, System.currentTimeMillis() + GROUP_TTL));
+                return groupID;
             }
+            groupIDMap.put(group, new GroupID(null, System.currentTimeMillis() + UNKNOWN_GROUP_TTL));
             return null;
         } catch (IOException e) {
-            LOGGER.error("IO Exception", e);
-            return null;
-        } catch (RuntimeException e) {
-            LOGGER.error(e.getMessage(), e);
-            return null;
+            // not cached, and the roles can't be resolved without it
+            throw new GeneralException("Error looking up group: " + group, e);
         }
     }
 
     private String getBearerToken(final Tenant tenant, final ID principal, final Secret secret) {
-        try {
-            final String payload = String.format(
-                    "grant_type=client_credentials&client_id=%s&client_secret=%s&resource=%s", principal.getValue(),
-                    URLEncoder.encode(secret.getValue(), "UTF-8"),
-                    URLEncoder.encode("https://graph.windows.net", "UTF-8"));
-            final URL url = new URL(
-                    String.format("https://login.microsoftonline.com/%s/oauth2/token", tenant.getName()));
-            final HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-            connection.setRequestMethod("POST");
-            connection.setRequestProperty("Host", "login.microsoftonline.com");
-            connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-            connection.setRequestProperty("Accept", "application/json");
-            connection.setDoOutput(true);
-            connection.getOutputStream().write(payload.getBytes());
-            connection.getOutputStream().flush();
-            final StringBuilder result = new StringBuilder();
-            try (final BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-                for (String line = in.readLine(); line != null; line = in.readLine()) {
-                    result.append(line);
-                }
+        synchronized (bearerTokenLock) {
+            if (bearerToken != null && System.currentTimeMillis() < bearerTokenExpiry) {
+                return bearerToken;
             }
-            final ObjectMapper mapper = new ObjectMapper();
-            final JsonNode node = mapper.readValue(result.toString().getBytes(), JsonNode.class);
-            return node.get("access_token").asText();
-        } catch (IOException e) {
-            LOGGER.error("IO Exception", e);
-            return null;
-        } catch (RuntimeException e) {
-            LOGGER.error(e.getMessage(), e);
-            return null;
+            try {
+                final String payload = String.format(
+                        "grant_type=client_credentials&client_id=%s&client_secret=%s&resource=%s",
+                        principal.getValue(), URLEncoder.encode(secret.getValue(), "UTF-8"),
+                        URLEncoder.encode(DEFAULT_GRAPH_END_POINT, "UTF-8"));
+                final URL url = new URL(String.format("%s/%s/oauth2/token", loginEndPoint, tenant.getName()));
+                final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+                connection.setRequestMethod("POST");
+                connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+                connection.setRequestProperty("Accept", "application/json");
+                connection.setDoOutput(true);
+                connection.getOutputStream().write(payload.getBytes());
+                connection.getOutputStream().flush();
+                final JsonNode node = readJson(connection);
+                final long lifetime = node.has("expires_in")
+                        ? node.get("expires_in").asLong(DEFAULT_BEARER_TOKEN_LIFETIME)
+                        : DEFAULT_BEARER_TOKEN_LIFETIME;
+                bearerToken = node.get("access_token").asText();
+                bearerTokenExpiry = System.currentTimeMillis() + lifetime * 1000 - BEARER_TOKEN_EXPIRY_MARGIN;
+                return bearerToken;
+            } catch (IOException e) {
+                LOGGER.error("IO Exception", e);
+                return null;
+            } catch (RuntimeException e) {
+                LOGGER.error(e.getMessage(), e);
+                return null;
+            }
+        }
+    }
+
+    private JsonNode readJson(final HttpURLConnection connection) throws IOException {
+        final StringBuilder result = new StringBuilder();
+        try (final BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                result.append(line);
+            }
+        }
+        final ObjectMapper mapper = new ObjectMapper();
+        return mapper.readValue(result.toString().getBytes(), JsonNode.class);
+    }
+
+    private static final class GroupID {
+        // null if there's no group with the name
+        private final String value;
+        private final long expiry;
+
+        private GroupID(final String value, final long expiry) {
+            this.value = value;
+            this.expiry = expiry;
         }
     }
 
@@ -14,4 +14,6 @@ public interface KeyStoreLoader {
 
     Future<JsonNode> loadAsync(EndPoint endPoint);
 
+    JsonNode load(EndPoint endPoint);
+
 }
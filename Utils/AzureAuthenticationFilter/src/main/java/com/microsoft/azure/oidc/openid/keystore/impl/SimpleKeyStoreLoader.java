@@ -11,8 +11,6 @@ import java.io.InputStreamReader;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
@@ -20,6 +18,8 @@ import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.oidc.concurrent.executor.AsyncExecutor;
+import com.microsoft.azure.oidc.concurrent.executor.impl.SimpleAsyncExecutor;
 import com.microsoft.azure.oidc.configuration.endpoint.EndPoint;
 import com.microsoft.azure.oidc.exception.PreconditionException;
 import com.microsoft.azure.oidc.openid.keystore.KeyStoreLoader;
@@ -28,21 +28,21 @@ public final class SimpleKeyStoreLoader implements KeyStoreLoader {
     private static final KeyStoreLoader INSTANCE = new SimpleKeyStoreLoader();
     private static final Logger LOGGER = LoggerFactory.getLogger(SimpleKeyStoreLoader.class);
 
+    private final AsyncExecutor asyncExecutor = SimpleAsyncExecutor.getInstance();
+
     @Override
     public Future<JsonNode> loadAsync(final EndPoint endPoint) {
         if (endPoint == null) {
             throw new PreconditionException("Required parameter is null");
         }
-        final ExecutorService executorService = Executors.newSingleThreadExecutor();
-        final Future<JsonNode> future = executorService.submit(new Callable<JsonNode>() {
+        return asyncExecutor.submit(new Callable<JsonNode>() {
             public JsonNode call() throws Exception {
                 return load(endPoint);
             }
         });
-        executorService.shutdown();
-        return future;
     }
 
+    @Override
     public JsonNode load(final EndPoint endPoint) {
         if (endPoint == null) {
             throw new PreconditionException("Required parameter is null");
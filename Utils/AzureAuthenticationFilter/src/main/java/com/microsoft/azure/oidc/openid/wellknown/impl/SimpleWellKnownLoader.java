@@ -11,8 +11,6 @@ import java.io.InputStreamReader;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
@@ -23,32 +21,50 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microsoft.azure.oidc.application.settings.ApplicationSettings;
 import com.microsoft.azure.oidc.application.settings.ApplicationSettingsLoader;
 import com.microsoft.azure.oidc.application.settings.impl.SimpleApplicationSettingsLoader;
+import com.microsoft.azure.oidc.concurrent.executor.AsyncExecutor;
+import com.microsoft.azure.oidc.concurrent.executor.impl.SimpleAsyncExecutor;
 import com.microsoft.azure.oidc.openid.wellknown.WellKnownLoader;
 
-public final class SimpleWellKnownLoader implements WellKnownLoader {
+public class SimpleWellKnownLoader implements WellKnownLoader {
     private static final WellKnownLoader INSTANCE = new SimpleWellKnownLoader();
     private static final Logger LOGGER = LoggerFactory.getLogger(SimpleWellKnownLoader.class);
+    private static final String DEFAULT_LOGIN_END_POINT = "https://login.microsoftonline.com";
 
-    private final ApplicationSettingsLoader applicationSettingsLoader = SimpleApplicationSettingsLoader.getInstance();
+    private final AsyncExecutor asyncExecutor;
+
+    private final ApplicationSettingsLoader applicationSettingsLoader;
+
+    private final String loginEndPoint;
+
+    private SimpleWellKnownLoader() {
+        this(SimpleApplicationSettingsLoader.getInstance(), SimpleAsyncExecutor.getInstance(),
+                DEFAULT_LOGIN_END_POINT);
+    }
+
+    protected SimpleWellKnownLoader(final ApplicationSettingsLoader applicationSettingsLoader,
+            final AsyncExecutor asyncExecutor, final String loginEndPoint) {
+        this.applicationSettingsLoader = applicationSettingsLoader;
+        this.asyncExecutor = asyncExecutor;
+        this.loginEndPoint = loginEndPoint;
+    }
 
     @Override
     public Future<JsonNode> loadAsync() {
-        final ExecutorService executorService = Executors.newSingleThreadExecutor();
-        final Future<JsonNode> future = executorService.submit(new Callable<JsonNode>() {
+        return asyncExecutor.submit(new Callable<JsonNode>() {
             public JsonNode call() throws Exception {
                 return load();
             }
         });
-        executorService.shutdown();
-        return future;
     }
 
+    @Override
     public JsonNode load() {
         try {
             final ApplicationSettings applicationSettings = applicationSettingsLoader.load();
             final StringBuilder builder = new StringBuilder();
             final URL url = new URL(
-                    String.format("https://login.microsoftonline.com/%s/v2.0/.well-known/openid-configuration?p=%s",
+                    String.format("%s/%s/v2.0/.well-known/openid-configuration?p=%s",
+                            loginEndPoint,
                             applicationSettings.getTenant(), applicationSettings.getOIDCPolicy()));
             final URLConnection connection = url.openConnection();
             try (final BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
@@ -0,0 +1,18 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.token;
+
+public interface TokenCache {
+
+    Token get(String tokenString);
+
+    void put(String tokenString, Token token);
+
+    Long getHitCount();
+
+    Long getMissCount();
+
+}
@@ -21,4 +21,6 @@ public interface TokenValidator {
 
     Boolean validateCommon(Token token);
 
+    void clear();
+
 }
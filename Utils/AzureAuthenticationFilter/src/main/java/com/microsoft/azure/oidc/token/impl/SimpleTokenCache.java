@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.token.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import com.microsoft.azure.oidc.common.timestamp.TimeStamp;
+import com.microsoft.azure.oidc.common.timestamp.TimeStampFactory;
+import com.microsoft.azure.oidc.common.timestamp.impl.SimpleTimeStampFactory;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
+import com.microsoft.azure.oidc.exception.PreconditionException;
+import com.microsoft.azure.oidc.token.Token;
+import com.microsoft.azure.oidc.token.TokenCache;
+
+/**
+ * Cache of the tokens which passed validation, keyed by the SHA-256 digest of the raw token string, so that the
+ * replayed token of a session skips parsing and signature verification. A cached token is only served until its
+ * expiration.
+ */
+public final class SimpleTokenCache implements TokenCache {
+    private static final TokenCache INSTANCE = new SimpleTokenCache();
+    private static final String CACHE_NAME = "tokenCache";
+
+    private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
+
+    private final TimeStampFactory timeStampFactory = SimpleTimeStampFactory.getInstance();
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    @Override
+    public Token get(final String tokenString) {
+        if (tokenString == null) {
+            throw new PreconditionException("Required parameter is null");
+        }
+        final ConcurrentCache<String, Token> cache = concurrentCacheService.getCache(Token.class, CACHE_NAME);
+        final Token token = cache == null ? null : cache.get(DigestUtils.sha256Hex(tokenString));
+        if (token == null || !isUnexpired(token)) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return token;
+    }
+
+    @Override
+    public void put(final String tokenString, final Token token) {
+        if (tokenString == null || token == null) {
+            throw new PreconditionException("Required parameter is null");
+        }
+        final ConcurrentCache<String, Token> cache = concurrentCacheService.getCache(Token.class, CACHE_NAME);
+        if (cache == null || !isUnexpired(token)) {
+            return;
+        }
+        cache.putIfAbsent(DigestUtils.sha256Hex(tokenString), token);
+    }
+
+    @Override
+    public Long getHitCount() {
+        return hitCount.get();
+    }
+
+    @Override
+    public Long getMissCount() {
+        return missCount.get();
+    }
+
+    private Boolean isUnexpired(final Token token) {
+        final TimeStamp now = timeStampFactory.createTimeStamp(System.currentTimeMillis() / 1000);
+        return token.getExpiration().compareTo(now) > 0;
+    }
+
+    public static TokenCache getInstance() {
+        return INSTANCE;
+    }
+}
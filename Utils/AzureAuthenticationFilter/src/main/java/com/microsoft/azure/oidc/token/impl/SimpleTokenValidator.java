@@ -5,15 +5,16 @@
 
 package com.microsoft.azure.oidc.token.impl;
 
-import java.math.BigInteger;
 import java.security.InvalidKeyException;
-import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.security.Signature;
 import java.security.SignatureException;
 import java.security.spec.InvalidKeySpecException;
-import java.security.spec.RSAPublicKeySpec;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.codec.binary.Base64;
 import org.slf4j.Logger;
@@ -28,8 +29,10 @@ import com.microsoft.azure.oidc.common.timestamp.impl.SimpleTimeStampFactory;
 import com.microsoft.azure.oidc.configuration.Configuration;
 import com.microsoft.azure.oidc.configuration.ConfigurationCache;
 import com.microsoft.azure.oidc.configuration.impl.SimpleConfigurationCache;
+import com.microsoft.azure.oidc.configuration.key.Key;
 import com.microsoft.azure.oidc.exception.GeneralException;
 import com.microsoft.azure.oidc.exception.PreconditionException;
+import com.microsoft.azure.oidc.filter.configuration.algorithm.AlgorithmConfiguration;
 import com.microsoft.azure.oidc.filter.configuration.algorithm.AlgorithmConfigurationService;
 import com.microsoft.azure.oidc.filter.configuration.algorithm.impl.SimpleAlgorithmConfigurationService;
 import com.microsoft.azure.oidc.token.Token;
@@ -38,6 +41,7 @@ import com.microsoft.azure.oidc.token.TokenValidator;
 public class SimpleTokenValidator implements TokenValidator {
     private static final TokenValidator INSTANCE = new SimpleTokenValidator();
     private static final Logger LOGGER = LoggerFactory.getLogger(SimpleTokenValidator.class);
+    private static final int MAX_POOLED_SIGNATURES = 16;
 
     private final ApplicationSettingsLoader applicationSettingsLoader = SimpleApplicationSettingsLoader.getInstance();
 
@@ -47,37 +51,44 @@ public class SimpleTokenValidator implements TokenValidator {
 
     private final AlgorithmConfigurationService algorithmConfigurationService = SimpleAlgorithmConfigurationService.getInstance();
 
+    // Signature instances aren't thread safe, so they are borrowed from a bounded pool per algorithm to avoid the
+    // provider lookup per request without pinning an instance to every request thread
+    private final ConcurrentMap<String, BlockingQueue<Signature>> signatures = new ConcurrentHashMap<String, BlockingQueue<Signature>>();
+
     @Override
     public Boolean validateSignature(final Token token) {
         if (token == null) {
             throw new PreconditionException("Required parameter is null");
         }
-        if (algorithmConfigurationService.get().getAlgorithmClassMap().get(token.getAlgorithm().getName()).equals("HMAC")) {
+        final AlgorithmConfiguration algorithmConfiguration = algorithmConfigurationService.get();
+        final String algorithmName = token.getAlgorithm().getName();
+        final String keyAlgorithm = algorithmConfiguration.getAlgorithmClassMap().get(algorithmName);
+        if (keyAlgorithm.equals("HMAC")) {
             return Boolean.FALSE;
         }
-        final Configuration configuration = configurationCache.load();
+        final Configuration configuration = configurationCache.loadWithKey(token.getKeyName());
         if (configuration == null) {
             throw new GeneralException("Error loading configuration");
         }
         try {
+            final Key key = configuration.getKey(token.getKeyName());
+            if (key == null) {
+                return Boolean.FALSE;
+            }
             final TimeStamp now = timeStampFactory.createTimeStamp(System.currentTimeMillis() / 1000);
-            if (configuration.getKey(token.getKeyName()).getNotBefore().compareTo(now) > 0) {
+            if (key.getNotBefore().compareTo(now) > 0) {
                 return Boolean.FALSE;
             }
-            final Base64 decoder = new Base64();
-            final BigInteger exponent = new BigInteger(1,
-                    decoder.decode(configuration.getKey(token.getKeyName()).getExponent().getValue()));
-            final BigInteger modulus = new BigInteger(1,
-                    decoder.decode(configuration.getKey(token.getKeyName()).getSecret().getValue()));
-            final RSAPublicKeySpec pubKeySpec = new RSAPublicKeySpec(modulus, exponent);
-            final KeyFactory keyFactory = KeyFactory
-                    .getInstance(algorithmConfigurationService.get().getAlgorithmClassMap().get(token.getAlgorithm().getName()));
-            final PublicKey pubKey = keyFactory.generatePublic(pubKeySpec);
-            final Signature sig = Signature
-                    .getInstance(algorithmConfigurationService.get().getAlgorithmMap().get(token.getAlgorithm().getName()));
-            sig.initVerify(pubKey);
-            sig.update(token.getPayload().getValue().getBytes());
-            return sig.verify(decoder.decode(token.getSignature().getValue()));
+            final PublicKey pubKey = configuration.getPublicKey(token.getKeyName(), keyAlgorithm);
+            final String signatureAlgorithm = algorithmConfiguration.getAlgorithmMap().get(algorithmName);
+            final Signature sig = borrowSignature(signatureAlgorithm);
+            try {
+                sig.initVerify(pubKey);
+                sig.update(token.getPayload().getValue().getBytes());
+                return sig.verify(new Base64().decode(token.getSignature().getValue()));
+            } finally {
+                getSignaturePool(signatureAlgorithm).offer(sig);
+            }
         } catch (NoSuchAlgorithmException | InvalidKeySpecException | SignatureException | InvalidKeyException e) {
             LOGGER.error(e.getMessage(), e);
             return Boolean.FALSE;
@@ -170,6 +181,31 @@ public class SimpleTokenValidator implements TokenValidator {
         return Boolean.TRUE;
     }
 
+    @Override
+    public void clear() {
+        signatures.clear();
+    }
+
+    private Signature borrowSignature(final String signatureAlgorithm) throws NoSuchAlgorithmException {
+        final Signature signature = getSignaturePool(signatureAlgorithm).poll();
+        if (signature != null) {
+            return signature;
+        }
+        return Signature.getInstance(signatureAlgorithm);
+    }
+
+    private BlockingQueue<Signature> getSignaturePool(final String signatureAlgorithm) {
+        BlockingQueue<Signature> pool = signatures.get(signatureAlgorithm);
+        if (pool == null) {
+            final BlockingQueue<Signature> newPool = new ArrayBlockingQueue<Signature>(MAX_POOLED_SIGNATURES);
+            pool = signatures.putIfAbsent(signatureAlgorithm, newPool);
+            if (pool == null) {
+                pool = newPool;
+            }
+        }
+        return pool;
+    }
+
     public static TokenValidator getInstance() {
         return INSTANCE;
     }
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.configuration.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.microsoft.azure.oidc.concurrent.executor.AsyncExecutor;
+import com.microsoft.azure.oidc.configuration.Configuration;
+import com.microsoft.azure.oidc.configuration.ConfigurationLoader;
+import com.microsoft.azure.oidc.future.FutureHelper;
+import com.microsoft.azure.oidc.future.impl.SimpleFutureHelper;
+
+public class SimpleConfigurationCacheTest {
+    private final List<FutureTask<?>> queuedTasks = new ArrayList<FutureTask<?>>();
+    private final AtomicInteger loadCount = new AtomicInteger();
+    private boolean queueTasks;
+    private Thread concurrentLoad;
+    private SimpleConfigurationCache cache;
+
+    @Before
+    public void setUp() {
+        final FutureHelper futureHelper = new SimpleFutureHelper();
+        futureHelper.setTimeout(100L);
+        cache = new SimpleConfigurationCache(new TestConfigurationLoader(), futureHelper, new TestAsyncExecutor());
+    }
+
+    @Test
+    public void testCancelledRefreshIsReplaced() {
+        queueTasks = true;
+        assertNull(cache.load());
+        assertEquals(1, queuedTasks.size());
+        // as if the queued task was dropped by shutdownNow, so it never runs
+        queuedTasks.get(0).cancel(true);
+
+        queueTasks = false;
+        final Configuration configuration = cache.load();
+
+        assertNotNull(configuration);
+        assertEquals(1, loadCount.get());
+        assertSame(configuration, cache.load());
+    }
+
+    @Test
+    public void testTimedOutRefreshIsShared() {
+        queueTasks = true;
+        assertNull(cache.load());
+        assertFalse(queuedTasks.get(0).isCancelled());
+
+        queuedTasks.get(0).run();
+        final Configuration configuration = cache.load();
+
+        assertNotNull(configuration);
+        assertEquals(1, loadCount.get());
+        assertEquals(1, queuedTasks.size());
+    }
+
+    @Test
+    public void testCallerRunRefreshDoesNotBlockOtherRequests() throws InterruptedException {
+        concurrentLoad = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                cache.load();
+            }
+        });
+
+        // the executor runs the load in this thread, as when it is saturated
+        assertNotNull(cache.load());
+
+        // the concurrent request shared the running refresh rather than waiting on the refresh lock
+        assertFalse(concurrentLoad.isAlive());
+        assertEquals(1, loadCount.get());
+    }
+
+    private static Configuration newConfiguration() {
+        return (Configuration) Proxy.newProxyInstance(Configuration.class.getClassLoader(),
+                new Class<?>[] { Configuration.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        return null;
+                    }
+                });
+    }
+
+    private class TestConfigurationLoader implements ConfigurationLoader {
+        @Override
+        public Future<Configuration> loadAsync() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Configuration load() {
+            loadCount.incrementAndGet();
+            if (concurrentLoad != null) {
+                concurrentLoad.start();
+                try {
+                    concurrentLoad.join(1000L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return newConfiguration();
+        }
+    }
+
+    private class TestAsyncExecutor implements AsyncExecutor {
+        @Override
+        public void initialise(final Integer poolSize) {
+        }
+
+        @Override
+        public <T> Future<T> submit(final Callable<T> task) {
+            final FutureTask<T> future = new FutureTask<T>(task);
+            if (queueTasks) {
+                queuedTasks.add(future);
+            } else {
+                future.run();
+            }
+            return future;
+        }
+
+        @Override
+        public void shutdownNow() {
+        }
+    }
+}
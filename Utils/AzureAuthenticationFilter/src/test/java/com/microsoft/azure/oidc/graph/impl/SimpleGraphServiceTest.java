@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.oidc.graph.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.microsoft.azure.oidc.application.settings.ApplicationSettings;
+import com.microsoft.azure.oidc.application.settings.ApplicationSettingsLoader;
+import com.microsoft.azure.oidc.application.settings.Secret;
+import com.microsoft.azure.oidc.application.settings.Tenant;
+import com.microsoft.azure.oidc.common.id.ID;
+import com.microsoft.azure.oidc.concurrent.executor.AsyncExecutor;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class SimpleGraphServiceTest {
+    private static final String TENANT = "test-tenant";
+    private static final String BEARER_TOKEN = "test-bearer-token";
+    private static final String USER_ID = "test-user";
+    private static final String MISSING_ROLE = "MissingRole";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicInteger tokenRequests = new AtomicInteger();
+    private final AtomicInteger groupRequests = new AtomicInteger();
+    private final AtomicInteger checkRequests = new AtomicInteger();
+    private final Set<String> memberGroupIDs = new HashSet<String>();
+    private volatile boolean failChecks;
+    private HttpServer server;
+    private SimpleGraphService graphService;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                try {
+                    respond(exchange);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.start();
+        final String endPoint = String.format("http://localhost:%d", server.getAddress().getPort());
+        graphService = new SimpleGraphService(new TestApplicationSettingsLoader(), new TestAsyncExecutor(), endPoint,
+                endPoint);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testRolesAreResolvedWithBatchedChecks() throws InterruptedException, ExecutionException {
+        final Set<String> roles = new LinkedHashSet<String>();
+        for (int i = 0; i < 25; i++) {
+            roles.add("Role" + i);
+        }
+        roles.add(MISSING_ROLE);
+        memberGroupIDs.add(getGroupID("Role3"));
+        memberGroupIDs.add(getGroupID("Role24"));
+
+        final Map<String, Boolean> result = graphService.getUserRolesAsync(USER_ID, roles).get();
+
+        assertEquals(roles, result.keySet());
+        for (final String role : roles) {
+            assertEquals(role, role.equals("Role3") || role.equals("Role24"), result.get(role));
+        }
+        assertEquals(1, tokenRequests.get());
+        assertEquals(26, groupRequests.get());
+        // the 25 group IDs in checks of at most 20
+        assertEquals(2, checkRequests.get());
+    }
+
+    @Test
+    public void testTokenAndGroupIDsAreReused() throws InterruptedException, ExecutionException {
+        memberGroupIDs.add(getGroupID("Role1"));
+
+        assertEquals(Boolean.TRUE, graphService.isUserInRoleAsync(USER_ID, "Role1").get());
+        assertEquals(Boolean.FALSE, graphService.isUserInRoleAsync(USER_ID, MISSING_ROLE).get());
+        assertEquals(Boolean.TRUE, graphService.isUserInRoleAsync(USER_ID, "Role1").get());
+        assertEquals(Boolean.FALSE, graphService.isUserInRoleAsync(USER_ID, MISSING_ROLE).get());
+
+        assertEquals(1, tokenRequests.get());
+        assertEquals(2, groupRequests.get());
+        // the memberships aren't remembered, and a role without a group needs no check
+        assertEquals(2, checkRequests.get());
+    }
+
+    @Test
+    public void testFailedCheckIsUnresolved() throws InterruptedException, ExecutionException {
+        failChecks = true;
+
+        assertNull(graphService.getUserRolesAsync(USER_ID, Collections.singleton("Role1")).get());
+        assertNull(graphService.isUserInRoleAsync(USER_ID, "Role1").get());
+    }
+
+    private static String getGroupID(final String role) {
+        return "id-" + role;
+    }
+
+    private void respond(final HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        if (path.equals("/" + TENANT + "/oauth2/token")) {
+            tokenRequests.incrementAndGet();
+            final ObjectNode node = mapper.createObjectNode();
+            node.put("access_token", BEARER_TOKEN);
+            node.put("expires_in", 3600);
+            send(exchange, 200, node);
+            return;
+        }
+        if (!("Bearer " + BEARER_TOKEN).equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+            send(exchange, 401, mapper.createObjectNode());
+            return;
+        }
+        if (path.equals("/" + TENANT + "/groups")) {
+            groupRequests.incrementAndGet();
+            final String query = exchange.getRequestURI().getQuery();
+            final String role = query.substring(query.indexOf('\'') + 1, query.lastIndexOf('\''));
+            final ObjectNode node = mapper.createObjectNode();
+            final ArrayNode value = node.putArray("value");
+            if (!role.equals(MISSING_ROLE)) {
+                value.addObject().put("objectId", getGroupID(role));
+            }
+            send(exchange, 200, node);
+            return;
+        }
+        if (path.equals("/" + TENANT + "/users/" + USER_ID + "/checkMemberGroups")) {
+            checkRequests.incrementAndGet();
+            if (failChecks) {
+                send(exchange, 500, mapper.createObjectNode());
+                return;
+            }
+            final JsonNode payload = mapper.readValue(readAll(exchange.getRequestBody()), JsonNode.class);
+            final ObjectNode node = mapper.createObjectNode();
+            final ArrayNode value = node.putArray("value");
+            for (final JsonNode groupID : payload.get("groupIds")) {
+                if (memberGroupIDs.contains(groupID.asText())) {
+                    value.add(groupID.asText());
+                }
+            }
+            send(exchange, 200, node);
+            return;
+        }
+        send(exchange, 404, mapper.createObjectNode());
+    }
+
+    private void send(final HttpExchange exchange, final int status, final JsonNode node) throws IOException {
+        final byte[] body = mapper.writeValueAsBytes(node);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (final OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] readAll(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        for (int count = in.read(buffer); count != -1; count = in.read(buffer)) {
+            out.write(buffer, 0, count);
+        }
+        return out.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T newValue(final Class<T> clazz, final String value) {
+        return (T) Proxy.newProxyInstance(clazz.getClassLoader(), new Class<?>[] { clazz }, new InvocationHandler() {
+            @Override
+            public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                return value;
+            }
+        });
+    }
+
+    private static class TestApplicationSettingsLoader implements ApplicationSettingsLoader {
+        @Override
+        public ApplicationSettings load() {
+            final Map<String, Object> values = new HashMap<String, Object>();
+            values.put("getTenant", newValue(Tenant.class, TENANT));
+            values.put("getPrincipalId", newValue(ID.class, "test-principal"));
+            values.put("getPrincipalSecret", newValue(Secret.class, "test-secret"));
+            return (ApplicationSettings) Proxy.newProxyInstance(ApplicationSettings.class.getClassLoader(),
+                    new Class<?>[] { ApplicationSettings.class }, new InvocationHandler() {
+                        @Override
+                        public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                            return values.get(method.getName());
+                        }
+                    });
+        }
+    }
+
+    private static class TestAsyncExecutor implements AsyncExecutor {
+        @Override
+        public void initialise(final Integer poolSize) {
+        }
+
+        @Override
+        public <T> Future<T> submit(final Callable<T> task) {
+            final FutureTask<T> future = new FutureTask<T>(task);
+            future.run();
+            return future;
+        }
+
+        @Override
+        public void shutdownNow() {
+        }
+    }
+}
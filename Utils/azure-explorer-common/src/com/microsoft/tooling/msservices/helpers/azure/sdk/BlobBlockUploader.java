@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.google.common.base.Preconditions;
+import com.microsoft.azure.storage.blob.BlobRequestOptions;
+import com.microsoft.azure.storage.blob.BlockEntry;
+import com.microsoft.azure.storage.blob.BlockSearchMode;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import com.microsoft.azure.storage.core.Base64;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Uploads the content of a block blob with up to {@code parallelism} blocks in flight. The blocks are read in order
+ * into a fixed pool of reusable buffers, so at most {@code parallelism * blockSize} bytes are held in memory, and the
+ * block list is committed in the order of the content once every block is uploaded.
+ */
+final class BlobBlockUploader {
+    private final CloudBlockBlob blob;
+    private final int blockSize;
+    private final int parallelism;
+    private long uploadedBytes = 0;
+
+    BlobBlockUploader(@NotNull CloudBlockBlob blob, long blockSize, int parallelism) {
+        Preconditions.checkArgument(blockSize > 0 && blockSize <= Integer.MAX_VALUE, "Invalid block size: %s", blockSize);
+        Preconditions.checkArgument(parallelism > 0, "Invalid parallelism: %s", parallelism);
+        this.blob = blob;
+        this.blockSize = (int) blockSize;
+        this.parallelism = parallelism;
+    }
+
+    void upload(@NotNull BlockReader reader, long length, @Nullable CallableSingleArg<Void, Long> processBlock)
+            throws Exception {
+        final int blockCount = (int) ((length + blockSize - 1) / blockSize);
+        final int bufferCount = Math.min(parallelism, blockCount);
+        final BlockingQueue<byte[]> buffers = new ArrayBlockingQueue<>(Math.max(bufferCount, 1));
+        for (int i = 0; i < bufferCount; i++) {
+            buffers.add(new byte[(int) Math.min(blockSize, length)]);
+        }
+
+        final BlockEntry[] blockEntries = new BlockEntry[blockCount];
+        final BlobRequestOptions options = StorageTaskExecutor.noRetry(new BlobRequestOptions());
+        try (StorageTaskExecutor executor = new StorageTaskExecutor("azure-blob-upload-%d", bufferCount)) {
+            reportProgress(processBlock, 0);
+            for (int index = 0; index < blockCount && !executor.isFailed(); index++) {
+                final long offset = (long) index * blockSize;
+                final int size = (int) Math.min(blockSize, length - offset);
+                // waits until an uploaded block gives its buffer back
+                final byte[] buffer = buffers.take();
+                try {
+                    reader.read(offset, buffer, size);
+                } catch (IOException e) {
+                    buffers.add(buffer);
+                    throw e;
+                }
+
+                final BlockEntry entry = new BlockEntry(newBlockId(), BlockSearchMode.UNCOMMITTED);
+                entry.setSize(size);
+                blockEntries[index] = entry;
+                executor.submit(() -> {
+                    try {
+                        // a re-uploaded block replaces the uncommitted block of the same id
+                        StorageTaskExecutor.retry(() -> {
+                            blob.uploadBlock(entry.getId(), new ByteArrayInputStream(buffer, 0, size), size, null,
+                                    options, null);
+                            return null;
+                        }, () -> String.format("block %s of blob %s", entry.getId(), blob.getName()));
+                        reportProgress(processBlock, size);
+                        return null;
+                    } finally {
+                        buffers.add(buffer);
+                    }
+                });
+            }
+
+            executor.awaitAll();
+            blob.commitBlockList(Arrays.asList(blockEntries));
+        }
+    }
+
+    private synchronized void reportProgress(@Nullable CallableSingleArg<Void, Long> processBlock, long size)
+            throws Exception {
+        uploadedBytes += size;
+        if (processBlock != null) {
+            processBlock.call(uploadedBytes);
+        }
+    }
+
+    private static String newBlockId() {
+        return Base64.encode(UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the block of the content at {@code offset} into {@code buffer}. The blocks are read one at a time, in
+     * order.
+     */
+    interface BlockReader {
+        void read(long offset, byte[] buffer, int size) throws IOException;
+    }
+
+    /**
+     * The blocks are copied into the buffers with positional reads instead of a memory mapping, since a mapping
+     * keeps the file locked on Windows until it's garbage collected.
+     */
+    static BlockReader fromChannel(@NotNull FileChannel channel) {
+        return (offset, buffer, size) -> {
+            final ByteBuffer target = ByteBuffer.wrap(buffer, 0, size);
+            while (target.hasRemaining()) {
+                if (channel.read(target, offset + target.position()) < 0) {
+                    throw new EOFException("Unexpected end of file at " + (offset + target.position()));
+                }
+            }
+        };
+    }
+
+    static BlockReader fromStream(@NotNull InputStream content) {
+        return (offset, buffer, size) -> {
+            int read = 0;
+            while (read < size) {
+                final int count = content.read(buffer, read, size - read);
+                if (count < 0) {
+                    throw new EOFException("Unexpected end of stream at " + (offset + read));
+                }
+                read += count;
+            }
+        };
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.microsoft.azure.storage.AccessCondition;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.BlobProperties;
+import com.microsoft.azure.storage.blob.BlobRequestOptions;
+import com.microsoft.azure.storage.blob.CloudBlob;
+import com.microsoft.azure.storage.core.Base64;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Downloads a blob into a file as ranges of {@code rangeSize} bytes, with up to {@code parallelism} ranges fetched at
+ * the same time. Each range is written at its offset of the pre-sized file. The completed ranges are recorded in a
+ * progress file next to the target, so that a failed download resumes with the missing ranges as long as the blob
+ * isn't changed. The progress file is removed once the download completes, or fails for a deleted or changed blob,
+ * and a target that doesn't match the MD5 of the blob is removed along with it.
+ */
+final class BlobRangeDownloader {
+    private static final Logger LOGGER = Logger.getLogger(BlobRangeDownloader.class.getName());
+    static final String PROGRESS_FILE_SUFFIX = ".download";
+    // the largest range the service returns a transactional MD5 for
+    private static final long MAX_TRANSACTIONAL_MD5_RANGE = 4 * 1024 * 1024;
+    private static final int PROGRESS_MAGIC = 0x42524450;
+    private static final int VERIFY_BUFFER_SIZE = 1024 * 1024;
+
+    private final CloudBlob blob;
+    private final int rangeSize;
+    private final int parallelism;
+    private BitSet completedRanges;
+    private long downloadedBytes;
+
+    BlobRangeDownloader(@NotNull CloudBlob blob, long rangeSize, int parallelism) {
+        Preconditions.checkArgument(rangeSize > 0 && rangeSize <= Integer.MAX_VALUE, "Invalid range size: %s", rangeSize);
+        Preconditions.checkArgument(parallelism > 0, "Invalid parallelism: %s", parallelism);
+        this.blob = blob;
+        this.rangeSize = (int) rangeSize;
+        this.parallelism = parallelism;
+    }
+
+    void download(@NotNull Path target, @Nullable CallableSingleArg<Void, Long> processBlock) throws Exception {
+        blob.downloadAttributes();
+        final BlobProperties properties = blob.getProperties();
+        final long length = properties.getLength();
+        final String eTag = Strings.nullToEmpty(properties.getEtag());
+        final int rangeCount = (int) ((length + rangeSize - 1) / rangeSize);
+        final Path progressPath = getProgressPath(target);
+
+        completedRanges = loadProgress(progressPath, eTag, length);
+        if (!Files.isRegularFile(target) || Files.size(target) != length) {
+            completedRanges.clear();
+        }
+        downloadedBytes = 0;
+        final List<Integer> pendingRanges = new ArrayList<>();
+        for (int index = 0; index < rangeCount; index++) {
+            if (completedRanges.get(index)) {
+                downloadedBytes += getRangeLength(index, length);
+            } else {
+                pendingRanges.add(index);
+            }
+        }
+
+        final boolean verified;
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            if (completedRanges.isEmpty()) {
+                channel.truncate(0);
+            }
+            if (channel.size() > length) {
+                channel.truncate(length);
+            } else if (channel.size() < length) {
+                channel.write(ByteBuffer.allocate(1), length - 1);
+            }
+
+            reportProgress(processBlock, 0);
+            downloadRanges(channel, pendingRanges, length, eTag, progressPath, processBlock);
+
+            verified = Strings.isNullOrEmpty(properties.getContentMD5())
+                    || properties.getContentMD5().equals(computeMD5(channel));
+        } catch (StorageException e) {
+            final int statusCode = e.getHttpStatusCode();
+            if (statusCode == HttpURLConnection.HTTP_NOT_FOUND || statusCode == HttpURLConnection.HTTP_PRECON_FAILED) {
+                // the blob was deleted or changed since the download started, so the progress can't be resumed
+                Files.deleteIfExists(progressPath);
+            }
+            throw e;
+        }
+        Files.deleteIfExists(progressPath);
+        if (!verified) {
+            // the corrupt content mustn't be taken for the blob, and a new download starts over
+            Files.deleteIfExists(target);
+            throw new IOException(String.format("The downloaded content of %s doesn't match its MD5 %s",
+                    blob.getName(), properties.getContentMD5()));
+        }
+    }
+
+    private void downloadRanges(FileChannel channel, List<Integer> pendingRanges, long length, String eTag,
+                                Path progressPath, @Nullable CallableSingleArg<Void, Long> processBlock)
+            throws Exception {
+        if (pendingRanges.isEmpty()) {
+            return;
+        }
+        final int workerCount = Math.min(parallelism, pendingRanges.size());
+        final AtomicInteger nextRange = new AtomicInteger();
+        final AccessCondition accessCondition = eTag.isEmpty() ? null : AccessCondition.generateIfMatchCondition(eTag);
+        final BlobRequestOptions options = StorageTaskExecutor.noRetry(new BlobRequestOptions());
+        options.setUseTransactionalContentMD5(rangeSize <= MAX_TRANSACTIONAL_MD5_RANGE);
+
+        try (StorageTaskExecutor executor = new StorageTaskExecutor("azure-blob-download-%d", workerCount)) {
+            for (int i = 0; i < workerCount; i++) {
+                executor.submit(() -> {
+                    final byte[] buffer = new byte[(int) Math.min(rangeSize, length)];
+                    int position;
+                    while (!executor.isFailed() && (position = nextRange.getAndIncrement()) < pendingRanges.size()) {
+                        final int index = pendingRanges.get(position);
+                        downloadRange(channel, index, length, buffer, accessCondition, options);
+                        markCompleted(channel, index, length, eTag, progressPath, processBlock);
+                    }
+                    return null;
+                });
+            }
+            executor.awaitAll();
+        }
+    }
+
+    private void downloadRange(FileChannel channel, int index, long length, byte[] buffer,
+                               @Nullable AccessCondition accessCondition, BlobRequestOptions options)
+            throws Exception {
+        final long offset = (long) index * rangeSize;
+        final int size = (int) getRangeLength(index, length);
+        StorageTaskExecutor.retry(() -> {
+            final int count = blob.downloadRangeToByteArray(offset, (long) size, buffer, 0, accessCondition, options,
+                    null);
+            if (count != size) {
+                throw new IOException(String.format("Expected %d bytes at %d but got %d", size, offset, count));
+            }
+            return null;
+        }, () -> String.format("range at %d of blob %s", offset, blob.getName()));
+
+        final ByteBuffer source = ByteBuffer.wrap(buffer, 0, size);
+        while (source.hasRemaining()) {
+            channel.write(source, offset + source.position());
+        }
+    }
+
+    private synchronized void markCompleted(FileChannel channel, int index, long length, String eTag,
+                                            Path progressPath, @Nullable CallableSingleArg<Void, Long> processBlock)
+            throws Exception {
+        // the range has to reach the disk before the progress does, or a crash could leave it recorded but missing
+        channel.force(false);
+        completedRanges.set(index);
+        saveProgress(progressPath, eTag, length);
+        reportProgress(processBlock, getRangeLength(index, length));
+    }
+
+    private synchronized void reportProgress(@Nullable CallableSingleArg<Void, Long> processBlock, long size)
+            throws Exception {
+        downloadedBytes += size;
+        if (processBlock != null) {
+            processBlock.call(downloadedBytes);
+        }
+    }
+
+    private long getRangeLength(int index, long length) {
+        return Math.min(rangeSize, length - (long) index * rangeSize);
+    }
+
+    /**
+     * @return the completed ranges of the earlier download, or none if it was of another version of the blob
+     */
+    private BitSet loadProgress(Path progressPath, String eTag, long length) {
+        try (DataInputStream input = new DataInputStream(Files.newInputStream(progressPath))) {
+            if (input.readInt() == PROGRESS_MAGIC && input.readUTF().equals(eTag) && input.readLong() == length
+                    && input.readInt() == rangeSize) {
+                final long[] words = new long[input.readInt()];
+                for (int i = 0; i < words.length; i++) {
+                    words[i] = input.readLong();
+                }
+                return BitSet.valueOf(words);
+            }
+        } catch (NoSuchFileException e) {
+            return new BitSet();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to read the download progress " + progressPath, e);
+        }
+        return new BitSet();
+    }
+
+    private void saveProgress(Path progressPath, String eTag, long length) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(PROGRESS_MAGIC);
+            output.writeUTF(eTag);
+            output.writeLong(length);
+            output.writeInt(rangeSize);
+            final long[] words = completedRanges.toLongArray();
+            output.writeInt(words.length);
+            for (long word : words) {
+                output.writeLong(word);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(progressPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+
+    private static String computeMD5(FileChannel channel) throws IOException, NoSuchAlgorithmException {
+        final MessageDigest digest = MessageDigest.getInstance("MD5");
+        final ByteBuffer buffer = ByteBuffer.allocate(VERIFY_BUFFER_SIZE);
+        long position = 0;
+        int count;
+        while ((count = channel.read(buffer, position)) > 0) {
+            buffer.flip();
+            digest.update(buffer);
+            buffer.clear();
+            position += count;
+        }
+        return Base64.encode(digest.digest());
+    }
+
+    static Path getProgressPath(Path target) {
+        return target.resolveSibling(target.getFileName() + PROGRESS_FILE_SUFFIX);
+    }
+}
@@ -7,6 +7,9 @@ package com.microsoft.tooling.msservices.helpers.azure.sdk;
 
 import com.google.common.base.Strings;
 import com.microsoft.azure.storage.CloudStorageAccount;
+import com.microsoft.azure.storage.ResultContinuation;
+import com.microsoft.azure.storage.ResultContinuationType;
+import com.microsoft.azure.storage.ResultSegment;
 import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.blob.*;
 import com.microsoft.azure.storage.core.Base64;
@@ -17,6 +20,7 @@ import com.microsoft.azure.storage.queue.CloudQueueMessage;
 import com.microsoft.azure.storage.queue.QueueListingDetails;
 import com.microsoft.azure.storage.table.*;
 import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import com.microsoft.tooling.msservices.helpers.collections.Segment;
 import com.microsoft.tooling.msservices.model.storage.BlobContainer;
 import com.microsoft.tooling.msservices.model.storage.BlobDirectory;
 import com.microsoft.tooling.msservices.model.storage.BlobFile;
@@ -34,14 +38,26 @@ import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import com.microsoft.azuretools.utils.StorageAccoutUtils;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URISyntaxException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.security.InvalidKeyException;
 import java.util.*;
 import java.util.Map.Entry;
 
 public class StorageClientSDKManager {
+    public static final int DEFAULT_UPLOAD_PARALLELISM = 4;
+    public static final int DEFAULT_DOWNLOAD_PARALLELISM = 4;
+    public static final long DEFAULT_DOWNLOAD_RANGE_SIZE = 4 * 1024 * 1024;
+    // the most entities the service returns in one page
+    public static final int TABLE_QUERY_PAGE_SIZE = 1000;
+    public static final int DEFAULT_TABLE_BATCH_PARALLELISM = 4;
+    // the next partition and row keys are sent as headers, which can't contain line breaks
+    private static final String TABLE_CONTINUATION_SEPARATOR = "\n";
+
     private static StorageClientSDKManager apiManager;
 
     private StorageClientSDKManager() {
@@ -223,53 +239,10 @@ public class StorageClientSDKManager {
             CloudBlobDirectory directory = container.getDirectoryReference(blobDirectory.getPath());
 
             for (ListBlobItem item : directory.listBlobs()) {
-                String uri = item.getUri() != null ? item.getUri().toString() : "";
-
-                if (item instanceof CloudBlobDirectory) {
-                    CloudBlobDirectory subDirectory = (CloudBlobDirectory) item;
-
-                    String name = extractBlobItemName(subDirectory.getPrefix(), delimiter);
-                    String path = Strings.nullToEmpty(subDirectory.getPrefix());
-
-                    biList.add(new BlobDirectory(name, uri, containerName, path));
-                } else if (item instanceof CloudBlob) {
-                    CloudBlob blob = (CloudBlob) item;
-
-                    String name = extractBlobItemName(blob.getName(), delimiter);
-                    String path = Strings.nullToEmpty(blob.getName());
-                    String type = "";
-                    String cacheControlHeader = "";
-                    String contentEncoding = "";
-                    String contentLanguage = "";
-                    String contentType = "";
-                    String contentMD5Header = "";
-                    String eTag = "";
-                    Calendar lastModified = new GregorianCalendar();
-                    long size = 0;
-
-                    BlobProperties properties = blob.getProperties();
-
-                    if (properties != null) {
-                        if (properties.getBlobType() != null) {
-                            type = properties.getBlobType().toString();
-                        }
-
-                        cacheControlHeader = Strings.nullToEmpty(properties.getCacheControl());
-                        contentEncoding = Strings.nullToEmpty(properties.getContentEncoding());
-                        contentLanguage = Strings.nullToEmpty(properties.getContentLanguage());
-                        contentType = Strings.nullToEmpty(properties.getContentType());
-                        contentMD5Header = Strings.nullToEmpty(properties.getContentMD5());
-                        eTag = Strings.nullToEmpty(properties.getEtag());
-
-                        if (properties.getLastModified() != null) {
-                            lastModified.setTime(properties.getLastModified());
-                        }
-
-                        size = properties.getLength();
-                    }
+                BlobItem blobItem = getBlobItem(item, containerName, delimiter);
 
-                    biList.add(new BlobFile(name, uri, containerName, path, type, cacheControlHeader, contentEncoding,
-                            contentLanguage, contentType, contentMD5Header, eTag, lastModified, size));
+                if (blobItem != null) {
+                    biList.add(blobItem);
                 }
             }
 
@@ -279,6 +252,58 @@ public class StorageClientSDKManager {
         }
     }
 
+    /**
+     * List one page of the directory. The items are listed by the service in the order of their names, with the
+     * sub directories among the files.
+     *
+     * @param prefix            only the items whose names start with it, or all items if null or empty
+     * @param maxResults        the most items of the page, which may have fewer items even if more follow it
+     * @param continuationToken the token of the previous page, or null for the first page
+     */
+    @NotNull
+    public Segment<BlobItem> getBlobItemSegment(@NotNull String connectionString,
+                                                @NotNull BlobDirectory blobDirectory,
+                                                @Nullable String prefix,
+                                                int maxResults,
+                                                @Nullable String continuationToken)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(connectionString);
+            String containerName = blobDirectory.getContainerName();
+            String delimiter = client.getDirectoryDelimiter();
+
+            CloudBlobContainer container = client.getContainerReference(containerName);
+            CloudBlobDirectory directory = container.getDirectoryReference(blobDirectory.getPath());
+
+            ResultContinuation token = null;
+
+            if (continuationToken != null) {
+                token = new ResultContinuation();
+                token.setContinuationType(ResultContinuationType.BLOB);
+                token.setNextMarker(continuationToken);
+            }
+
+            ResultSegment<ListBlobItem> segment = directory.listBlobsSegmented(Strings.nullToEmpty(prefix), false,
+                    EnumSet.noneOf(BlobListingDetails.class), maxResults, token, null, null);
+            List<BlobItem> biList = new ArrayList<BlobItem>(segment.getResults().size());
+
+            for (ListBlobItem item : segment.getResults()) {
+                BlobItem blobItem = getBlobItem(item, containerName, delimiter);
+
+                if (blobItem != null) {
+                    biList.add(blobItem);
+                }
+            }
+
+            ResultContinuation nextToken = segment.getContinuationToken();
+            String nextMarker = segment.getHasMoreResults() && nextToken != null ? nextToken.getNextMarker() : null;
+
+            return new Segment<BlobItem>(biList, Strings.emptyToNull(nextMarker));
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error retrieving the Blob Item list", t);
+        }
+    }
+
     @NotNull
     public BlobDirectory createBlobDirectory(@NotNull StorageAccount storageAccount,
                                              @NotNull BlobDirectory parentBlobDirectory,
@@ -388,6 +413,51 @@ public class StorageClientSDKManager {
         }
     }
 
+    /**
+     * Upload the file with up to {@code parallelism} blocks of {@code maxBlockSize} bytes in flight. The
+     * {@code processBlock} is called with the total uploaded bytes each time a block is uploaded.
+     */
+    public void uploadBlobFileContent(@NotNull String connectionString,
+                                      @NotNull BlobContainer blobContainer,
+                                      @NotNull String filePath,
+                                      @NotNull File file,
+                                      CallableSingleArg<Void, Long> processBlock,
+                                      long maxBlockSize,
+                                      int parallelism)
+            throws AzureCmdException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            CloudBlockBlob blob = getCloudBlockBlob(connectionString, blobContainer, filePath);
+
+            new BlobBlockUploader(blob, maxBlockSize, parallelism)
+                    .upload(BlobBlockUploader.fromChannel(channel), channel.size(), processBlock);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error uploading the Blob File content", t);
+        }
+    }
+
+    /**
+     * Upload the content with up to {@code parallelism} blocks of {@code maxBlockSize} bytes in flight. The blocks
+     * are read from the content one after another, and uploaded concurrently.
+     */
+    public void uploadBlobFileContent(@NotNull String connectionString,
+                                      @NotNull BlobContainer blobContainer,
+                                      @NotNull String filePath,
+                                      @NotNull InputStream content,
+                                      CallableSingleArg<Void, Long> processBlock,
+                                      long maxBlockSize,
+                                      long length,
+                                      int parallelism)
+            throws AzureCmdException {
+        try {
+            CloudBlockBlob blob = getCloudBlockBlob(connectionString, blobContainer, filePath);
+
+            new BlobBlockUploader(blob, maxBlockSize, parallelism)
+                    .upload(BlobBlockUploader.fromStream(content), length, processBlock);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error uploading the Blob File content", t);
+        }
+    }
+
     public void downloadBlobFileContent(@NotNull String connectionString,
                                         @NotNull BlobFile blobFile,
                                         @NotNull OutputStream content)
@@ -406,6 +476,32 @@ public class StorageClientSDKManager {
         }
     }
 
+    /**
+     * Download the blob into the file as ranges of {@code rangeSize} bytes, with up to {@code parallelism} ranges
+     * fetched at the same time. A download that failed halfway resumes with the missing ranges when it's called
+     * again for the same file, unless the blob was changed in between.
+     */
+    public void downloadBlobFileContent(@NotNull String connectionString,
+                                        @NotNull BlobFile blobFile,
+                                        @NotNull File file,
+                                        CallableSingleArg<Void, Long> processBlock,
+                                        long rangeSize,
+                                        int parallelism)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(connectionString);
+            String containerName = blobFile.getContainerName();
+
+            CloudBlobContainer container = client.getContainerReference(containerName);
+
+            CloudBlob blob = getCloudBlob(container, blobFile);
+
+            new BlobRangeDownloader(blob, rangeSize, parallelism).download(file.toPath(), processBlock);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error downloading the Blob File content", t);
+        }
+    }
+
     @NotNull
     public List<Queue> getQueues(@NotNull StorageAccount storageAccount)
             throws AzureCmdException {
@@ -628,27 +724,118 @@ public class StorageClientSDKManager {
     public List<TableEntity> getTableEntities(@NotNull StorageAccount storageAccount, @NotNull Table table,
                                               @NotNull String filter)
             throws AzureCmdException {
-        List<TableEntity> teList = new ArrayList<TableEntity>();
+        final List<TableEntity> teList = new ArrayList<TableEntity>();
+
+        getTableEntities(storageAccount, table, filter, null, null, TABLE_QUERY_PAGE_SIZE,
+                new CallableSingleArg<Boolean, List<TableEntity>>() {
+                    @Override
+                    public Boolean call(List<TableEntity> entities) throws Exception {
+                        teList.addAll(entities);
+                        return true;
+                    }
+                });
+
+        return teList;
+    }
+
+    /**
+     * Query the table page by page, and pass each page to the {@code processPage} as soon as it's read, so the
+     * first entities can be shown before the rest of the table is read. The {@code processPage} returns false to
+     * stop reading the table.
+     *
+     * @see #getTableEntitySegment
+     */
+    public void getTableEntities(@NotNull StorageAccount storageAccount, @NotNull Table table,
+                                 @NotNull String filter,
+                                 @Nullable List<String> columns,
+                                 @Nullable Map<String, TableEntity.PropertyType> columnTypes,
+                                 int pageSize,
+                                 @NotNull CallableSingleArg<Boolean, List<TableEntity>> processPage)
+            throws AzureCmdException {
+        String continuationToken = null;
+
+        do {
+            Segment<TableEntity> segment = getTableEntitySegment(storageAccount, table, filter, columns, columnTypes,
+                    pageSize, continuationToken);
+
+            try {
+                if (!processPage.call(segment.getItems())) {
+                    return;
+                }
+            } catch (Throwable t) {
+                throw new AzureCmdException("Error processing the Table Entity list", t);
+            }
 
+            continuationToken = segment.getContinuationToken();
+        } while (continuationToken != null);
+    }
+
+    /**
+     * Query one page of the table. The page may have fewer entities than {@code maxResults}, or none at all, even
+     * if more follow it.
+     * <p>
+     * The entities are read without the metadata of the service when the types of all the {@code columns} are
+     * given, which makes the response much smaller. Otherwise the types are read from the service, as properties
+     * such as dates and longs can't be told apart from strings without them.
+     *
+     * @param columns           only these properties of the entities, or all properties if null
+     * @param columnTypes       the types of the properties, which are used when every one of the {@code columns} has
+     *                          a type
+     * @param continuationToken the token of the previous page, or null for the first page
+     */
+    @NotNull
+    public Segment<TableEntity> getTableEntitySegment(@NotNull StorageAccount storageAccount, @NotNull Table table,
+                                                      @NotNull String filter,
+                                                      @Nullable List<String> columns,
+                                                      @Nullable Map<String, TableEntity.PropertyType> columnTypes,
+                                                      int maxResults,
+                                                      @Nullable String continuationToken)
+            throws AzureCmdException {
         try {
             CloudTableClient client = getCloudTableClient(storageAccount);
             String tableName = table.getName();
             CloudTable cloudTable = client.getTableReference(tableName);
 
-            TableQuery<DynamicTableEntity> tableQuery = TableQuery.from(DynamicTableEntity.class);
+            TableQuery<DynamicTableEntity> tableQuery = TableQuery.from(DynamicTableEntity.class).take(maxResults);
 
             if (!filter.isEmpty()) {
                 tableQuery.where(filter);
             }
 
             TableRequestOptions tro = new TableRequestOptions();
-            tro.setTablePayloadFormat(TablePayloadFormat.JsonFullMetadata);
 
-            for (DynamicTableEntity dte : cloudTable.execute(tableQuery, tro, null)) {
+            if (columns != null) {
+                tableQuery.select(columns.toArray(new String[columns.size()]));
+            }
+
+            if (columns != null && columnTypes != null && columnTypes.keySet().containsAll(columns)) {
+                final Map<String, EdmType> edmTypes = getEdmTypes(columnTypes);
+
+                tro.setTablePayloadFormat(TablePayloadFormat.JsonNoMetadata);
+                tro.setPropertyResolver(new PropertyResolver() {
+                    @Override
+                    public EdmType propertyResolver(String pk, String rk, String key, String value) {
+                        EdmType edmType = edmTypes.get(key);
+                        return edmType != null ? edmType : EdmType.STRING;
+                    }
+                });
+            } else {
+                tro.setTablePayloadFormat(TablePayloadFormat.JsonFullMetadata);
+            }
+
+            ResultSegment<DynamicTableEntity> segment = cloudTable.executeSegmented(tableQuery,
+                    getTableContinuation(continuationToken), tro, null);
+            List<TableEntity> teList = new ArrayList<TableEntity>(segment.getResults().size());
+
+            for (DynamicTableEntity dte : segment.getResults()) {
                 teList.add(getTableEntity(tableName, dte));
             }
 
-            return teList;
+            String nextToken = segment.getHasMoreResults()
+                    ? getTableContinuationToken(segment.getContinuationToken())
+                    : null;
+
+            return new Segment<TableEntity>(teList, nextToken);
         } catch (Throwable t) {
             throw new AzureCmdException("Error retrieving the Table Entity list", t);
         }
@@ -715,6 +902,29 @@ public class StorageClientSDKManager {
         }
     }
 
+    /**
+     * Write the entities in batches of the operations on one partition, with up to {@code parallelism} partitions
+     * written at a time. The operations on one partition are written in their order. When a batch fails, its
+     * operations are written one by one, so that only the failed ones have an error in their results.
+     *
+     * @return the result of each operation, in the order of the operations
+     */
+    @NotNull
+    public List<TableEntityOperation.Result> executeTableEntityOperations(@NotNull StorageAccount storageAccount,
+                                                                         @NotNull String tableName,
+                                                                         @NotNull List<TableEntityOperation> operations,
+                                                                         int parallelism)
+            throws AzureCmdException {
+        try {
+            CloudTableClient client = getCloudTableClient(storageAccount);
+            CloudTable cloudTable = client.getTableReference(tableName);
+
+            return new TableBatchWriter(cloudTable, parallelism).execute(operations);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error writing the Table Entities", t);
+        }
+    }
+
     @NotNull
     public static String getConnectionString(StorageAccount storageAccount) {
         String accountName = storageAccount.name();
@@ -767,6 +977,17 @@ public class StorageClientSDKManager {
         return csa.createCloudTableClient();
     }
 
+    @NotNull
+    private static CloudBlockBlob getCloudBlockBlob(@NotNull String connectionString,
+                                                    @NotNull BlobContainer blobContainer,
+                                                    @NotNull String filePath)
+            throws Exception {
+        CloudBlobClient client = getCloudBlobClient(connectionString);
+        CloudBlobContainer container = client.getContainerReference(blobContainer.getName());
+
+        return container.getBlockBlobReference(filePath);
+    }
+
     @NotNull
     private static CloudBlob getCloudBlob(@NotNull CloudBlobContainer container,
                                           @NotNull BlobFile blobFile)
@@ -850,6 +1071,61 @@ public class StorageClientSDKManager {
         return blobFile;
     }
 
+    @Nullable
+    private static BlobItem getBlobItem(@NotNull ListBlobItem item, @NotNull String containerName,
+                                        @Nullable String delimiter) {
+        String uri = item.getUri() != null ? item.getUri().toString() : "";
+
+        if (item instanceof CloudBlobDirectory) {
+            CloudBlobDirectory subDirectory = (CloudBlobDirectory) item;
+
+            String name = extractBlobItemName(subDirectory.getPrefix(), delimiter);
+            String path = Strings.nullToEmpty(subDirectory.getPrefix());
+
+            return new BlobDirectory(name, uri, containerName, path);
+        } else if (item instanceof CloudBlob) {
+            CloudBlob blob = (CloudBlob) item;
+
+            String name = extractBlobItemName(blob.getName(), delimiter);
+            String path = Strings.nullToEmpty(blob.getName());
+            String type = "";
+            String cacheControlHeader = "";
+            String contentEncoding = "";
+            String contentLanguage = "";
+            String contentType = "";
+            String contentMD5Header = "";
+            String eTag = "";
+            Calendar lastModified = new GregorianCalendar();
+            long size = 0;
+
+            BlobProperties properties = blob.getProperties();
+
+            if (properties != null) {
+                if (properties.getBlobType() != null) {
+                    type = properties.getBlobType().toString();
+                }
+
+                cacheControlHeader = Strings.nullToEmpty(properties.getCacheControl());
+                contentEncoding = Strings.nullToEmpty(properties.getContentEncoding());
+                contentLanguage = Strings.nullToEmpty(properties.getContentLanguage());
+                contentType = Strings.nullToEmpty(properties.getContentType());
+                contentMD5Header = Strings.nullToEmpty(properties.getContentMD5());
+                eTag = Strings.nullToEmpty(properties.getEtag());
+
+                if (properties.getLastModified() != null) {
+                    lastModified.setTime(properties.getLastModified());
+                }
+
+                size = properties.getLength();
+            }
+
+            return new BlobFile(name, uri, containerName, path, type, cacheControlHeader, contentEncoding,
+                    contentLanguage, contentType, contentMD5Header, eTag, lastModified, size);
+        }
+
+        return null;
+    }
+
     @NotNull
     private static String extractBlobItemName(@Nullable String path, @Nullable String delimiter) {
         if (path == null) {
@@ -867,9 +1143,78 @@ public class StorageClientSDKManager {
         }
     }
 
+    @Nullable
+    private static ResultContinuation getTableContinuation(@Nullable String continuationToken) {
+        if (continuationToken == null) {
+            return null;
+        }
+
+        int separator = continuationToken.indexOf(TABLE_CONTINUATION_SEPARATOR);
+        ResultContinuation token = new ResultContinuation();
+        token.setContinuationType(ResultContinuationType.TABLE);
+
+        if (separator < 0) {
+            token.setNextPartitionKey(continuationToken);
+        } else {
+            token.setNextPartitionKey(continuationToken.substring(0, separator));
+            token.setNextRowKey(Strings.emptyToNull(
+                    continuationToken.substring(separator + TABLE_CONTINUATION_SEPARATOR.length())));
+        }
+
+        return token;
+    }
+
+    @Nullable
+    private static String getTableContinuationToken(@Nullable ResultContinuation token) {
+        if (token == null || token.getNextPartitionKey() == null) {
+            return null;
+        }
+
+        return token.getNextRowKey() == null
+                ? token.getNextPartitionKey()
+                : token.getNextPartitionKey() + TABLE_CONTINUATION_SEPARATOR + token.getNextRowKey();
+    }
+
+    @NotNull
+    private static Map<String, EdmType> getEdmTypes(@NotNull Map<String, TableEntity.PropertyType> columnTypes) {
+        Map<String, EdmType> edmTypes = new HashMap<String, EdmType>();
+
+        for (Entry<String, TableEntity.PropertyType> entry : columnTypes.entrySet()) {
+            EdmType edmType;
+
+            switch (entry.getValue()) {
+                case Boolean:
+                    edmType = EdmType.BOOLEAN;
+                    break;
+                case DateTime:
+                    edmType = EdmType.DATE_TIME;
+                    break;
+                case Double:
+                    edmType = EdmType.DOUBLE;
+                    break;
+                case Uuid:
+                    edmType = EdmType.GUID;
+                    break;
+                case Integer:
+                    edmType = EdmType.INT32;
+                    break;
+                case Long:
+                    edmType = EdmType.INT64;
+                    break;
+                default:
+                    edmType = EdmType.STRING;
+                    break;
+            }
+
+            edmTypes.put(entry.getKey(), edmType);
+        }
+
+        return edmTypes;
+    }
+
     @NotNull
-    private static TableEntity getTableEntity(@NotNull String tableName,
-                                              @NotNull DynamicTableEntity dte) {
+    static TableEntity getTableEntity(@NotNull String tableName,
+                                      @NotNull DynamicTableEntity dte) {
         String partitionKey = Strings.nullToEmpty(dte.getPartitionKey());
         String rowKey = Strings.nullToEmpty(dte.getRowKey());
         String eTag = Strings.nullToEmpty(dte.getEtag());
@@ -926,7 +1271,7 @@ public class StorageClientSDKManager {
     }
 
     @NotNull
-    private static DynamicTableEntity getDynamicTableEntity(@NotNull TableEntity tableEntity)
+    static DynamicTableEntity getDynamicTableEntity(@NotNull TableEntity tableEntity)
             throws AzureCmdException {
         return getDynamicTableEntity(tableEntity.getPartitionKey(), tableEntity.getRowKey(),
                 tableEntity.getTimestamp(), tableEntity.getETag(), tableEntity.getProperties());
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.microsoft.azure.storage.RequestOptions;
+import com.microsoft.azure.storage.RetryNoRetry;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the storage requests of one transfer on a fixed pool of daemon threads, and stops the transfer at the first
+ * failed task. The requests are retried by {@link #retry} instead of the retry policy of the storage client, so the
+ * requests run by it should be sent with the options of {@link #noRetry}.
+ */
+final class StorageTaskExecutor implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(StorageTaskExecutor.class.getName());
+    static final int MAX_ATTEMPTS = 3;
+    static final long RETRY_BACKOFF_MS = 1000;
+
+    private final ExecutorService executor;
+    private final List<Future<Void>> futures = new ArrayList<>();
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    StorageTaskExecutor(@NotNull String nameFormat, int threadCount) {
+        executor = Executors.newFixedThreadPool(Math.max(threadCount, 1),
+                new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true).build());
+    }
+
+    void submit(@NotNull Callable<Void> task) {
+        futures.add(executor.submit(() -> {
+            try {
+                return task.call();
+            } catch (Exception e) {
+                failure.compareAndSet(null, e);
+                throw e;
+            }
+        }));
+    }
+
+    /**
+     * @return true if one of the tasks failed, so the remaining work shouldn't be started
+     */
+    boolean isFailed() {
+        return failure.get() != null;
+    }
+
+    /**
+     * Waits for the submitted tasks, and throws the first failure of them.
+     */
+    void awaitAll() throws Exception {
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure.get() != null) {
+                    throw failure.get();
+                }
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Sends the request up to {@link #MAX_ATTEMPTS} times, with a growing backoff after the failures of
+     * {@link #isRetryable}.
+     */
+    static <T> T retry(@NotNull Callable<T> request, @NotNull Supplier<String> description) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return request.call();
+            } catch (StorageException | IOException e) {
+                if (attempt >= MAX_ATTEMPTS || !isRetryable(e)) {
+                    throw e;
+                }
+                LOGGER.log(Level.INFO, String.format("Retrying %s after attempt %d failed", description.get(),
+                        attempt), e);
+                Thread.sleep(RETRY_BACKOFF_MS * attempt);
+            }
+        }
+    }
+
+    static boolean isRetryable(Exception e) {
+        if (!(e instanceof StorageException)) {
+            return true;
+        }
+        final int statusCode = ((StorageException) e).getHttpStatusCode();
+        // the client errors won't change by retrying, except for a timeout
+        return statusCode < HttpURLConnection.HTTP_BAD_REQUEST || statusCode >= HttpURLConnection.HTTP_INTERNAL_ERROR
+                || statusCode == HttpURLConnection.HTTP_CLIENT_TIMEOUT;
+    }
+
+    /**
+     * Turns off the retry policy of the storage client for the requests retried by {@link #retry}, which would
+     * otherwise multiply the attempts of the two.
+     */
+    @NotNull
+    static <T extends RequestOptions> T noRetry(@NotNull T options) {
+        options.setRetryPolicyFactory(new RetryNoRetry());
+        return options;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.google.common.base.Preconditions;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.StorageExtendedErrorInformation;
+import com.microsoft.azure.storage.table.CloudTable;
+import com.microsoft.azure.storage.table.DynamicTableEntity;
+import com.microsoft.azure.storage.table.TableBatchOperation;
+import com.microsoft.azure.storage.table.TableOperation;
+import com.microsoft.azure.storage.table.TablePayloadFormat;
+import com.microsoft.azure.storage.table.TableRequestOptions;
+import com.microsoft.azure.storage.table.TableResult;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.tooling.msservices.model.storage.TableEntity;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes table entities in entity group transactions, which may only hold up to {@link #MAX_BATCH_OPERATIONS}
+ * operations on distinct entities of one partition. The partitions are written by up to {@code parallelism} threads,
+ * each partition in the order of its operations. A batch rejected for one of its operations is written again without
+ * it, or one operation at a time if the service doesn't tell which one failed, while a batch that fails for any other
+ * reason fails as a whole once its retries are used up.
+ */
+final class TableBatchWriter {
+    private static final Logger LOGGER = Logger.getLogger(TableBatchWriter.class.getName());
+    static final int MAX_BATCH_OPERATIONS = 100;
+    private static final Pattern FAILED_INDEX_PATTERN = Pattern.compile("\\s*(\\d+):");
+
+    private final CloudTable table;
+    private final int parallelism;
+
+    TableBatchWriter(@NotNull CloudTable table, int parallelism) {
+        Preconditions.checkArgument(parallelism > 0, "Invalid parallelism: %s", parallelism);
+        this.table = table;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return the result of each operation, in the order of the operations
+     */
+    @NotNull
+    List<TableEntityOperation.Result> execute(@NotNull List<TableEntityOperation> operations) throws Exception {
+        final TableEntityOperation.Result[] results = new TableEntityOperation.Result[operations.size()];
+        final Map<String, List<Integer>> partitions = new LinkedHashMap<>();
+        for (int index = 0; index < operations.size(); index++) {
+            partitions.computeIfAbsent(operations.get(index).getEntity().getPartitionKey(), key -> new ArrayList<>())
+                    .add(index);
+        }
+
+        try (StorageTaskExecutor executor = new StorageTaskExecutor("azure-table-batch-%d",
+                Math.min(parallelism, partitions.size()))) {
+            for (List<Integer> partition : partitions.values()) {
+                executor.submit(() -> {
+                    writePartition(operations, partition, results);
+                    return null;
+                });
+            }
+            executor.awaitAll();
+        }
+        return Arrays.asList(results);
+    }
+
+    private void writePartition(List<TableEntityOperation> operations, List<Integer> partition,
+                                TableEntityOperation.Result[] results) {
+        final List<Integer> batch = new ArrayList<>();
+        final List<TableOperation> batchOperations = new ArrayList<>();
+        final Set<String> rowKeys = new HashSet<>();
+        for (int index : partition) {
+            final TableEntityOperation operation = operations.get(index);
+            final TableOperation tableOperation;
+            try {
+                tableOperation = getTableOperation(operation);
+            } catch (Exception e) {
+                results[index] = new TableEntityOperation.Result(operation, null, e);
+                continue;
+            }
+
+            // an entity may only be written once in a batch, so a second write of it starts the next batch
+            final String rowKey = operation.getEntity().getRowKey();
+            if (batch.size() == MAX_BATCH_OPERATIONS || rowKeys.contains(rowKey)) {
+                writeBatch(operations, batch, batchOperations, results);
+                batch.clear();
+                batchOperations.clear();
+                rowKeys.clear();
+            }
+            batch.add(index);
+            batchOperations.add(tableOperation);
+            rowKeys.add(rowKey);
+        }
+
+        if (!batch.isEmpty()) {
+            writeBatch(operations, batch, batchOperations, results);
+        }
+    }
+
+    private void writeBatch(List<TableEntityOperation> operations, List<Integer> batch,
+                            List<TableOperation> batchOperations, TableEntityOperation.Result[] results) {
+        if (batch.size() <= 1) {
+            writeOneByOne(operations, batch, batchOperations, results);
+            return;
+        }
+
+        final TableBatchOperation batchOperation = new TableBatchOperation();
+        batchOperation.addAll(batchOperations);
+        try {
+            final List<TableResult> tableResults = StorageTaskExecutor.retry(
+                    () -> table.execute(batchOperation, getRequestOptions(), null),
+                    () -> String.format("a batch of %d operations of table %s", batch.size(), table.getName()));
+            for (int i = 0; i < batch.size(); i++) {
+                results[batch.get(i)] = getResult(operations.get(batch.get(i)), tableResults.get(i));
+            }
+        } catch (Exception e) {
+            if (!isEntityError(e)) {
+                for (int index : batch) {
+                    results[index] = new TableEntityOperation.Result(operations.get(index), null, e);
+                }
+                return;
+            }
+
+            // the whole batch is rolled back when one of its operations fails, so the others are written again
+            final int failedIndex = getFailedIndex((StorageException) e, batch.size());
+            if (failedIndex < 0) {
+                LOGGER.log(Level.INFO, String.format("Writing the %d operations of a failed batch of table %s one "
+                        + "by one", batch.size(), table.getName()), e);
+                writeOneByOne(operations, batch, batchOperations, results);
+                return;
+            }
+            results[batch.get(failedIndex)] = new TableEntityOperation.Result(operations.get(batch.get(failedIndex)),
+                    null, e);
+            final List<Integer> remaining = new ArrayList<>(batch);
+            final List<TableOperation> remainingOperations = new ArrayList<>(batchOperations);
+            remaining.remove(failedIndex);
+            remainingOperations.remove(failedIndex);
+            writeBatch(operations, remaining, remainingOperations, results);
+        }
+    }
+
+    private void writeOneByOne(List<TableEntityOperation> operations, List<Integer> batch,
+                               List<TableOperation> batchOperations, TableEntityOperation.Result[] results) {
+        for (int i = 0; i < batch.size(); i++) {
+            final TableEntityOperation operation = operations.get(batch.get(i));
+            final TableOperation tableOperation = batchOperations.get(i);
+            try {
+                results[batch.get(i)] = getResult(operation, StorageTaskExecutor.retry(
+                        () -> table.execute(tableOperation, getRequestOptions(), null),
+                        () -> String.format("an operation of table %s", table.getName())));
+            } catch (Exception e) {
+                results[batch.get(i)] = new TableEntityOperation.Result(operation, null, e);
+            }
+        }
+    }
+
+    @NotNull
+    private TableEntityOperation.Result getResult(@NotNull TableEntityOperation operation,
+                                                  @Nullable TableResult tableResult) {
+        TableEntity entity = null;
+        if (operation.getType() != TableEntityOperation.Type.Delete && tableResult != null
+                && tableResult.getResult() instanceof DynamicTableEntity) {
+            entity = StorageClientSDKManager.getTableEntity(table.getName(), tableResult.getResultAsType());
+        }
+        return new TableEntityOperation.Result(operation, entity, null);
+    }
+
+    @NotNull
+    private static TableOperation getTableOperation(@NotNull TableEntityOperation operation) throws Exception {
+        final DynamicTableEntity entity = StorageClientSDKManager.getDynamicTableEntity(operation.getEntity());
+        switch (operation.getType()) {
+            case Insert:
+                return TableOperation.insert(entity, true);
+            case Replace:
+                return TableOperation.replace(entity);
+            default:
+                return TableOperation.delete(entity);
+        }
+    }
+
+    @NotNull
+    private static TableRequestOptions getRequestOptions() {
+        final TableRequestOptions tro = StorageTaskExecutor.noRetry(new TableRequestOptions());
+        tro.setTablePayloadFormat(TablePayloadFormat.JsonFullMetadata);
+        return tro;
+    }
+
+    /**
+     * @return true if the error is caused by one of the operations, so the others can be written without it
+     */
+    static boolean isEntityError(Exception e) {
+        if (!(e instanceof StorageException)) {
+            return false;
+        }
+        final int statusCode = ((StorageException) e).getHttpStatusCode();
+        return statusCode == HttpURLConnection.HTTP_BAD_REQUEST || statusCode == HttpURLConnection.HTTP_NOT_FOUND
+                || statusCode == HttpURLConnection.HTTP_CONFLICT || statusCode == HttpURLConnection.HTTP_PRECON_FAILED;
+    }
+
+    /**
+     * @return the index of the failed operation, which the service puts in front of the error message of a batch,
+     * or -1 if it isn't known
+     */
+    static int getFailedIndex(@NotNull StorageException e, int batchSize) {
+        final StorageExtendedErrorInformation errorInformation = e.getExtendedErrorInformation();
+        if (errorInformation == null || errorInformation.getErrorMessage() == null) {
+            return -1;
+        }
+        final Matcher matcher = FAILED_INDEX_PATTERN.matcher(errorInformation.getErrorMessage());
+        if (!matcher.lookingAt()) {
+            return -1;
+        }
+        try {
+            final int index = Integer.parseInt(matcher.group(1));
+            return index < batchSize ? index : -1;
+        } catch (NumberFormatException ignored) {
+            return -1;
+        }
+    }
+}
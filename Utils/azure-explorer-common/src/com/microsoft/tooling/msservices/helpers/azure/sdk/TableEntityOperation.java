@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.tooling.msservices.model.storage.TableEntity;
+
+/**
+ * A write of one table entity, for {@link StorageClientSDKManager#executeTableEntityOperations}.
+ */
+public final class TableEntityOperation {
+    public enum Type {
+        Insert,
+        Replace,
+        Delete,
+    }
+
+    private final Type type;
+    private final TableEntity entity;
+
+    private TableEntityOperation(@NotNull Type type, @NotNull TableEntity entity) {
+        this.type = type;
+        this.entity = entity;
+    }
+
+    @NotNull
+    public static TableEntityOperation insert(@NotNull TableEntity entity) {
+        return new TableEntityOperation(Type.Insert, entity);
+    }
+
+    /**
+     * Fails if the entity was changed since its ETag was read.
+     */
+    @NotNull
+    public static TableEntityOperation replace(@NotNull TableEntity entity) {
+        return new TableEntityOperation(Type.Replace, entity);
+    }
+
+    /**
+     * Fails if the entity was changed since its ETag was read.
+     */
+    @NotNull
+    public static TableEntityOperation delete(@NotNull TableEntity entity) {
+        return new TableEntityOperation(Type.Delete, entity);
+    }
+
+    @NotNull
+    public Type getType() {
+        return type;
+    }
+
+    @NotNull
+    public TableEntity getEntity() {
+        return entity;
+    }
+
+    public static final class Result {
+        private final TableEntityOperation operation;
+        private final TableEntity entity;
+        private final Throwable error;
+
+        Result(@NotNull TableEntityOperation operation, @Nullable TableEntity entity, @Nullable Throwable error) {
+            this.operation = operation;
+            this.entity = entity;
+            this.error = error;
+        }
+
+        @NotNull
+        public TableEntityOperation getOperation() {
+            return operation;
+        }
+
+        /**
+         * @return the entity as it's stored after an insert or a replace, with its new ETag, or null otherwise
+         */
+        @Nullable
+        public TableEntity getEntity() {
+            return entity;
+        }
+
+        @Nullable
+        public Throwable getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+}
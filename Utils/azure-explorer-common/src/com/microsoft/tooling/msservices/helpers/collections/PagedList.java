@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.helpers.collections;
+
+import com.google.common.base.Preconditions;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * A listing which is read page by page with continuation tokens, for views that show a window of a very long list.
+ * The pages are appended by {@link #loadMore()}, usually as the view scrolls to the end. Only the most recently used
+ * pages are kept in memory; the others are requested again with their continuation tokens when they're read. Pages
+ * are loaded on the given executor, and {@link #get(int)} returns null for a row whose page is still loading. A page
+ * that fails to be appended stops {@link #loadMore()} until a page loads again or {@link #retry()} is called, so a
+ * view scrolled to the end doesn't keep requesting it.
+ */
+public class PagedList<T> {
+    private final PageLoader<T> loader;
+    private final Executor executor;
+    private final int maxCachedPages;
+    private final List<PageListener> listeners = new ArrayList<>();
+
+    // the continuation token and the first row of each page found so far
+    private final List<String> tokens = new ArrayList<>();
+    private final List<Integer> offsets = new ArrayList<>();
+    private final Map<Integer, List<T>> cachedPages;
+    private final Set<Integer> loadingPages = new HashSet<>();
+    private int size = 0;
+    private boolean complete = false;
+    private Throwable error;
+
+    public PagedList(@NotNull PageLoader<T> loader, @NotNull Executor executor, int maxCachedPages) {
+        Preconditions.checkArgument(maxCachedPages > 0, "Invalid page cache size: %s", maxCachedPages);
+        this.loader = loader;
+        this.executor = executor;
+        this.maxCachedPages = maxCachedPages;
+        this.cachedPages = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > PagedList.this.maxCachedPages;
+            }
+        };
+        tokens.add(null);
+    }
+
+    public synchronized void addPageListener(@NotNull PageListener listener) {
+        listeners.add(listener);
+    }
+
+    public synchronized void removePageListener(@NotNull PageListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return the number of rows in the pages found so far
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return whether there are pages after the last one found, which {@link #loadMore()} appends
+     */
+    public synchronized boolean hasMore() {
+        return !complete && error == null;
+    }
+
+    public synchronized boolean isLoading() {
+        return !loadingPages.isEmpty();
+    }
+
+    /**
+     * @return the error of the page that failed to be appended, or null once a page loads again
+     */
+    @Nullable
+    public synchronized Throwable getError() {
+        return error;
+    }
+
+    /**
+     * @return null if the page of the row isn't in memory, in which case it's requested again
+     */
+    @Nullable
+    public synchronized T get(int row) {
+        Preconditions.checkElementIndex(row, size);
+        final int page = getPage(row);
+        List<T> items = cachedPages.get(page);
+        if (items == null) {
+            load(page);
+            items = cachedPages.get(page);
+            if (items == null) {
+                return null;
+            }
+        }
+        // the page may have changed since it was first read
+        final int index = row - offsets.get(page);
+        return index < items.size() ? items.get(index) : null;
+    }
+
+    /**
+     * Request the page after the last one found, unless it's already requested.
+     */
+    public synchronized void loadMore() {
+        if (hasMore()) {
+            load(offsets.size());
+        }
+    }
+
+    /**
+     * Forget the error of the page that failed to be appended, and request it again.
+     */
+    public synchronized void retry() {
+        error = null;
+        loadMore();
+    }
+
+    private void load(int page) {
+        if (!loadingPages.add(page)) {
+            return;
+        }
+        final String token = tokens.get(page);
+        executor.execute(() -> fetch(page, token));
+    }
+
+    private void fetch(int page, @Nullable String token) {
+        final Segment<T> segment;
+        try {
+            segment = loader.load(token);
+        } catch (Throwable t) {
+            final List<PageListener> current;
+            synchronized (this) {
+                loadingPages.remove(page);
+                // a page that was dropped from memory is requested again when it's read, so it doesn't stop the list
+                if (page == offsets.size()) {
+                    error = t;
+                }
+                current = new ArrayList<>(listeners);
+            }
+            for (PageListener listener : current) {
+                listener.pageFailed(t);
+            }
+            return;
+        }
+
+        final int firstRow;
+        final boolean appended;
+        final List<PageListener> current;
+        synchronized (this) {
+            loadingPages.remove(page);
+            error = null;
+            cachedPages.put(page, segment.getItems());
+            appended = page == offsets.size();
+            if (appended) {
+                offsets.add(size);
+                size += segment.getItems().size();
+                if (segment.hasMore()) {
+                    tokens.add(segment.getContinuationToken());
+                } else {
+                    complete = true;
+                }
+            }
+            firstRow = offsets.get(page);
+            current = new ArrayList<>(listeners);
+        }
+        for (PageListener listener : current) {
+            listener.pageLoaded(firstRow, segment.getItems().size(), appended);
+        }
+        // a page may be empty even though more rows follow it
+        if (appended && segment.getItems().isEmpty()) {
+            loadMore();
+        }
+    }
+
+    private int getPage(int row) {
+        final int index = Collections.binarySearch(offsets, row);
+        if (index >= 0) {
+            // skip the empty pages that start at the same row
+            int page = index;
+            while (page + 1 < offsets.size() && offsets.get(page + 1) == row) {
+                page++;
+            }
+            return page;
+        }
+        return -index - 2;
+    }
+
+    public interface PageLoader<T> {
+        @NotNull
+        Segment<T> load(@Nullable String continuationToken) throws Exception;
+    }
+
+    /**
+     * Called on the thread that loaded the page.
+     */
+    public interface PageListener {
+        /**
+         * @param appended true if the rows are new, false if a page that was dropped from memory is loaded again
+         */
+        void pageLoaded(int firstRow, int rowCount, boolean appended);
+
+        void pageFailed(@NotNull Throwable error);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.helpers.collections;
+
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a listing, with the continuation token to request the next page.
+ */
+public final class Segment<T> {
+    private final List<T> items;
+    private final String continuationToken;
+
+    public Segment(@NotNull List<T> items, @Nullable String continuationToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.continuationToken = continuationToken;
+    }
+
+    @NotNull
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return null if this is the last page
+     */
+    @Nullable
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    public boolean hasMore() {
+        return continuationToken != null;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.azure.storage.RetryNoRetry;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.BlobRequestOptions;
+import com.microsoft.azure.storage.blob.BlockEntry;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(CloudBlockBlob.class)
+public class BlobBlockUploaderTest {
+    private static final int BLOCK_SIZE = 1024;
+    private static final int PARALLELISM = 4;
+
+    private CloudBlockBlob blob;
+    private Map<String, byte[]> uploadedBlocks;
+    private AtomicInteger inFlight;
+    private AtomicInteger maxInFlight;
+    private AtomicInteger failuresToInject;
+
+    @Before
+    public void setUp() throws Exception {
+        blob = PowerMockito.mock(CloudBlockBlob.class);
+        uploadedBlocks = new ConcurrentHashMap<>();
+        inFlight = new AtomicInteger();
+        maxInFlight = new AtomicInteger();
+        failuresToInject = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (failuresToInject.get() > 0 && failuresToInject.getAndDecrement() > 0) {
+                throw new IOException("Connection reset");
+            }
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(10);
+                final byte[] block = readAll(invocation.getArgument(1));
+                assertEquals((long) invocation.<Long>getArgument(2), block.length);
+                uploadedBlocks.put(invocation.getArgument(0), block);
+                return null;
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }).when(blob).uploadBlock(anyString(), any(InputStream.class), anyLong(), any(), any(), any());
+    }
+
+    @Test
+    public void testBlocksAreCommittedInOrder() throws Exception {
+        final byte[] content = createContent(BLOCK_SIZE * 10 + 100);
+        final List<Long> progress = new CopyOnWriteArrayList<>();
+
+        new BlobBlockUploader(blob, BLOCK_SIZE, PARALLELISM).upload(
+                BlobBlockUploader.fromStream(new ByteArrayInputStream(content)), content.length,
+                new CallableSingleArg<Void, Long>() {
+                    @Override
+                    public Void call(Long uploadedBytes) {
+                        progress.add(uploadedBytes);
+                        return null;
+                    }
+                });
+
+        assertArrayEquals(content, getCommittedContent());
+        assertTrue(maxInFlight.get() > 1);
+        assertTrue(maxInFlight.get() <= PARALLELISM);
+        assertEquals(12, progress.size());
+        assertEquals(0L, (long) progress.get(0));
+        assertEquals(content.length, (long) progress.get(progress.size() - 1));
+        for (int i = 1; i < progress.size(); i++) {
+            assertTrue(progress.get(i) > progress.get(i - 1));
+        }
+    }
+
+    @Test
+    public void testFailedBlockIsRetried() throws Exception {
+        failuresToInject.set(1);
+        final byte[] content = createContent(BLOCK_SIZE * 3);
+
+        new BlobBlockUploader(blob, BLOCK_SIZE, PARALLELISM).upload(
+                BlobBlockUploader.fromStream(new ByteArrayInputStream(content)), content.length, null);
+
+        final ArgumentCaptor<BlobRequestOptions> options = ArgumentCaptor.forClass(BlobRequestOptions.class);
+        verify(blob, times(4)).uploadBlock(anyString(), any(InputStream.class), anyLong(), any(), options.capture(),
+                any());
+        // the blocks are only retried by the uploader
+        for (BlobRequestOptions option : options.getAllValues()) {
+            assertTrue(option.getRetryPolicyFactory() instanceof RetryNoRetry);
+        }
+        assertArrayEquals(content, getCommittedContent());
+    }
+
+    @Test
+    public void testClientErrorAbortsUpload() throws Exception {
+        doAnswer(invocation -> {
+            throw new StorageException("AuthenticationFailed", "Forbidden", 403, null, null);
+        }).when(blob).uploadBlock(anyString(), any(InputStream.class), anyLong(), any(), any(), any());
+        final byte[] content = createContent(BLOCK_SIZE * 20);
+
+        try {
+            new BlobBlockUploader(blob, BLOCK_SIZE, PARALLELISM).upload(
+                    BlobBlockUploader.fromStream(new ByteArrayInputStream(content)), content.length, null);
+            fail("The upload should fail");
+        } catch (StorageException e) {
+            assertEquals(403, e.getHttpStatusCode());
+        }
+        verify(blob, never()).commitBlockList(any());
+    }
+
+    @Test
+    public void testEmptyContentIsCommitted() throws Exception {
+        new BlobBlockUploader(blob, BLOCK_SIZE, PARALLELISM).upload(
+                BlobBlockUploader.fromStream(new ByteArrayInputStream(new byte[0])), 0, null);
+
+        assertEquals(0, getCommittedContent().length);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] getCommittedContent() throws Exception {
+        final ArgumentCaptor<Iterable<BlockEntry>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(blob).commitBlockList(captor.capture());
+        final ByteArrayOutputStream committed = new ByteArrayOutputStream();
+        for (BlockEntry entry : captor.getValue()) {
+            final byte[] block = uploadedBlocks.get(entry.getId());
+            assertEquals(entry.getSize(), block.length);
+            committed.write(block);
+        }
+        return committed.toByteArray();
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[BLOCK_SIZE];
+        int count;
+        while ((count = input.read(buffer)) >= 0) {
+            output.write(buffer, 0, count);
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] createContent(int length) {
+        final byte[] content = new byte[length];
+        new Random(length).nextBytes(content);
+        return content;
+    }
+}
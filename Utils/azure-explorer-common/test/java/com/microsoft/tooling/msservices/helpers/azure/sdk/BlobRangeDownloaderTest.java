@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.BlobProperties;
+import com.microsoft.azure.storage.blob.CloudBlob;
+import com.microsoft.azure.storage.core.Base64;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ BlobProperties.class, CloudBlob.class })
+public class BlobRangeDownloaderTest {
+    private static final int RANGE_SIZE = 1024;
+    private static final int PARALLELISM = 4;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private byte[] content;
+    private CloudBlob blob;
+    private BlobProperties properties;
+    private Set<Long> requestedOffsets;
+    private volatile long failingOffset;
+    private volatile int failingStatus;
+
+    @Before
+    public void setUp() throws Exception {
+        content = new byte[RANGE_SIZE * 10 + 100];
+        new Random(1).nextBytes(content);
+        requestedOffsets = ConcurrentHashMap.newKeySet();
+        failingOffset = -1;
+
+        properties = PowerMockito.mock(BlobProperties.class);
+        when(properties.getLength()).thenReturn((long) content.length);
+        when(properties.getEtag()).thenReturn("\"etag\"");
+        when(properties.getContentMD5()).thenReturn(md5(content));
+        blob = PowerMockito.mock(CloudBlob.class);
+        when(blob.getProperties()).thenReturn(properties);
+        doAnswer(invocation -> {
+            final long offset = invocation.<Long>getArgument(0);
+            final int length = (int) (long) invocation.<Long>getArgument(1);
+            if (offset == failingOffset) {
+                throw new StorageException("Failure", "Failure", failingStatus, null, null);
+            }
+            requestedOffsets.add(offset);
+            System.arraycopy(content, (int) offset, invocation.getArgument(2), invocation.<Integer>getArgument(3), length);
+            return length;
+        }).when(blob).downloadRangeToByteArray(anyLong(), anyLong(), any(byte[].class), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    public void testRangesAreWrittenAtTheirOffsets() throws Exception {
+        final Path target = folder.getRoot().toPath().resolve("blob.bin");
+
+        new BlobRangeDownloader(blob, RANGE_SIZE, PARALLELISM).download(target, null);
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(11, requestedOffsets.size());
+        assertFalse(Files.exists(BlobRangeDownloader.getProgressPath(target)));
+    }
+
+    @Test
+    public void testFailedDownloadIsResumed() throws Exception {
+        final Path target = folder.getRoot().toPath().resolve("blob.bin");
+        failingOffset = RANGE_SIZE * 5;
+        failingStatus = 403;
+        try {
+            new BlobRangeDownloader(blob, RANGE_SIZE, 1).download(target, null);
+            fail("The download should fail");
+        } catch (StorageException e) {
+            assertEquals(403, e.getHttpStatusCode());
+        }
+        assertTrue(Files.exists(BlobRangeDownloader.getProgressPath(target)));
+        assertEquals(5, requestedOffsets.size());
+
+        failingOffset = -1;
+        requestedOffsets.clear();
+        new BlobRangeDownloader(blob, RANGE_SIZE, PARALLELISM).download(target, null);
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(6, requestedOffsets.size());
+        assertFalse(requestedOffsets.contains(0L));
+        assertFalse(Files.exists(BlobRangeDownloader.getProgressPath(target)));
+    }
+
+    @Test
+    public void testChangedBlobIsDownloadedAgain() throws Exception {
+        final Path target = folder.getRoot().toPath().resolve("blob.bin");
+        failingOffset = RANGE_SIZE * 5;
+        failingStatus = 403;
+        try {
+            new BlobRangeDownloader(blob, RANGE_SIZE, 1).download(target, null);
+            fail("The download should fail");
+        } catch (StorageException ignored) {
+        }
+
+        failingOffset = -1;
+        requestedOffsets.clear();
+        when(properties.getEtag()).thenReturn("\"changed\"");
+        new BlobRangeDownloader(blob, RANGE_SIZE, PARALLELISM).download(target, null);
+
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertEquals(11, requestedOffsets.size());
+    }
+
+    @Test
+    public void testChangedBlobDiscardsProgress() throws Exception {
+        final Path target = folder.getRoot().toPath().resolve("blob.bin");
+        failingOffset = RANGE_SIZE * 5;
+        failingStatus = 412;
+        try {
+            new BlobRangeDownloader(blob, RANGE_SIZE, 1).download(target, null);
+            fail("The download should fail");
+        } catch (StorageException e) {
+            assertEquals(412, e.getHttpStatusCode());
+        }
+
+        assertFalse(Files.exists(BlobRangeDownloader.getProgressPath(target)));
+    }
+
+    @Test
+    public void testMD5MismatchFailsDownload() throws Exception {
+        final Path target = folder.getRoot().toPath().resolve("blob.bin");
+        when(properties.getContentMD5()).thenReturn(md5(new byte[1]));
+
+        try {
+            new BlobRangeDownloader(blob, RANGE_SIZE, PARALLELISM).download(target, null);
+            fail("The download should fail");
+        } catch (IOException ignored) {
+        }
+
+        assertFalse(Files.exists(target));
+        assertFalse(Files.exists(BlobRangeDownloader.getProgressPath(target)));
+    }
+
+    private static String md5(byte[] bytes) throws Exception {
+        return Base64.encode(MessageDigest.getInstance("MD5").digest(bytes));
+    }
+}
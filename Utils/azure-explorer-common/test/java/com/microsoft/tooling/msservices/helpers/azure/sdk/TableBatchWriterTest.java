@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.StorageExtendedErrorInformation;
+import com.microsoft.azure.storage.table.CloudTable;
+import com.microsoft.azure.storage.table.TableBatchOperation;
+import com.microsoft.azure.storage.table.TableOperation;
+import com.microsoft.azure.storage.table.TableResult;
+import com.microsoft.tooling.msservices.model.storage.TableEntity;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(CloudTable.class)
+public class TableBatchWriterTest {
+    private static final int PARALLELISM = 4;
+
+    private CloudTable table;
+    private List<List<String>> batches;
+    private Set<String> failingRowKeys;
+    private boolean reportFailedIndex;
+
+    @Before
+    public void setUp() throws Exception {
+        table = PowerMockito.mock(CloudTable.class);
+        when(table.getName()).thenReturn("table");
+        batches = new CopyOnWriteArrayList<>();
+        failingRowKeys = new HashSet<>();
+
+        doAnswer(invocation -> {
+            final TableBatchOperation batch = invocation.getArgument(0);
+            final List<String> keys = new ArrayList<>();
+            final ArrayList<TableResult> results = new ArrayList<>();
+            for (TableOperation operation : batch) {
+                keys.add(getKey(operation));
+                if (failingRowKeys.contains(getEntity(operation).getRowKey())) {
+                    throw new StorageException("EntityAlreadyExists", "Conflict", 409,
+                            reportFailedIndex ? errorInformation(keys.size() - 1 + ":Conflict") : null, null);
+                }
+                results.add(new TableResult(204));
+            }
+            batches.add(keys);
+            return results;
+        }).when(table).execute(any(TableBatchOperation.class), any(), any());
+        doAnswer(invocation -> {
+            final TableOperation operation = invocation.getArgument(0);
+            if (failingRowKeys.contains(getEntity(operation).getRowKey())) {
+                throw new StorageException("EntityAlreadyExists", "Conflict", 409, null, null);
+            }
+            batches.add(Collections.singletonList(getKey(operation)));
+            return new TableResult(204);
+        }).when(table).execute(any(TableOperation.class), any(), any());
+    }
+
+    @Test
+    public void testOperationsAreBatchedByPartition() throws Exception {
+        final List<TableEntityOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            operations.add(TableEntityOperation.delete(entity("a", "row" + i)));
+            if (i < 3) {
+                operations.add(TableEntityOperation.delete(entity("b", "row" + i)));
+            }
+        }
+
+        final List<TableEntityOperation.Result> results = new TableBatchWriter(table, PARALLELISM).execute(operations);
+
+        assertEquals(operations.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertSame(operations.get(i), results.get(i).getOperation());
+            assertTrue(results.get(i).isSuccess());
+        }
+        final List<Integer> sizes = new ArrayList<>();
+        for (List<String> batch : batches) {
+            sizes.add(batch.size());
+            for (String key : batch) {
+                assertTrue(key.startsWith(batch.get(0).substring(0, 2)));
+            }
+        }
+        Collections.sort(sizes);
+        assertEquals(Arrays.asList(3, 50, 100, 100), sizes);
+    }
+
+    @Test
+    public void testRepeatedEntityStartsNextBatch() throws Exception {
+        final List<TableEntityOperation> operations = Arrays.asList(
+                TableEntityOperation.replace(entity("a", "row0")),
+                TableEntityOperation.replace(entity("a", "row1")),
+                TableEntityOperation.delete(entity("a", "row0")));
+
+        new TableBatchWriter(table, PARALLELISM).execute(operations);
+
+        assertEquals(Arrays.asList(Arrays.asList("a/row0", "a/row1"), Collections.singletonList("a/row0")), batches);
+    }
+
+    @Test
+    public void testFailedBatchIsWrittenOneByOne() throws Exception {
+        failingRowKeys.add("row1");
+        final List<TableEntityOperation> operations = Arrays.asList(
+                TableEntityOperation.delete(entity("a", "row0")),
+                TableEntityOperation.delete(entity("a", "row1")),
+                TableEntityOperation.delete(entity("a", "row2")));
+
+        final List<TableEntityOperation.Result> results = new TableBatchWriter(table, PARALLELISM).execute(operations);
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals(409, ((StorageException) results.get(1).getError()).getHttpStatusCode());
+        assertTrue(results.get(2).isSuccess());
+        assertEquals(Arrays.asList(Collections.singletonList("a/row0"), Collections.singletonList("a/row2")),
+                batches);
+    }
+
+    @Test
+    public void testFailedOperationIsLeftOutOfBatch() throws Exception {
+        failingRowKeys.add("row1");
+        reportFailedIndex = true;
+        final List<TableEntityOperation> operations = Arrays.asList(
+                TableEntityOperation.delete(entity("a", "row0")),
+                TableEntityOperation.delete(entity("a", "row1")),
+                TableEntityOperation.delete(entity("a", "row2")));
+
+        final List<TableEntityOperation.Result> results = new TableBatchWriter(table, PARALLELISM).execute(operations);
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertTrue(results.get(2).isSuccess());
+        assertEquals(Collections.singletonList(Arrays.asList("a/row0", "a/row2")), batches);
+    }
+
+    @Test
+    public void testUnavailableBatchIsRetried() throws Exception {
+        final AtomicInteger failures = new AtomicInteger(1);
+        doAnswer(invocation -> {
+            if (failures.getAndDecrement() > 0) {
+                throw new StorageException("ServerBusy", "Service Unavailable", 503, null, null);
+            }
+            final ArrayList<TableResult> results = new ArrayList<>();
+            for (TableOperation ignored : invocation.<TableBatchOperation>getArgument(0)) {
+                results.add(new TableResult(204));
+            }
+            return results;
+        }).when(table).execute(any(TableBatchOperation.class), any(), any());
+        final List<TableEntityOperation> operations = Arrays.asList(
+                TableEntityOperation.delete(entity("a", "row0")),
+                TableEntityOperation.delete(entity("a", "row1")));
+
+        final List<TableEntityOperation.Result> results = new TableBatchWriter(table, PARALLELISM).execute(operations);
+
+        assertTrue(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        verify(table, times(2)).execute(any(TableBatchOperation.class), any(), any());
+        verify(table, never()).execute(any(TableOperation.class), any(), any());
+    }
+
+    @Test
+    public void testForbiddenBatchIsNotWrittenOneByOne() throws Exception {
+        doAnswer(invocation -> {
+            throw new StorageException("AuthorizationFailure", "Forbidden", 403, null, null);
+        }).when(table).execute(any(TableBatchOperation.class), any(), any());
+        final List<TableEntityOperation> operations = Arrays.asList(
+                TableEntityOperation.delete(entity("a", "row0")),
+                TableEntityOperation.delete(entity("a", "row1")));
+
+        final List<TableEntityOperation.Result> results = new TableBatchWriter(table, PARALLELISM).execute(operations);
+
+        for (TableEntityOperation.Result result : results) {
+            assertNotNull(result.getError());
+            assertNull(result.getEntity());
+        }
+        assertTrue(batches.isEmpty());
+    }
+
+    // the entity of an operation is only visible to the storage client
+    private static com.microsoft.azure.storage.table.TableEntity getEntity(TableOperation operation)
+            throws Exception {
+        return Whitebox.invokeMethod(operation, "getEntity");
+    }
+
+    private static String getKey(TableOperation operation) throws Exception {
+        return getEntity(operation).getPartitionKey() + "/" + getEntity(operation).getRowKey();
+    }
+
+    private static StorageExtendedErrorInformation errorInformation(String message) {
+        final StorageExtendedErrorInformation errorInformation = new StorageExtendedErrorInformation();
+        errorInformation.setErrorMessage(message);
+        return errorInformation;
+    }
+
+    private static TableEntity entity(String partitionKey, String rowKey) {
+        return new TableEntity(partitionKey, rowKey, "table", "\"etag\"", new GregorianCalendar(),
+                new HashMap<String, TableEntity.Property>());
+    }
+}
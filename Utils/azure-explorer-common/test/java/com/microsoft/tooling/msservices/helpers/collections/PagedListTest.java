@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.tooling.msservices.helpers.collections;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PagedListTest {
+    private final List<String> requestedTokens = new ArrayList<>();
+    private final List<int[]> loadedPages = new ArrayList<>();
+
+    @Test
+    public void testPagesAreAppended() {
+        final PagedList<String> list = create(Arrays.asList(page(0, 3), page(3, 3), page(6, 2)), 10);
+
+        assertEquals(0, list.size());
+        list.loadMore();
+        assertEquals(3, list.size());
+        assertTrue(list.hasMore());
+        list.loadMore();
+        list.loadMore();
+
+        assertEquals(8, list.size());
+        assertFalse(list.hasMore());
+        assertEquals("item4", list.get(4));
+        assertEquals("item7", list.get(7));
+        assertEquals(Arrays.asList(null, "1", "2"), requestedTokens);
+        assertEquals(3, loadedPages.size());
+        assertEquals(3, loadedPages.get(1)[0]);
+    }
+
+    @Test
+    public void testDroppedPagesAreLoadedAgain() {
+        final PagedList<String> list = create(Arrays.asList(page(0, 3), page(3, 3), page(6, 3)), 2);
+        list.loadMore();
+        list.loadMore();
+        list.loadMore();
+        requestedTokens.clear();
+
+        // the first page is the least recently used one
+        assertEquals("item0", list.get(0));
+        assertEquals(Collections.singletonList((String) null), requestedTokens);
+        assertEquals(0, loadedPages.get(loadedPages.size() - 1)[0]);
+        assertEquals(0, loadedPages.get(loadedPages.size() - 1)[2]);
+        assertEquals(9, list.size());
+    }
+
+    @Test
+    public void testEmptyPagesAreSkipped() {
+        final PagedList<String> list = create(Arrays.asList(page(0, 0), page(0, 0), page(0, 2)), 10);
+
+        list.loadMore();
+
+        assertEquals(2, list.size());
+        assertEquals("item0", list.get(0));
+        assertEquals("item1", list.get(1));
+        assertFalse(list.hasMore());
+    }
+
+    @Test
+    public void testErrorStopsAppending() {
+        final List<Throwable> errors = new ArrayList<>();
+        final PagedList<String> list = new PagedList<>(token -> {
+            if (token != null) {
+                throw new IllegalStateException("Failed");
+            }
+            return new Segment<>(Arrays.asList("a", "b"), "next");
+        }, Runnable::run, 10);
+        list.addPageListener(new PagedList.PageListener() {
+            @Override
+            public void pageLoaded(int firstRow, int rowCount, boolean appended) {
+            }
+
+            @Override
+            public void pageFailed(Throwable error) {
+                errors.add(error);
+            }
+        });
+
+        list.loadMore();
+        list.loadMore();
+
+        assertEquals(2, list.size());
+        assertFalse(list.hasMore());
+        assertNotNull(list.getError());
+        assertEquals(1, errors.size());
+        list.loadMore();
+        assertEquals(1, errors.size());
+    }
+
+    @Test
+    public void testRetryAppendsFailedPage() {
+        final boolean[] failing = {true};
+        final PagedList<String> list = new PagedList<>(token -> {
+            if (token != null && failing[0]) {
+                throw new IllegalStateException("Failed");
+            }
+            return token == null ? new Segment<>(Arrays.asList("a", "b"), "next") : page(2, 2);
+        }, Runnable::run, 10);
+
+        list.loadMore();
+        list.loadMore();
+        assertFalse(list.hasMore());
+
+        failing[0] = false;
+        list.retry();
+
+        assertEquals(4, list.size());
+        assertNull(list.getError());
+        assertEquals("item3", list.get(3));
+    }
+
+    @Test
+    public void testFailedReloadDoesntStopAppending() {
+        final boolean[] failing = {false};
+        final PagedList<String> list = new PagedList<>(token -> {
+            if (token == null && failing[0]) {
+                throw new IllegalStateException("Failed");
+            }
+            if (token == null) {
+                return new Segment<>(page(0, 2).getItems(), "1");
+            }
+            return token.equals("1") ? new Segment<>(page(2, 2).getItems(), "2") : page(4, 1);
+        }, Runnable::run, 1);
+        list.loadMore();
+        list.loadMore();
+
+        failing[0] = true;
+        // the first page was dropped from memory, and fails to be loaded again
+        assertNull(list.get(0));
+
+        assertNull(list.getError());
+        assertTrue(list.hasMore());
+        list.loadMore();
+        assertEquals(5, list.size());
+        failing[0] = false;
+        assertEquals("item0", list.get(0));
+    }
+
+    @Test
+    public void testRowIsNullWhileItsPageIsLoading() {
+        final List<Runnable> pending = new ArrayList<>();
+        final PagedList<String> list = new PagedList<>(
+            token -> token == null ? new Segment<>(page(0, 2).getItems(), "1") : page(2, 2), pending::add, 1);
+
+        list.loadMore();
+        assertEquals(0, list.size());
+        assertTrue(list.isLoading());
+        pending.remove(0).run();
+        list.loadMore();
+        pending.remove(0).run();
+        assertEquals(4, list.size());
+        assertFalse(list.isLoading());
+
+        assertNull(list.get(0));
+        assertTrue(list.isLoading());
+        pending.remove(0).run();
+        assertEquals("item1", list.get(1));
+    }
+
+    private PagedList<String> create(List<Segment<String>> pages, int maxCachedPages) {
+        final PagedList<String> list = new PagedList<>(token -> {
+            requestedTokens.add(token);
+            final Segment<String> page = pages.get(token == null ? 0 : Integer.parseInt(token));
+            final int index = token == null ? 0 : Integer.parseInt(token);
+            return new Segment<>(page.getItems(), index + 1 < pages.size() ? String.valueOf(index + 1) : null);
+        }, Runnable::run, maxCachedPages);
+        list.addPageListener(new PagedList.PageListener() {
+            @Override
+            public void pageLoaded(int firstRow, int rowCount, boolean appended) {
+                loadedPages.add(new int[]{firstRow, rowCount, appended ? 1 : 0});
+            }
+
+            @Override
+            public void pageFailed(Throwable error) {
+            }
+        });
+        return list;
+    }
+
+    private static Segment<String> page(int first, int count) {
+        final List<String> items = new ArrayList<>();
+        for (int i = first; i < first + count; i++) {
+            items.add("item" + i);
+        }
+        return new Segment<>(items, null);
+    }
+}
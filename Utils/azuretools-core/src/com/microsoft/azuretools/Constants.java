@@ -14,10 +14,12 @@ public class Constants {
     public static int connection_read_timeout_ms = 10000;
 
     public static final String FILE_NAME_AAD_PROVIDER = "AadProvider.json";
+    public static final String FILE_NAME_AZURE_MODEL_SNAPSHOT = "azureModel-%s.bin";
     public static final String FILE_NAME_AUTH_METHOD_DETAILS = "AuthMethodDetails.json";
     public static final String FILE_NAME_CORE_LIB_LOG = "corelibs.log";
     public static final String FILE_NAME_SUBSCRIPTIONS_DETAILS_AT = "subscriptionsDetails-at.json";
     public static final String FILE_NAME_SUBSCRIPTIONS_DETAILS_SP = "subscriptionsDetails-sp.json";
     public static final String FILE_NAME_SUBSCRIPTIONS_DETAILS_AZ = "subscriptionsDetails-az.json";
+    public static final String FILE_NAME_SUBSCRIPTION_TENANTS = "subscriptionTenants.json";
     public static final String FILE_NAME_SURVEY_CONFIG = "SurveyConfig.json";
 }
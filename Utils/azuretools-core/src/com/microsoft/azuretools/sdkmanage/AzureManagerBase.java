@@ -6,6 +6,7 @@
 package com.microsoft.azuretools.sdkmanage;
 
 import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.microsoft.azure.AzureEnvironment;
 import com.microsoft.azure.arm.resources.AzureConfigurable;
 import com.microsoft.azure.credentials.AzureTokenCredentials;
@@ -15,14 +16,16 @@ import com.microsoft.azure.management.appplatform.v2020_07_01.implementation.App
 import com.microsoft.azure.management.mysql.v2020_01_01.implementation.MySQLManager;
 import com.microsoft.azure.management.resources.Subscription;
 import com.microsoft.azure.management.resources.Tenant;
-import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import com.microsoft.azure.toolkit.lib.common.exception.RestExceptionHandlerInterceptor;
+import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
 import com.microsoft.azuretools.adauth.AuthException;
 import com.microsoft.azuretools.authmanage.*;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import com.microsoft.azuretools.enums.ErrorEnum;
 import com.microsoft.azuretools.exception.AzureRuntimeException;
 import com.microsoft.azuretools.telemetry.TelemetryInterceptor;
+import com.microsoft.azuretools.utils.AzureModelController;
 import com.microsoft.azuretools.utils.AzureRegisterProviderNamespaces;
 import com.microsoft.azuretools.utils.Pair;
 import org.apache.commons.lang3.StringUtils;
@@ -32,11 +35,19 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
+import static com.microsoft.azuretools.Constants.FILE_NAME_SUBSCRIPTION_TENANTS;
 import static com.microsoft.azuretools.authmanage.Environment.*;
 
 /**
@@ -52,6 +63,13 @@ public abstract class AzureManagerBase implements AzureManager {
     private static final Logger LOGGER = Logger.getLogger(AzureManagerBase.class.getName());
     private static final String MICROSOFT_INSIGHTS_NAMESPACE = "microsoft.insights";
 
+    private static final int TENANT_DISCOVERY_PARALLELISM = 8;
+    private static final long TENANT_DISCOVERY_TIMEOUT_SECONDS = 60;
+    // shared by the managers, the threads are released when idle
+    private static final ExecutorService tenantDiscoveryExecutor = createTenantDiscoveryExecutor();
+    private static final SubscriptionTenantCache subscriptionTenantCache =
+            new SubscriptionTenantCache(FILE_NAME_SUBSCRIPTION_TENANTS);
+
     protected Map<String, Azure> sidToAzureMap = new ConcurrentHashMap<>();
     protected Map<String, AppPlatformManager> sidToAzureSpringCloudManagerMap = new ConcurrentHashMap<>();
     protected Map<String, MySQLManager> sidToMySQLManagerMap = new ConcurrentHashMap<>();
@@ -94,6 +112,11 @@ public abstract class AzureManagerBase implements AzureManager {
     @Override
     @AzureOperation(name = "account|subscription.get_tenant", params = {"$subscriptionId"}, type = AzureOperation.Type.TASK)
     public String getTenantIdBySubscription(String subscriptionId) {
+        // answered from the index of the last discovery, which is run again for an unknown subscription
+        final String tenantId = subscriptionTenantCache.getTenantId(getSubscriptionTenantAccountId(), subscriptionId);
+        if (tenantId != null) {
+            return tenantId;
+        }
         final Pair<Subscription, Tenant> subscriptionTenantPair = getSubscriptionsWithTenant().stream()
                 .filter(pair -> pair != null && pair.first() != null && pair.second() != null)
                 .filter(pair -> StringUtils.equals(pair.first().subscriptionId(), subscriptionId))
@@ -114,37 +137,90 @@ public abstract class AzureManagerBase implements AzureManager {
     @Override
     @AzureOperation(name = "account|subscription.list.tenant|authorized", type = AzureOperation.Type.SERVICE)
     public List<Pair<Subscription, Tenant>> getSubscriptionsWithTenant() {
-        final List<Pair<Subscription, Tenant>> subscriptions = new LinkedList<>();
         final Azure.Authenticated authentication = authTenant(getCurrentTenantId());
-        // could be multi tenant - return all subscriptions for the current account
+        // could be multi tenant - return all subscriptions for the current account, the tenants are listed in parallel
         final List<Tenant> tenants = getTenants(authentication);
+        final List<Future<List<Subscription>>> futures = new LinkedList<>();
         for (final Tenant tenant : tenants) {
-            try {
-                final Azure.Authenticated tenantAuthentication = authTenant(tenant.tenantId());
-                final List<Subscription> tenantSubscriptions = getSubscriptions(tenantAuthentication);
+            futures.add(tenantDiscoveryExecutor.submit(() -> getSubscriptions(authTenant(tenant.tenantId()))));
+        }
+        final String accountId = getSubscriptionTenantAccountId();
+        final List<Pair<Subscription, Tenant>> subscriptions = new LinkedList<>();
+        // one deadline for all the tenants, rather than a timeout for each of them in turn
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TENANT_DISCOVERY_TIMEOUT_SECONDS);
+        try {
+            int index = 0;
+            for (final Future<List<Subscription>> future : futures) {
+                final Tenant tenant = tenants.get(index++);
+                List<Subscription> tenantSubscriptions = getTenantSubscriptions(future, deadline);
+                if (tenantSubscriptions == null) {
+                    // timed out, the subscriptions of the last discovery are kept rather than dropping the tenant
+                    tenantSubscriptions = subscriptionTenantCache.getSubscriptions(accountId, tenant.tenantId());
+                    LOGGER.warning(String.format("Timed out listing the subscriptions of tenant %s, kept the %d "
+                            + "subscriptions of the last discovery", tenant.tenantId(), tenantSubscriptions.size()));
+                }
                 for (final Subscription subscription : tenantSubscriptions) {
                     subscriptions.add(new Pair<>(subscription, tenant));
                 }
-            } catch (final Exception e) {
-                // just skip for cases user failing to get subscriptions of tenants he/she has no permission to get access token.
-                // "AADSTS50076" is the code of a weired error related to multi-tenant configuration.
-                // "AADSTS50057" is the code of an error related to having a disabled account in the tenant.
-                final Predicate<Throwable> tenantError = (c) -> c instanceof AuthException &&
-                        (((AuthException) c).getErrorMessage().contains("AADSTS50076") ||
-                                ((AuthException) c).getErrorMessage().contains("AADSTS50057"));
-                
-                if (e instanceof AzureRuntimeException && ((AzureRuntimeException) e).getCode() == ErrorEnum.FAILED_TO_GET_ACCESS_TOKEN.getErrorCode() ||
-                    Throwables.getCausalChain(e).stream().anyMatch(tenantError)) {
-                    // TODO: @wangmi better to notify user
-                    LOGGER.log(Level.WARNING, e.getMessage(), e);
-                } else {
-                    throw e;
-                }
             }
+        } finally {
+            futures.forEach(future -> future.cancel(true));
         }
+        subscriptionTenantCache.update(accountId, subscriptions);
         return subscriptions;
     }
 
+    /**
+     * @return null if the subscriptions of the tenant aren't listed before the deadline
+     */
+    @Nullable
+    private List<Subscription> getTenantSubscriptions(Future<List<Subscription>> future, long deadline) {
+        try {
+            return future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (final TimeoutException e) {
+            return null;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AzureToolkitRuntimeException("Interrupted while listing subscriptions", e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (!isSkippableTenantError(cause)) {
+                Throwables.throwIfUnchecked(cause);
+                throw new AzureToolkitRuntimeException(cause.getMessage(), cause);
+            }
+            // just skip for cases user failing to get subscriptions of tenants he/she has no permission to get access token.
+            // TODO: @wangmi better to notify user
+            LOGGER.log(Level.WARNING, cause.getMessage(), cause);
+        }
+        return Collections.emptyList();
+    }
+
+    private static boolean isSkippableTenantError(Throwable e) {
+        // "AADSTS50076" is the code of a weired error related to multi-tenant configuration.
+        // "AADSTS50057" is the code of an error related to having a disabled account in the tenant.
+        final Predicate<Throwable> tenantError = (c) -> c instanceof AuthException &&
+                (((AuthException) c).getErrorMessage().contains("AADSTS50076") ||
+                        ((AuthException) c).getErrorMessage().contains("AADSTS50057"));
+        return e instanceof AzureRuntimeException &&
+                ((AzureRuntimeException) e).getCode() == ErrorEnum.FAILED_TO_GET_ACCESS_TOKEN.getErrorCode() ||
+                Throwables.getCausalChain(e).stream().anyMatch(tenantError);
+    }
+
+    private String getSubscriptionTenantAccountId() {
+        final Environment environment = getEnvironment();
+        final String userId = getCurrentUserId();
+        return environment == null || StringUtils.isEmpty(userId) ? null : environment.getName() + "/" + userId;
+    }
+
+    private static ExecutorService createTenantDiscoveryExecutor() {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(TENANT_DISCOVERY_PARALLELISM,
+                TENANT_DISCOVERY_PARALLELISM, TENANT_DISCOVERY_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("azure-tenant-discovery-%d").build());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
     @Override
     public @Nullable Azure getAzure(String sid) {
         if (!isSignedIn()) {
@@ -235,6 +311,8 @@ public abstract class AzureManagerBase implements AzureManager {
     public void drop() {
         LOGGER.log(Level.INFO, "ServicePrincipalAzureManager.drop()");
         this.subscriptionManager.cleanSubscriptions();
+        subscriptionTenantCache.clear();
+        AzureModelController.clearSnapshots();
     }
 
     protected abstract String getCurrentTenantId();
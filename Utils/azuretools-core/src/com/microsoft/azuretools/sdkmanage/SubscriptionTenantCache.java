@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.sdkmanage;
+
+import com.microsoft.azure.management.resources.Subscription;
+import com.microsoft.azure.management.resources.Tenant;
+import com.microsoft.azuretools.adauth.JsonHelper;
+import com.microsoft.azuretools.authmanage.CommonSettings;
+import com.microsoft.azuretools.authmanage.FileStorage;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.azuretools.utils.Pair;
+import org.apache.commons.lang3.StringUtils;
+import org.codehaus.jackson.annotate.JsonIgnore;
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+import org.codehaus.jackson.annotate.JsonProperty;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The tenant of each subscription of the signed in account, updated by every subscription discovery. The index is
+ * also persisted in the settings folder for the next session, and expires {@link #TTL_MS} after the discovery. The
+ * subscriptions of each tenant are kept in memory, for a tenant that can't be listed in the next discovery.
+ */
+final class SubscriptionTenantCache {
+    private static final Logger LOGGER = Logger.getLogger(SubscriptionTenantCache.class.getName());
+    static final long TTL_MS = TimeUnit.HOURS.toMillis(24);
+
+    private final String fileName;
+    // the settings folder is only known once the IDE set up the environment
+    private final Supplier<String> baseDirSupplier;
+    private volatile Snapshot snapshot;
+    private volatile boolean isLoaded = false;
+
+    SubscriptionTenantCache(String fileName) {
+        this(fileName, CommonSettings::getSettingsBaseDir);
+    }
+
+    SubscriptionTenantCache(String fileName, Supplier<String> baseDirSupplier) {
+        this.fileName = fileName;
+        this.baseDirSupplier = baseDirSupplier;
+    }
+
+    /**
+     * @return null if the subscription isn't in the index, or the index expired or is of another account
+     */
+    @Nullable
+    String getTenantId(@Nullable String accountId, String subscriptionId) {
+        if (StringUtils.isEmpty(accountId)) {
+            return null;
+        }
+        if (!isLoaded) {
+            load();
+        }
+        final Snapshot current = snapshot;
+        if (current == null || !StringUtils.equals(current.accountId, accountId)
+                || System.currentTimeMillis() - current.timestamp > TTL_MS || current.subscriptionTenants == null) {
+            return null;
+        }
+        return current.subscriptionTenants.get(subscriptionId);
+    }
+
+    /**
+     * @return the subscriptions of the tenant in the last discovery of this session, empty if there are none or the
+     * discovery is of another account
+     */
+    List<Subscription> getSubscriptions(@Nullable String accountId, String tenantId) {
+        final Snapshot current = snapshot;
+        if (StringUtils.isEmpty(accountId) || current == null || !StringUtils.equals(current.accountId, accountId)
+                || current.tenantSubscriptions == null) {
+            return Collections.emptyList();
+        }
+        return current.tenantSubscriptions.getOrDefault(tenantId, Collections.emptyList());
+    }
+
+    void update(@Nullable String accountId, List<Pair<Subscription, Tenant>> subscriptions) {
+        if (StringUtils.isEmpty(accountId)) {
+            return;
+        }
+        final Map<String, String> subscriptionTenants = new HashMap<>();
+        final Map<String, List<Subscription>> tenantSubscriptions = new HashMap<>();
+        for (final Pair<Subscription, Tenant> pair : subscriptions) {
+            if (pair != null && pair.first() != null && pair.second() != null) {
+                subscriptionTenants.put(pair.first().subscriptionId(), pair.second().tenantId());
+                tenantSubscriptions.computeIfAbsent(pair.second().tenantId(), key -> new ArrayList<>())
+                        .add(pair.first());
+            }
+        }
+        final Snapshot current = new Snapshot(accountId, System.currentTimeMillis(), subscriptionTenants);
+        current.tenantSubscriptions = tenantSubscriptions;
+        synchronized (this) {
+            snapshot = current;
+            isLoaded = true;
+            try {
+                getFileStorage().write(JsonHelper.serialize(current).getBytes(StandardCharsets.UTF_8));
+            } catch (final IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to persist the subscription tenants", e);
+            }
+        }
+    }
+
+    synchronized void clear() {
+        snapshot = null;
+        isLoaded = true;
+        try {
+            getFileStorage().cleanFile();
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to clear the persisted subscription tenants", e);
+        }
+    }
+
+    private synchronized void load() {
+        if (isLoaded) {
+            return;
+        }
+        isLoaded = true;
+        try {
+            final String json = new String(getFileStorage().read(), StandardCharsets.UTF_8);
+            if (!json.isEmpty()) {
+                snapshot = JsonHelper.deserialize(Snapshot.class, json);
+            }
+        } catch (final IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to load the persisted subscription tenants", e);
+        }
+    }
+
+    private FileStorage getFileStorage() throws IOException {
+        return new FileStorage(fileName, baseDirSupplier.get());
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static final class Snapshot {
+        @JsonProperty
+        private String accountId;
+        @JsonProperty
+        private long timestamp;
+        @JsonProperty
+        private Map<String, String> subscriptionTenants;
+        // not persisted, the subscriptions can't be restored from the index
+        @JsonIgnore
+        private Map<String, List<Subscription>> tenantSubscriptions;
+
+        // for json mapper
+        @SuppressWarnings("unused")
+        private Snapshot() {
+        }
+
+        private Snapshot(String accountId, long timestamp, Map<String, String> subscriptionTenants) {
+            this.accountId = accountId;
+            this.timestamp = timestamp;
+            this.subscriptionTenants = subscriptionTenants;
+        }
+    }
+}
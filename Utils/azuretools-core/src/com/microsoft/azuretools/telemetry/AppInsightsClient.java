@@ -10,6 +10,7 @@ import com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemeter;
 import com.microsoft.azuretools.adauth.StringUtils;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import com.microsoft.azuretools.telemetrywrapper.TelemetryManager;
+import com.microsoft.azuretools.telemetrywrapper.TelemetrySender;
 
 import java.util.HashMap;
 import java.util.Iterator;
@@ -100,10 +101,7 @@ public class AppInsightsClient {
             if (prefValue == null || prefValue.isEmpty() || prefValue.equalsIgnoreCase("true") || force) {
                 TelemetryClient telemetry = TelemetryClientSingleton.getTelemetry();
                 Map<String, String> properties = buildProperties(version, myProperties);
-                synchronized (TelemetryClientSingleton.class) {
-                    telemetry.trackEvent(eventName, properties, metrics);
-                    telemetry.flush();
-                }
+                TelemetrySender.getInstance().send(telemetry, eventName, properties, metrics);
             }
         }
     }
@@ -163,10 +161,7 @@ public class AppInsightsClient {
                 properties.put("Installation ID", instID);
             }
         }
-        synchronized (TelemetryClientSingleton.class) {
-            telemetry.trackEvent(eventName, properties, null);
-            telemetry.flush();
-        }
+        TelemetrySender.getInstance().send(telemetry, eventName, properties, null);
     }
 
     private static boolean isAppInsightsClientAvailable() {
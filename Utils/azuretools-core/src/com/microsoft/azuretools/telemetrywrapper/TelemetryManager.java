@@ -8,14 +8,17 @@ package com.microsoft.azuretools.telemetrywrapper;
 import com.microsoft.applicationinsights.TelemetryClient;
 import com.microsoft.azuretools.ActionConstants;
 
+import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 public class TelemetryManager {
 
-    private String eventNamePrefix = "";
-    private Map<String, String> commonProperties = Collections.unmodifiableMap(new HashMap<>());
+    private static final String SPOOL_FOLDER = "telemetry";
+
+    private volatile String eventNamePrefix = "";
+    private volatile Map<String, String> commonProperties = Collections.unmodifiableMap(new HashMap<>());
 
     private static final class SingletonHolder {
         private static final TelemetryManager INSTANCE = new TelemetryManager();
@@ -40,6 +43,14 @@ public class TelemetryManager {
         this.eventNamePrefix = eventNamePrefix;
     }
 
+    /**
+     * Keep the events that can't be sent or held in memory in a spool under the base folder, so that they are sent
+     * later, including by the next session
+     */
+    public void enableSpool(String baseDir) {
+        TelemetrySender.getInstance().openSpool(Paths.get(baseDir, SPOOL_FOLDER));
+    }
+
     public void sendCachedTelemetries() {
         CommonUtil.clearCachedEvents();
     }
@@ -0,0 +1,351 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.telemetrywrapper;
+
+import com.microsoft.applicationinsights.TelemetryClient;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sends the telemetry events in the background. The events are put into a bounded lock-free queue, and a single
+ * daemon thread tracks them in batches, flushing the client once per batch. A batch is sent when the queue holds
+ * {@link #BATCH_SIZE} events, or every {@link #FLUSH_INTERVAL_MS} milliseconds otherwise.
+ *
+ * When the queue is more than three quarters full only one of {@link #SAMPLING_RATE} non-error events is kept, and
+ * when it's full the new events are dropped, the counters of both are reported by the getters. The events of the
+ * {@link CommonUtil#client} are set aside until the client is set, without holding up the events of the other
+ * clients, and the queue is drained on shutdown.
+ *
+ * With a {@link TelemetrySpool} opened, the events of the {@link CommonUtil#client} that would be sampled out are
+ * written to the spool instead, as are the ones still waiting for the client on shutdown. The spooled events are
+ * sent after the queued ones, in batches, once the client is set.
+ */
+public final class TelemetrySender {
+    private static final Logger LOGGER = Logger.getLogger(TelemetrySender.class.getName());
+
+    static final int QUEUE_CAPACITY = 10000;
+    static final int BATCH_SIZE = 100;
+    static final long FLUSH_INTERVAL_MS = 5000;
+    static final int SAMPLING_RATE = 4;
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+
+    private final Queue<TelemetryEvent> queue = new ConcurrentLinkedQueue<>();
+    // ConcurrentLinkedQueue.size() is O(n), the queue size is counted separately
+    private final AtomicInteger queueSize = new AtomicInteger();
+    // the events waiting for the CommonUtil.client, only used by the sender thread and counted in the queue size
+    private final Queue<TelemetryEvent> pendingQueue = new ArrayDeque<>();
+    private final AtomicBoolean isDrainScheduled = new AtomicBoolean();
+    private final AtomicLong samplingSequence = new AtomicLong();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong sampledOutCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong spooledCount = new AtomicLong();
+    private final int capacity;
+    private final int samplingThreshold;
+    private final ScheduledExecutorService executor;
+    private volatile boolean isShutdown = false;
+    private volatile TelemetrySpool spool;
+
+    private static final class SingletonHolder {
+        private static final TelemetrySender INSTANCE = new TelemetrySender(QUEUE_CAPACITY);
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(INSTANCE::shutdown, "azure-telemetry-shutdown"));
+        }
+    }
+
+    TelemetrySender(int capacity) {
+        this.capacity = capacity;
+        this.samplingThreshold = capacity / 4 * 3;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "azure-telemetry-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::drain, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public static TelemetrySender getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Queue an event of the {@link CommonUtil#client}, the event name is resolved with the prefix at the sending time
+     */
+    boolean send(EventType eventType, Map<String, String> properties, Map<String, Double> metrics) {
+        return offer(new TelemetryEvent(null, eventType, null, properties, metrics));
+    }
+
+    /**
+     * Queue an event of the given client
+     *
+     * @return false if the event was sampled out or dropped
+     */
+    public boolean send(TelemetryClient client, String eventName, Map<String, String> properties,
+                        Map<String, Double> metrics) {
+        return offer(new TelemetryEvent(client, null, eventName, properties, metrics));
+    }
+
+    /**
+     * Open the spool in the directory, and send the events left in it by the previous session once the client is set.
+     * The events are only kept in memory if the spool can't be opened.
+     */
+    public synchronized void openSpool(Path directory) {
+        if (spool != null || isShutdown) {
+            return;
+        }
+        try {
+            spool = TelemetrySpool.open(directory);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to open the telemetry spool, the events are kept in memory only", e);
+            return;
+        }
+        scheduleDrain();
+    }
+
+    /**
+     * Send the queued events in the background now, rather than waiting for the next interval
+     */
+    public void flush() {
+        scheduleDrain();
+    }
+
+    /**
+     * Stop the background sending, and send the queued events in the calling thread. The events sent after the
+     * shutdown are sent and flushed one by one.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            if (isShutdown) {
+                return;
+            }
+            isShutdown = true;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        drain();
+        closeSpool();
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getSampledOutCount() {
+        return sampledOutCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getSpooledCount() {
+        return spooledCount.get();
+    }
+
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    private boolean offer(TelemetryEvent event) {
+        if (isShutdown) {
+            return sendNow(event);
+        }
+        final int size = queueSize.get();
+        if (size >= samplingThreshold && spill(event)) {
+            return true;
+        }
+        if (size >= samplingThreshold && event.eventType != EventType.error
+                && samplingSequence.getAndIncrement() % SAMPLING_RATE != 0) {
+            sampledOutCount.incrementAndGet();
+            return false;
+        }
+        if (queueSize.incrementAndGet() > capacity) {
+            queueSize.decrementAndGet();
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        queue.offer(event);
+        if (size + 1 >= BATCH_SIZE) {
+            scheduleDrain();
+        }
+        return true;
+    }
+
+    private boolean spill(TelemetryEvent event) {
+        final TelemetrySpool currentSpool = spool;
+        if (event.client != null || currentSpool == null || !currentSpool.append(event)) {
+            return false;
+        }
+        spooledCount.incrementAndGet();
+        return true;
+    }
+
+    private void scheduleDrain() {
+        if (isDrainScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                isDrainScheduled.set(false);
+            }
+        }
+    }
+
+    // only runs on the sender thread, or in shutdown after the sender thread terminated
+    private void drain() {
+        isDrainScheduled.set(false);
+        try {
+            while (sendBatch() == BATCH_SIZE) {
+                // keep sending while there are full batches
+            }
+            final TelemetrySpool currentSpool = spool;
+            if (currentSpool != null) {
+                while (sendSpooledBatch(currentSpool) == BATCH_SIZE) {
+                    // keep sending while there are full batches
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to send telemetry events", e);
+        }
+    }
+
+    private int sendBatch() {
+        final Map<TelemetryClient, Boolean> clients = new IdentityHashMap<>();
+        int count = 0;
+        try {
+            while (count < BATCH_SIZE) {
+                // the pending events were queued first, so they are sent first once the client is set
+                final TelemetryEvent pendingEvent = pendingQueue.peek();
+                final TelemetryEvent event = pendingEvent != null && pendingEvent.getClient() != null
+                        ? pendingQueue.poll() : queue.poll();
+                if (event == null) {
+                    break;
+                }
+                final TelemetryClient client = event.getClient();
+                if (client == null) {
+                    pendingQueue.offer(event);
+                    continue;
+                }
+                queueSize.decrementAndGet();
+                count++;
+                clients.put(client, Boolean.TRUE);
+                client.trackEvent(event.getEventName(), event.properties, event.metrics);
+                sentCount.incrementAndGet();
+            }
+        } finally {
+            for (final TelemetryClient client : clients.keySet()) {
+                client.flush();
+            }
+        }
+        return count;
+    }
+
+    // the spooled events are consumed once they are tracked, they may be sent again if tracking fails
+    private int sendSpooledBatch(TelemetrySpool currentSpool) {
+        final TelemetryClient client = CommonUtil.client;
+        if (client == null) {
+            return 0;
+        }
+        final List<TelemetryEvent> events = currentSpool.peek(BATCH_SIZE);
+        if (events.isEmpty()) {
+            return 0;
+        }
+        try {
+            for (final TelemetryEvent event : events) {
+                // null for a record that can't be decoded, which is consumed without sending
+                if (event != null) {
+                    client.trackEvent(event.getEventName(), event.properties, event.metrics);
+                    sentCount.incrementAndGet();
+                }
+            }
+        } finally {
+            client.flush();
+        }
+        currentSpool.remove(events.size());
+        return events.size();
+    }
+
+    // only runs in shutdown, the events still waiting for the client are kept for the next session
+    private void closeSpool() {
+        final TelemetrySpool currentSpool = spool;
+        if (currentSpool == null) {
+            return;
+        }
+        TelemetryEvent event;
+        while ((event = pendingQueue.isEmpty() ? queue.poll() : pendingQueue.poll()) != null) {
+            queueSize.decrementAndGet();
+            // the events of the other clients are sent rather than dropped
+            if (!spill(event)) {
+                sendNow(event);
+            }
+        }
+        try {
+            currentSpool.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to close the telemetry spool", e);
+        }
+    }
+
+    private boolean sendNow(TelemetryEvent event) {
+        final TelemetryClient client = event.getClient();
+        if (client == null) {
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        client.trackEvent(event.getEventName(), event.properties, event.metrics);
+        client.flush();
+        sentCount.incrementAndGet();
+        return true;
+    }
+
+    static final class TelemetryEvent {
+        final TelemetryClient client;
+        final EventType eventType;
+        final String eventName;
+        final Map<String, String> properties;
+        final Map<String, Double> metrics;
+
+        TelemetryEvent(TelemetryClient client, EventType eventType, String eventName,
+                               Map<String, String> properties, Map<String, Double> metrics) {
+            this.client = client;
+            this.eventType = eventType;
+            this.eventName = eventName;
+            this.properties = properties;
+            this.metrics = metrics;
+        }
+
+        private TelemetryClient getClient() {
+            return client == null ? CommonUtil.client : client;
+        }
+
+        private String getEventName() {
+            return eventName == null ? CommonUtil.getFullEventName(eventType) : eventName;
+        }
+    }
+}
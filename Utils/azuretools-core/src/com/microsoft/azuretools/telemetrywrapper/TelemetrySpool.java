@@ -0,0 +1,389 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.telemetrywrapper;
+
+import com.microsoft.azuretools.telemetrywrapper.TelemetrySender.TelemetryEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only spool of the telemetry events on the disk, used when the events can't be kept in memory and to keep
+ * them across restarts. The spool is a fixed ring of memory-mapped segment files, which also caps its size. Each
+ * segment starts with a header of a magic number and a generation, ordering the segments, followed by the records.
+ * A record is the length of the payload, the CRC32 of the payload, and the payload.
+ *
+ * The records are read in order and marked consumed by negating their length once they are sent, a segment whose
+ * records are all consumed is reset and reused for new records. The segments are reused rather than deleted because
+ * a mapped file can't be deleted on Windows until the mapping is garbage collected. On opening, the records after a
+ * torn or corrupted record are discarded.
+ */
+final class TelemetrySpool implements Closeable {
+    static final int SEGMENT_SIZE = 1024 * 1024;
+    static final int SEGMENT_COUNT = 8;
+
+    private static final String LOCK_FILE_NAME = "telemetry.lock";
+    private static final String SEGMENT_FILE_NAME = "telemetry-%d.spool";
+    private static final int MAGIC = 0x54454c53;
+    private static final int FORMAT_VERSION = 1;
+    // magic and generation
+    private static final int SEGMENT_HEADER_SIZE = 12;
+    // payload length and CRC
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int END_OF_RECORDS = 0;
+    private static final int NO_VALUE = -1;
+
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final int segmentSize;
+    // the segments with records, oldest first
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final Deque<Segment> freeSegments = new ArrayDeque<>();
+    private long lastGeneration = 0;
+    private int recordCount = 0;
+    private boolean isClosed = false;
+
+    private TelemetrySpool(FileChannel lockChannel, FileLock lock, int segmentSize) {
+        this.lockChannel = lockChannel;
+        this.lock = lock;
+        this.segmentSize = segmentSize;
+    }
+
+    static TelemetrySpool open(Path directory) throws IOException {
+        return open(directory, SEGMENT_SIZE, SEGMENT_COUNT);
+    }
+
+    /**
+     * Open the spool in the directory, recovering the records left by the previous session
+     *
+     * @throws IOException if the spool can't be opened, or is used by another process
+     */
+    static TelemetrySpool open(Path directory, int segmentSize, int segmentCount) throws IOException {
+        Files.createDirectories(directory);
+        final FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE_NAME),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            final FileLock lock = lockChannel.tryLock();
+            if (lock == null) {
+                throw new IOException("The telemetry spool is used by another process: " + directory);
+            }
+            final TelemetrySpool spool = new TelemetrySpool(lockChannel, lock, segmentSize);
+            final List<Segment> usedSegments = new ArrayList<>();
+            for (int i = 0; i < segmentCount; i++) {
+                final Segment segment = spool.openSegment(directory.resolve(String.format(SEGMENT_FILE_NAME, i)));
+                if (segment.generation > 0) {
+                    usedSegments.add(segment);
+                    spool.lastGeneration = Math.max(spool.lastGeneration, segment.generation);
+                } else {
+                    spool.freeSegments.addLast(segment);
+                }
+            }
+            usedSegments.sort(Comparator.comparingLong(segment -> segment.generation));
+            spool.segments.addAll(usedSegments);
+            return spool;
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return false if the spool is full or closed, or the event is larger than a segment
+     */
+    synchronized boolean append(TelemetryEvent event) {
+        if (isClosed) {
+            return false;
+        }
+        final byte[] payload = serialize(event);
+        final int size = RECORD_HEADER_SIZE + payload.length;
+        if (size > segmentSize - SEGMENT_HEADER_SIZE) {
+            return false;
+        }
+        Segment segment = segments.peekLast();
+        if (segment == null || segment.writePosition + size > segmentSize) {
+            segment = freeSegments.pollFirst();
+            if (segment == null) {
+                return false;
+            }
+            segment.generation = ++lastGeneration;
+            segment.buffer.putInt(0, MAGIC);
+            segment.buffer.putLong(4, segment.generation);
+            segments.addLast(segment);
+        }
+        final MappedByteBuffer buffer = segment.buffer;
+        final int position = segment.writePosition;
+        final ByteBuffer payloadBuffer = buffer.duplicate();
+        payloadBuffer.position(position + RECORD_HEADER_SIZE);
+        payloadBuffer.put(payload);
+        buffer.putInt(position + 4, crc(buffer, position + RECORD_HEADER_SIZE, payload.length));
+        final int nextPosition = position + size;
+        if (nextPosition + RECORD_HEADER_SIZE <= segmentSize) {
+            buffer.putInt(nextPosition, END_OF_RECORDS);
+        }
+        // the length is written last, so that a torn record is never read as a complete one
+        buffer.putInt(position, payload.length);
+        segment.writePosition = nextPosition;
+        recordCount++;
+        return true;
+    }
+
+    /**
+     * Read the oldest records without consuming them, a record that can't be decoded is returned as null
+     */
+    synchronized List<TelemetryEvent> peek(int maxCount) {
+        final List<TelemetryEvent> events = new ArrayList<>();
+        if (isClosed) {
+            return events;
+        }
+        for (final Segment segment : segments) {
+            int position = segment.readPosition;
+            while (position < segment.writePosition && events.size() < maxCount) {
+                final int length = segment.buffer.getInt(position);
+                if (length > 0) {
+                    events.add(deserialize(segment.buffer, position + RECORD_HEADER_SIZE, length));
+                }
+                position += RECORD_HEADER_SIZE + Math.abs(length);
+            }
+            if (events.size() >= maxCount) {
+                break;
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Consume the given number of the oldest records, the segments with no more records are reused
+     */
+    synchronized void remove(int count) {
+        while (count > 0 && !isClosed && !segments.isEmpty()) {
+            final Segment segment = segments.peekFirst();
+            while (count > 0 && segment.readPosition < segment.writePosition) {
+                final int length = segment.buffer.getInt(segment.readPosition);
+                if (length > 0) {
+                    segment.buffer.putInt(segment.readPosition, -length);
+                    recordCount--;
+                    count--;
+                }
+                segment.readPosition += RECORD_HEADER_SIZE + Math.abs(length);
+            }
+            if (segment.readPosition < segment.writePosition) {
+                break;
+            }
+            segments.pollFirst();
+            reset(segment);
+            freeSegments.addLast(segment);
+        }
+    }
+
+    synchronized int size() {
+        return recordCount;
+    }
+
+    /**
+     * Write the records to the disk and release the lock. The mapped files are released when garbage collected.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        try {
+            for (final Segment segment : segments) {
+                segment.buffer.force();
+            }
+            for (final Segment segment : freeSegments) {
+                segment.buffer.force();
+            }
+        } finally {
+            try {
+                lock.release();
+            } finally {
+                lockChannel.close();
+            }
+        }
+    }
+
+    private Segment openSegment(Path path) throws IOException {
+        final MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        final Segment segment = new Segment(buffer);
+        final long generation = buffer.getLong(4);
+        if (buffer.getInt(0) != MAGIC || generation <= 0) {
+            reset(segment);
+            return segment;
+        }
+        int position = SEGMENT_HEADER_SIZE;
+        int readPosition = NO_VALUE;
+        while (position + RECORD_HEADER_SIZE <= segmentSize) {
+            final int length = buffer.getInt(position);
+            if (length == END_OF_RECORDS) {
+                break;
+            }
+            final int payloadLength = Math.abs(length);
+            if (length == Integer.MIN_VALUE || payloadLength > segmentSize - position - RECORD_HEADER_SIZE
+                    || (length > 0
+                    && crc(buffer, position + RECORD_HEADER_SIZE, length) != buffer.getInt(position + 4))) {
+                // a torn or corrupted record, the records after it are discarded
+                buffer.putInt(position, END_OF_RECORDS);
+                break;
+            }
+            if (length > 0) {
+                if (readPosition == NO_VALUE) {
+                    readPosition = position;
+                }
+                recordCount++;
+            }
+            position += RECORD_HEADER_SIZE + payloadLength;
+        }
+        if (readPosition == NO_VALUE) {
+            // all the records were consumed
+            reset(segment);
+            return segment;
+        }
+        segment.generation = generation;
+        segment.readPosition = readPosition;
+        segment.writePosition = position;
+        return segment;
+    }
+
+    private static void reset(Segment segment) {
+        segment.buffer.putInt(SEGMENT_HEADER_SIZE, END_OF_RECORDS);
+        segment.buffer.putLong(4, 0);
+        segment.generation = 0;
+        segment.readPosition = SEGMENT_HEADER_SIZE;
+        segment.writePosition = SEGMENT_HEADER_SIZE;
+    }
+
+    private static int crc(ByteBuffer buffer, int position, int length) {
+        final ByteBuffer payload = buffer.duplicate();
+        payload.position(position);
+        payload.limit(position + length);
+        final CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] serialize(TelemetryEvent event) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeByte(FORMAT_VERSION);
+            writeString(output, event.eventType.name());
+            if (event.properties == null) {
+                output.writeInt(NO_VALUE);
+            } else {
+                output.writeInt(event.properties.size());
+                for (final Map.Entry<String, String> entry : event.properties.entrySet()) {
+                    writeString(output, entry.getKey());
+                    writeString(output, entry.getValue());
+                }
+            }
+            if (event.metrics == null) {
+                output.writeInt(NO_VALUE);
+            } else {
+                output.writeInt(event.metrics.size());
+                for (final Map.Entry<String, Double> entry : event.metrics.entrySet()) {
+                    writeString(output, entry.getKey());
+                    output.writeDouble(entry.getValue() == null ? Double.NaN : entry.getValue());
+                }
+            }
+        } catch (IOException e) {
+            // a ByteArrayOutputStream doesn't throw
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static TelemetryEvent deserialize(ByteBuffer buffer, int position, int length) {
+        final byte[] payload = new byte[length];
+        final ByteBuffer payloadBuffer = buffer.duplicate();
+        payloadBuffer.position(position);
+        payloadBuffer.get(payload);
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload))) {
+            if (input.readByte() != FORMAT_VERSION) {
+                return null;
+            }
+            final EventType eventType = EventType.valueOf(readString(input));
+            Map<String, String> properties = null;
+            final int propertyCount = input.readInt();
+            if (propertyCount != NO_VALUE) {
+                properties = new HashMap<>();
+                for (int i = 0; i < propertyCount; i++) {
+                    properties.put(readString(input), readString(input));
+                }
+            }
+            Map<String, Double> metrics = null;
+            final int metricCount = input.readInt();
+            if (metricCount != NO_VALUE) {
+                metrics = new HashMap<>();
+                for (int i = 0; i < metricCount; i++) {
+                    metrics.put(readString(input), input.readDouble());
+                }
+            }
+            return new TelemetryEvent(null, eventType, null, properties, metrics);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    // DataOutput.writeUTF is limited to 64K bytes, which a stack trace may exceed
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(NO_VALUE);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        final int length = input.readInt();
+        if (length == NO_VALUE) {
+            return null;
+        }
+        if (length < 0 || length > input.available()) {
+            throw new IOException("Invalid string length: " + length);
+        }
+        final byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Segment {
+        private final MappedByteBuffer buffer;
+        private long generation = 0;
+        private int readPosition = SEGMENT_HEADER_SIZE;
+        private int writePosition = SEGMENT_HEADER_SIZE;
+
+        private Segment(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+}
@@ -11,11 +11,13 @@ import com.microsoft.azure.management.appservice.WebApp;
 import com.microsoft.azure.management.resources.Location;
 import com.microsoft.azure.management.resources.ResourceGroup;
 import com.microsoft.azure.management.resources.Subscription;
+import com.microsoft.azure.management.resources.fluentcore.arm.models.HasResourceGroup;
 import com.microsoft.azuretools.authmanage.AuthMethodManager;
 import com.microsoft.azuretools.authmanage.CommonSettings;
 import com.microsoft.azuretools.authmanage.ISubscriptionSelectionListener;
 import com.microsoft.azuretools.authmanage.SubscriptionManager;
 import com.microsoft.azuretools.authmanage.models.SubscriptionDetail;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import com.microsoft.azuretools.sdkmanage.AzureManager;
 import com.microsoft.azuretools.utils.WebAppUtils.WebAppDetails;
 import rx.Observable;
@@ -25,22 +27,39 @@ import rx.functions.Action1;
 import rx.functions.Func1;
 import rx.schedulers.Schedulers;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.function.BiConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
+import static com.microsoft.azuretools.Constants.FILE_NAME_AZURE_MODEL_SNAPSHOT;
+
 /**
  * Created by vlashch on 1/9/17.
  */
 public class AzureModelController {
     private static final Logger LOGGER = Logger.getLogger(AzureModelController.class.getName());
+    static final int DEPENDENCY_BATCH_SIZE = 50;
+    private static final List<ResourceGroupDependencyListener> dependencyListeners = new CopyOnWriteArrayList<>();
+    private static volatile boolean isSubscriptionWideListing = true;
+    private static volatile AzureModelSnapshot snapshot = null;
     private static ISubscriptionSelectionListener subscriptionSelectionListener = new ISubscriptionSelectionListener() {
         @Override
         public void update(boolean isRefresh) {
@@ -75,6 +94,7 @@ public class AzureModelController {
         azureModel.setSubscriptionToResourceGroupMap(null);
         azureModel.setResourceGroupToWebAppMap(null);
         azureModel.setResourceGroupToAppServicePlanMap(null);
+        snapshot = null;
 
         // TODO: notify subscribers
 
@@ -186,6 +206,10 @@ public class AzureModelController {
         if (tasksSize == 0) {
             return;
         }
+        if (isSubscriptionWideListing) {
+            listResGrDependency(azure, rgList, rgwaMap, rgspMap);
+            return;
+        }
         Observable.from(rgList).flatMap(new Func1<ResourceGroup, Observable<? extends RgDepParams>>() {
             @Override
             public Observable<? extends RgDepParams> call(ResourceGroup rg) {
@@ -216,6 +240,77 @@ public class AzureModelController {
                 });
     }
 
+    /**
+     * List the web apps and App Service plans of the whole subscription, two paged requests rather than two per
+     * resource group, and group them by resource group. Each batch is added to the maps and published to the
+     * listeners as it's read, the web apps and the plans are read concurrently on two io threads.
+     */
+    static void listResGrDependency(Azure azure,
+                                    List<ResourceGroup> rgList,
+                                    Map<ResourceGroup, List<WebApp>> rgwaMap,
+                                    Map<ResourceGroup, List<AppServicePlan>> rgspMap) {
+        final Map<String, ResourceGroup> nameToRgMap = new HashMap<>();
+        for (ResourceGroup rg : rgList) {
+            nameToRgMap.put(rg.name().toLowerCase(Locale.ROOT), rg);
+            rgwaMap.put(rg, new LinkedList<>());
+            rgspMap.put(rg, new LinkedList<>());
+        }
+        final Observable<List<WebApp>> webApps = azure.webApps().listAsync()
+                .buffer(DEPENDENCY_BATCH_SIZE)
+                .doOnNext(batch -> groupByResourceGroup(batch, nameToRgMap, rgwaMap,
+                    (rg, wal) -> dependencyListeners.forEach(listener -> listener.webAppsLoaded(rg, wal))))
+                .subscribeOn(Schedulers.io());
+        final Observable<List<AppServicePlan>> appServicePlans = azure.appServices().appServicePlans().listAsync()
+                .buffer(DEPENDENCY_BATCH_SIZE)
+                .doOnNext(batch -> groupByResourceGroup(batch, nameToRgMap, rgspMap,
+                    (rg, aspl) -> dependencyListeners.forEach(listener -> listener.appServicePlansLoaded(rg, aspl))))
+                .subscribeOn(Schedulers.io());
+        Observable.<List<?>>merge(webApps, appServicePlans).toBlocking().subscribe();
+    }
+
+    private static <T extends HasResourceGroup> void groupByResourceGroup(List<T> batch,
+                                                                        Map<String, ResourceGroup> nameToRgMap,
+                                                                        Map<ResourceGroup, List<T>> rgMap,
+                                                                        BiConsumer<ResourceGroup, List<T>> publisher) {
+        final Map<ResourceGroup, List<T>> batchMap = new HashMap<>();
+        for (T resource : batch) {
+            final String rgName = resource.resourceGroupName();
+            // the resources of a resource group created after the resource groups were listed are skipped
+            final ResourceGroup rg = rgName == null ? null : nameToRgMap.get(rgName.toLowerCase(Locale.ROOT));
+            if (rg != null) {
+                batchMap.computeIfAbsent(rg, key -> new LinkedList<>()).add(resource);
+            }
+        }
+        batchMap.forEach((rg, resources) -> {
+            rgMap.get(rg).addAll(resources);
+            try {
+                publisher.accept(rg, Collections.unmodifiableList(resources));
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "groupByResourceGroup", e);
+            }
+        });
+    }
+
+    /**
+     * Whether the web apps and App Service plans are listed for the whole subscription at once, which is the default,
+     * or for each resource group
+     */
+    public static void setSubscriptionWideListing(boolean subscriptionWideListing) {
+        isSubscriptionWideListing = subscriptionWideListing;
+    }
+
+    /**
+     * Add a listener notified while the web apps and App Service plans are listed, it's called concurrently from the
+     * two io threads listing them
+     */
+    public static void addResourceGroupDependencyListener(ResourceGroupDependencyListener listener) {
+        dependencyListeners.add(listener);
+    }
+
+    public static void removeResourceGroupDependencyListener(ResourceGroupDependencyListener listener) {
+        dependencyListeners.remove(listener);
+    }
+
     public static synchronized void updateSubscriptionMaps(IProgressIndicator progressIndicator) throws CanceledByUserException {
         AzureManager azureManager = AuthMethodManager.getInstance().getAzureManager();
         // not signed in
@@ -348,6 +443,96 @@ public class AzureModelController {
 
         azureModel.setResourceGroupToWebAppMap(rgwaMap);
         azureModel.setResourceGroupToAppServicePlanMap(rgspMap);
+        saveSnapshot(azureManager, azureModel, rgwaMap, rgspMap);
+    }
+
+    /**
+     * The snapshot of the model of the signed in account, to show before the model is updated. A snapshot loaded
+     * from the disk is stale, it's replaced by a fresh one each time {@link #updateResourceGroupMaps} completes.
+     */
+    public static @Nullable AzureModelSnapshot getSnapshot() {
+        final AzureManager azureManager = AuthMethodManager.getInstance().getAzureManager();
+        final String accountId = getAccountId(azureManager);
+        if (accountId == null) {
+            return null;
+        }
+        final AzureModelSnapshot current = snapshot;
+        if (current != null && accountId.equals(current.getAccountId())) {
+            return current;
+        }
+        final Path path = getSnapshotPath(accountId);
+        if (path == null) {
+            return null;
+        }
+        try {
+            final AzureModelSnapshot loaded = AzureModelSnapshot.load(path);
+            if (loaded != null && accountId.equals(loaded.getAccountId())) {
+                snapshot = loaded;
+                return loaded;
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "getSnapshot", e);
+        }
+        return null;
+    }
+
+    /**
+     * Delete the snapshots on sign out, the ones of the accounts signed in before included
+     */
+    public static void clearSnapshots() {
+        snapshot = null;
+        final String baseDir = CommonSettings.getSettingsBaseDir();
+        if (baseDir == null) {
+            return;
+        }
+        // the temporary files of an interrupted save too
+        final String glob = String.format(FILE_NAME_AZURE_MODEL_SNAPSHOT, "*") + "*";
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(Paths.get(baseDir), glob)) {
+            for (Path path : paths) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "clearSnapshots", e);
+        }
+    }
+
+    private static void saveSnapshot(AzureManager azureManager,
+                                     AzureModel azureModel,
+                                     Map<ResourceGroup, List<WebApp>> rgwaMap,
+                                     Map<ResourceGroup, List<AppServicePlan>> rgspMap) {
+        final String accountId = getAccountId(azureManager);
+        if (accountId == null) {
+            return;
+        }
+        try {
+            final AzureModelSnapshot current = AzureModelSnapshot.create(accountId,
+                    azureModel.getSubscriptionToResourceGroupMap(), azureModel.getSubscriptionToLocationMap(),
+                    rgwaMap, rgspMap);
+            snapshot = current;
+            final Path path = getSnapshotPath(accountId);
+            if (path != null) {
+                current.save(path);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "saveSnapshot", e);
+        }
+    }
+
+    private static @Nullable String getAccountId(@Nullable AzureManager azureManager) {
+        if (azureManager == null || azureManager.getEnvironment() == null
+                || azureManager.getCurrentUserId() == null) {
+            return null;
+        }
+        return azureManager.getEnvironment().getName() + "/" + azureManager.getCurrentUserId();
+    }
+
+    private static @Nullable Path getSnapshotPath(String accountId) {
+        final String baseDir = CommonSettings.getSettingsBaseDir();
+        if (baseDir == null) {
+            return null;
+        }
+        final UUID accountUuid = UUID.nameUUIDFromBytes(accountId.getBytes(StandardCharsets.UTF_8));
+        return Paths.get(baseDir, String.format(FILE_NAME_AZURE_MODEL_SNAPSHOT, accountUuid));
     }
 
     public static void addNewResourceGroup(SubscriptionDetail sd, ResourceGroup rg) {
@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.utils;
+
+import com.microsoft.azure.management.appservice.AppServicePlan;
+import com.microsoft.azure.management.appservice.WebApp;
+import com.microsoft.azure.management.resources.Location;
+import com.microsoft.azure.management.resources.ResourceGroup;
+import com.microsoft.azure.management.resources.fluentcore.arm.models.Resource;
+import com.microsoft.azuretools.authmanage.models.SubscriptionDetail;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The plain data of {@link AzureModel}: the selected subscriptions with their locations, resource groups, web apps and
+ * App Service plans. A snapshot is saved as a compact binary file after the model is updated, so that it can be shown
+ * at once on the next start. The subscriptions of a loaded snapshot are stale until the model is updated again.
+ */
+public final class AzureModelSnapshot {
+    private static final int MAGIC = 0x415a4d53;
+    private static final int FORMAT_VERSION = 1;
+
+    private final String accountId;
+    private final long timestamp;
+    private final List<SubscriptionEntry> subscriptions;
+
+    private AzureModelSnapshot(String accountId, long timestamp, List<SubscriptionEntry> subscriptions) {
+        this.accountId = accountId;
+        this.timestamp = timestamp;
+        this.subscriptions = Collections.unmodifiableList(subscriptions);
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * @return when the model of the snapshot was read from Azure
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public List<SubscriptionEntry> getSubscriptions() {
+        return subscriptions;
+    }
+
+    /**
+     * @return whether any subscription is still to be revalidated
+     */
+    public boolean isStale() {
+        return subscriptions.stream().anyMatch(SubscriptionEntry::isStale);
+    }
+
+    static AzureModelSnapshot create(String accountId,
+                                     Map<SubscriptionDetail, List<ResourceGroup>> srgMap,
+                                     @Nullable Map<SubscriptionDetail, List<Location>> sdlocMap,
+                                     Map<ResourceGroup, List<WebApp>> rgwaMap,
+                                     Map<ResourceGroup, List<AppServicePlan>> rgspMap) {
+        final List<SubscriptionEntry> subscriptions = new ArrayList<>();
+        for (Map.Entry<SubscriptionDetail, List<ResourceGroup>> srg : srgMap.entrySet()) {
+            final SubscriptionDetail sd = srg.getKey();
+            final List<String> locations = new ArrayList<>();
+            final List<Location> locl = sdlocMap == null ? null : sdlocMap.get(sd);
+            if (locl != null) {
+                for (Location location : locl) {
+                    locations.add(location.displayName());
+                }
+            }
+            final List<ResourceGroupEntry> resourceGroups = new ArrayList<>();
+            for (ResourceGroup rg : srg.getValue()) {
+                resourceGroups.add(new ResourceGroupEntry(rg.id(), rg.name(), rg.regionName(),
+                        toEntries(rgwaMap.get(rg)), toEntries(rgspMap.get(rg))));
+            }
+            subscriptions.add(new SubscriptionEntry(sd.getSubscriptionId(), sd.getSubscriptionName(),
+                    sd.getTenantId(), locations, resourceGroups, false));
+        }
+        return new AzureModelSnapshot(accountId, System.currentTimeMillis(), subscriptions);
+    }
+
+    /**
+     * @return null if there is no snapshot, or it can't be read
+     */
+    @Nullable
+    static AzureModelSnapshot load(Path path) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(path))))) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            final String accountId = input.readUTF();
+            final long timestamp = input.readLong();
+            final int subscriptionCount = input.readInt();
+            final List<SubscriptionEntry> subscriptions = new ArrayList<>();
+            for (int i = 0; i < subscriptionCount; i++) {
+                subscriptions.add(SubscriptionEntry.read(input));
+            }
+            return new AzureModelSnapshot(accountId, timestamp, subscriptions);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Write to a temporary file first, so that a failed save doesn't leave a partial snapshot
+     */
+    void save(Path path) throws IOException {
+        final Path temporaryPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(temporaryPath))))) {
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            output.writeUTF(accountId);
+            output.writeLong(timestamp);
+            output.writeInt(subscriptions.size());
+            for (SubscriptionEntry subscription : subscriptions) {
+                subscription.write(output);
+            }
+        }
+        Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static <T extends Resource> List<ResourceEntry> toEntries(@Nullable List<T> resources) {
+        final List<ResourceEntry> entries = new ArrayList<>();
+        if (resources != null) {
+            for (T resource : resources) {
+                entries.add(new ResourceEntry(resource.id(), resource.name(), resource.regionName()));
+            }
+        }
+        return entries;
+    }
+
+    private static void writeString(DataOutputStream output, @Nullable String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    @Nullable
+    private static String readString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    public static final class SubscriptionEntry {
+        private final String subscriptionId;
+        private final String subscriptionName;
+        private final String tenantId;
+        private final List<String> locations;
+        private final List<ResourceGroupEntry> resourceGroups;
+        private final boolean stale;
+
+        private SubscriptionEntry(String subscriptionId, String subscriptionName, String tenantId,
+                                  List<String> locations, List<ResourceGroupEntry> resourceGroups, boolean stale) {
+            this.subscriptionId = subscriptionId;
+            this.subscriptionName = subscriptionName;
+            this.tenantId = tenantId;
+            this.locations = Collections.unmodifiableList(locations);
+            this.resourceGroups = Collections.unmodifiableList(resourceGroups);
+            this.stale = stale;
+        }
+
+        public String getSubscriptionId() {
+            return subscriptionId;
+        }
+
+        public String getSubscriptionName() {
+            return subscriptionName;
+        }
+
+        public String getTenantId() {
+            return tenantId;
+        }
+
+        /**
+         * @return the display names of the locations
+         */
+        public List<String> getLocations() {
+            return locations;
+        }
+
+        public List<ResourceGroupEntry> getResourceGroups() {
+            return resourceGroups;
+        }
+
+        /**
+         * @return true if the entry was loaded from the disk and isn't revalidated yet
+         */
+        public boolean isStale() {
+            return stale;
+        }
+
+        private void write(DataOutputStream output) throws IOException {
+            writeString(output, subscriptionId);
+            writeString(output, subscriptionName);
+            writeString(output, tenantId);
+            output.writeInt(locations.size());
+            for (String location : locations) {
+                writeString(output, location);
+            }
+            output.writeInt(resourceGroups.size());
+            for (ResourceGroupEntry resourceGroup : resourceGroups) {
+                resourceGroup.write(output);
+            }
+        }
+
+        private static SubscriptionEntry read(DataInputStream input) throws IOException {
+            final String subscriptionId = readString(input);
+            final String subscriptionName = readString(input);
+            final String tenantId = readString(input);
+            final int locationCount = input.readInt();
+            final List<String> locations = new ArrayList<>();
+            for (int i = 0; i < locationCount; i++) {
+                locations.add(readString(input));
+            }
+            final int resourceGroupCount = input.readInt();
+            final List<ResourceGroupEntry> resourceGroups = new ArrayList<>();
+            for (int i = 0; i < resourceGroupCount; i++) {
+                resourceGroups.add(ResourceGroupEntry.read(input));
+            }
+            return new SubscriptionEntry(subscriptionId, subscriptionName, tenantId, locations, resourceGroups, true);
+        }
+    }
+
+    public static final class ResourceGroupEntry {
+        private final ResourceEntry resourceGroup;
+        private final List<ResourceEntry> webApps;
+        private final List<ResourceEntry> appServicePlans;
+
+        private ResourceGroupEntry(String id, String name, String regionName, List<ResourceEntry> webApps,
+                                   List<ResourceEntry> appServicePlans) {
+            this.resourceGroup = new ResourceEntry(id, name, regionName);
+            this.webApps = Collections.unmodifiableList(webApps);
+            this.appServicePlans = Collections.unmodifiableList(appServicePlans);
+        }
+
+        public String getId() {
+            return resourceGroup.getId();
+        }
+
+        public String getName() {
+            return resourceGroup.getName();
+        }
+
+        public String getRegionName() {
+            return resourceGroup.getRegionName();
+        }
+
+        public List<ResourceEntry> getWebApps() {
+            return webApps;
+        }
+
+        public List<ResourceEntry> getAppServicePlans() {
+            return appServicePlans;
+        }
+
+        private void write(DataOutputStream output) throws IOException {
+            resourceGroup.write(output);
+            ResourceEntry.writeAll(output, webApps);
+            ResourceEntry.writeAll(output, appServicePlans);
+        }
+
+        private static ResourceGroupEntry read(DataInputStream input) throws IOException {
+            final ResourceEntry resourceGroup = ResourceEntry.read(input);
+            return new ResourceGroupEntry(resourceGroup.getId(), resourceGroup.getName(),
+                    resourceGroup.getRegionName(), ResourceEntry.readAll(input), ResourceEntry.readAll(input));
+        }
+    }
+
+    public static final class ResourceEntry {
+        private final String id;
+        private final String name;
+        private final String regionName;
+
+        private ResourceEntry(String id, String name, String regionName) {
+            this.id = id;
+            this.name = name;
+            this.regionName = regionName;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getRegionName() {
+            return regionName;
+        }
+
+        private void write(DataOutputStream output) throws IOException {
+            writeString(output, id);
+            writeString(output, name);
+            writeString(output, regionName);
+        }
+
+        private static ResourceEntry read(DataInputStream input) throws IOException {
+            return new ResourceEntry(readString(input), readString(input), readString(input));
+        }
+
+        private static void writeAll(DataOutputStream output, List<ResourceEntry> entries) throws IOException {
+            output.writeInt(entries.size());
+            for (ResourceEntry entry : entries) {
+                entry.write(output);
+            }
+        }
+
+        private static List<ResourceEntry> readAll(DataInputStream input) throws IOException {
+            final int count = input.readInt();
+            final List<ResourceEntry> entries = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                entries.add(read(input));
+            }
+            return entries;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.utils;
+
+import com.microsoft.azure.management.appservice.AppServicePlan;
+import com.microsoft.azure.management.appservice.WebApp;
+import com.microsoft.azure.management.resources.ResourceGroup;
+
+import java.util.List;
+
+/**
+ * Notified of the web apps and App Service plans of the resource groups as they are read by
+ * {@link AzureModelController}, before the whole model is updated. A resource group may be notified more than once.
+ *
+ * The web apps and the plans are listed on two io threads, so the two methods may be called concurrently, and must
+ * not block. UI updates have to be posted to the UI thread.
+ */
+public interface ResourceGroupDependencyListener {
+    void webAppsLoaded(ResourceGroup resourceGroup, List<WebApp> webApps);
+
+    void appServicePlansLoaded(ResourceGroup resourceGroup, List<AppServicePlan> appServicePlans);
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.sdkmanage;
+
+import com.microsoft.azure.management.resources.Subscription;
+import com.microsoft.azure.management.resources.Tenant;
+import com.microsoft.azuretools.utils.Pair;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SubscriptionTenantCacheTest {
+    private static final String FILE_NAME = "subscriptionTenants.json";
+    private static final String ACCOUNT_ID = "AzureCloud/user@contoso.com";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Subscription subscription1;
+    private Subscription subscription2;
+    private Tenant tenant1;
+    private Tenant tenant2;
+
+    @Before
+    public void setUp() {
+        subscription1 = mockSubscription("subscription1");
+        subscription2 = mockSubscription("subscription2");
+        tenant1 = mockTenant("tenant1");
+        tenant2 = mockTenant("tenant2");
+    }
+
+    @Test
+    public void testTenantsArePersistedForTheAccount() {
+        createCache().update(ACCOUNT_ID, Arrays.asList(new Pair<>(subscription1, tenant1),
+                new Pair<>(subscription2, tenant2)));
+
+        final SubscriptionTenantCache cache = createCache();
+        assertEquals("tenant1", cache.getTenantId(ACCOUNT_ID, "subscription1"));
+        assertEquals("tenant2", cache.getTenantId(ACCOUNT_ID, "subscription2"));
+        assertNull(cache.getTenantId(ACCOUNT_ID, "subscription3"));
+        assertNull(cache.getTenantId("AzureCloud/other@contoso.com", "subscription1"));
+        assertNull(cache.getTenantId(null, "subscription1"));
+    }
+
+    @Test
+    public void testExpiredIndexIsIgnored() throws IOException {
+        final long timestamp = System.currentTimeMillis() - SubscriptionTenantCache.TTL_MS - 1;
+        Files.write(folder.getRoot().toPath().resolve(FILE_NAME), String.format(
+                "{\"accountId\":\"%s\",\"timestamp\":%d,\"subscriptionTenants\":{\"subscription1\":\"tenant1\"}}",
+                ACCOUNT_ID, timestamp).getBytes(StandardCharsets.UTF_8));
+
+        assertNull(createCache().getTenantId(ACCOUNT_ID, "subscription1"));
+    }
+
+    @Test
+    public void testClearDeletesPersistedIndex() {
+        final SubscriptionTenantCache cache = createCache();
+        cache.update(ACCOUNT_ID, Collections.singletonList(new Pair<>(subscription1, tenant1)));
+
+        cache.clear();
+
+        assertNull(cache.getTenantId(ACCOUNT_ID, "subscription1"));
+        assertNull(createCache().getTenantId(ACCOUNT_ID, "subscription1"));
+        assertTrue(cache.getSubscriptions(ACCOUNT_ID, "tenant1").isEmpty());
+    }
+
+    @Test
+    public void testSubscriptionsOfTenantAreKeptInMemory() {
+        final SubscriptionTenantCache cache = createCache();
+        cache.update(ACCOUNT_ID, Arrays.asList(new Pair<>(subscription1, tenant1),
+                new Pair<>(subscription2, tenant1)));
+
+        final List<Subscription> subscriptions = cache.getSubscriptions(ACCOUNT_ID, "tenant1");
+        assertEquals(Arrays.asList(subscription1, subscription2), subscriptions);
+        assertTrue(cache.getSubscriptions(ACCOUNT_ID, "tenant2").isEmpty());
+        assertTrue(cache.getSubscriptions("AzureCloud/other@contoso.com", "tenant1").isEmpty());
+        // the subscriptions can't be restored from the persisted index
+        assertTrue(createCache().getSubscriptions(ACCOUNT_ID, "tenant1").isEmpty());
+    }
+
+    private SubscriptionTenantCache createCache() {
+        final String baseDir = folder.getRoot().getAbsolutePath();
+        return new SubscriptionTenantCache(FILE_NAME, () -> baseDir);
+    }
+
+    private static Subscription mockSubscription(String subscriptionId) {
+        final Subscription subscription = mock(Subscription.class);
+        when(subscription.subscriptionId()).thenReturn(subscriptionId);
+        return subscription;
+    }
+
+    private static Tenant mockTenant(String tenantId) {
+        final Tenant tenant = mock(Tenant.class);
+        when(tenant.tenantId()).thenReturn(tenantId);
+        return tenant;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.telemetrywrapper;
+
+import com.microsoft.applicationinsights.TelemetryClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class TelemetrySenderTest {
+    private static final int CAPACITY = 8;
+
+    private TelemetrySender sender;
+    private TelemetryClient client;
+
+    @Before
+    public void setUp() {
+        sender = new TelemetrySender(CAPACITY);
+        client = mock(TelemetryClient.class);
+    }
+
+    @After
+    public void tearDown() {
+        sender.shutdown();
+        CommonUtil.client = null;
+    }
+
+    @Test
+    public void testEventsAreSentInOneBatch() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(sender.send(client, "event" + i, new HashMap<>(), null));
+        }
+        verify(client, never()).flush();
+
+        sender.flush();
+
+        verify(client, timeout(1000).times(5)).trackEvent(anyString(), anyMap(), any());
+        verify(client, timeout(1000).times(1)).flush();
+        assertEquals(5, sender.getSentCount());
+        assertEquals(0, sender.getQueueSize());
+    }
+
+    @Test
+    public void testEventsWaitForClient() {
+        CommonUtil.client = null;
+        assertTrue(sender.send(EventType.info, new HashMap<>(), null));
+        sender.flush();
+        assertEquals(1, sender.getQueueSize());
+
+        CommonUtil.client = client;
+        sender.flush();
+
+        verify(client, timeout(1000)).trackEvent(eq(CommonUtil.getFullEventName(EventType.info)), anyMap(), any());
+        verify(client, timeout(1000)).flush();
+    }
+
+    @Test
+    public void testEventsWaitingForClientDontHoldUpOtherClients() {
+        CommonUtil.client = null;
+        assertTrue(sender.send(EventType.info, new HashMap<>(), null));
+        assertTrue(sender.send(client, "other", new HashMap<>(), null));
+        sender.flush();
+
+        verify(client, timeout(1000)).trackEvent(eq("other"), anyMap(), any());
+        verify(client, timeout(1000)).flush();
+        assertEquals(1, sender.getSentCount());
+        assertEquals(1, sender.getQueueSize());
+
+        final TelemetryClient commonClient = mock(TelemetryClient.class);
+        CommonUtil.client = commonClient;
+        sender.flush();
+
+        verify(commonClient, timeout(1000)).trackEvent(eq(CommonUtil.getFullEventName(EventType.info)), anyMap(),
+                any());
+        verify(commonClient, timeout(1000)).flush();
+    }
+
+    @Test
+    public void testOverflowIsSampledAndDropped() {
+        for (int i = 0; i < 20; i++) {
+            sender.send(client, "event" + i, new HashMap<>(), null);
+        }
+
+        assertEquals(CAPACITY, sender.getQueueSize());
+        assertTrue(sender.getSampledOutCount() > 0);
+        assertTrue(sender.getDroppedCount() > 0);
+        assertEquals(20 - CAPACITY, sender.getSampledOutCount() + sender.getDroppedCount());
+    }
+
+    @Test
+    public void testErrorsAreNotSampledOut() {
+        for (int i = 0; i < 20; i++) {
+            sender.send(EventType.error, new HashMap<>(), null);
+        }
+
+        assertEquals(CAPACITY, sender.getQueueSize());
+        assertEquals(0, sender.getSampledOutCount());
+        assertEquals(20 - CAPACITY, sender.getDroppedCount());
+    }
+
+    @Test
+    public void testShutdownSendsQueuedEvents() {
+        sender.send(client, "queued", new HashMap<>(), null);
+
+        sender.shutdown();
+
+        verify(client, times(1)).trackEvent(eq("queued"), anyMap(), any());
+        verify(client, times(1)).flush();
+
+        assertTrue(sender.send(client, "afterShutdown", new HashMap<>(), null));
+        verify(client, times(1)).trackEvent(eq("afterShutdown"), anyMap(), any());
+        verify(client, times(2)).flush();
+        assertFalse(sender.send(EventType.info, new HashMap<>(), null));
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.telemetrywrapper;
+
+import com.microsoft.azuretools.telemetrywrapper.TelemetrySender.TelemetryEvent;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TelemetrySpoolTest {
+    private static final int SEGMENT_SIZE = 4096;
+    private static final int SEGMENT_COUNT = 3;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testEventsAreReadInOrder() throws IOException {
+        try (TelemetrySpool spool = open()) {
+            for (int i = 0; i < 20; i++) {
+                assertTrue(spool.append(createEvent(i)));
+            }
+
+            final List<TelemetryEvent> events = spool.peek(10);
+            assertEquals(10, events.size());
+            assertEquals(EventType.info, events.get(0).eventType);
+            assertEquals("0", events.get(0).properties.get("index"));
+            assertTrue(events.get(0).properties.containsKey("empty"));
+            assertNull(events.get(0).properties.get("empty"));
+            assertEquals(9.0, events.get(9).metrics.get("index"), 0);
+
+            spool.remove(10);
+            assertEquals(10, spool.size());
+            assertEquals("10", spool.peek(1).get(0).properties.get("index"));
+        }
+    }
+
+    @Test
+    public void testEventsAreKeptAcrossSessions() throws IOException {
+        try (TelemetrySpool spool = open()) {
+            for (int i = 0; i < 20; i++) {
+                spool.append(createEvent(i));
+            }
+            spool.remove(5);
+        }
+
+        try (TelemetrySpool spool = open()) {
+            assertEquals(15, spool.size());
+            assertEquals("5", spool.peek(1).get(0).properties.get("index"));
+        }
+    }
+
+    @Test
+    public void testSizeIsCappedAndSegmentsAreReused() throws IOException {
+        try (TelemetrySpool spool = open()) {
+            int count = 0;
+            while (spool.append(createEvent(count))) {
+                count++;
+            }
+            assertEquals(count, spool.size());
+
+            // consume the first segment, which is reused for the new events
+            spool.remove(count / SEGMENT_COUNT + 1);
+            assertTrue(spool.append(createEvent(count)));
+
+            final List<TelemetryEvent> events = spool.peek(count);
+            assertEquals(spool.size(), events.size());
+            assertEquals(String.valueOf(count), events.get(events.size() - 1).properties.get("index"));
+        }
+    }
+
+    @Test
+    public void testCorruptedRecordsAreDiscarded() throws IOException {
+        final int count;
+        try (TelemetrySpool spool = open()) {
+            for (int i = 0; i < 20; i++) {
+                spool.append(createEvent(i));
+            }
+            count = spool.size();
+        }
+        final Path segment = folder.getRoot().toPath().resolve("telemetry-0.spool");
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // a byte in the payload of a record in the middle of the segment
+            file.seek(200);
+            final int value = file.read();
+            file.seek(200);
+            file.write(value ^ 0xff);
+        }
+
+        try (TelemetrySpool spool = open()) {
+            assertTrue(spool.size() > 0);
+            assertTrue(spool.size() < count);
+            assertEquals("0", spool.peek(1).get(0).properties.get("index"));
+        }
+    }
+
+    @Test(expected = OverlappingFileLockException.class)
+    public void testSpoolIsLockedWhileOpen() throws IOException {
+        final TelemetrySpool spool = open();
+        try {
+            assertEquals(0, spool.size());
+            // the lock is held in this JVM, so tryLock throws rather than returning null
+            open().close();
+        } finally {
+            spool.close();
+        }
+    }
+
+    private TelemetrySpool open() throws IOException {
+        return TelemetrySpool.open(folder.getRoot().toPath(), SEGMENT_SIZE, SEGMENT_COUNT);
+    }
+
+    private static TelemetryEvent createEvent(int index) {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put("index", String.valueOf(index));
+        properties.put("empty", null);
+        final Map<String, Double> metrics = new HashMap<>();
+        metrics.put("index", (double) index);
+        return new TelemetryEvent(null, EventType.info, null, properties, metrics);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.utils;
+
+import com.microsoft.azure.management.Azure;
+import com.microsoft.azure.management.appservice.AppServicePlan;
+import com.microsoft.azure.management.appservice.AppServicePlans;
+import com.microsoft.azure.management.appservice.WebApp;
+import com.microsoft.azure.management.appservice.WebApps;
+import com.microsoft.azure.management.appservice.implementation.AppServiceManager;
+import com.microsoft.azure.management.resources.ResourceGroup;
+import com.microsoft.azure.management.resources.fluentcore.arm.models.HasResourceGroup;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import rx.Observable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({
+        Azure.class,
+        AppServiceManager.class
+})
+public class AzureModelControllerTest {
+    @Mock
+    private Azure azureMock;
+
+    @Mock
+    private WebApps webAppsMock;
+
+    @Mock
+    private AppServiceManager appSrvMgr;
+
+    @Mock
+    private AppServicePlans appSrvPlans;
+
+    private ResourceGroup rg1;
+    private ResourceGroup rg2;
+
+    @Before
+    public void setUp() {
+        when(azureMock.webApps()).thenReturn(webAppsMock);
+        when(azureMock.appServices()).thenReturn(appSrvMgr);
+        when(appSrvMgr.appServicePlans()).thenReturn(appSrvPlans);
+        rg1 = mockResourceGroup("rg1");
+        rg2 = mockResourceGroup("rg2");
+    }
+
+    @Test
+    public void testListResGrDependency() {
+        // more than two batches of web apps, with the apps of an unknown resource group in between
+        final List<WebApp> apps = new ArrayList<>();
+        final List<WebApp> rg1Apps = new ArrayList<>();
+        for (int i = 0; i < AzureModelController.DEPENDENCY_BATCH_SIZE * 2 + 10; i++) {
+            final WebApp app = mockResource(WebApp.class, i % 10 == 0 ? "other" : (i % 2 == 0 ? "RG1" : "rg1"));
+            apps.add(app);
+            if (i % 10 != 0) {
+                rg1Apps.add(app);
+            }
+        }
+        final AppServicePlan plan = mockResource(AppServicePlan.class, "rg2");
+        when(webAppsMock.listAsync()).thenReturn(Observable.from(apps));
+        when(appSrvPlans.listAsync()).thenReturn(Observable.just(plan));
+        // the listener is called from the threads listing the web apps and the plans
+        final List<List<WebApp>> publishedAppBatches = Collections.synchronizedList(new ArrayList<>());
+        final List<ResourceGroup> publishedPlanGroups = Collections.synchronizedList(new ArrayList<>());
+        final ResourceGroupDependencyListener listener = new ResourceGroupDependencyListener() {
+            @Override
+            public void webAppsLoaded(ResourceGroup resourceGroup, List<WebApp> webApps) {
+                assertEquals(rg1, resourceGroup);
+                publishedAppBatches.add(webApps);
+            }
+
+            @Override
+            public void appServicePlansLoaded(ResourceGroup resourceGroup, List<AppServicePlan> appServicePlans) {
+                assertEquals(Arrays.asList(plan), appServicePlans);
+                publishedPlanGroups.add(resourceGroup);
+            }
+        };
+        final Map<ResourceGroup, List<WebApp>> rgwaMap = new ConcurrentHashMap<>();
+        final Map<ResourceGroup, List<AppServicePlan>> rgspMap = new ConcurrentHashMap<>();
+
+        AzureModelController.addResourceGroupDependencyListener(listener);
+        try {
+            AzureModelController.listResGrDependency(azureMock, Arrays.asList(rg1, rg2), rgwaMap, rgspMap);
+        } finally {
+            AzureModelController.removeResourceGroupDependencyListener(listener);
+        }
+
+        assertEquals(rg1Apps, rgwaMap.get(rg1));
+        assertTrue(rgwaMap.get(rg2).isEmpty());
+        assertTrue(rgspMap.get(rg1).isEmpty());
+        assertEquals(Arrays.asList(plan), rgspMap.get(rg2));
+        // one notification per batch, each with the apps of the batch in the listing order
+        assertEquals(3, publishedAppBatches.size());
+        final List<WebApp> publishedApps = new ArrayList<>();
+        for (List<WebApp> batch : publishedAppBatches) {
+            assertTrue(batch.size() <= AzureModelController.DEPENDENCY_BATCH_SIZE);
+            publishedApps.addAll(batch);
+        }
+        assertEquals(rg1Apps, publishedApps);
+        assertEquals(Arrays.asList(rg2), publishedPlanGroups);
+        // the whole subscription is listed once, rather than each resource group
+        verify(webAppsMock, times(1)).listAsync();
+        verify(appSrvPlans, times(1)).listAsync();
+        verifyNoMoreInteractions(webAppsMock, appSrvPlans);
+    }
+
+    private static ResourceGroup mockResourceGroup(String name) {
+        final ResourceGroup rg = mock(ResourceGroup.class);
+        when(rg.name()).thenReturn(name);
+        return rg;
+    }
+
+    private static <T extends HasResourceGroup> T mockResource(Class<T> type, String resourceGroupName) {
+        final T resource = mock(type);
+        when(resource.resourceGroupName()).thenReturn(resourceGroupName);
+        return resource;
+    }
+}
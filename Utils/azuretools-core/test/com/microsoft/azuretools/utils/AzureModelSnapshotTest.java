@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azuretools.utils;
+
+import com.microsoft.azure.management.appservice.AppServicePlan;
+import com.microsoft.azure.management.appservice.WebApp;
+import com.microsoft.azure.management.resources.Location;
+import com.microsoft.azure.management.resources.ResourceGroup;
+import com.microsoft.azuretools.authmanage.models.SubscriptionDetail;
+import com.microsoft.azuretools.utils.AzureModelSnapshot.ResourceGroupEntry;
+import com.microsoft.azuretools.utils.AzureModelSnapshot.SubscriptionEntry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AzureModelSnapshotTest {
+    private static final String ACCOUNT_ID = "GLOBAL/user@example.com";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        final SubscriptionDetail sd = new SubscriptionDetail("sid", "subscription", "tid", true);
+        final ResourceGroup rg = mock(ResourceGroup.class);
+        when(rg.id()).thenReturn("/subscriptions/sid/resourceGroups/rg");
+        when(rg.name()).thenReturn("rg");
+        when(rg.regionName()).thenReturn("westus");
+        final WebApp webApp = mock(WebApp.class);
+        when(webApp.id()).thenReturn("/subscriptions/sid/resourceGroups/rg/providers/Microsoft.Web/sites/app");
+        when(webApp.name()).thenReturn("app");
+        when(webApp.regionName()).thenReturn("westus");
+        final Location location = mock(Location.class);
+        when(location.displayName()).thenReturn("West US");
+        final Map<SubscriptionDetail, List<ResourceGroup>> srgMap = new HashMap<>();
+        srgMap.put(sd, Arrays.asList(rg));
+        final Map<SubscriptionDetail, List<Location>> sdlocMap = new HashMap<>();
+        sdlocMap.put(sd, Arrays.asList(location));
+        final Map<ResourceGroup, List<WebApp>> rgwaMap = new HashMap<>();
+        rgwaMap.put(rg, Arrays.asList(webApp));
+        final Map<ResourceGroup, List<AppServicePlan>> rgspMap = new HashMap<>();
+        rgspMap.put(rg, Collections.emptyList());
+
+        final AzureModelSnapshot snapshot = AzureModelSnapshot.create(ACCOUNT_ID, srgMap, sdlocMap, rgwaMap, rgspMap);
+        assertFalse(snapshot.isStale());
+        final Path path = folder.getRoot().toPath().resolve("azureModel.bin");
+        snapshot.save(path);
+
+        final AzureModelSnapshot loaded = AzureModelSnapshot.load(path);
+        assertEquals(ACCOUNT_ID, loaded.getAccountId());
+        assertEquals(snapshot.getTimestamp(), loaded.getTimestamp());
+        assertTrue(loaded.isStale());
+        final SubscriptionEntry subscription = loaded.getSubscriptions().get(0);
+        assertEquals("sid", subscription.getSubscriptionId());
+        assertEquals("subscription", subscription.getSubscriptionName());
+        assertEquals("tid", subscription.getTenantId());
+        assertEquals(Arrays.asList("West US"), subscription.getLocations());
+        final ResourceGroupEntry resourceGroup = subscription.getResourceGroups().get(0);
+        assertEquals("rg", resourceGroup.getName());
+        assertEquals("westus", resourceGroup.getRegionName());
+        assertEquals("app", resourceGroup.getWebApps().get(0).getName());
+        assertTrue(resourceGroup.getAppServicePlans().isEmpty());
+    }
+
+    @Test
+    public void testLoadMissingSnapshot() throws IOException {
+        assertNull(AzureModelSnapshot.load(folder.getRoot().toPath().resolve("missing.bin")));
+    }
+}
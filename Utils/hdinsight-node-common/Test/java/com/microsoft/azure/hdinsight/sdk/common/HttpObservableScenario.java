@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common;
+
+import com.microsoft.azure.hdinsight.sdk.common.errorresponse.HttpErrorStatus;
+import com.microsoft.azure.hdinsight.spark.common.MockHttpService;
+import cucumber.api.java.Before;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import org.apache.http.Header;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicStatusLine;
+import rx.Observable;
+import rx.observers.TestSubscriber;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HttpObservableScenario {
+    private MockHttpService httpServerMock;
+    private CloseableHttpResponse responseMock;
+
+    @Before
+    public void setUp() {
+        httpServerMock = new MockHttpService();
+    }
+
+    @Given("^mock a http service in HttpObservableScenario for (.+) request '(.+)' to return '(.+)' with status code (\\d+)$")
+    public void mockHttpService(String action, String serviceUrl, String response, int statusCode) throws Throwable {
+        httpServerMock.stub(action, serviceUrl, statusCode, response);
+    }
+
+    @Given("^a HTTP response to decode by streaming with status code (\\d+) and content '(.*)'$")
+    public void mockHttpResponse(int statusCode, String content) throws Throwable {
+        responseMock = mock(CloseableHttpResponse.class);
+        when(responseMock.getStatusLine()).thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, statusCode, null));
+        when(responseMock.getEntity()).thenReturn(new StringEntity(content, ContentType.APPLICATION_JSON));
+        when(responseMock.getAllHeaders()).thenReturn(new Header[0]);
+    }
+
+    @Then("^getting the elements of field '(.+)' by streaming from '(.+)' should get the elements with ids:$")
+    public void checkGetElementsStreaming(String fieldName, String url, List<String> idsExpect) throws Throwable {
+        final Observable<Map> elements = new HttpObservable()
+                .getElementsStreaming(httpServerMock.completeUrl(url), null, null, fieldName, Map.class);
+
+        assertThat(toIds(elements)).containsExactlyElementsOf(idsExpect);
+    }
+
+    @Then("^getting the elements of field '(.+)' by streaming from '(.+)' should fail with HTTP status (\\d+)$")
+    public void checkGetElementsStreamingFailure(String fieldName, String url, int statusCodeExpect) throws Throwable {
+        final Observable<Map> elements = new HttpObservable()
+                .getElementsStreaming(httpServerMock.completeUrl(url), null, null, fieldName, Map.class);
+
+        final Throwable err = getError(elements);
+
+        assertThat(((HttpErrorStatus) err).getStatusCode()).isEqualTo(statusCodeExpect);
+    }
+
+    @Then("^taking (\\d+) elements of field '(.+)' by streaming from the HTTP response should get the elements with ids:$")
+    public void checkTakeElementsOfResponse(int count, String fieldName, List<String> idsExpect) throws Throwable {
+        final Observable<Map> elements = HttpObservable.toElementsOnlyOkResponse(responseMock, fieldName, Map.class)
+                .take(count);
+
+        assertThat(toIds(elements)).containsExactlyElementsOf(idsExpect);
+    }
+
+    @Then("^decoding the elements of field '(.+)' by streaming from the HTTP response should fail with HTTP status (\\d+)$")
+    public void checkElementsOfResponseFailure(String fieldName, int statusCodeExpect) throws Throwable {
+        final Throwable err = getError(HttpObservable.toElementsOnlyOkResponse(responseMock, fieldName, Map.class));
+
+        assertThat(((HttpErrorStatus) err).getStatusCode()).isEqualTo(statusCodeExpect);
+    }
+
+    @Then("^the HTTP response decoded by streaming should be closed$")
+    public void checkResponseClosed() throws Throwable {
+        verify(responseMock).close();
+    }
+
+    private List<String> toIds(Observable<Map> elements) {
+        return elements
+                .toList()
+                .toBlocking()
+                .single()
+                .stream()
+                .map(element -> String.valueOf(element.get("id")))
+                .collect(Collectors.toList());
+    }
+
+    private Throwable getError(Observable<Map> elements) {
+        final TestSubscriber<Map> subscriber = new TestSubscriber<>();
+        elements.subscribe(subscriber);
+        subscriber.awaitTerminalEvent();
+        subscriber.assertError(HttpErrorStatus.class);
+
+        return subscriber.getOnErrorEvents().get(0);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.rest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ObjectConvertUtilsScenario {
+    private String jsonContent;
+
+    @Given("^the JSON content to decode by streaming is '(.*)'$")
+    public void setJsonContent(String content) throws Throwable {
+        jsonContent = content;
+    }
+
+    @Then("^decoding the root JSON array by streaming should get the elements with ids:$")
+    public void checkRootArrayElements(List<String> idsExpect) throws Throwable {
+        assertThat(decodeElementIds(null)).containsExactlyElementsOf(idsExpect);
+    }
+
+    @Then("^decoding the JSON array of field '(.+)' by streaming should get the elements with ids:$")
+    public void checkFieldArrayElements(String fieldName, List<String> idsExpect) throws Throwable {
+        assertThat(decodeElementIds(fieldName)).containsExactlyElementsOf(idsExpect);
+    }
+
+    @Then("^decoding the JSON array of field '(.+)' by streaming should get no elements$")
+    public void checkFieldArrayNoElements(String fieldName) throws Throwable {
+        assertThat(decodeElementIds(fieldName)).isEmpty();
+    }
+
+    private List<String> decodeElementIds(String arrayFieldName) throws Throwable {
+        final List<String> ids = new ArrayList<>();
+
+        try (JsonParser parser = ObjectConvertUtils.createJsonArrayParser(
+                new ByteArrayInputStream(jsonContent.getBytes(StandardCharsets.UTF_8)), arrayFieldName)) {
+            Optional<Map> element;
+            while ((element = ObjectConvertUtils.nextJsonArrayElement(parser, Map.class)).isPresent()) {
+                ids.add(String.valueOf(element.get().get("id")));
+            }
+
+            // The array end has been reached, the further reading should still get nothing
+            assertThat(ObjectConvertUtils.nextJsonArrayElement(parser, Map.class)).isEmpty();
+        }
+
+        return ids;
+    }
+}
@@ -45,6 +45,25 @@ class MockHttpService {
                                 .withStatus(statusCode).withBody(normalizeResponse(response))))
     }
 
+    fun stubWithDelay(action: String, uri: String, statusCode: Int, response: String, delayMillis: Int) {
+        WireMock.configureFor(port)
+        WireMock.stubFor(WireMock.request(
+                action, WireMock.urlEqualTo(uri))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(statusCode)
+                        .withFixedDelay(delayMillis)
+                        .withBody(normalizeResponse(response))))
+    }
+
+    fun stubWithBinaryBody(action: String, uri: String, statusCode: Int, response: ByteArray) {
+        WireMock.configureFor(port)
+        WireMock.stubFor(WireMock.request(
+                action, WireMock.urlEqualTo(uri))
+                .willReturn(WireMock.aResponse()
+                        .withStatus(statusCode)
+                        .withBody(response)))
+    }
+
     fun stubWithHeader(action: String, uri: String, statusCode: Int, response: String, header: Map<String, String>) {
         WireMock.configureFor(port)
         WireMock.stubFor(WireMock.request(
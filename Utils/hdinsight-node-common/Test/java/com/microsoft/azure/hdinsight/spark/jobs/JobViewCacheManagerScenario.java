@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JobViewCacheManagerScenario {
+    private final AtomicInteger loadCount = new AtomicInteger();
+    private JobViewCacheManager.AppStateAwareCache<String, List<Integer>> listCache;
+
+    @Given("^a list cache of JobViewCacheManager for the completed applications with lists of (\\d+) elements$")
+    public void createCompletedAppListCache(int listSize) throws Throwable {
+        listCache = new JobViewCacheManager.AppStateAwareCache<>(
+                JobViewCacheManager.MAX_LIST_ELEMENTS,
+                Collection::size,
+                (appId, list) -> true,
+                appId -> {
+                    loadCount.incrementAndGet();
+
+                    return Collections.nCopies(listSize, 0);
+                });
+    }
+
+    @Then("^getting the lists of applications '(.+)' should load them (\\d+) times$")
+    public void checkLoadCount(String appIds, int loadCountExpect) throws Throwable {
+        for (String appId : appIds.split(",")) {
+            listCache.get(appId.trim());
+        }
+
+        assertThat(loadCount.get()).isEqualTo(loadCountExpect);
+    }
+
+    @Then("^the list of application '(.+)' should be cached$")
+    public void checkListCached(String appId) throws Throwable {
+        assertThat(listCache.getIfPresent(appId)).isNotNull();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobStartEventLog;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SparkEventLogParserScenario {
+    // The placeholder in the event log lines for a padding string of the length, such as {{pad:1024}}
+    private static final Pattern PADDING_PLACEHOLDER = Pattern.compile("\\{\\{pad:(\\d+)}}");
+
+    private byte[] eventLog;
+
+    @Given("^the Spark event log of the lines joined by '(LF|CRLF)'( without the last line break)?:$")
+    public void createEventLog(String lineBreak, String withoutLastLineBreak, List<String> lines) throws Throwable {
+        final String separator = lineBreak.equals("CRLF") ? "\r\n" : "\n";
+        final String content = lines.stream()
+                .map(SparkEventLogParserScenario::fillPadding)
+                .collect(Collectors.joining(separator));
+
+        eventLog = (withoutLastLineBreak == null ? content + separator : content).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Then("^the Spark event log should be larger than (\\d+) bytes$")
+    public void checkEventLogSize(int size) throws Throwable {
+        assertThat(eventLog.length).isGreaterThan(size);
+    }
+
+    @Then("^parsing the Spark event log for '(.+)' should get the job IDs:$")
+    public void checkParsedJobIds(String eventName, List<String> jobIdsExpect) throws Throwable {
+        assertThat(parseJobIds(eventName)).containsExactlyElementsOf(jobIdsExpect);
+    }
+
+    @Then("^parsing the Spark event log for '(.+)' should get no events$")
+    public void checkParsedNoEvents(String eventName) throws Throwable {
+        assertThat(parseJobIds(eventName)).isEmpty();
+    }
+
+    @Then("^the Spark event name start of the lines should be:$")
+    public void checkEventNameStart(Map<String, String> lineToNameStart) throws Throwable {
+        for (Map.Entry<String, String> lineAndNameStart : lineToNameStart.entrySet()) {
+            final byte[] line = lineAndNameStart.getKey().getBytes(StandardCharsets.UTF_8);
+
+            assertThat(SparkEventLogParser.findEventNameStart(line, line.length))
+                    .isEqualTo(Integer.parseInt(lineAndNameStart.getValue()));
+        }
+    }
+
+    @Then("^the Spark event name of line '(.+)' should( not)? match '(.+)'$")
+    public void checkEventNameMatched(String lineString, String not, String eventName) throws Throwable {
+        final byte[] line = lineString.getBytes(StandardCharsets.UTF_8);
+        final int nameStart = SparkEventLogParser.findEventNameStart(line, line.length);
+
+        assertThat(SparkEventLogParser.isEventNameMatched(
+                line, line.length, nameStart, eventName.getBytes(StandardCharsets.UTF_8))).isEqualTo(not == null);
+    }
+
+    private List<String> parseJobIds(String eventName) throws Throwable {
+        final List<JobStartEventLog> events = new ArrayList<>();
+        new SparkEventLogParser()
+                .on(eventName, JobStartEventLog.class, events::add)
+                .parse(new ByteArrayInputStream(eventLog));
+
+        return events.stream()
+                .map(event -> String.valueOf(event.getJobId()))
+                .collect(Collectors.toList());
+    }
+
+    private static String fillPadding(String line) {
+        final Matcher matcher = PADDING_PLACEHOLDER.matcher(line);
+        final StringBuffer filled = new StringBuffer();
+
+        while (matcher.find()) {
+            matcher.appendReplacement(filled, StringUtils.repeat('x', Integer.parseInt(matcher.group(1))));
+        }
+
+        return matcher.appendTail(filled).toString();
+    }
+}
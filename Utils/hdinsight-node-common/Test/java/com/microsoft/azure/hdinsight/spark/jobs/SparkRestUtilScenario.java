@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.microsoft.azure.hdinsight.common.JobViewManager;
+import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
+import com.microsoft.azure.hdinsight.spark.common.MockHttpService;
+import cucumber.api.java.After;
+import cucumber.api.java.Before;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SparkRestUtilScenario {
+    private static final String SPARK_REST_API_PATH = "/sparkhistory/api/v1/applications/";
+
+    private MockHttpService httpServerMock;
+    private IClusterDetail clusterDetailMock;
+    private ApplicationKey appKey;
+    private int appAttemptId;
+    private long elapsedMillis;
+
+    @Before
+    public void setUp() {
+        httpServerMock = new MockHttpService();
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(SparkRestUtil.TASKS_LOAD_PARALLELISM_PROPERTY);
+        System.clearProperty(SparkRestUtil.TASKS_LOAD_TIMEOUT_SECONDS_PROPERTY);
+
+        if (clusterDetailMock != null) {
+            JobViewManager.unRegisterJobView(clusterDetailMock.getName());
+        }
+    }
+
+    @Given("^set the max concurrent task list requests to (\\d+) and the request timeout to (\\d+) seconds$")
+    public void setTasksLoadProperties(int parallelism, int timeoutSeconds) throws Throwable {
+        System.setProperty(SparkRestUtil.TASKS_LOAD_PARALLELISM_PROPERTY, String.valueOf(parallelism));
+        System.setProperty(SparkRestUtil.TASKS_LOAD_TIMEOUT_SECONDS_PROPERTY, String.valueOf(timeoutSeconds));
+    }
+
+    @Given("^mock a Spark history server in SparkRestUtilScenario with the application '(.+)' of attempt (\\d+)$")
+    public void mockSparkHistoryServer(String appId, int attemptId) throws Throwable {
+        // The cluster name is unique per scenario, to not share the cached application list
+        final String clusterName = "cluster" + httpServerMock.getPort();
+
+        clusterDetailMock = mock(IClusterDetail.class);
+        when(clusterDetailMock.getName()).thenReturn(clusterName);
+        when(clusterDetailMock.getConnectionUrl()).thenReturn(httpServerMock.completeUrl("/"));
+        when(clusterDetailMock.getHttpUserName()).thenReturn("user");
+        when(clusterDetailMock.getHttpPassword()).thenReturn("password");
+        JobViewManager.registerJovViewNode(clusterName, clusterDetailMock);
+
+        // The attempts from 1 to the last one
+        final String attempts = IntStream.rangeClosed(1, attemptId)
+                .mapToObj(id -> String.format("{\"attemptId\":\"%d\",\"completed\":\"true\"}", id))
+                .collect(Collectors.joining(","));
+        httpServerMock.stubWithHeader("GET", SPARK_REST_API_PATH, 200, String.format(
+                "[{\"id\":\"%s\",\"name\":\"test\",\"attempts\":[%s]}]", appId, attempts),
+                Collections.singletonMap("Content-Type", "application/json"));
+        appKey = new ApplicationKey(clusterDetailMock, appId);
+        appAttemptId = attemptId;
+    }
+
+    @Given("^mock the task list of stage (\\d+) to return '(.+)' with status code (\\d+) after (\\d+) ms$")
+    public void mockStageTaskList(int stageId, String response, int statusCode, int delayMillis) throws Throwable {
+        // The REST path is joined with the leading slash of the application path
+        final String url = String.format("%s/%s/%d/stages/%d/0/taskList",
+                SPARK_REST_API_PATH, appKey.getAppId(), appAttemptId, stageId);
+
+        httpServerMock.stubWithDelay("GET", url, statusCode, response, delayMillis);
+    }
+
+    @Given("^mock the event logs of the application to return the zip entries:$")
+    public void mockEventLogs(Map<String, String> entryToLines) throws Throwable {
+        final ByteArrayOutputStream zipBytes = new ByteArrayOutputStream();
+
+        try (ZipOutputStream zip = new ZipOutputStream(zipBytes)) {
+            for (Map.Entry<String, String> entryAndLines : entryToLines.entrySet()) {
+                zip.putNextEntry(new ZipEntry(entryAndLines.getKey()));
+                zip.write(entryAndLines.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+
+        httpServerMock.stubWithBinaryBody(
+                "GET", String.format("%s/%s/logs", SPARK_REST_API_PATH, appKey.getAppId()), 200, zipBytes.toByteArray());
+    }
+
+    @Then("^getting the Spark event logs should get the job start events of job IDs:$")
+    public void checkGetSparkEventLogs(List<String> jobIdsExpect) throws Throwable {
+        final List<String> jobIdsGot = SparkRestUtil.getSparkEventLogs(appKey).stream()
+                .map(event -> String.valueOf(event.getJobId()))
+                .collect(Collectors.toList());
+
+        assertThat(jobIdsGot).containsExactlyElementsOf(jobIdsExpect);
+    }
+
+    @Then("^getting the tasks of stages '(.+)' should get the task IDs of the stages:$")
+    public void checkGetTasksOfStages(String stageIds, Map<String, String> taskIdsExpect) throws Throwable {
+        final List<Stage> stages = Stream.of(stageIds.split(","))
+                .map(stageId -> {
+                    final Stage stage = new Stage();
+                    stage.setStageId(Integer.parseInt(stageId.trim()));
+                    stage.setAttemptId(0);
+
+                    return stage;
+                })
+                .collect(Collectors.toList());
+
+        final long start = System.nanoTime();
+        final Map<String, String> taskIdsGot = new LinkedHashMap<>();
+        SparkRestUtil.getSparkTasksOfStages(appKey, stages)
+                .toBlocking()
+                .forEach(stageTasks -> taskIdsGot.put(
+                        String.valueOf(stageTasks.getKey().getStageId()),
+                        stageTasks.getValue().stream().map(Task::getTaskId).collect(Collectors.joining(","))));
+        elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // The stages are emitted in the completion order
+        assertThat(new TreeMap<>(taskIdsGot)).isEqualTo(new TreeMap<>(taskIdsExpect));
+    }
+
+    @Then("^getting the tasks should take at least (\\d+) ms$")
+    public void checkElapsedAtLeast(long millis) throws Throwable {
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(millis);
+    }
+
+    @Then("^getting the tasks should take less than (\\d+) ms$")
+    public void checkElapsedLessThan(long millis) throws Throwable {
+        assertThat(elapsedMillis).isLessThan(millis);
+    }
+}
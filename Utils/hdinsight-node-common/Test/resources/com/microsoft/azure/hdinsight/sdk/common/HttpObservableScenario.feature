@@ -0,0 +1,31 @@
+Feature: HttpObservable Testing
+
+  Scenario: getElementsStreaming() emits the elements of the JSON array field
+    Given mock a http service in HttpObservableScenario for GET request '/tasks' to return '{"total":3,"before":{"tasks":[{"id":9}]},"tasks":[{"id":1},null,{"id":2},{"id":3}],"after":[]}' with status code 200
+    Then getting the elements of field 'tasks' by streaming from '/tasks' should get the elements with ids:
+      | 1 |
+      | 2 |
+      | 3 |
+
+  Scenario: getElementsStreaming() propagates the non-2xx status
+    Given mock a http service in HttpObservableScenario for GET request '/tasks' to return 'Not Found' with status code 404
+    Then getting the elements of field 'tasks' by streaming from '/tasks' should fail with HTTP status 404
+
+  Scenario: toElementsOnlyOkResponse() closes the response after all elements emitted
+    Given a HTTP response to decode by streaming with status code 200 and content '{"tasks":[{"id":1},{"id":2}]}'
+    Then taking 10 elements of field 'tasks' by streaming from the HTTP response should get the elements with ids:
+      | 1 |
+      | 2 |
+    And the HTTP response decoded by streaming should be closed
+
+  Scenario: toElementsOnlyOkResponse() closes the response when unsubscribed
+    Given a HTTP response to decode by streaming with status code 200 and content '{"tasks":[{"id":1},{"id":2},{"id":3},{"id":4}]}'
+    Then taking 2 elements of field 'tasks' by streaming from the HTTP response should get the elements with ids:
+      | 1 |
+      | 2 |
+    And the HTTP response decoded by streaming should be closed
+
+  Scenario: toElementsOnlyOkResponse() propagates the non-2xx status and closes the response
+    Given a HTTP response to decode by streaming with status code 500 and content '{"message":"Internal Server Error"}'
+    Then decoding the elements of field 'tasks' by streaming from the HTTP response should fail with HTTP status 500
+    And the HTTP response decoded by streaming should be closed
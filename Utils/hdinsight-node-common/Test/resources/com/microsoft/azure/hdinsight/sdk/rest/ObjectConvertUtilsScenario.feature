@@ -0,0 +1,32 @@
+Feature: ObjectConvertUtils Testing
+
+  Scenario: Decode the elements of the root JSON array by streaming
+    Given the JSON content to decode by streaming is '[{"id":1},{"id":2,"items":[{"id":9}]},{"id":3}]'
+    Then decoding the root JSON array by streaming should get the elements with ids:
+      | 1 |
+      | 2 |
+      | 3 |
+
+  Scenario: Decode the elements of the JSON array field by streaming with the sibling fields skipped
+    Given the JSON content to decode by streaming is '{"total":3,"before":{"tasks":[{"id":9}]},"other":[{"id":8}],"tasks":[{"id":1},{"id":2}],"after":{"id":7}}'
+    Then decoding the JSON array of field 'tasks' by streaming should get the elements with ids:
+      | 1 |
+      | 2 |
+
+  Scenario: Skip the null elements of the JSON array by streaming
+    Given the JSON content to decode by streaming is '{"tasks":[null,{"id":1},null,null,{"id":2},null]}'
+    Then decoding the JSON array of field 'tasks' by streaming should get the elements with ids:
+      | 1 |
+      | 2 |
+
+  Scenario: Decode the missing JSON array field by streaming
+    Given the JSON content to decode by streaming is '{"total":0,"others":[{"id":1}]}'
+    Then decoding the JSON array of field 'tasks' by streaming should get no elements
+
+  Scenario: Decode the null JSON array field by streaming
+    Given the JSON content to decode by streaming is '{"tasks":null}'
+    Then decoding the JSON array of field 'tasks' by streaming should get no elements
+
+  Scenario: Decode the JSON array field of the root array by streaming
+    Given the JSON content to decode by streaming is '[{"id":1}]'
+    Then decoding the JSON array of field 'tasks' by streaming should get no elements
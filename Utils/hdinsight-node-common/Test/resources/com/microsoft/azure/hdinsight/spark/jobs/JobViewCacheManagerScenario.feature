@@ -0,0 +1,13 @@
+Feature: JobViewCacheManager Testing
+
+  Scenario: The large list of one application stays cached
+    Given a list cache of JobViewCacheManager for the completed applications with lists of 100000 elements
+    Then getting the lists of applications 'app1' should load them 1 times
+    And the list of application 'app1' should be cached
+    Then getting the lists of applications 'app1, app1, app1' should load them 1 times
+
+  Scenario: The lists of several applications are cached together
+    Given a list cache of JobViewCacheManager for the completed applications with lists of 20000 elements
+    Then getting the lists of applications 'app1, app2, app3, app4, app5' should load them 5 times
+    Then getting the lists of applications 'app1, app2, app3, app4, app5' should load them 5 times
+    And the list of application 'app1' should be cached
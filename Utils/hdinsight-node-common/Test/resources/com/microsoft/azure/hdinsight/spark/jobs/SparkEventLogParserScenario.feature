@@ -0,0 +1,55 @@
+Feature: SparkEventLogParser Testing
+
+  Scenario: Parse the event lines split across the 64 KiB read buffer
+    Given the Spark event log of the lines joined by 'LF':
+      | {"Event":"SparkListenerTaskEnd","Padding":"{{pad:65474}}"}                         |
+      | {"Event":"SparkListenerJobStart","Job ID":1}                                        |
+      | {"Event":"SparkListenerJobStart","Job ID":2,"Properties":{"pad":"{{pad:70000}}"}} |
+      | {"Event":"SparkListenerJobStart","Job ID":3}                                        |
+    Then the Spark event log should be larger than 131072 bytes
+    Then parsing the Spark event log for 'SparkListenerJobStart' should get the job IDs:
+      | 1 |
+      | 2 |
+      | 3 |
+
+  Scenario: Parse the event log with CRLF line breaks and the last line without line break
+    Given the Spark event log of the lines joined by 'CRLF' without the last line break:
+      | {"Event":"SparkListenerJobStart","Job ID":1} |
+      | {"Event":"SparkListenerJobEnd","Job ID":1}   |
+      |                                              |
+      | {"Event":"SparkListenerJobStart","Job ID":2} |
+    Then parsing the Spark event log for 'SparkListenerJobStart' should get the job IDs:
+      | 1 |
+      | 2 |
+
+  Scenario: Parse the event log with the event name matched ignoring case
+    Given the Spark event log of the lines joined by 'LF':
+      | {"Event":"sparklistenerjobstart","Job ID":1}     |
+      | {"Event" : "SPARKLISTENERJOBSTART","Job ID":2}   |
+      | {"Event":"SparkListenerJobStart","Job ID":3}     |
+    Then parsing the Spark event log for 'SparkListenerJobStart' should get the job IDs:
+      | 1 |
+      | 2 |
+      | 3 |
+
+  Scenario: Parse the event log with the event name prefixed by the registered name not matched
+    Given the Spark event log of the lines joined by 'LF':
+      | {"Event":"SparkListenerJobStartX","Job ID":1} |
+      | {"Event":"SparkListenerJob","Job ID":2}       |
+      | {"Event":"SparkListenerJobStart","Job ID":3}  |
+    Then parsing the Spark event log for 'SparkListenerJobStart' should get the job IDs:
+      | 3 |
+    And parsing the Spark event log for 'SparkListenerJob' should get the job IDs:
+      | 2 |
+    And parsing the Spark event log for 'SparkListener' should get no events
+
+  Scenario: Find and match the Spark event name in the line
+    Then the Spark event name start of the lines should be:
+      | {"Event":"SparkListenerJobStart"}      | 10 |
+      | {"Event" :  "SparkListenerJobStart"}   | 13 |
+      | {"Job ID":1}                           | -1 |
+      | {"Event":1}                            | -1 |
+      | {"Event"                               | -1 |
+    And the Spark event name of line '{"Event":"SparkListenerJobStart"}' should match 'sparklistenerjobstart'
+    And the Spark event name of line '{"Event":"SparkListenerJobStartX"}' should not match 'SparkListenerJobStart'
+    And the Spark event name of line '{"Event":"SparkListenerJobStart' should not match 'SparkListenerJobStart'
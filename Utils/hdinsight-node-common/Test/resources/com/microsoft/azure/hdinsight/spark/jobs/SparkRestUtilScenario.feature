@@ -0,0 +1,43 @@
+Feature: SparkRestUtil Testing
+
+  Scenario: getSparkTasksOfStages() gets the task lists with the bounded parallelism
+    Given set the max concurrent task list requests to 2 and the request timeout to 10 seconds
+    And mock a Spark history server in SparkRestUtilScenario with the application 'application_1_0001' of attempt 1
+    And mock the task list of stage 0 to return '[{"taskId":"0"},{"taskId":"1"}]' with status code 200 after 1000 ms
+    And mock the task list of stage 1 to return '[{"taskId":"2"}]' with status code 200 after 1000 ms
+    And mock the task list of stage 2 to return '[{"taskId":"3"}]' with status code 200 after 1000 ms
+    And mock the task list of stage 3 to return '[{"taskId":"4"},{"taskId":"5"}]' with status code 200 after 1000 ms
+    Then getting the tasks of stages '0, 1, 2, 3' should get the task IDs of the stages:
+      | 0 | 0,1 |
+      | 1 | 2   |
+      | 2 | 3   |
+      | 3 | 4,5 |
+    And getting the tasks should take at least 2000 ms
+
+  Scenario: getSparkTasksOfStages() skips the stage timed out with the partial result
+    Given set the max concurrent task list requests to 4 and the request timeout to 1 seconds
+    And mock a Spark history server in SparkRestUtilScenario with the application 'application_1_0002' of attempt 1
+    And mock the task list of stage 0 to return '[{"taskId":"0"}]' with status code 200 after 0 ms
+    And mock the task list of stage 1 to return '[{"taskId":"1"}]' with status code 200 after 5000 ms
+    And mock the task list of stage 2 to return '[{"taskId":"2"}]' with status code 200 after 0 ms
+    Then getting the tasks of stages '0, 1, 2' should get the task IDs of the stages:
+      | 0 | 0 |
+      | 2 | 2 |
+    And getting the tasks should take less than 5000 ms
+
+  Scenario: getSparkTasksOfStages() skips the stage failed with the partial result
+    Given set the max concurrent task list requests to 4 and the request timeout to 10 seconds
+    And mock a Spark history server in SparkRestUtilScenario with the application 'application_1_0003' of attempt 1
+    And mock the task list of stage 0 to return '[{"taskId":"0"}]' with status code 200 after 0 ms
+    And mock the task list of stage 1 to return 'Internal Server Error' with status code 500 after 0 ms
+    Then getting the tasks of stages '0, 1' should get the task IDs of the stages:
+      | 0 | 0 |
+
+  Scenario: getSparkEventLogs() reads the in-progress event log of the last attempt
+    Given mock a Spark history server in SparkRestUtilScenario with the application 'application_1_0004' of attempt 2
+    And mock the event logs of the application to return the zip entries:
+      | application_1_0004_1            | {"Event":"SparkListenerJobStart","Job ID":1} |
+      | application_1_0004_2.inprogress | {"Event":"SparkListenerJobStart","Job ID":2} |
+      | application_1_0004_20           | {"Event":"SparkListenerJobStart","Job ID":3} |
+    Then getting the Spark event logs should get the job start events of job IDs:
+      | 2 |
@@ -8,6 +8,7 @@ package com.microsoft.azure.hdinsight.common;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.Application;
 import com.microsoft.azure.hdinsight.spark.jobs.ApplicationKey;
+import com.microsoft.azure.hdinsight.spark.jobs.JobViewCacheManager;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 
@@ -46,6 +47,9 @@ public class JobViewManager {
     }
 
     public static void unRegisterJobView(@NotNull String clusterName) {
-        jobViewPanelMap.remove(clusterName);
+        IClusterDetail clusterDetail = jobViewPanelMap.remove(clusterName);
+        if (clusterDetail != null) {
+            JobViewCacheManager.invalidateCluster(clusterDetail);
+        }
     }
 }
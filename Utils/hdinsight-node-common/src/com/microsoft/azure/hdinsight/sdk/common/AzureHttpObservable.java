@@ -6,7 +6,6 @@
 package com.microsoft.azure.hdinsight.sdk.common;
 
 import org.apache.http.NameValuePair;
-import org.apache.http.impl.client.HttpClients;
 
 import com.microsoft.azure.hdinsight.common.HDInsightLoader;
 import com.microsoft.azuretools.adauth.AuthException;
@@ -45,11 +44,7 @@ public class AzureHttpObservable extends OAuthTokenHttpObservable {
         this.tenantId = tenantId;
         this.apiVersion = apiVersion;
 
-        setHttpClient(HttpClients.custom()
-                .useSystemProperties()
-                .setDefaultCookieStore(getCookieStore())
-                .setDefaultRequestConfig(getDefaultRequestConfig())
-                .build());
+        setHttpClient(createPooledHttpClient(SharedHttpConnectionManager.PoolType.SYSTEM));
 
         azureDefaultParameters = super.getDefaultParameters();
 
@@ -5,6 +5,7 @@
 
 package com.microsoft.azure.hdinsight.sdk.common;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.microsoft.azure.hdinsight.common.CommonConst;
 import com.microsoft.azure.hdinsight.common.StreamUtil;
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
@@ -12,11 +13,9 @@ import com.microsoft.azure.hdinsight.sdk.common.errorresponse.*;
 import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
-import com.microsoft.azuretools.service.ServiceManager;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.http.*;
 import org.apache.http.client.CookieStore;
 import org.apache.http.client.config.AuthSchemes;
@@ -25,29 +24,21 @@ import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.*;
 import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.conn.ssl.DefaultHostnameVerifier;
-import org.apache.http.conn.ssl.NoopHostnameVerifier;
-import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.message.HeaderGroup;
 import org.apache.http.protocol.BasicHttpContext;
 import org.apache.http.protocol.HttpContext;
-import org.apache.http.ssl.SSLContextBuilder;
-import org.apache.http.ssl.TrustStrategy;
 import org.apache.http.util.EntityUtils;
 import rx.Observable;
 import rx.exceptions.Exceptions;
+import rx.observables.SyncOnSubscribe;
 
-import javax.net.ssl.SSLContext;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.UnknownServiceException;
 import java.nio.charset.StandardCharsets;
-import java.security.KeyManagementException;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 import static rx.exceptions.Exceptions.propagate;
@@ -108,12 +99,7 @@ public class HttpObservable implements ILogger {
                 .setProxyPreferredAuthSchemes(Collections.singletonList(AuthSchemes.BASIC))
                 .build();
 
-        this.httpClient = HttpClients.custom()
-                .useSystemProperties()
-                .setDefaultCookieStore(getCookieStore())
-                .setDefaultRequestConfig(getDefaultRequestConfig())
-                .setSSLSocketFactory(createSSLSocketFactory())
-                .build();
+        this.httpClient = createPooledHttpClient(SharedHttpConnectionManager.getTrustStrategyPoolType());
     }
 
     /**
@@ -131,13 +117,6 @@ public class HttpObservable implements ILogger {
             setDefaultHeader(new BasicHeader(
                     HttpHeaders.AUTHORIZATION, String.format("%s %s", "Basic", new String(encodedAuth))));
         }
-
-        this.httpClient = HttpClients.custom()
-                .useSystemProperties()
-                .setDefaultCookieStore(getCookieStore())
-                .setDefaultRequestConfig(getDefaultRequestConfig())
-                .setSSLSocketFactory(createSSLSocketFactory())
-                .build();
     }
 
     /*
@@ -243,25 +222,20 @@ public class HttpObservable implements ILogger {
         }
     }
 
-    private SSLConnectionSocketFactory createSSLSocketFactory() {
-        TrustStrategy ts = ServiceManager.getServiceProvider(TrustStrategy.class);
-        SSLConnectionSocketFactory sslSocketFactory = null;
-
-        if (ts != null) {
-            try {
-                SSLContext sslContext = new SSLContextBuilder()
-                        .loadTrustMaterial(ts)
-                        .build();
-
-                sslSocketFactory = new SSLConnectionSocketFactory(sslContext,
-                        HttpObservable.isSSLCertificateValidationDisabled()
-                                ? NoopHostnameVerifier.INSTANCE
-                                : new DefaultHostnameVerifier());
-            } catch (NoSuchAlgorithmException | KeyManagementException | KeyStoreException e) {
-                log().error("Prepare SSL Context for HTTPS failure. " + ExceptionUtils.getStackTrace(e));
-            }
-        }
-        return sslSocketFactory;
+    /**
+     * Create a HTTP client with this instance's cookie store and request config, whose connections are leased
+     * from the process-wide shared pool to keep alive and reuse connections across clusters and instances
+     *
+     * @param poolType the shared connection pool type
+     * @return a HTTP client which doesn't shut down the shared pool when closed
+     */
+    @NotNull
+    protected CloseableHttpClient createPooledHttpClient(@NotNull SharedHttpConnectionManager.PoolType poolType) {
+        return SharedHttpConnectionManager.getInstance()
+                .createHttpClientBuilder(poolType)
+                .setDefaultCookieStore(getCookieStore())
+                .setDefaultRequestConfig(getDefaultRequestConfig())
+                .build();
     }
 
     @NotNull
@@ -316,14 +290,126 @@ public class HttpObservable implements ILogger {
                     }
                 },
                 // Resource dispose
+                HttpObservable::closeQuietly);
+    }
+
+    /**
+     * Helper to decode the closeable stream good Http response (2xx) into the specified type, directly from the
+     * entity content stream without buffering the whole body into a String.
+     * If the response is bad, propagate a HttpResponseException
+     *
+     * @param closeableHttpResponse the source closeable stream
+     * @param clazz the target type to convert
+     * @param <T> the target type
+     * @return the decoded object
+     */
+    public static <T> Observable<T> toObjectOnlyOkResponse(@NotNull final CloseableHttpResponse closeableHttpResponse,
+                                                           @NotNull final Class<T> clazz) {
+        return Observable.using(
+                // Resource factory
+                () -> closeableHttpResponse,
+                // Observable factory
                 streamResp -> {
                     try {
-                        streamResp.close();
-                    } catch (IOException ignore) {
-                        // The connection will be closed automatically after timeout,
-                        // the exception in closing can be ignored.
+                        StatusLine status = streamResp.getStatusLine();
+
+                        if (status.getStatusCode() >= 300) {
+                            return Observable.error(classifyHttpError(streamResp));
+                        }
+
+                        HttpEntity entity = streamResp.getEntity();
+                        if (entity == null) {
+                            return Observable.error(new HDIException("Unknown HTTP server response: empty content"));
+                        }
+
+                        try (InputStream content = entity.getContent()) {
+                            return Observable.just(ObjectConvertUtils.convertJsonStreamToObject(content, clazz)
+                                    .orElseThrow(() -> new HDIException("Unknown HTTP server response: null")));
+                        }
+                    } catch (IOException | HDIException e) {
+                        return Observable.error(e);
                     }
-                });
+                },
+                // Resource dispose
+                HttpObservable::closeQuietly);
+    }
+
+    /**
+     * Helper to decode the JSON array elements of the closeable stream good Http response (2xx) incrementally.
+     * The elements are parsed from the entity content stream on request, so the whole list is never held in memory
+     * unless the subscriber collects them. If the response is bad, propagate a HttpResponseException
+     *
+     * @param closeableHttpResponse the source closeable stream
+     * @param arrayFieldName the field name of the array in the root object, or null if the root is the array
+     * @param clazz the element type to convert
+     * @param <T> the element type
+     * @return the decoded elements, empty if no such array
+     */
+    public static <T> Observable<T> toElementsOnlyOkResponse(@NotNull final CloseableHttpResponse closeableHttpResponse,
+                                                             @Nullable final String arrayFieldName,
+                                                             @NotNull final Class<T> clazz) {
+        return Observable.using(
+                // Resource factory
+                () -> closeableHttpResponse,
+                // Observable factory
+                streamResp -> {
+                    try {
+                        StatusLine status = streamResp.getStatusLine();
+
+                        if (status.getStatusCode() >= 300) {
+                            return Observable.error(classifyHttpError(streamResp));
+                        }
+                    } catch (IOException e) {
+                        return Observable.error(e);
+                    }
+
+                    HttpEntity entity = streamResp.getEntity();
+                    if (entity == null) {
+                        return Observable.empty();
+                    }
+
+                    // Pull the elements with back pressure supported
+                    return Observable.create(SyncOnSubscribe.<JsonParser, T>createStateful(
+                            () -> {
+                                try {
+                                    return ObjectConvertUtils.createJsonArrayParser(entity.getContent(), arrayFieldName);
+                                } catch (IOException e) {
+                                    throw propagate(e);
+                                }
+                            },
+                            (parser, observer) -> {
+                                try {
+                                    Optional<T> element = ObjectConvertUtils.nextJsonArrayElement(parser, clazz);
+
+                                    if (element.isPresent()) {
+                                        observer.onNext(element.get());
+                                    } else {
+                                        observer.onCompleted();
+                                    }
+                                } catch (IOException e) {
+                                    observer.onError(e);
+                                }
+
+                                return parser;
+                            },
+                            parser -> {
+                                try {
+                                    parser.close();
+                                } catch (IOException ignore) {
+                                }
+                            }));
+                },
+                // Resource dispose
+                HttpObservable::closeQuietly);
+    }
+
+    private static void closeQuietly(@NotNull CloseableHttpResponse streamResp) {
+        try {
+            streamResp.close();
+        } catch (IOException ignore) {
+            // The connection will be closed automatically after timeout,
+            // the exception in closing can be ignored.
+        }
     }
 
     /**
@@ -439,6 +525,79 @@ public class HttpObservable implements ILogger {
                 .map(resp -> this.convertJsonResponseToObject(resp, clazz));
     }
 
+    /*
+     * RESTful API operations with streaming decoding of the response content for specified type
+     */
+    public <T> Observable<T> requestWithStreamingObject(@NotNull final HttpRequestBase httpRequest,
+                                                        @Nullable final HttpEntity entity,
+                                                        final List<NameValuePair> parameters,
+                                                        final List<Header> addOrReplaceHeaders,
+                                                        @NotNull final Class<T> clazz) {
+        return request(httpRequest, entity, parameters, addOrReplaceHeaders)
+                .flatMap(resp -> toObjectOnlyOkResponse(resp, clazz));
+    }
+
+    public <T> Observable<T> requestWithStreamingElements(@NotNull final HttpRequestBase httpRequest,
+                                                          @Nullable final HttpEntity entity,
+                                                          final List<NameValuePair> parameters,
+                                                          final List<Header> addOrReplaceHeaders,
+                                                          @Nullable final String arrayFieldName,
+                                                          @NotNull final Class<T> clazz) {
+        return request(httpRequest, entity, parameters, addOrReplaceHeaders)
+                .concatMap(resp -> toElementsOnlyOkResponse(resp, arrayFieldName, clazz));
+    }
+
+    public <T> Observable<T> getStreaming(@NotNull final String uri,
+                                          final List<NameValuePair> parameters,
+                                          final List<Header> addOrReplaceHeaders,
+                                          @NotNull final Class<T> clazz) {
+        return requestWithStreamingObject(new HttpGet(uri), null, parameters, addOrReplaceHeaders, clazz);
+    }
+
+    public <T> Observable<T> putStreaming(@NotNull final String uri,
+                                          @Nullable final HttpEntity entity,
+                                          final List<NameValuePair> parameters,
+                                          final List<Header> addOrReplaceHeaders,
+                                          @NotNull final Class<T> clazz) {
+        return requestWithStreamingObject(new HttpPut(uri), entity, parameters, addOrReplaceHeaders, clazz);
+    }
+
+    public <T> Observable<T> postStreaming(@NotNull final String uri,
+                                           @Nullable final HttpEntity entity,
+                                           final List<NameValuePair> parameters,
+                                           final List<Header> addOrReplaceHeaders,
+                                           @NotNull final Class<T> clazz) {
+        return requestWithStreamingObject(new HttpPost(uri), entity, parameters, addOrReplaceHeaders, clazz);
+    }
+
+    public <T> Observable<T> patchStreaming(@NotNull final String uri,
+                                            @Nullable final HttpEntity entity,
+                                            final List<NameValuePair> parameters,
+                                            final List<Header> addOrReplaceHeaders,
+                                            @NotNull final Class<T> clazz) {
+        return requestWithStreamingObject(new HttpPatch(uri), entity, parameters, addOrReplaceHeaders, clazz);
+    }
+
+    /**
+     * GET a JSON array and emit its elements incrementally as they are decoded from the response stream
+     *
+     * @param uri the request URI
+     * @param parameters the request parameters
+     * @param addOrReplaceHeaders the headers to add or replace the default ones
+     * @param arrayFieldName the field name of the array in the root object, or null if the root is the array
+     * @param clazz the element type to convert
+     * @param <T> the element type
+     * @return the decoded elements
+     */
+    public <T> Observable<T> getElementsStreaming(@NotNull final String uri,
+                                                  final List<NameValuePair> parameters,
+                                                  final List<Header> addOrReplaceHeaders,
+                                                  @Nullable final String arrayFieldName,
+                                                  @NotNull final Class<T> clazz) {
+        return requestWithStreamingElements(
+                new HttpGet(uri), null, parameters, addOrReplaceHeaders, arrayFieldName, clazz);
+    }
+
     public Observable<CloseableHttpResponse> executeReqAndCheckStatus(HttpRequestBase httpRequest,
                                                                       @Nullable HttpEntity entity,
                                                                       List<NameValuePair> parameters,
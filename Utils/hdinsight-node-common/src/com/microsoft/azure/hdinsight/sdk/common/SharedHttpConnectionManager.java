@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.azuretools.service.ServiceManager;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.DefaultHostnameVerifier;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.ssl.SSLContextBuilder;
+import org.apache.http.ssl.TrustStrategy;
+
+import javax.net.ssl.SSLContext;
+import java.security.KeyManagementException;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide pooled HTTP connection managers shared by all {@link HttpObservable} instances,
+ * so that Livy, YARN, WebHDFS and ARM requests to the same route reuse kept-alive connections
+ * instead of paying a TCP and TLS handshake per client.
+ *
+ * The pool sizes and timeouts can be tuned with the following system properties:
+ * <ul>
+ *     <li>{@value #MAX_TOTAL_PROPERTY}, the max connections of a pool, default {@value #DEFAULT_MAX_TOTAL}</li>
+ *     <li>{@value #MAX_PER_ROUTE_PROPERTY}, the max connections per route, default {@value #DEFAULT_MAX_PER_ROUTE}</li>
+ *     <li>{@value #IDLE_TIMEOUT_SECONDS_PROPERTY}, the idle seconds before a connection is evicted,
+ *         default {@value #DEFAULT_IDLE_TIMEOUT_SECONDS}</li>
+ *     <li>{@value #TTL_SECONDS_PROPERTY}, the total time to live seconds of a connection,
+ *         default {@value #DEFAULT_TTL_SECONDS}</li>
+ * </ul>
+ */
+public final class SharedHttpConnectionManager implements ILogger {
+    public static final String MAX_TOTAL_PROPERTY = "com.microsoft.azure.hdinsight.http.pool.maxTotal";
+    public static final String MAX_PER_ROUTE_PROPERTY = "com.microsoft.azure.hdinsight.http.pool.maxPerRoute";
+    public static final String IDLE_TIMEOUT_SECONDS_PROPERTY = "com.microsoft.azure.hdinsight.http.pool.idleTimeoutSeconds";
+    public static final String TTL_SECONDS_PROPERTY = "com.microsoft.azure.hdinsight.http.pool.ttlSeconds";
+
+    public static final int DEFAULT_MAX_TOTAL = 200;
+    public static final int DEFAULT_MAX_PER_ROUTE = 10;
+    public static final int DEFAULT_IDLE_TIMEOUT_SECONDS = 60;
+    public static final int DEFAULT_TTL_SECONDS = 300;
+
+    // Re-validate the kept-alive connection which has been idle more than the time before leasing
+    private static final int VALIDATE_AFTER_INACTIVITY_MS = 2000;
+
+    /**
+     * The pool kinds, since the SSL socket factory is bound to a pool at creation
+     */
+    public enum PoolType {
+        // The JVM default SSL context, used by OAuth token based requests to Azure services
+        SYSTEM,
+        // The SSL context with IDE provided trust strategy, with host name verification
+        TRUST_STRATEGY,
+        // The SSL context with IDE provided trust strategy, without host name verification
+        TRUST_STRATEGY_NO_HOSTNAME_VERIFICATION
+    }
+
+    private static class LazyHolder {
+        static final SharedHttpConnectionManager INSTANCE = new SharedHttpConnectionManager();
+    }
+
+    public static SharedHttpConnectionManager getInstance() {
+        return LazyHolder.INSTANCE;
+    }
+
+    private static final class Pool {
+        @NotNull
+        final PoolingHttpClientConnectionManager connectionManager;
+
+        @NotNull
+        final IdleConnectionEvictor evictor;
+
+        Pool(@NotNull PoolingHttpClientConnectionManager connectionManager, @NotNull IdleConnectionEvictor evictor) {
+            this.connectionManager = connectionManager;
+            this.evictor = evictor;
+        }
+    }
+
+    @NotNull
+    private final ConcurrentMap<PoolType, Pool> pools = new ConcurrentHashMap<>();
+
+    private final int maxTotal;
+    private final int maxPerRoute;
+    private final int idleTimeoutSeconds;
+    private final int ttlSeconds;
+
+    private SharedHttpConnectionManager() {
+        this.maxTotal = Integer.getInteger(MAX_TOTAL_PROPERTY, DEFAULT_MAX_TOTAL);
+        this.maxPerRoute = Integer.getInteger(MAX_PER_ROUTE_PROPERTY, DEFAULT_MAX_PER_ROUTE);
+        this.idleTimeoutSeconds = Integer.getInteger(IDLE_TIMEOUT_SECONDS_PROPERTY, DEFAULT_IDLE_TIMEOUT_SECONDS);
+        this.ttlSeconds = Integer.getInteger(TTL_SECONDS_PROPERTY, DEFAULT_TTL_SECONDS);
+    }
+
+    /**
+     * Get the pool type matched with the current IDE trust strategy and SSL certificate validation settings
+     *
+     * @return the pool type for cluster requests
+     */
+    @NotNull
+    public static PoolType getTrustStrategyPoolType() {
+        if (ServiceManager.getServiceProvider(TrustStrategy.class) == null) {
+            return PoolType.SYSTEM;
+        }
+
+        return HttpObservable.isSSLCertificateValidationDisabled()
+                ? PoolType.TRUST_STRATEGY_NO_HOSTNAME_VERIFICATION
+                : PoolType.TRUST_STRATEGY;
+    }
+
+    /**
+     * Get the shared connection manager of the type, the pool is created at the first access
+     *
+     * @param type the pool type
+     * @return the shared connection manager, which shouldn't be shut down by the client
+     */
+    @NotNull
+    public HttpClientConnectionManager getConnectionManager(@NotNull PoolType type) {
+        return pools.computeIfAbsent(type, this::createPool).connectionManager;
+    }
+
+    /**
+     * Create a HTTP client builder with the shared connection manager of the type
+     *
+     * @param type the pool type
+     * @return the HTTP client builder with system properties used
+     */
+    @NotNull
+    public HttpClientBuilder createHttpClientBuilder(@NotNull PoolType type) {
+        return HttpClients.custom()
+                .useSystemProperties()
+                .setConnectionManager(getConnectionManager(type))
+                // Closing a HTTP client mustn't shut down the connection pool shared with others
+                .setConnectionManagerShared(true);
+    }
+
+    /**
+     * Get the statistics of all created pools for diagnostics
+     *
+     * @return the total statistics (leased/available/pending/max) of each pool type
+     */
+    @NotNull
+    public Map<PoolType, PoolStats> getTotalStats() {
+        Map<PoolType, PoolStats> stats = new LinkedHashMap<>();
+        pools.forEach((type, pool) -> stats.put(type, pool.connectionManager.getTotalStats()));
+
+        return stats;
+    }
+
+    /**
+     * Get the per route statistics of the pool for diagnostics
+     *
+     * @param type the pool type
+     * @return the statistics (leased/available/pending/max) of each route, empty if the pool isn't created
+     */
+    @NotNull
+    public Map<HttpRoute, PoolStats> getRouteStats(@NotNull PoolType type) {
+        Map<HttpRoute, PoolStats> stats = new LinkedHashMap<>();
+        Pool pool = pools.get(type);
+
+        if (pool != null) {
+            pool.connectionManager.getRoutes().forEach(route ->
+                    stats.put(route, pool.connectionManager.getStats(route)));
+        }
+
+        return stats;
+    }
+
+    /**
+     * Close all pooled connections and stop the idle connection evictors, the pools will be re-created if used again
+     */
+    public void shutdown() {
+        pools.keySet().forEach(type -> {
+            Pool pool = pools.remove(type);
+
+            if (pool != null) {
+                pool.evictor.shutdown();
+                pool.connectionManager.shutdown();
+            }
+        });
+    }
+
+    @Override
+    public String toString() {
+        return "SharedHttpConnectionManager{maxTotal=" + maxTotal + ", maxPerRoute=" + maxPerRoute
+                + ", idleTimeoutSeconds=" + idleTimeoutSeconds + ", ttlSeconds=" + ttlSeconds
+                + ", stats=" + getTotalStats() + "}";
+    }
+
+    @NotNull
+    private Pool createPool(@NotNull PoolType type) {
+        SSLConnectionSocketFactory sslSocketFactory = createSSLSocketFactory(type);
+
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", sslSocketFactory != null
+                        ? sslSocketFactory
+                        : SSLConnectionSocketFactory.getSystemSocketFactory())
+                .build();
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                registry, null, null, null, ttlSeconds, TimeUnit.SECONDS);
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MS);
+
+        // Evict the expired and idle connections in background with a daemon thread
+        IdleConnectionEvictor evictor = new IdleConnectionEvictor(
+                connectionManager, idleTimeoutSeconds, TimeUnit.SECONDS);
+        evictor.start();
+
+        // Called inside computeIfAbsent, so the pools (as in toString()) mustn't be read here
+        log().debug("Created shared HTTP connection pool {} with maxTotal={}, maxPerRoute={}, idleTimeoutSeconds={}, "
+                + "ttlSeconds={}", type, maxTotal, maxPerRoute, idleTimeoutSeconds, ttlSeconds);
+
+        return new Pool(connectionManager, evictor);
+    }
+
+    @Nullable
+    private SSLConnectionSocketFactory createSSLSocketFactory(@NotNull PoolType type) {
+        if (type == PoolType.SYSTEM) {
+            return null;
+        }
+
+        TrustStrategy ts = ServiceManager.getServiceProvider(TrustStrategy.class);
+        if (ts == null) {
+            return null;
+        }
+
+        try {
+            SSLContext sslContext = new SSLContextBuilder()
+                    .loadTrustMaterial(ts)
+                    .build();
+
+            return new SSLConnectionSocketFactory(sslContext,
+                    type == PoolType.TRUST_STRATEGY_NO_HOSTNAME_VERIFICATION
+                            ? NoopHostnameVerifier.INSTANCE
+                            : new DefaultHostnameVerifier());
+        } catch (NoSuchAlgorithmException | KeyManagementException | KeyStoreException e) {
+            log().error("Prepare SSL Context for HTTPS failure. " + ExceptionUtils.getStackTrace(e));
+        }
+
+        return null;
+    }
+}
@@ -6,16 +6,20 @@
 package com.microsoft.azure.hdinsight.sdk.rest;
 
 import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.http.HttpEntity;
 import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -30,6 +34,90 @@ public final class ObjectConvertUtils {
         return Optional.ofNullable(objectMapper.readValue(jsonString, tClass));
     }
 
+    /**
+     * Decode the JSON stream into an object directly, without buffering the whole content into a String
+     *
+     * @param jsonStream the JSON input stream, which is closed after decoding
+     * @param tClass the target type to convert
+     * @param <T> the target type
+     * @return the decoded object, empty for JSON null
+     * @throws IOException for reading or decoding failure
+     */
+    public static <T> Optional<T> convertJsonStreamToObject(@NotNull InputStream jsonStream,
+                                                            @NotNull Class<T> tClass) throws IOException {
+        return Optional.ofNullable(objectMapper.readValue(jsonStream, tClass));
+    }
+
+    /**
+     * Create a streaming JSON parser positioned at the start of an array, for decoding the array elements
+     * one by one with {@link #nextJsonArrayElement(JsonParser, Class)}.
+     *
+     * @param jsonStream the JSON input stream, which is closed when the parser is closed
+     * @param arrayFieldName the field name of the array in the root object, or null if the root is the array.
+     *                       The field is searched in the root object only, the other fields are skipped.
+     * @return the parser positioned at the array start token, or a closed parser if no such array
+     * @throws IOException for reading or parsing failure
+     */
+    @NotNull
+    public static JsonParser createJsonArrayParser(@NotNull InputStream jsonStream,
+                                                   @Nullable String arrayFieldName) throws IOException {
+        // The parser created by object mapper's factory has the codec to read values as the object
+        JsonParser parser = objectMapper.getFactory().createParser(jsonStream);
+        JsonToken token = parser.nextToken();
+        boolean isArrayFound = false;
+
+        if (arrayFieldName == null) {
+            isArrayFound = token == JsonToken.START_ARRAY;
+        } else if (token == JsonToken.START_OBJECT) {
+            while (!isArrayFound && parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                token = parser.nextToken();
+                isArrayFound = arrayFieldName.equals(fieldName) && token == JsonToken.START_ARRAY;
+
+                if (!isArrayFound) {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        if (!isArrayFound) {
+            // No such array, close the parser to mark it's ended
+            parser.close();
+        }
+
+        return parser;
+    }
+
+    /**
+     * Decode the next element of the array from the parser created by {@link #createJsonArrayParser}
+     *
+     * @param parser the JSON parser positioned before an array element
+     * @param tClass the element type to convert
+     * @param <T> the element type
+     * @return the decoded element, or empty when the array ends, then the parser is closed
+     * @throws IOException for reading or decoding failure
+     */
+    public static <T> Optional<T> nextJsonArrayElement(@NotNull JsonParser parser,
+                                                       @NotNull Class<T> tClass) throws IOException {
+        if (parser.isClosed()) {
+            return Optional.empty();
+        }
+
+        JsonToken token;
+        do {
+            // Skip null elements
+            token = parser.nextToken();
+        } while (token == JsonToken.VALUE_NULL);
+
+        if (token == null || token == JsonToken.END_ARRAY) {
+            // The array ends, close the parser to mark it's ended, rather than reading on the sibling fields
+            parser.close();
+            return Optional.empty();
+        }
+
+        return Optional.ofNullable(parser.readValueAs(tClass));
+    }
+
     public static <T> T convertToObjectQuietly(@NotNull String jsonString, @NotNull Class<T> tClass) {
         try {
             return objectMapper.readValue(jsonString, tClass);
@@ -39,6 +127,15 @@ public final class ObjectConvertUtils {
         return null;
     }
 
+    public static <T> T convertToObjectQuietly(@NotNull byte[] jsonBytes, int offset, int length, @NotNull Class<T> tClass) {
+        try {
+            return objectMapper.readValue(jsonBytes, offset, length, tClass);
+        } catch (IOException e) {
+            // ignore the exception
+        }
+        return null;
+    }
+
     public static <T> Optional<T> convertEntityToObject(@NotNull HttpEntity entity, @NotNull Class<T> tClass) throws IOException {
         final String type = entity.getContentType().getValue().toLowerCase();
 
@@ -5,7 +5,6 @@
 
 package com.microsoft.azure.hdinsight.spark.common;
 
-import com.gargoylesoftware.htmlunit.Cache;
 import com.microsoft.azure.hdinsight.common.ClusterManagerEx;
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
@@ -28,7 +27,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import rx.Observable;
 import rx.Observer;
-import rx.Subscriber;
 import rx.subjects.PublishSubject;
 
 import java.io.File;
@@ -38,6 +36,8 @@ import java.net.UnknownServiceException;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -131,11 +131,6 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
      */
     private int delaySeconds = 10;
 
-    /**
-     * The global cache for fetched Yarn UI page by browser
-     */
-    private final Cache globalCache = JobUtils.getGlobalCache();
-
     /**
      * The driver log conversion mode
      */
@@ -628,28 +623,46 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                     "please configure Spark cluster which the Spark job will be submitted."));
         }
 
-        return Observable.create(ob -> {
-            try {
-                final HttpResponse httpResponse = this.getSubmission().getBatchSparkJobStatus(
-                        getConnectUri().toString(), getBatchId());
+        return getBatchStatusHttpResponse()
+                .doOnError(ex -> log().warn("Got exception " + ex.toString()))
+                .flatMap(httpResponse -> {
+                    if (httpResponse.getCode() >= 200 && httpResponse.getCode() < 300) {
+                        try {
+                            final SparkSubmitResponse jobResp = ObjectConvertUtils.convertJsonToObject(
+                                    httpResponse.getMessage(), SparkSubmitResponse.class)
+                                                                                  .orElseThrow(() -> new UnknownServiceException(
+                                            "Bad spark job response: " + httpResponse.getMessage()));
+
+                            if (jobResp.getAppId() != null) {
+                                return Observable.just(jobResp.getAppId());
+                            }
+                        } catch (final IOException ex) {
+                            log().warn("Got exception " + ex.toString());
+
+                            return Observable.error(ex);
+                        }
+                    }
 
-                if (httpResponse.getCode() >= 200 && httpResponse.getCode() < 300) {
-                    final SparkSubmitResponse jobResp = ObjectConvertUtils.convertJsonToObject(
-                            httpResponse.getMessage(), SparkSubmitResponse.class)
-                                                                          .orElseThrow(() -> new UnknownServiceException(
-                                    "Bad spark job response: " + httpResponse.getMessage()));
+                    return Observable.empty();
+                });
+    }
 
-                    if (jobResp.getAppId() != null) {
-                        ob.onNext(jobResp.getAppId());
-                    }
-                }
+    /**
+     * Get the Livy batch status response, the concurrent requests for the same batch are coalesced into one
+     *
+     * @return the Livy batch status HTTP response observable
+     */
+    @NotNull
+    private Observable<HttpResponse> getBatchStatusHttpResponse() {
+        final String batchUrl = String.format("%s/%d", getConnectUri(), getBatchId());
 
-                ob.onCompleted();
-            } catch (final IOException ex) {
-                log().warn("Got exception " + ex.toString());
-                ob.onError(ex);
-            }
-        });
+        return getPollingScheduler().coalesce(batchUrl, Observable.fromCallable(() ->
+                this.getSubmission().getBatchSparkJobStatus(getConnectUri().toString(), getBatchId())));
+    }
+
+    @NotNull
+    protected SparkBatchJobPollingScheduler getPollingScheduler() {
+        return SparkBatchJobPollingScheduler.getInstance();
     }
 
     /**
@@ -802,55 +815,74 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                 "stderr:",
                 "yarn diagnostics:"));
 
-        return Observable.create(ob -> {
-            try {
-                final int maxLinesPerGet = 128;
-                int linesGot;
-                boolean isFetching = true;
-
-                while (isFetching) {
-                    final int start = nextLivyLogOffset;
-                    final boolean isAppIdAllocated = !this.getSparkJobApplicationIdObservable().isEmpty().toBlocking()
-                            .lastOrDefault(true);
-                    final String logUrl = String.format("%s/%d/log?from=%d&size=%d",
-                                                        this.getConnectUri().toString(), batchId, start, maxLinesPerGet);
-
-                    final HttpResponse httpResponse = this.getSubmission().getHttpResponseViaGet(logUrl);
-
-                    final SparkJobLog sparkJobLog = ObjectConvertUtils.convertJsonToObject(httpResponse.getMessage(),
-                                                                                           SparkJobLog.class)
-                                                                      .orElseThrow(() -> new UnknownServiceException(
-                                    "Bad spark log response: " + httpResponse.getMessage()));
-
-                    synchronized (livyLogOffsetLock) {
-                        if (start != nextLivyLogOffset) {
-                            // The offset is moved by another fetching thread, re-do it with new offset
-                            continue;
-                        }
+        final int maxLinesPerGet = 128;
+        final long minDelayMs = TimeUnit.SECONDS.toMillis(1);
+        final long maxDelayMs = Math.max(minDelayMs, TimeUnit.SECONDS.toMillis(this.getDelaySeconds()));
+
+        return Observable.defer(() -> {
+            final AtomicBoolean isAppIdAllocated = new AtomicBoolean(false);
+
+            return getPollingScheduler()
+                    .poll(Observable.fromCallable(() -> fetchLivyLogs(maxLinesPerGet, isAppIdAllocated)),
+                          linesAndIsFetching -> !linesAndIsFetching.getValue(),
+                          // Fetch the next lines at once if got, or back off while no lines
+                          (linesAndIsFetching, delayMs) -> linesAndIsFetching.getKey().isEmpty()
+                                  ? SparkBatchJobPollingScheduler.backoff(delayMs, minDelayMs, maxDelayMs)
+                                  : 0L)
+                    .concatMapIterable(SimpleImmutableEntry::getKey)
+                    .filter(line -> !ignoredEmptyLines.contains(line.trim().toLowerCase()))
+                    .map(line -> new SparkLogLine(LIVY, Log, line))
+                    .onErrorResumeNext(err -> err instanceof IOException
+                            ? Observable.just(new SparkLogLine(TOOL, Error, err.getMessage()))
+                            : Observable.error(err));
+        });
+    }
+
+    /**
+     * Fetch the next Livy log lines of the batch from the shared offset
+     *
+     * @param maxLinesPerGet the max lines to fetch
+     * @param isAppIdAllocated the flag of Yarn application ID allocated, which is checked until it's allocated
+     * @return the lines got, and whether the fetching should be continued
+     * @throws IOException exceptions in transaction
+     */
+    @NotNull
+    private SimpleImmutableEntry<List<String>, Boolean> fetchLivyLogs(
+            final int maxLinesPerGet, @NotNull final AtomicBoolean isAppIdAllocated) throws IOException {
+        while (true) {
+            final int start = nextLivyLogOffset;
+
+            if (!isAppIdAllocated.get()) {
+                isAppIdAllocated.set(!this.getSparkJobApplicationIdObservable().isEmpty().toBlocking()
+                        .lastOrDefault(true));
+            }
 
-                        // To subscriber
-                        sparkJobLog.getLog().stream()
-                                .filter(line -> !ignoredEmptyLines.contains(line.trim().toLowerCase()))
-                                .forEach(line -> ob.onNext(new SparkLogLine(LIVY, Log, line)));
+            final String logUrl = String.format("%s/%d/log?from=%d&size=%d",
+                                                this.getConnectUri().toString(), batchId, start, maxLinesPerGet);
 
-                        linesGot = sparkJobLog.getLog().size();
-                        nextLivyLogOffset += linesGot;
-                    }
+            final HttpResponse httpResponse = this.getSubmission().getHttpResponseViaGet(logUrl);
 
-                    // Retry interval
-                    if (linesGot == 0) {
-                        isFetching = "starting".equals(this.getState()) && !isAppIdAllocated;
+            final SparkJobLog sparkJobLog = ObjectConvertUtils.convertJsonToObject(httpResponse.getMessage(),
+                                                                                   SparkJobLog.class)
+                                                              .orElseThrow(() -> new UnknownServiceException(
+                            "Bad spark log response: " + httpResponse.getMessage()));
 
-                        sleep(TimeUnit.SECONDS.toMillis(this.getDelaySeconds()));
-                    }
+            final List<String> lines;
+            synchronized (livyLogOffsetLock) {
+                if (start != nextLivyLogOffset) {
+                    // The offset is moved by another fetching thread, re-do it with new offset
+                    continue;
                 }
-            } catch (final IOException ex) {
-                ob.onNext(new SparkLogLine(TOOL, Error, ex.getMessage()));
-            } catch (final InterruptedException ignored) {
-            } finally {
-                ob.onCompleted();
+
+                lines = sparkJobLog.getLog();
+                nextLivyLogOffset += lines.size();
             }
-        });
+
+            final boolean isFetching = !lines.isEmpty()
+                    || ("starting".equals(this.getState()) && !isAppIdAllocated.get());
+
+            return new SimpleImmutableEntry<>(lines, isFetching);
+        }
     }
 
     public boolean isActive() throws IOException {
@@ -895,53 +927,67 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                     "please configure Spark cluster which the Spark job will be submitted."));
         }
 
-        return Observable.create((Subscriber<? super SimpleImmutableEntry<String, String>> ob) -> {
-            try {
-                boolean isJobActive;
-                SparkBatchJobState state = SparkBatchJobState.NOT_STARTED;
-                String diagnostics = "";
-
-                do {
-                    final HttpResponse httpResponse = this.getSubmission().getBatchSparkJobStatus(
-                            this.getConnectUri().toString(), batchId);
-
-                    if (httpResponse.getCode() >= 200 && httpResponse.getCode() < 300) {
-                        final SparkSubmitResponse jobResp = ObjectConvertUtils.convertJsonToObject(
-                                httpResponse.getMessage(), SparkSubmitResponse.class)
-                                                                              .orElseThrow(() -> new UnknownServiceException(
-                                        "Bad spark job response: " + httpResponse.getMessage()));
-
-                        state = SparkBatchJobState.valueOf(jobResp.getState().toUpperCase());
-                        diagnostics = String.join("\n", jobResp.getLog());
-
-                        isJobActive = !isDone(state.toString());
-                    } else {
-                        isJobActive = false;
-                    }
-
-
-                    // Retry interval
-                    sleep(1000);
-                } while (isJobActive);
-
-                ob.onNext(new SimpleImmutableEntry<>(state.toString(), diagnostics));
-                ob.onCompleted();
-            } catch (final IOException ex) {
-                ob.onError(ex);
-            } catch (final InterruptedException ignored) {
-                ob.onCompleted();
-            }
+        final long minDelayMs = 1000;
+        final long maxDelayMs = 8000;
+
+        return Observable.defer(() -> {
+            final AtomicReference<SimpleImmutableEntry<String, String>> lastStateLog = new AtomicReference<>(
+                    new SimpleImmutableEntry<>(SparkBatchJobState.NOT_STARTED.toString(), ""));
+
+            return getPollingScheduler()
+                    .poll(getBatchStatusHttpResponse().map(httpResponse -> {
+                              if (httpResponse.getCode() >= 200 && httpResponse.getCode() < 300) {
+                                  try {
+                                      final SparkSubmitResponse jobResp = ObjectConvertUtils.convertJsonToObject(
+                                              httpResponse.getMessage(), SparkSubmitResponse.class)
+                                                                                            .orElseThrow(() -> new UnknownServiceException(
+                                                      "Bad spark job response: " + httpResponse.getMessage()));
+
+                                      return Optional.of(jobResp);
+                                  } catch (final IOException ex) {
+                                      throw propagate(ex);
+                                  }
+                              }
+
+                              // The job is treated as inactive if the status can't be got
+                              return Optional.<SparkSubmitResponse>empty();
+                          }),
+                          jobResp -> !jobResp.isPresent() || isDone(jobResp.get().getState()),
+                          (jobResp, delayMs) -> jobResp.isPresent() && isStableState(jobResp.get().getState())
+                                  && lastStateLog.get().getKey().equalsIgnoreCase(jobResp.get().getState())
+                                  ? SparkBatchJobPollingScheduler.backoff(delayMs, minDelayMs, maxDelayMs)
+                                  : minDelayMs)
+                    .doOnNext(jobResp -> jobResp.ifPresent(resp -> lastStateLog.set(new SimpleImmutableEntry<>(
+                            SparkBatchJobState.valueOf(resp.getState().toUpperCase()).toString(),
+                            String.join("\n", resp.getLog())))))
+                    .lastOrDefault(Optional.empty())
+                    .map(ignored -> lastStateLog.get());
         });
     }
 
+    /**
+     * Check whether the Livy batch state is stable, in which the state is not expected to change soon
+     *
+     * @param state the Livy batch state
+     * @return true for starting and running states
+     */
+    private boolean isStableState(@NotNull String state) {
+        return SparkBatchJobState.STARTING.toString().equalsIgnoreCase(state)
+                || SparkBatchJobState.RUNNING.toString().equalsIgnoreCase(state);
+    }
+
     protected Observable<String> getJobLogAggregationDoneObservable() {
         return getSparkJobApplicationIdObservable()
                 .flatMap(applicationId ->
-                        Observable.fromCallable(() ->
-                                getSparkJobYarnApplication(this.getYarnNMConnectUri(), applicationId))
-                                .repeatWhen(ob -> ob.delay(getDelaySeconds(), TimeUnit.SECONDS))
+                        getPollingScheduler().poll(
+                                Observable.fromCallable(() ->
+                                        getSparkJobYarnApplication(this.getYarnNMConnectUri(), applicationId)),
+                                yarnApp -> yarnApp != null && isYarnAppLogAggregationDone(yarnApp),
+                                (yarnApp, delayMs) -> SparkBatchJobPollingScheduler.backoff(
+                                        delayMs,
+                                        TimeUnit.SECONDS.toMillis(getDelaySeconds()),
+                                        TimeUnit.SECONDS.toMillis(getDelaySeconds()) * 4))
                                 .filter(Objects::nonNull)
-                                .takeUntil(this::isYarnAppLogAggregationDone)
                                 .filter(this::isYarnAppLogAggregationDone))
                 .map(yarnApp -> yarnApp.getLogAggregationStatus().toUpperCase());
     }
@@ -1147,10 +1193,7 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                     "please configure Spark cluster which the Spark job will be submitted."));
         }
 
-        return Observable.fromCallable(() -> {
-            final HttpResponse httpResponse = this.getSubmission().getBatchSparkJobStatus(
-                    this.getConnectUri().toString(), getBatchId());
-
+        return getBatchStatusHttpResponse().flatMap(httpResponse -> Observable.fromCallable(() -> {
             if (httpResponse.getCode() >= 200 && httpResponse.getCode() < 300) {
                 return ObjectConvertUtils.convertJsonToObject(
                         httpResponse.getMessage(), SparkSubmitResponse.class)
@@ -1159,7 +1202,7 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
             }
 
             throw new SparkJobException("Can't get cluster " + getSubmissionParameter().getClusterName() + " status.");
-        });
+        }));
     }
 
     @NotNull
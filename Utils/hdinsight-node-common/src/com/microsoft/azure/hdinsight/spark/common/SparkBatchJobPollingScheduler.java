@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common;
+
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Func1;
+import rx.functions.Func2;
+import rx.schedulers.Schedulers;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The shared polling scheduler for Livy batch job status and log polling. The waits between all active jobs' polls
+ * are multiplexed onto a small daemon timer thread pool instead of one sleeping thread per job, and the concurrent
+ * requests with the same key, such as the status of one batch, are coalesced into one in-flight request.
+ *
+ * The blocking requests themselves run on the IO scheduler, so that a request waiting for another coalesced
+ * request never starves the timer threads.
+ */
+public class SparkBatchJobPollingScheduler {
+    /**
+     * The polling timer threads count, could be set by the system property
+     */
+    public static final String POOL_SIZE_PROPERTY = "com.microsoft.azure.hdinsight.spark.polling.poolSize";
+    public static final int DEFAULT_POOL_SIZE = 2;
+
+    // The jitter ratio of delays, to spread the polls of jobs submitted at the same time
+    private static final double JITTER_RATIO = 0.2;
+
+    private static class LazyHolder {
+        static final SparkBatchJobPollingScheduler INSTANCE = new SparkBatchJobPollingScheduler();
+    }
+
+    public static SparkBatchJobPollingScheduler getInstance() {
+        return LazyHolder.INSTANCE;
+    }
+
+    @NotNull
+    private final Scheduler scheduler;
+
+    @NotNull
+    private final ConcurrentMap<String, Observable<?>> inFlightRequests = new ConcurrentHashMap<>();
+
+    private SparkBatchJobPollingScheduler() {
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(
+                Math.max(1, Integer.getInteger(POOL_SIZE_PROPERTY, DEFAULT_POOL_SIZE)),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "spark-batch-job-polling-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+
+                    return thread;
+                });
+        executor.setRemoveOnCancelPolicy(true);
+
+        this.scheduler = Schedulers.from(executor);
+    }
+
+    @NotNull
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Coalesce the concurrent requests with the same key. While a request of the key is in flight, the
+     * later subscribers share its result rather than sending the same request again.
+     *
+     * @param key the request key, such as the Livy batch URL
+     * @param request the request, which emits one result
+     * @param <T> the result type
+     * @return the coalesced request running on the IO scheduler
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public <T> Observable<T> coalesce(@NotNull final String key, @NotNull final Observable<T> request) {
+        return Observable.defer(() -> (Observable<T>) inFlightRequests.computeIfAbsent(key, k -> {
+            final AtomicReference<Observable<T>> shared = new AtomicReference<>();
+
+            shared.set(request
+                    .subscribeOn(Schedulers.io())
+                    .doOnTerminate(() -> inFlightRequests.remove(k, shared.get()))
+                    .cache());
+
+            return shared.get();
+        }));
+    }
+
+    /**
+     * Poll the request repeatedly until the result is done, with the delay between polls decided by the
+     * previous result and delay. The delay is applied with jitter by the timer threads, no thread is blocked in waiting.
+     *
+     * @param request the request to poll, which emits one result per subscription
+     * @param isDone the function to check whether the result is the last one
+     * @param nextDelayMs the function to get the next delay in milliseconds by the result and the previous delay,
+     *                    refer to {@link #backoff(long, long, long)} for the exponential backoff
+     * @param <T> the result type
+     * @return the results observable, which completes after the done result emitted
+     */
+    @NotNull
+    public <T> Observable<T> poll(@NotNull final Observable<T> request,
+                                  @NotNull final Func1<? super T, Boolean> isDone,
+                                  @NotNull final Func2<? super T, Long, Long> nextDelayMs) {
+        return Observable.defer(() -> {
+            final AtomicLong delayMs = new AtomicLong(0);
+
+            return request
+                    .subscribeOn(Schedulers.io())
+                    .doOnNext(result -> delayMs.set(nextDelayMs.call(result, delayMs.get())))
+                    .repeatWhen(completions -> completions.concatMap(ignored -> {
+                        final long delay = withJitter(delayMs.get());
+
+                        return delay <= 0
+                                ? Observable.just(0L)
+                                : Observable.timer(delay, TimeUnit.MILLISECONDS, scheduler);
+                    }))
+                    .takeUntil(isDone);
+        });
+    }
+
+    /**
+     * The exponential backoff delay
+     *
+     * @param previousDelayMs the previous delay in milliseconds
+     * @param minDelayMs the minimum (and first) delay in milliseconds
+     * @param maxDelayMs the maximum delay in milliseconds
+     * @return the doubled previous delay, limited in the range of minimum and maximum delay
+     */
+    public static long backoff(final long previousDelayMs, final long minDelayMs, final long maxDelayMs) {
+        return Math.max(minDelayMs, Math.min(previousDelayMs * 2, maxDelayMs));
+    }
+
+    private static long withJitter(final long delayMs) {
+        if (delayMs <= 0) {
+            return 0;
+        }
+
+        final double jitter = ThreadLocalRandom.current().nextDouble(1 - JITTER_RATIO, 1 + JITTER_RATIO);
+
+        return (long) (delayMs * jitter);
+    }
+}
@@ -7,10 +7,15 @@ package com.microsoft.azure.hdinsight.spark.jobs;
 
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
 import com.microsoft.azure.hdinsight.common.JobViewManager;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.Application;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.Attempt;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.event.JobStartEventLog;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.executor.Executor;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.job.Job;
@@ -19,106 +24,267 @@ import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.ApplicationMasterLogs;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
+/**
+ * The Spark job view caches. The data of running applications are refreshed in background after
+ * {@value #RUNNING_APP_REFRESH_SECONDS} seconds while the stale data is served, and are reloaded synchronously
+ * when older than {@value #RUNNING_APP_MAX_STALE_SECONDS} seconds. The data of completed applications are never
+ * refreshed, and are only evicted by the cache weight (payload size) or {@value #IDLE_EXPIRE_MINUTES} idle minutes.
+ */
 public class JobViewCacheManager {
-    private static final LoadingCache<ApplicationKey, List<Job>> sparkJobLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Job>>() {
-                @Override
-                public List<Job> load(ApplicationKey key) throws Exception {
-                    return SparkRestUtil.getLastAttemptJobsFromApp(key);
-                }
-            });
+    private static final long RUNNING_APP_REFRESH_SECONDS = 10;
+    private static final long RUNNING_APP_MAX_STALE_SECONDS = 60;
+    private static final long IDLE_EXPIRE_MINUTES = 60;
 
-    private static final LoadingCache<ApplicationKey, List<Stage>> sparkStageLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Stage>>() {
-                @Override
-                public List<Stage> load(ApplicationKey key) throws Exception {
-                    return SparkRestUtil.getAllStageFromApp(key);
-                }
-            });
+    // The max weight of the list caches, counted in elements. Spark UI retains 1,000 jobs and stages by default,
+    // and the task list REST API returns 20 tasks of a stage by default, so one application's largest list is
+    // about 20,000 elements, which lets the recent applications' lists be cached together
+    static final long MAX_LIST_ELEMENTS = 200_000;
+    // The max weight of the single object caches, counted in objects
+    private static final long MAX_OBJECTS = 1_000;
+    // The max weight of the log caches, counted in KB
+    private static final long MAX_LOGS_KB = 64 * 1024;
 
-    private static final LoadingCache<ApplicationKey, List<Executor>> sparkExecutorLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Executor>>() {
-                @Override
-                public List<Executor> load(ApplicationKey key) throws Exception {
-                    return SparkRestUtil.getAllExecutorFromApp(key);
-                }
-            });
+    private static final int REFRESH_THREADS = 2;
 
-    private static final LoadingCache<String, List<Application>> sparkApplicationsLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<String, List<Application>>() {
-                @Override
-                public List<Application> load(String key) throws Exception {
-                    return SparkRestUtil.getSparkApplications(JobViewManager.getCluster(key));
-                }
-            });
+    private static final AtomicInteger REFRESH_THREAD_COUNT = new AtomicInteger();
 
-    private static final LoadingCache<ApplicationKey, List<Task>> sparkTasksSummaryLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<Task>>() {
-                @Override
-                public List<Task> load(ApplicationKey key) throws Exception {
-                    List<Task> allTasks = new ArrayList<>();
-                    List<Stage> stages = sparkStageLocalCache.get(key);
-                    for (Stage stage: stages) {
-                        int stageId = stage.getStageId();
-                        int attemptedId = stage.getAttemptId();
-                        List<Task> tasks = SparkRestUtil.getSparkTasks(key, stageId, attemptedId);
-                        allTasks.addAll(tasks);
-                    }
-                    return allTasks;
-                }
-            });
+    private static final ExecutorService refreshExecutor = Executors.newFixedThreadPool(REFRESH_THREADS, runnable -> {
+        final Thread thread = new Thread(runnable, "job-view-cache-refresh-" + REFRESH_THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
 
-    private static final LoadingCache<ApplicationKey, ApplicationMasterLogs> yarnAppLogLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, ApplicationMasterLogs>() {
-                @Override
-                public ApplicationMasterLogs load(ApplicationKey key) throws Exception {
-                    return JobUtils.getYarnLogs(key);
-                }
-            });
+        return thread;
+    });
 
-    private static final LoadingCache<ApplicationKey, App> yarnApplicationLocalCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, App>() {
-                @Override
-                public App load(ApplicationKey key) throws Exception {
-                    return YarnRestUtil.getApp(key);
-                }
-            });
+    interface Loader<K, V> {
+        V load(K key) throws Exception;
+    }
+
+    /**
+     * The loaded value with the load time
+     */
+    private static final class Loaded<V> {
+        @NotNull
+        final V value;
+
+        final long loadedAtNanos = System.nanoTime();
+
+        Loaded(@NotNull V value) {
+            this.value = value;
+        }
+
+        boolean isOlderThan(long duration, @NotNull TimeUnit unit) {
+            return System.nanoTime() - loadedAtNanos > unit.toNanos(duration);
+        }
+    }
+
+    /**
+     * The application state aware cache, refer to the class document for the refresh and expiry policies
+     */
+    static final class AppStateAwareCache<K, V> {
+        @NotNull
+        private final LoadingCache<K, Loaded<V>> cache;
+
+        @NotNull
+        private final BiPredicate<K, V> isCompleted;
+
+        AppStateAwareCache(long maxWeight,
+                           @NotNull ToIntFunction<V> weigher,
+                           @NotNull BiPredicate<K, V> isCompleted,
+                           @NotNull Loader<K, V> loader) {
+            this.isCompleted = isCompleted;
+            this.cache = CacheBuilder.newBuilder()
+                    .initialCapacity(20)
+                    // The weight limit is divided into the segments evenly, and an entry heavier than its
+                    // segment's limit is evicted at once. Use one segment for the large lists to be cached
+                    .concurrencyLevel(1)
+                    .maximumWeight(maxWeight)
+                    .weigher((K key, Loaded<V> loaded) -> Math.max(1, weigher.applyAsInt(loaded.value)))
+                    .refreshAfterWrite(RUNNING_APP_REFRESH_SECONDS, TimeUnit.SECONDS)
+                    .expireAfterAccess(IDLE_EXPIRE_MINUTES, TimeUnit.MINUTES)
+                    .recordStats()
+                    .build(new CacheLoader<K, Loaded<V>>() {
+                        @Override
+                        public Loaded<V> load(K key) throws Exception {
+                            return new Loaded<>(loader.load(key));
+                        }
+
+                        @Override
+                        public ListenableFuture<Loaded<V>> reload(K key, Loaded<V> oldValue) {
+                            if (isCompleted.test(key, oldValue.value)) {
+                                // The completed application data won't change, no need to refresh
+                                return Futures.immediateFuture(oldValue);
+                            }
+
+                            // Refresh in background, the stale value is served until the reloading done
+                            final ListenableFutureTask<Loaded<V>> task = ListenableFutureTask.create(() -> load(key));
+                            refreshExecutor.execute(task);
+
+                            return task;
+                        }
+                    });
+        }
+
+        @NotNull
+        V get(@NotNull K key) throws ExecutionException {
+            final Loaded<V> loaded = cache.getIfPresent(key);
+
+            if (loaded != null
+                    && loaded.isOlderThan(RUNNING_APP_MAX_STALE_SECONDS, TimeUnit.SECONDS)
+                    && !isCompleted.test(key, loaded.value)) {
+                // Too stale to be served for the running application
+                cache.invalidate(key);
+            }
+
+            return cache.get(key).value;
+        }
 
-    private static final LoadingCache<ApplicationKey, List<JobStartEventLog>> sparkJobStartEventLogCache = CacheBuilder.newBuilder()
-            .maximumSize(100)
-            .initialCapacity(20)
-            .build(new CacheLoader<ApplicationKey, List<JobStartEventLog>>() {
-                @Override
-                public List<JobStartEventLog> load(ApplicationKey key) throws Exception {
-                    return SparkRestUtil.getSparkEventLogs(key);
+        @Nullable
+        V getIfPresent(@NotNull K key) {
+            return Optional.ofNullable(cache.getIfPresent(key))
+                    .map(loaded -> loaded.value)
+                    .orElse(null);
+        }
+
+        void invalidateIf(@NotNull Predicate<K> keyPredicate) {
+            cache.asMap().keySet().removeIf(keyPredicate);
+        }
+
+        @NotNull
+        CacheStats stats() {
+            return cache.stats();
+        }
+    }
+
+    private static final AppStateAwareCache<ApplicationKey, List<Job>> sparkJobLocalCache = new AppStateAwareCache<>(
+            MAX_LIST_ELEMENTS,
+            Collection::size,
+            JobViewCacheManager::isApplicationCompleted,
+            SparkRestUtil::getLastAttemptJobsFromApp);
+
+    private static final AppStateAwareCache<ApplicationKey, List<Stage>> sparkStageLocalCache = new AppStateAwareCache<>(
+            MAX_LIST_ELEMENTS,
+            Collection::size,
+            JobViewCacheManager::isApplicationCompleted,
+            SparkRestUtil::getAllStageFromApp);
+
+    private static final AppStateAwareCache<ApplicationKey, List<Executor>> sparkExecutorLocalCache = new AppStateAwareCache<>(
+            MAX_LIST_ELEMENTS,
+            Collection::size,
+            JobViewCacheManager::isApplicationCompleted,
+            SparkRestUtil::getAllExecutorFromApp);
+
+    // The application list of a cluster always changes
+    private static final AppStateAwareCache<String, List<Application>> sparkApplicationsLocalCache = new AppStateAwareCache<>(
+            MAX_LIST_ELEMENTS,
+            Collection::size,
+            (clusterName, apps) -> false,
+            clusterName -> SparkRestUtil.getSparkApplications(JobViewManager.getCluster(clusterName)));
+
+    /**
+     * The tasks of an application, with some stages' tasks failed to get
+     */
+    private static final class PartialTasks extends ArrayList<Task> {
+    }
+
+    // The partial tasks are refreshed even the application is completed
+    private static final AppStateAwareCache<ApplicationKey, List<Task>> sparkTasksSummaryLocalCache = new AppStateAwareCache<>(
+            MAX_LIST_ELEMENTS,
+            Collection::size,
+            (key, tasks) -> !(tasks instanceof PartialTasks) && isApplicationCompleted(key, tasks),
+            key -> {
+                List<Stage> stages = sparkStageLocalCache.get(key);
+                List<Task> allTasks = new ArrayList<>();
+                int loadedStages = SparkRestUtil.getSparkTasksOfStages(key, stages)
+                        .doOnNext(stageTasks -> allTasks.addAll(stageTasks.getValue()))
+                        .count()
+                        .toBlocking()
+                        .single();
+
+                if (loadedStages < stages.size()) {
+                    PartialTasks partialTasks = new PartialTasks();
+                    partialTasks.addAll(allTasks);
+
+                    return partialTasks;
                 }
+
+                return allTasks;
             });
 
+    private static final AppStateAwareCache<ApplicationKey, ApplicationMasterLogs> yarnAppLogLocalCache = new AppStateAwareCache<>(
+            MAX_LOGS_KB,
+            logs -> (length(logs.getStdout()) + length(logs.getStderr()) + length(logs.getDirectoryInfo())) / 1024,
+            JobViewCacheManager::isApplicationCompleted,
+            JobUtils::getYarnLogs);
+
+    private static final AppStateAwareCache<ApplicationKey, App> yarnApplicationLocalCache = new AppStateAwareCache<>(
+            MAX_OBJECTS,
+            app -> 1,
+            (key, app) -> app.isFinished(),
+            YarnRestUtil::getApp);
+
+    private static final AppStateAwareCache<ApplicationKey, List<JobStartEventLog>> sparkJobStartEventLogCache = new AppStateAwareCache<>(
+            MAX_LIST_ELEMENTS,
+            Collection::size,
+            JobViewCacheManager::isApplicationCompleted,
+            SparkRestUtil::getSparkEventLogs);
+
+    private static int length(@Nullable String str) {
+        return str == null ? 0 : str.length();
+    }
+
+    /**
+     * Check whether the application is completed by the cached Yarn application or Spark application list,
+     * the application is treated as running if no cached information found
+     *
+     * @param key the application key
+     * @param value the cached value, not used
+     * @return true for completed application
+     */
+    private static boolean isApplicationCompleted(@NotNull ApplicationKey key, @Nullable Object value) {
+        final App yarnApp = yarnApplicationLocalCache.getIfPresent(key);
+        if (yarnApp != null && yarnApp.isFinished()) {
+            return true;
+        }
+
+        final List<Application> apps = sparkApplicationsLocalCache.getIfPresent(key.getClusterDetails().getName());
+        if (apps == null) {
+            return false;
+        }
+
+        return apps.stream()
+                .filter(application -> application.getId().equalsIgnoreCase(key.getAppId()))
+                .findFirst()
+                .map(Application::getAttempts)
+                .filter(attempts -> !attempts.isEmpty())
+                .map(attempts -> attempts.get(attempts.size() - 1))
+                .map(Attempt::getCompleted)
+                .map(Boolean::parseBoolean)
+                .orElse(false);
+    }
+
     public static List<JobStartEventLog> getJobStartEventLogs(@NotNull ApplicationKey key) throws ExecutionException {
         return sparkJobStartEventLogCache.get(key);
     }
 
     public static ApplicationMasterLogs getYarnLogs(@NotNull ApplicationKey key) throws ExecutionException {
-            return yarnAppLogLocalCache.get(key);
+        return yarnAppLogLocalCache.get(key);
     }
 
     public static App getYarnApp(@NotNull ApplicationKey key) throws ExecutionException {
@@ -154,4 +320,44 @@ public class JobViewCacheManager {
     public static List<Stage> getStages(@NotNull ApplicationKey key) throws ExecutionException {
         return sparkStageLocalCache.get(key);
     }
+
+    /**
+     * Invalidate all cached data of the cluster, such as the cluster is removed or refreshed
+     *
+     * @param clusterDetail the cluster to invalidate
+     */
+    public static void invalidateCluster(@NotNull IClusterDetail clusterDetail) {
+        final Predicate<ApplicationKey> isInCluster =
+                key -> key.getClusterConnString().equalsIgnoreCase(clusterDetail.getConnectionUrl());
+
+        sparkJobLocalCache.invalidateIf(isInCluster);
+        sparkStageLocalCache.invalidateIf(isInCluster);
+        sparkExecutorLocalCache.invalidateIf(isInCluster);
+        sparkTasksSummaryLocalCache.invalidateIf(isInCluster);
+        yarnAppLogLocalCache.invalidateIf(isInCluster);
+        yarnApplicationLocalCache.invalidateIf(isInCluster);
+        sparkJobStartEventLogCache.invalidateIf(isInCluster);
+        sparkApplicationsLocalCache.invalidateIf(clusterName -> clusterName.equals(clusterDetail.getName()));
+    }
+
+    /**
+     * Get the statistics of caches, such as hit/miss count and load time, for diagnostics
+     *
+     * @return the cache statistics by cache name
+     */
+    @NotNull
+    public static Map<String, CacheStats> getCacheStats() {
+        final Map<String, CacheStats> stats = new LinkedHashMap<>();
+
+        stats.put("sparkJobs", sparkJobLocalCache.stats());
+        stats.put("sparkStages", sparkStageLocalCache.stats());
+        stats.put("sparkExecutors", sparkExecutorLocalCache.stats());
+        stats.put("sparkApplications", sparkApplicationsLocalCache.stats());
+        stats.put("sparkTasksSummary", sparkTasksSummaryLocalCache.stats());
+        stats.put("yarnAppLogs", yarnAppLogLocalCache.stats());
+        stats.put("yarnApplications", yarnApplicationLocalCache.stats());
+        stats.put("sparkJobStartEventLogs", sparkJobStartEventLogCache.stats());
+
+        return stats;
+    }
 }
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The streaming Spark event log parser. The event log is read line by line (one JSON event per line) into a reused
+ * byte buffer, the event name is picked out by scanning the bytes for the leading "Event" field, and only the lines
+ * of the requested events are deserialized, so the memory usage is bounded by the longest line rather than the log size.
+ *
+ * <pre>
+ *     List&lt;JobStartEventLog&gt; jobStarts = new ArrayList&lt;&gt;();
+ *     new SparkEventLogParser()
+ *             .on("SparkListenerJobStart", JobStartEventLog.class, jobStarts::add)
+ *             .parse(eventLogStream);
+ * </pre>
+ */
+public class SparkEventLogParser {
+    private static final byte[] EVENT_FIELD = "\"Event\"".getBytes(StandardCharsets.UTF_8);
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int INITIAL_LINE_BUFFER_SIZE = 8 * 1024;
+
+    private static final class EventHandler<T> {
+        @NotNull
+        final byte[] eventName;
+
+        @NotNull
+        final Class<T> eventClass;
+
+        @NotNull
+        final Consumer<? super T> consumer;
+
+        EventHandler(@NotNull String eventName, @NotNull Class<T> eventClass, @NotNull Consumer<? super T> consumer) {
+            this.eventName = eventName.getBytes(StandardCharsets.UTF_8);
+            this.eventClass = eventClass;
+            this.consumer = consumer;
+        }
+
+        void handle(@NotNull byte[] line, int length) {
+            T event = ObjectConvertUtils.convertToObjectQuietly(line, 0, length, eventClass);
+
+            if (event != null) {
+                consumer.accept(event);
+            }
+        }
+    }
+
+    @NotNull
+    private final List<EventHandler<?>> handlers = new ArrayList<>();
+
+    /**
+     * Register the event to deserialize
+     *
+     * @param eventName the event name, such as SparkListenerJobStart, matched ignoring ASCII case
+     * @param eventClass the class to deserialize the event into
+     * @param consumer the consumer of the deserialized event, the event failed to deserialize is skipped
+     * @param <T> the event type
+     * @return this parser for chaining
+     */
+    @NotNull
+    public <T> SparkEventLogParser on(@NotNull String eventName,
+                                      @NotNull Class<T> eventClass,
+                                      @NotNull Consumer<? super T> consumer) {
+        handlers.add(new EventHandler<>(eventName, eventClass, consumer));
+
+        return this;
+    }
+
+    /**
+     * Parse the event log stream, the registered consumers are called in the event log order
+     *
+     * @param eventLog the event log stream, which is not closed by the parser
+     * @throws IOException for reading failure
+     */
+    public void parse(@NotNull InputStream eventLog) throws IOException {
+        byte[] readBuffer = new byte[READ_BUFFER_SIZE];
+        byte[] line = new byte[INITIAL_LINE_BUFFER_SIZE];
+        int lineLength = 0;
+
+        int read;
+        while ((read = eventLog.read(readBuffer)) != -1) {
+            int start = 0;
+
+            for (int i = 0; i < read; i++) {
+                if (readBuffer[i] != '\n') {
+                    continue;
+                }
+
+                line = append(line, lineLength, readBuffer, start, i - start);
+                lineLength += i - start;
+                handleLine(line, lineLength);
+
+                lineLength = 0;
+                start = i + 1;
+            }
+
+            line = append(line, lineLength, readBuffer, start, read - start);
+            lineLength += read - start;
+        }
+
+        // The last line without line break
+        handleLine(line, lineLength);
+    }
+
+    private void handleLine(@NotNull byte[] line, int length) {
+        int nameStart = findEventNameStart(line, length);
+        if (nameStart < 0) {
+            return;
+        }
+
+        for (EventHandler<?> handler : handlers) {
+            if (isEventNameMatched(line, length, nameStart, handler.eventName)) {
+                handler.handle(line, length);
+
+                return;
+            }
+        }
+    }
+
+    /**
+     * Find the start of the "Event" field string value, which is the first field of Spark event JSON
+     *
+     * @return the position after the value's opening quote, or -1 if not found
+     */
+    static int findEventNameStart(@NotNull byte[] line, int length) {
+        int fieldStart = indexOf(line, length, EVENT_FIELD);
+        if (fieldStart < 0) {
+            return -1;
+        }
+
+        int pos = skipWhitespaces(line, length, fieldStart + EVENT_FIELD.length);
+        if (pos >= length || line[pos] != ':') {
+            return -1;
+        }
+
+        pos = skipWhitespaces(line, length, pos + 1);
+        if (pos >= length || line[pos] != '"') {
+            return -1;
+        }
+
+        return pos + 1;
+    }
+
+    static boolean isEventNameMatched(@NotNull byte[] line, int length, int nameStart, @NotNull byte[] eventName) {
+        int nameEnd = nameStart + eventName.length;
+        if (nameEnd >= length || line[nameEnd] != '"') {
+            return false;
+        }
+
+        for (int i = 0; i < eventName.length; i++) {
+            if (toLowerCaseAscii(line[nameStart + i]) != toLowerCaseAscii(eventName[i])) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int indexOf(@NotNull byte[] data, int length, @NotNull byte[] pattern) {
+        outer:
+        for (int i = 0; i <= length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+
+            return i;
+        }
+
+        return -1;
+    }
+
+    private static int skipWhitespaces(@NotNull byte[] data, int length, int pos) {
+        while (pos < length && (data[pos] == ' ' || data[pos] == '\t')) {
+            pos++;
+        }
+
+        return pos;
+    }
+
+    private static byte toLowerCaseAscii(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    @NotNull
+    private static byte[] append(@NotNull byte[] line, int lineLength, @NotNull byte[] src, int offset, int count) {
+        if (count <= 0) {
+            return line;
+        }
+
+        byte[] target = line;
+        if (lineLength + count > line.length) {
+            target = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + count));
+        }
+
+        System.arraycopy(src, offset, target, lineLength, count);
+
+        return target;
+    }
+}
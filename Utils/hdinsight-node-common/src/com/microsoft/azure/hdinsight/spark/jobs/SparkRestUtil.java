@@ -5,7 +5,7 @@
 
 package com.microsoft.azure.hdinsight.spark.jobs;
 
-import com.microsoft.azure.hdinsight.common.HDInsightLoader;
+import com.fasterxml.jackson.core.JsonParser;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.common.HDIException;
 import com.microsoft.azure.hdinsight.sdk.rest.AttemptWithAppId;
@@ -18,25 +18,39 @@ import com.microsoft.azure.hdinsight.sdk.rest.spark.job.Job;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.stage.Stage;
 import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
-import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpEntity;
-import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import rx.Observable;
+import rx.schedulers.Schedulers;
 
-
-import java.io.File;
+import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.Charset;
 import java.util.*;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 
 public class SparkRestUtil {
     public static final String SPARK_REST_API_ENDPOINT = "%s/sparkhistory/api/v1/applications/%s";
 
+    /**
+     * The max concurrent task list requests of one application, could be set by the system property
+     */
+    public static final String TASKS_LOAD_PARALLELISM_PROPERTY = "com.microsoft.azure.hdinsight.spark.tasks.loadParallelism";
+    public static final int DEFAULT_TASKS_LOAD_PARALLELISM = 8;
+
+    /**
+     * The timeout seconds of one stage's task list request, could be set by the system property
+     */
+    public static final String TASKS_LOAD_TIMEOUT_SECONDS_PROPERTY = "com.microsoft.azure.hdinsight.spark.tasks.loadTimeoutSeconds";
+    public static final int DEFAULT_TASKS_LOAD_TIMEOUT_SECONDS = 30;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SparkRestUtil.class);
+
     @NotNull
     public static List<Application> getSparkApplications(@NotNull IClusterDetail clusterDetail) throws HDIException, IOException {
         HttpEntity entity = getSparkRestEntity(clusterDetail, "");
@@ -79,43 +93,88 @@ public class SparkRestUtil {
         String url = String.format("/%s/%s/stages/%s/%s/taskList", attemptWithAppId.getAppId(), attemptWithAppId.getAttemptId(),stage, attemptId);
         HttpEntity entity = getSparkRestEntity(key.getClusterDetails(), url);
 
-        Optional<List<Task>> tasks = ObjectConvertUtils.convertEntityToList(entity, Task.class);
-        return tasks.orElse(RestUtil.getEmptyList(Task.class));
+        // A stage can have a huge number of tasks, decode them one by one from the response stream
+        // instead of buffering the whole response into a String
+        final List<Task> tasks = new ArrayList<>();
+        try (JsonParser parser = ObjectConvertUtils.createJsonArrayParser(entity.getContent(), null)) {
+            Optional<Task> task;
+            while ((task = ObjectConvertUtils.nextJsonArrayElement(parser, Task.class)).isPresent()) {
+                tasks.add(task.get());
+            }
+        }
+
+        return tasks;
     }
 
+    /**
+     * Get the task lists of the stages concurrently, with the max concurrent requests limited by
+     * {@value #TASKS_LOAD_PARALLELISM_PROPERTY} and each request timed out by {@value #TASKS_LOAD_TIMEOUT_SECONDS_PROPERTY}.
+     * The stage's task list is emitted once got, in the completion order. The stage failed or timed out is skipped
+     * with a warning, so the subscriber can take the partial result by comparing the count of emitted stages.
+     *
+     * @param key the application key
+     * @param stages the stages to get tasks
+     * @return the observable of the stage and its tasks pairs
+     */
+    @NotNull
+    public static Observable<SimpleImmutableEntry<Stage, List<Task>>> getSparkTasksOfStages(@NotNull ApplicationKey key,
+                                                                                            @NotNull List<Stage> stages) {
+        final int parallelism = Math.max(1, Integer.getInteger(TASKS_LOAD_PARALLELISM_PROPERTY, DEFAULT_TASKS_LOAD_PARALLELISM));
+        final int timeoutSeconds = Integer.getInteger(TASKS_LOAD_TIMEOUT_SECONDS_PROPERTY, DEFAULT_TASKS_LOAD_TIMEOUT_SECONDS);
+
+        return Observable.from(stages)
+                .flatMap(stage -> Observable
+                        .fromCallable(() -> new SimpleImmutableEntry<>(
+                                stage, getSparkTasks(key, stage.getStageId(), stage.getAttemptId())))
+                        .subscribeOn(Schedulers.io())
+                        .timeout(timeoutSeconds, TimeUnit.SECONDS)
+                        .onErrorResumeNext(err -> {
+                            LOGGER.warn(String.format("Failed to get tasks of stage %d attempt %d for application %s",
+                                    stage.getStageId(), stage.getAttemptId(), key.getAppId()), err);
+
+                            return Observable.empty();
+                        }), parallelism);
+    }
+
+    /**
+     * Get the job start events of the application's last attempt. The event logs zip is read from the response
+     * stream entry by entry, and only the job start events of the attempt's entry are deserialized.
+     *
+     * @param key the application key
+     * @return the job start events in the event log order
+     * @throws HDIException for no event log entry of the attempt found
+     * @throws IOException for network or reading failure
+     */
+    @NotNull
     public static List<JobStartEventLog> getSparkEventLogs(@NotNull ApplicationKey key) throws HDIException, IOException {
-        String url = String.format("%s/logs", key.getAppId());
-        String eventLogsPath = String.format("%s/SparkEventLogs/%s/eventLogs.zip", HDInsightLoader.getHDInsightHelper().getPluginRootPath(), key.getAppId());
-        File file = new File(eventLogsPath);
-        HttpEntity entity = getSparkRestEntity(key.getClusterDetails(), url);
-        InputStream inputStream = entity.getContent();
-        FileUtils.copyInputStreamToFile(inputStream, file);
-        IOUtils.closeQuietly(inputStream);
+        final AttemptWithAppId attemptWithAppId;
+        try {
+            attemptWithAppId = getLastAttemptFromLocalCache(key);
+        } catch (ExecutionException e) {
+            throw new HDIException(String.format("Can't get the last attempt of app: %s", key.getAppId()), e);
+        }
 
-        ZipFile zipFile = new ZipFile(file);
-        List<? extends ZipEntry> entities =  Collections.list(zipFile.entries());
         // every application has an attempt in event log
-        // and the entity name should be in formation "{appId}_{attemptId}"
-        String entityName = String.format("%s_%s", key.getAppId(), entities.size());
-        ZipEntry lastEntity = zipFile.getEntry(entityName);
-        if (lastEntity == null) {
-            throw new HDIException(String.format("No Spark event log entity found for app: %s", key.getAppId()));
+        // and the entity name should be in formation "{appId}_{attemptId}", or with ".inprogress" suffix for running
+        final String entityName = String.format("%s_%s", key.getAppId(), attemptWithAppId.getAttemptId());
+        final String url = String.format("/%s/logs", key.getAppId());
+        final HttpEntity entity = getSparkRestEntity(key.getClusterDetails(), url);
+
+        try (ZipInputStream zipInputStream = new ZipInputStream(new BufferedInputStream(entity.getContent()))) {
+            ZipEntry zipEntry;
+            while ((zipEntry = zipInputStream.getNextEntry()) != null) {
+                if (zipEntry.getName().equals(entityName) || zipEntry.getName().equals(entityName + ".inprogress")) {
+                    final List<JobStartEventLog> jobStartEvents = new ArrayList<>();
+                    new SparkEventLogParser()
+                            .on("SparkListenerJobStart", JobStartEventLog.class, jobStartEvents::add)
+                            .parse(zipInputStream);
+
+                    return jobStartEvents;
+                }
+            }
         }
-        InputStream zipFileInputStream = zipFile.getInputStream(lastEntity);
-        String entityContent = IOUtils.toString(zipFileInputStream, Charset.forName("utf-8"));
-
-        String[] lines = entityContent.split("\n");
-        List<JobStartEventLog> jobStartEvents = Arrays.stream(lines)
-                .filter(line -> {
-                    JSONObject jsonObject = new JSONObject(line);
-                    String eventName = jsonObject.getString("Event");
-                    return eventName.equalsIgnoreCase("SparkListenerJobStart");
-                    })
-                .map(oneLine -> ObjectConvertUtils.convertToObjectQuietly(oneLine, JobStartEventLog.class))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
 
-        return jobStartEvents;
+        throw new HDIException(String.format("No Spark event log entity found for app: %s", key.getAppId()));
     }
 
     private static AttemptWithAppId getLastAttemptFromLocalCache(@NotNull ApplicationKey key) throws ExecutionException, HDIException {
@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.common.SharedHttpConnectionManager;
+import com.microsoft.azure.hdinsight.sdk.common.SharedHttpConnectionManager.PoolType;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.apache.http.HttpHeaders.AUTHORIZATION;
+
+/**
+ * The lightweight Yarn container log fetcher, which gets the log block from YarnUI or Yarn history server
+ * container log page with one shared pooled HTTP client, and extracts the log from the page's {@code <pre>}
+ * block by scanning the response stream, without rendering the page into a DOM.
+ */
+public class YarnContainerLogFetcher implements ILogger {
+    private static final Pattern LOG_TYPE_PATTERN = Pattern.compile("Log Type:\\s+(\\S+)");
+
+    private static class LazyHolder {
+        static final YarnContainerLogFetcher INSTANCE = new YarnContainerLogFetcher();
+    }
+
+    public static YarnContainerLogFetcher getInstance() {
+        return LazyHolder.INSTANCE;
+    }
+
+    // One client per pool type, since the SSL certificate validation setting can be changed at any time
+    @NotNull
+    private final ConcurrentMap<PoolType, CloseableHttpClient> httpClients = new ConcurrentHashMap<>();
+
+    private YarnContainerLogFetcher() {
+    }
+
+    @NotNull
+    private CloseableHttpClient getHttpClient() {
+        return httpClients.computeIfAbsent(SharedHttpConnectionManager.getTrustStrategyPoolType(),
+                type -> SharedHttpConnectionManager.getInstance()
+                        .createHttpClientBuilder(type)
+                        // The log pages are fetched with Authorization header, no cookies shared between clusters
+                        .disableCookieManagement()
+                        .setDefaultRequestConfig(RequestConfig.custom()
+                                .setRedirectsEnabled(true)
+                                .build())
+                        .build());
+    }
+
+    /**
+     * Get the Yarn container log block
+     *
+     * @param authCode the authCode in request's Authorization header
+     * @param baseUrl the container log URL
+     * @param type the log type, such as stderr, stdout or directory.info
+     * @param start the log start offset
+     * @param size the log block size, the value 0 or negative for as many as possible
+     * @return the log block, or empty String if failed to get
+     */
+    @NotNull
+    public String fetch(@Nullable String authCode, @NotNull String baseUrl, @NotNull String type, long start, int size) {
+        URI url = null;
+
+        try {
+            url = new URI(baseUrl + "/").resolve(
+                    String.format("%s?start=%d", type, start) +
+                            (size <= 0 ? "" : String.format("&&end=%d", start + size)));
+
+            HttpGet get = new HttpGet(url);
+            if (authCode != null) {
+                get.setHeader(AUTHORIZATION, authCode);
+            }
+
+            try (CloseableHttpResponse response = getHttpClient().execute(get)) {
+                int statusCode = response.getStatusLine().getStatusCode();
+                HttpEntity entity = response.getEntity();
+
+                if (statusCode >= 400) {
+                    // If fetching Yarn log hits the gap between the job running and stop, will get the status 403
+                    // the log is moving to job history server, just wait and retry.
+                    if (statusCode != HttpStatus.SC_FORBIDDEN) {
+                        log().warn("The GET request to " + url + " responded error: " + response.getStatusLine());
+                    }
+
+                    return "";
+                }
+
+                if (entity == null) {
+                    return "";
+                }
+
+                // If the URL is wrong, will get 200 response without log <pre> block but with content:
+                //      Unable to locate 'xxx' log for container
+                //  OR
+                //      Logs not available for <user>. Aggregation may not be complete, Check back later or try the nodemanager at...
+                //  OR
+                //      Cannot get container logs without ...
+                Charset charset = ContentType.getOrDefault(entity).getCharset();
+                try (Reader reader = new BufferedReader(new InputStreamReader(
+                        entity.getContent(), charset != null ? charset : StandardCharsets.UTF_8))) {
+                    return parseLogPage(reader, type);
+                }
+            }
+        } catch (final URISyntaxException e) {
+            log().error("baseUrl has syntax error: " + baseUrl);
+        } catch (final Exception e) {
+            log().warn("get Spark job log Error", e);
+        }
+
+        return "";
+    }
+
+    /**
+     * Scan the Yarn log page to extract the log of the type. The logs are in the {@code <pre>} blocks after
+     * the navigation cell. In Yarn history server, a {@code <p>} paragraph with "Log Type: xxx" is ahead of
+     * each log {@code <pre>} block, while in running, there is no log type paragraph.
+     *
+     * @param page the page content reader
+     * @param type the log type
+     * @return the log of the type, or the last log block if no log type paragraph matched
+     * @throws IOException for reading failure
+     */
+    @NotNull
+    static String parseLogPage(@NotNull Reader page, @NotNull String type) throws IOException {
+        StringBuilder tag = new StringBuilder();
+        StringBuilder text = new StringBuilder();
+
+        boolean inTag = false;
+        boolean navCellFound = false;
+        boolean inContent = false;
+        boolean inParagraph = false;
+        boolean inPre = false;
+
+        String logType = null;
+        String lastLogs = "";
+        String typedLogs = null;
+
+        int ch;
+        while ((ch = page.read()) != -1) {
+            if (!inTag) {
+                if (ch == '<') {
+                    inTag = true;
+                    tag.setLength(0);
+                } else if (inPre || inParagraph) {
+                    text.append((char) ch);
+                }
+
+                continue;
+            }
+
+            if (ch != '>') {
+                tag.append((char) ch);
+                continue;
+            }
+
+            inTag = false;
+            String tagName = getTagName(tag);
+
+            if (!inContent) {
+                // The logs are in the content cell after the navigation cell
+                if (!navCellFound) {
+                    navCellFound = tagName.equals("td") && tag.indexOf("navcell") >= 0;
+                } else if (tagName.equals("/td")) {
+                    inContent = true;
+                }
+
+                continue;
+            }
+
+            if (inParagraph) {
+                // Only the first text of the paragraph can be log type
+                Matcher matcher = LOG_TYPE_PATTERN.matcher(text.toString().trim());
+                if (matcher.matches()) {
+                    logType = matcher.group(1);
+                }
+
+                inParagraph = false;
+            }
+
+            if (tagName.equals("p")) {
+                inParagraph = true;
+                text.setLength(0);
+            } else if (tagName.equals("pre")) {
+                inPre = true;
+                text.setLength(0);
+            } else if (tagName.equals("/pre") && inPre) {
+                lastLogs = StringEscapeUtils.unescapeHtml4(text.toString());
+                inPre = false;
+
+                if (logType != null) {
+                    // Only get the first <pre>...</pre> for the log type
+                    if (logType.equals(type)) {
+                        typedLogs = lastLogs;
+                    }
+
+                    logType = null;
+                }
+            }
+        }
+
+        return typedLogs != null ? typedLogs : lastLogs;
+    }
+
+    @NotNull
+    private static String getTagName(@NotNull CharSequence tag) {
+        int end = 0;
+        while (end < tag.length() && !Character.isWhitespace(tag.charAt(end))) {
+            end++;
+        }
+
+        return tag.subSequence(0, end).toString().toLowerCase(Locale.ROOT);
+    }
+}